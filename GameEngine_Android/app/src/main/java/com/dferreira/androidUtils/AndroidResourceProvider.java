@@ -11,17 +11,20 @@ import com.dferreira.commons.generic_resources.ModelEnum;
 import com.dferreira.commons.generic_resources.TextEnum;
 import com.dferreira.commons.generic_resources.TextureEnum;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.MeshOptimizer;
 import com.dferreira.commons.shapes.IExternalMaterial;
-import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.textures.KtxParser;
+import com.dferreira.commons.utils.ResourceRegistry;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.commons.waveFront.MtlLoader;
 import com.dferreira.commons.waveFront.OBJLoader;
 import com.dferreira.gameEngine.R;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
-import java.util.List;
 
 /**
  * Has the actions to allow to get the resources from in android architecture
@@ -46,8 +49,14 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
      */
     private final Context context;
 
+    /**
+     * Materials already parsed by file of materials
+     */
+    private final ResourceRegistry<HashMap<String, IExternalMaterial>> materialRegistry;
+
     public AndroidResourceProvider(Context context) {
         this.context = context;
+        this.materialRegistry = new ResourceRegistry<>();
     }
 
 
@@ -130,18 +139,21 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
      * @param modelEnum The model to load
      * @return A resource descriptor to load the model passed as argument
      */
-    @SuppressWarnings({"unchecked", "ConstantConditions"})
+    @SuppressWarnings("ConstantConditions")
     @Override
-    public List<IShape> getResource(ModelEnum modelEnum) {
+    public WfMesh getResource(ModelEnum modelEnum) {
         ResourcesCache cache = ResourcesCache.getInstance();
         String cacheKey = MODEL_PREFIX + modelEnum;
-        List<IShape> shape = (List<IShape>) cache.get(cacheKey);
+        WfMesh shape = (WfMesh) cache.get(cacheKey);
         if (shape == null) {
             int resourceId = getResourceId(modelEnum);
             InputStream inputStream = null;
             try {
                 inputStream = context.getResources().openRawResource(resourceId);
-                shape = OBJLoader.loadObjModel(inputStream, this);
+                shape = OBJLoader.loadObjMeshFromBytes(inputStream, this);
+                if (shape != null) {
+                    shape = MeshOptimizer.optimize(shape);
+                }
                 cache.put(cacheKey, shape);
             } catch (Exception e) {
                 Log.e(TAG, "Could not load file!", e);
@@ -178,6 +190,23 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
         return texture;
     }
 
+    /**
+     * @param resourceId Identifier of the raw resource that has the KTX container to load
+     * @return The information of the texture compressed with its levels
+     */
+    private TextureData pGetCompressedTexture(int resourceId) {
+        ResourcesCache cache = ResourcesCache.getInstance();
+        String cacheKey = TEXTURE_PREFIX + resourceId;
+        TextureData texture = (TextureData) cache.get(cacheKey);
+        if (texture == null) {
+            texture = LoadUtils.decodeCompressedTextureFile(this.context, resourceId);
+            cache.put(cacheKey, texture);
+        } else {
+            Log.d(TAG, "Cached: " + cacheKey);
+        }
+        return texture;
+    }
+
     /**
      * @param resourceId Identifier of the resource that has the text to load
      * @return The information of the text to load
@@ -206,6 +235,21 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
         return pGetTexture(resourceId);
     }
 
+    /**
+     * The textures are decoded one after the other (the bitmaps are cached)
+     *
+     * @param textureEnums The textures to load
+     * @return The information of the textures in the same order
+     */
+    @Override
+    public TextureData[] getResources(TextureEnum[] textureEnums) {
+        TextureData[] textures = new TextureData[textureEnums.length];
+        for (int i = 0; i < textureEnums.length; i++) {
+            textures[i] = getResource(textureEnums[i]);
+        }
+        return textures;
+    }
+
     /**
      * @param textEnum The text to load
      * @return The text loaded
@@ -237,13 +281,17 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
 
 
     /**
-     * @param textureFileName Name of the file where the texture it is
+     * @param textureFileName Name of the file where the texture it is (the KTX containers are raw resources)
      * @return The texture data of the file passed
      */
     @Override
     public TextureData getTexture(String textureFileName) {
         if (Utils.isEmpty(textureFileName)) {
             return null;
+        } else if (KtxParser.isKtx(textureFileName)) {
+            String resourceName = textureFileName.substring(0, textureFileName.lastIndexOf('.'));
+            int resourceId = context.getResources().getIdentifier(resourceName, RAW, context.getPackageName());
+            return pGetCompressedTexture(resourceId);
         } else {
             String resourceName = textureFileName.split(PNG_EXTENSION)[0];
             int resourceId = context.getResources().getIdentifier(resourceName, MIPMAP, context.getPackageName());
@@ -251,6 +299,21 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
         }
     }
 
+    /**
+     * The textures are decoded one after the other (the bitmaps are cached)
+     *
+     * @param textureFileNames Names of the files where the textures are
+     * @return The texture data of the files in the same order
+     */
+    @Override
+    public TextureData[] getTextures(String[] textureFileNames) {
+        TextureData[] textures = new TextureData[textureFileNames.length];
+        for (int i = 0; i < textureFileNames.length; i++) {
+            textures[i] = getTexture(textureFileNames[i]);
+        }
+        return textures;
+    }
+
     /**
      * @param materialFileName The name of the file where the materials are
      * @return An hash with information about materials read
@@ -260,11 +323,19 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
         if (Utils.isEmpty(materialFileName)) {
             return null;
         } else {
+            HashMap<String, IExternalMaterial> materials = materialRegistry.acquire(materialFileName);
+            if (materials != null) {
+                return materials;
+            }
             try {
                 String resourceName = materialFileName.split(MTL_PREFIX)[0];
                 int resourceId = context.getResources().getIdentifier(resourceName, RAW, context.getPackageName());
-                InputStream inputStream = context.getResources().openRawResource(resourceId);
-                return MtlLoader.loadMaterials(inputStream);
+                byte[] content = LoadUtils.readBytesFromRawResource(context, resourceId);
+                if (content == null) {
+                    return null;
+                }
+                materials = MtlLoader.loadMaterials(new ByteArrayInputStream(content));
+                return materialRegistry.register(materialFileName, materials, content.length);
             } catch (Exception e) {
                 Log.e(TAG, "Could not load file!");
                 e.printStackTrace();
@@ -273,4 +344,15 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
             }
         }
     }
+
+    /**
+     * The models that share one file of materials share the same instances
+     * so every material is interned by file and name
+     *
+     * @return Registry with the materials already parsed
+     */
+    @Override
+    public ResourceRegistry<HashMap<String, IExternalMaterial>> getMaterialRegistry() {
+        return materialRegistry;
+    }
 }
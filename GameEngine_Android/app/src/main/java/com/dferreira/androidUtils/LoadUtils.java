@@ -5,7 +5,9 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.util.Log;
 
+import com.dferreira.commons.models.CompressedTextureData;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.textures.KtxParser;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -24,6 +26,11 @@ class LoadUtils {
      */
     private final static int NUMBER_OF_COMPONENTS = 4;
 
+    /**
+     * Size of the buffer used to read the containers of the textures
+     */
+    private final static int BUFFER_SIZE = 8192;
+
 
     /**
      * Load texture from resource
@@ -57,6 +64,41 @@ class LoadUtils {
     }
 
 
+    /**
+     * Load texture compressed in blocks from a KTX container in a resource
+     *
+     * @param resourceId id of the resource where the container exists
+     * @return The data of the texture with its levels or null if the container is not supported
+     */
+    static CompressedTextureData decodeCompressedTextureFile(Context context, int resourceId) {
+        byte[] content = readBytesFromRawResource(context, resourceId);
+        return (content == null) ? null : KtxParser.parse(content);
+    }
+
+    /**
+     * Reads all the bytes of a raw resource (the length of the resource is
+     * only known after reading it because it can be stored compressed)
+     *
+     * @param rawResourceId id of the resource to read
+     * @return The bytes of the resource (null if it could not be read)
+     */
+    static byte[] readBytesFromRawResource(Context context, int rawResourceId) {
+        InputStream inputStream = context.getResources().openRawResource(rawResourceId);
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                byteArrayOutputStream.write(buffer, 0, bytesRead);
+            }
+            inputStream.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Read raw resource failed", e);
+            return null;
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
     /**
      * Reads a string from a certain resource
      *
@@ -7,9 +7,12 @@ import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
 import com.dferreira.commons.generic_render.RenderConstants;
 
+import java.nio.Buffer;
+
 /**
  * Contains useful methods when is render on frame using OpenGL
  */
@@ -47,17 +50,17 @@ class GLFrameRender implements IFrameRenderAPI {
 
 
         // Load the vertex data
-        GLES20.glVertexAttribPointer(position.getValue(), RenderConstants.VERTEX_SIZE, GLES20.GL_FLOAT, RenderConstants.VERTEX_NORMALIZED, RenderConstants.STRIDE, rawModel.getVertexBuffer());
+        GLES20.glVertexAttribPointer(position.getValue(), RenderConstants.VERTEX_SIZE, GLES20.GL_FLOAT, RenderConstants.VERTEX_NORMALIZED, rawModel.getStride(), rawModel.getVertexBuffer());
 
         // Load the texture coordinate
         GLES20.glVertexAttribPointer(textureCoords.getValue(), RenderConstants.NUMBER_COMPONENTS_PER_VERTEX_ATTR, GLES20.GL_FLOAT,
                 RenderConstants.VERTEX_NORMALIZED,
-                RenderConstants.STRIDE,
+                rawModel.getStride(),
                 rawModel.getTexCoordinates());
 
 
         // Load the normals data
-        GLES20.glVertexAttribPointer(normal.getValue(), RenderConstants.NUMBER_COMPONENTS_PER_NORMAL_ATTR, GLES20.GL_FLOAT, RenderConstants.VERTEX_NORMALIZED, RenderConstants.STRIDE,
+        GLES20.glVertexAttribPointer(normal.getValue(), RenderConstants.NUMBER_COMPONENTS_PER_NORMAL_ATTR, GLES20.GL_FLOAT, RenderConstants.VERTEX_NORMALIZED, rawModel.getStride(),
                 rawModel.getNormalBuffer());
 
         //Enable the attributes to bind
@@ -196,7 +199,34 @@ class GLFrameRender implements IFrameRenderAPI {
 
         //Specify the indexes
         GLES20.glDrawElements(GLES20.GL_TRIANGLES, rawModel.getNumOfIndexes(),
-                GLES20.GL_UNSIGNED_INT, rawModel.getIndexBuffer());
+                getIndexType(rawModel), rawModel.getIndexBuffer());
+    }
+
+    /**
+     * Draw a range of the indexes of a model as a set of triangles
+     *
+     * @param model       The model to be drawn
+     * @param indexOffset Position of the first index to draw
+     * @param indexCount  Number of indices to draw
+     */
+    @Override
+    public void drawTrianglesIndexes(IRawModel model, int indexOffset, int indexCount) {
+        GLRawModel rawModel = (GLRawModel) model;
+
+        Buffer indexes = rawModel.getIndexBuffer(indexOffset);
+
+        //Specify the indexes
+        GLES20.glDrawElements(GLES20.GL_TRIANGLES, indexCount, getIndexType(rawModel), indexes);
+    }
+
+    /**
+     * @param rawModel The model to be drawn
+     * @return The openGL type of the indices of the model (the indices of
+     * 16 bits do not need the extension of indices of 32 bits of OpenGL ES 2)
+     */
+    private int getIndexType(GLRawModel rawModel) {
+        return (rawModel.getIndexType() == IndexTypeEnum.unsignedShort) ? GLES20.GL_UNSIGNED_SHORT
+                : GLES20.GL_UNSIGNED_INT;
     }
 
     /**
@@ -1,46 +1,89 @@
 package com.dferreira.gameEngine.gl_render;
 
 import android.opengl.GLES20;
+import android.util.Log;
 
 import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.RenderConstants;
+import com.dferreira.commons.generic_render.VertexAttribute;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.generic_render.VertexLayoutEnum;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.CompressedTextureData;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.QuantizedMesh;
+import com.dferreira.commons.shapes.IBufferShape;
 import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.textures.CompressedFormat;
+import com.dferreira.commons.textures.MipmapGenerator;
+import com.dferreira.commons.textures.TextureStreamer;
+import com.dferreira.commons.utils.DirectBufferUtils;
+import com.dferreira.commons.utils.ResourceRegistry;
 import com.dferreira.commons.utils.Utils;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Loader for parts that are specific to openGL
  */
 class GLLoader implements ILoaderRenderAPI {
 
-    @SuppressWarnings("FieldCanBeLocal")
-    private final int INT_IN_BYTES = 4;
+    private final static String TAG = "GLLoader";
 
     @SuppressWarnings("FieldCanBeLocal")
     private final int FLOAT_IN_BYTES = 4;
 
+    /**
+     * Number of bytes of one pixel of the textures (RGBA)
+     */
+    private final int BYTES_BY_PIXEL = 4;
+
+    /**
+     * Suffix of the key of the textures that repeat
+     */
+    private final String REPEAT_SUFFIX = "#repeat";
 
     /**
      * Provider of the resources (highly dependent from the architecture)
      */
     private final IResourceProvider resourceProvider;
 
+    /**
+     * Textures loaded from files shared by all the materials that use them
+     */
+    private final ResourceRegistry<ITexture> textureRegistry;
+
+    /**
+     * Streamer of the levels of the textures
+     */
+    private final TextureStreamer textureStreamer;
+
+    /**
+     * Internal formats of the compressed textures that the driver supports (read in the first use)
+     */
+    private Set<Integer> compressedFormats;
+
     /**
      * Constructor of the loader GL
      */
     GLLoader(IResourceProvider resourceProvider) {
         this.resourceProvider = resourceProvider;
+        this.textureRegistry = new ResourceRegistry<>();
+        this.textureStreamer = new TextureStreamer(this);
     }
 
 
@@ -51,9 +94,22 @@ class GLLoader implements ILoaderRenderAPI {
      * @param wrapParam Parameter used in the wrap filters
      */
     private void defineTextureFunctionFilters(int target, int wrapParam) {
+        defineTextureFunctionFilters(target, wrapParam, false);
+    }
+
+    /**
+     * When loads one texture defines that by default should zoom in/out it,
+     * the textures with mipmaps are sampled with trilinear filtering
+     *
+     * @param target    The target of the filter
+     * @param wrapParam Parameter used in the wrap filters
+     * @param mipmapped Indicates that the texture has mipmaps
+     */
+    private void defineTextureFunctionFilters(int target, int wrapParam, boolean mipmapped) {
 
         //The texture minify function is used whenever the pixel being textured maps to an area greater than one texture element
-        GLES20.glTexParameteri(target, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(target, GLES20.GL_TEXTURE_MIN_FILTER,
+                mipmapped ? GLES20.GL_LINEAR_MIPMAP_LINEAR : GLES20.GL_LINEAR);
 
         //The texture magnification function is used when the pixel being textured maps to an area less than or equal to one texture element
         GLES20.glTexParameteri(target, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
@@ -82,6 +138,11 @@ class GLLoader implements ILoaderRenderAPI {
      * @return Id from the texture that was bounded in openGL
      */
     private ITexture pLoadTexture(TextureData textureData, boolean repeat) {
+        if (textureData instanceof CompressedTextureData) {
+            return pLoadCompressedTexture((CompressedTextureData) textureData, repeat);
+        }
+        // The chain is kept with the texture data cached so it is built once
+        TextureData[] mipmaps = MipmapGenerator.attach(textureData, 0.0f).getMipmaps();
 
         int[] textureId = new int[1];
         GLES20.glGenTextures(1, textureId, 0);
@@ -89,9 +150,55 @@ class GLLoader implements ILoaderRenderAPI {
 
         GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
                 GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, textureData.getBuffer());
+        for (int level = 0; level < mipmaps.length; level++) {
+            TextureData mipmap = mipmaps[level];
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, level + 1, GLES20.GL_RGBA, mipmap.getWidth(),
+                    mipmap.getHeight(), 0, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, mipmap.getBuffer());
+        }
+
+        defineTextureFunctionFilters(GLES20.GL_TEXTURE_2D, getWrapFilters(repeat), mipmaps.length > 0);
+
+        GLTexture texture = new GLTexture();
+        texture.setId(textureId[0]);
+
+        return texture;
+    }
+
+    /**
+     * Load a texture compressed in blocks in openGLES with the levels of its
+     * container (the blocks are uploaded as they are)
+     *
+     * @param textureData The blocks of the texture with its levels
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return Id from the texture that was bounded in openGL (null if the format is not supported)
+     */
+    private ITexture pLoadCompressedTexture(CompressedTextureData textureData, boolean repeat) {
+        CompressedFormat format = textureData.getFormat();
+        if (!isCompressedFormatSupported(format)) {
+            Log.e(TAG, "The compressed format " + format + " is not supported by the driver");
+            return null;
+        }
+        TextureData[] mipmaps = (textureData.getMipmaps() == null) ? new TextureData[0] : textureData.getMipmaps();
 
+        int[] textureId = new int[1];
+        GLES20.glGenTextures(1, textureId, 0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureId[0]);
 
-        defineTextureFunctionFilters(GLES20.GL_TEXTURE_2D, getWrapFilters(repeat));
+        GLES20.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, 0, format.getGLInternalFormat(), textureData.getWidth(),
+                textureData.getHeight(), 0, textureData.getBuffer().remaining(), textureData.getBuffer());
+        for (int level = 0; level < mipmaps.length; level++) {
+            TextureData mipmap = mipmaps[level];
+            GLES20.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, level + 1, format.getGLInternalFormat(),
+                    mipmap.getWidth(), mipmap.getHeight(), 0, mipmap.getBuffer().remaining(), mipmap.getBuffer());
+        }
+
+        // Without a maximum level in OpenGL ES 2.0 only the complete chains can be sampled with mipmaps
+        int fullChain = 0;
+        for (int size = Math.max(textureData.getWidth(), textureData.getHeight()); size > 1; size /= 2) {
+            fullChain++;
+        }
+        defineTextureFunctionFilters(GLES20.GL_TEXTURE_2D, getWrapFilters(repeat),
+                (mipmaps.length > 0) && (mipmaps.length == fullChain));
 
         GLTexture texture = new GLTexture();
         texture.setId(textureId[0]);
@@ -99,6 +206,28 @@ class GLLoader implements ILoaderRenderAPI {
         return texture;
     }
 
+    /**
+     * The formats are the ones that the driver lists as compressed formats
+     * of textures
+     *
+     * @param format Format of the blocks of a compressed texture
+     * @return True if the driver uploads the textures in the format as they are
+     */
+    @Override
+    public boolean isCompressedFormatSupported(CompressedFormat format) {
+        if (compressedFormats == null) {
+            compressedFormats = new HashSet<>();
+            int[] count = new int[1];
+            GLES20.glGetIntegerv(GLES20.GL_NUM_COMPRESSED_TEXTURE_FORMATS, count, 0);
+            int[] formats = new int[Math.max(1, count[0])];
+            GLES20.glGetIntegerv(GLES20.GL_COMPRESSED_TEXTURE_FORMATS, formats, 0);
+            for (int i = 0; i < count[0]; i++) {
+                compressedFormats.add(formats[i]);
+            }
+        }
+        return compressedFormats.contains(format.getGLInternalFormat());
+    }
+
     /**
      * Load texture from resource
      *
@@ -113,18 +242,144 @@ class GLLoader implements ILoaderRenderAPI {
     }
 
     /**
-     * Load texture from resource located in the mipmap folder
+     * @param textureFileName The name of the file of the texture
+     * @param repeat          Indicate that should repeat the texture
+     * @return Key of the texture in the registry (the wrap mode is part of the texture)
+     */
+    private String getTextureKey(String textureFileName, boolean repeat) {
+        return repeat ? textureFileName + REPEAT_SUFFIX : textureFileName;
+    }
+
+    /**
+     * Load texture from resource located in the mipmap folder, the textures
+     * already loaded are shared instead of decoded and uploaded again
      *
      * @param textureFileName The name of the texture where the texture exists
-     * @param repeat          Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @param repeat          Indicate that should repeat the texture if the polygon surpass
+     *                        the size of texture
      * @return Id from the texture that was bounded in openGL
      */
     @Override
     public ITexture loadTexture(String textureFileName, boolean repeat) {
-        TextureData textureData = this.resourceProvider.getTexture(textureFileName);
+        ITexture texture = textureRegistry.acquire(getTextureKey(textureFileName, repeat));
+        if (texture != null) {
+            return texture;
+        }
+        return registerTexture(textureFileName, this.resourceProvider.getTexture(textureFileName), repeat);
+    }
+
+    /**
+     * Load a texture already decoded in openGL
+     *
+     * @param textureData The data of the texture to load
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass
+     *                    the size of texture
+     * @return Id from the texture that was bounded in openGL
+     */
+    @Override
+    public ITexture loadTexture(TextureData textureData, boolean repeat) {
         return pLoadTexture(textureData, repeat);
     }
 
+    /**
+     * Load a texture of a file already decoded (in the workers of the
+     * loading pipeline), the textures already loaded are shared
+     *
+     * @param textureFileName The name of the file of the texture
+     * @param textureData     The data of the texture decoded from the file
+     * @param repeat          Indicate that should repeat the texture if the polygon surpass
+     *                        the size of texture
+     * @return Id from the texture that was bounded in openGL
+     */
+    @Override
+    public ITexture loadTexture(String textureFileName, TextureData textureData, boolean repeat) {
+        ITexture texture = textureRegistry.acquire(getTextureKey(textureFileName, repeat));
+        if (texture != null) {
+            return texture;
+        }
+        return registerTexture(textureFileName, textureData, repeat);
+    }
+
+    /**
+     * Uploads the texture of a file and registers it to be shared
+     *
+     * @param textureFileName The name of the file of the texture
+     * @param textureData     The data of the texture decoded from the file
+     * @param repeat          Indicate that should repeat the texture
+     * @return Id from the texture that was bounded in openGL (null if there is no data)
+     */
+    private ITexture registerTexture(String textureFileName, TextureData textureData, boolean repeat) {
+        if (textureData == null) {
+            return null;
+        }
+        ITexture texture = pLoadTexture(textureData, repeat);
+        if (texture == null) {
+            return null;
+        }
+        int bytes = (textureData instanceof CompressedTextureData)
+                ? ((CompressedTextureData) textureData).getByteCount()
+                : textureData.getWidth() * textureData.getHeight() * BYTES_BY_PIXEL;
+        return textureRegistry.register(getTextureKey(textureFileName, repeat), texture, bytes);
+    }
+
+    /**
+     * Uploads the levels in a new texture of openGL and deletes the previous
+     * one (the levels of one texture can not change their sizes)
+     *
+     * @param texture     The texture loaded
+     * @param textureData The data of the texture with the levels to upload
+     * @param repeat      The same value used to load the texture
+     */
+    @Override
+    public void reloadTexture(ITexture texture, TextureData textureData, boolean repeat) {
+        ITexture reloaded = pLoadTexture(textureData, repeat);
+        if (reloaded == null) {
+            return;
+        }
+        GLTexture glTexture = (GLTexture) texture;
+        deleteTexture(glTexture.getId());
+        glTexture.setId(((GLTexture) reloaded).getId());
+    }
+
+    /**
+     * @return Streamer that uploads the levels of the textures by demand
+     */
+    @Override
+    public TextureStreamer getTextureStreamer() {
+        return textureStreamer;
+    }
+
+    /**
+     * Releases one reference to a texture loaded from a file
+     *
+     * @param textureFileName The name of the file of the texture
+     * @param repeat          The same value used to load the texture
+     */
+    @Override
+    public void releaseTexture(String textureFileName, boolean repeat) {
+        ITexture texture = textureRegistry.release(getTextureKey(textureFileName, repeat));
+        if (texture != null) {
+            deleteTexture(((GLTexture) texture).getId());
+        }
+    }
+
+    /**
+     * @return Registry of the textures loaded from files with the statistics of reuse
+     */
+    @Override
+    public ResourceRegistry<ITexture> getTextureRegistry() {
+        return textureRegistry;
+    }
+
+    /**
+     * Deletes one texture from openGL
+     *
+     * @param textureId Identifier of the texture
+     */
+    private void deleteTexture(int textureId) {
+        GLES20.glDeleteTextures(1, new int[]{textureId}, 0);
+    }
+
     /**
      * Loads the data of a texture without bind
      *
@@ -145,6 +400,25 @@ class GLLoader implements ILoaderRenderAPI {
      */
     @Override
     public ITexture loadTCubeMap(TextureEnum[] textures, boolean repeat) {
+        if (Utils.isEmpty(textures)) {
+            return null;
+        }
+        TextureData[] texturesData = resourceProvider.getResources(textures);
+        ITexture texture = loadTCubeMap(texturesData, repeat);
+        TextureData.release(texturesData);
+        return texture;
+    }
+
+    /**
+     * Loads a cubic texture already decoded
+     *
+     * @param textures The images of the cube already decoded
+     * @param repeat   Indicate that should repeat the texture if the polygon surpass
+     *                 the size of texture
+     * @return Identifier of the texture cubic texture loaded
+     */
+    @Override
+    public ITexture loadTCubeMap(TextureData[] textures, boolean repeat) {
         if (Utils.isEmpty(textures)) {
             return null;
         } else {
@@ -159,9 +433,7 @@ class GLLoader implements ILoaderRenderAPI {
             GLES20.glBindTexture(GLES20.GL_TEXTURE_CUBE_MAP, textureId[0]);
 
             for (int i = 0; i < cubicTextureTargets.length; i++) {
-                TextureEnum texture = textures[i];
-
-                TextureData textureData = resourceProvider.getResource(texture);
+                TextureData textureData = textures[i];
                 if (textureData == null) {
                     return null;
                 } else {
@@ -183,23 +455,156 @@ class GLLoader implements ILoaderRenderAPI {
     /**
      * Load from a shape to one equivalent IRawModel
      *
-     * @param shape      The shape to load
-     * @param attributes Map of attributes associated with the model
+     * @param shape  The shape to load
+     * @param format Layout of the vertices and locations of their attributes
      * @return A raw model with information loaded
      */
     @Override
-    public IRawModel loadToRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes) {
-        float[] positions = shape.getVertices();
-        float[] textureCoordinates = shape.getTextureCoords();
-        float[] normals = shape.getNormals();
-        int[] indices = shape.getIndices();
+    public IRawModel loadToRawModel(IShape shape, VertexFormat format) {
+        return loadToRawModel(FloatBuffer.wrap(shape.getVertices()), FloatBuffer.wrap(shape.getTextureCoords()),
+                FloatBuffer.wrap(shape.getNormals()), IntBuffer.wrap(shape.getIndices()), format);
+    }
 
-        FloatBuffer vertexBuffer = storeDataInFloatBuffer(positions);
-        IntBuffer indexBuffer = storeDataInIntBuffer(indices);
-        FloatBuffer normalBuffer = storeDataInFloatBuffer(normals);
-        FloatBuffer texCoordinatesBuffer = storeDataInFloatBuffer(textureCoordinates);
+    /**
+     * Load from a shape backed by buffers to one equivalent IRawModel, the
+     * direct buffers are used by the model without an intermediate copy
+     *
+     * @param shape  The shape to load
+     * @param format Layout of the vertices and locations of their attributes
+     * @return A raw model with information loaded
+     */
+    @Override
+    public IRawModel loadToRawModel(IBufferShape shape, VertexFormat format) {
+        return loadToRawModel(shape.getVerticesBuffer(), shape.getTextureCoordsBuffer(), shape.getNormalsBuffer(),
+                shape.getIndicesBuffer(), format);
+    }
 
-        return new GLRawModel(vertexBuffer, indexBuffer, indices.length, normalBuffer, texCoordinatesBuffer, attributes);
+    /**
+     * Load the buffers of one shape to one equivalent IRawModel, with the
+     * interleaved layout the buffers of the attributes are views of one buffer
+     * with all the attributes of every vertex
+     *
+     * @param positions Positions of the vertices
+     * @param textures  Coordinates of the textures
+     * @param normals   Normal vectors
+     * @param indices   Indices of the triangles
+     * @param format    Layout of the vertices and locations of their attributes
+     * @return A raw model with information loaded
+     */
+    private IRawModel loadToRawModel(FloatBuffer positions, FloatBuffer textures, FloatBuffer normals,
+                                     IntBuffer indices, VertexFormat format) {
+        IndexTypeEnum indexType = IndexTypeEnum.forVertexCount(positions.remaining() / RenderConstants.VERTEX_SIZE);
+        int numOfIndexes = indices.remaining();
+        Buffer indexBuffer = (indexType == IndexTypeEnum.unsignedShort) ? DirectBufferUtils.toShortBuffer(indices)
+                : toDirectBuffer(indices);
+
+        FloatBuffer vertexBuffer = null;
+        FloatBuffer texCoordinatesBuffer = null;
+        FloatBuffer normalBuffer = null;
+        if (format.getLayout() == VertexLayoutEnum.separate) {
+            vertexBuffer = toDirectBuffer(positions);
+            texCoordinatesBuffer = toDirectBuffer(textures);
+            normalBuffer = toDirectBuffer(normals);
+        } else {
+            List<VertexAttribute> attributes = format.getAttributes();
+            FloatBuffer[] sources = new FloatBuffer[attributes.size()];
+            for (int i = 0; i < sources.length; i++) {
+                switch (attributes.get(i).getSemantic()) {
+                    case position:
+                        sources[i] = positions;
+                        break;
+                    case textureCoords:
+                        sources[i] = textures;
+                        break;
+                    case normal:
+                        sources[i] = normals;
+                        break;
+                }
+            }
+            FloatBuffer interleaved = format.interleave(sources);
+            for (VertexAttribute attribute : attributes) {
+                switch (attribute.getSemantic()) {
+                    case position:
+                        vertexBuffer = getAttributeView(interleaved, attribute);
+                        break;
+                    case textureCoords:
+                        texCoordinatesBuffer = getAttributeView(interleaved, attribute);
+                        break;
+                    case normal:
+                        normalBuffer = getAttributeView(interleaved, attribute);
+                        break;
+                }
+            }
+        }
+
+        return new GLRawModel(vertexBuffer, indexBuffer, indexType, numOfIndexes, normalBuffer, texCoordinatesBuffer,
+                format.getStride(), format.getLocations());
+    }
+
+    /**
+     * @param interleaved Buffer with all the attributes of every vertex
+     * @param attribute   The attribute to view
+     * @return One view of the buffer that starts in the first value of the attribute
+     */
+    private FloatBuffer getAttributeView(FloatBuffer interleaved, VertexAttribute attribute) {
+        FloatBuffer view = interleaved.duplicate();
+        view.position(attribute.getOffset() / FLOAT_IN_BYTES);
+        return view.slice();
+    }
+
+    /**
+     * @param buffer Buffer that is going to be used by the model
+     * @return The same buffer if it is direct otherwise a direct copy of it
+     */
+    private FloatBuffer toDirectBuffer(FloatBuffer buffer) {
+        if (buffer.isDirect()) {
+            return buffer.duplicate();
+        }
+        FloatBuffer directBuffer = DirectBufferUtils.createFloatBuffer(buffer.remaining());
+        directBuffer.put(buffer.duplicate());
+        directBuffer.flip();
+        return directBuffer;
+    }
+
+    /**
+     * @param buffer Buffer that is going to be used by the model
+     * @return The same buffer if it is direct otherwise a direct copy of it
+     */
+    private IntBuffer toDirectBuffer(IntBuffer buffer) {
+        if (buffer.isDirect()) {
+            return buffer.duplicate();
+        }
+        IntBuffer directBuffer = DirectBufferUtils.createIntBuffer(buffer.remaining());
+        directBuffer.put(buffer.duplicate());
+        directBuffer.flip();
+        return directBuffer;
+    }
+
+    /**
+     * OpenGL ES 2.0 does not have half floats in the core attributes so the
+     * quantized format is not supported (the meshes are loaded as floats)
+     *
+     * @param mesh The quantized mesh to load
+     * @return Null
+     */
+    @Override
+    public IRawModel loadToRawModel(QuantizedMesh mesh) {
+        Log.e(TAG, "Quantized vertices are not supported in OpenGL ES 2.0");
+        return null;
+    }
+
+    /**
+     * Creates a raw model that shares the buffers of one model already loaded
+     * but only draws a range of its indices
+     *
+     * @param model       The model loaded that has the buffers
+     * @param indexOffset Position of the first index to draw
+     * @param indexCount  Number of indices to draw
+     * @return The raw model of the range
+     */
+    @Override
+    public IRawModel loadSubRawModel(IRawModel model, int indexOffset, int indexCount) {
+        return new GLRawModel((GLRawModel) model, indexOffset, indexCount);
     }
 
     /**
@@ -241,22 +646,6 @@ class GLLoader implements ILoaderRenderAPI {
         return loadPositionsToRawModel(positions, dimensions, attributes);
     }
 
-    /**
-     * Convert on array of Integers in a buffer of Integers that can be used in
-     * openGL
-     *
-     * @param data array with data to put in the Integer Buffer the integer
-     *             buffer created
-     * @return The integer buffer created
-     */
-    private IntBuffer storeDataInIntBuffer(int[] data) {
-        IntBuffer sBuffer = ByteBuffer.allocateDirect(data.length * INT_IN_BYTES)
-                .order(ByteOrder.nativeOrder()).asIntBuffer();
-        sBuffer.put(data).position(0);
-        return sBuffer;
-    }
-
-
     /**
      * Convert on array of Floats in a buffer of Floats that can be used in
      * openGL
@@ -288,6 +677,6 @@ class GLLoader implements ILoaderRenderAPI {
      */
     @Override
     public void dispose() {
-
+        this.textureRegistry.clear();
     }
 }
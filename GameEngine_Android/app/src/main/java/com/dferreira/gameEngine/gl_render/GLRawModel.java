@@ -2,10 +2,13 @@ package com.dferreira.gameEngine.gl_render;
 
 import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
 
+import java.nio.Buffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.HashMap;
 
 /**
@@ -27,8 +30,14 @@ public class GLRawModel implements IRawModel {
 
     /**
      * Buffer that supports the indexes of the object
+     * (one IntBuffer or one ShortBuffer according to the type of the indices)
      */
-    private final IntBuffer indexBuffer;
+    private final Buffer indexBuffer;
+
+    /**
+     * Type of the indices of the index buffer
+     */
+    private final IndexTypeEnum indexType;
 
     /**
      * Buffer that supports the coordinates of the textures of the object
@@ -40,6 +49,12 @@ public class GLRawModel implements IRawModel {
      */
     private final FloatBuffer normalBuffer;
 
+    /**
+     * Bytes between two consecutive vertices (0 when every attribute has its
+     * own buffer, otherwise the buffers are views of one interleaved buffer)
+     */
+    private final int stride;
+
     /**
      * Number of indices of the row model
      */
@@ -55,17 +70,21 @@ public class GLRawModel implements IRawModel {
      *
      * @param vertexBuffer   Buffer that describes the position of the vertices
      * @param indexBuffer    Buffer that describes which vertices will be used
+     * @param indexType      Type of the indices of the index buffer
      * @param normalBuffer   Buffer that describes which normal will be user
      * @param texCoordinates Coordinates of the textures in the model
+     * @param stride         Bytes between two consecutive vertices
      * @param attributes     List of attributes associated with the model
      */
-    public GLRawModel(FloatBuffer vertexBuffer, IntBuffer indexBuffer, int numOfIndexes, FloatBuffer normalBuffer, FloatBuffer texCoordinates, HashMap<RenderAttributeEnum, IEnum> attributes) {
+    public GLRawModel(FloatBuffer vertexBuffer, Buffer indexBuffer, IndexTypeEnum indexType, int numOfIndexes, FloatBuffer normalBuffer, FloatBuffer texCoordinates, int stride, HashMap<RenderAttributeEnum, IEnum> attributes) {
         super();
         this.vertexBuffer = vertexBuffer;
         this.vertexCount = 0;
         this.indexBuffer = indexBuffer;
+        this.indexType = indexType;
         this.texCoordinates = texCoordinates;
         this.normalBuffer = normalBuffer;
+        this.stride = stride;
         this.numOfIndexes = numOfIndexes;
         this.attributes = attributes;
     }
@@ -80,12 +99,34 @@ public class GLRawModel implements IRawModel {
         this.vertexBuffer = vertexBuffer;
         this.vertexCount = vertexCount;
         this.indexBuffer = null;
+        this.indexType = null;
         this.normalBuffer = null;
         this.texCoordinates = null;
+        this.stride = 0;
         this.numOfIndexes = 0;
         this.attributes = attributes;
     }
 
+    /**
+     * Constructor of a raw model that shares the buffers of other model but
+     * only uses a range of its indices
+     *
+     * @param model        The model that has the buffers
+     * @param indexOffset  Position of the first index to use
+     * @param numOfIndexes Number of indices to use
+     */
+    public GLRawModel(GLRawModel model, int indexOffset, int numOfIndexes) {
+        this.vertexBuffer = model.vertexBuffer;
+        this.vertexCount = model.vertexCount;
+        this.indexBuffer = model.getIndexBuffer(indexOffset);
+        this.indexType = model.indexType;
+        this.normalBuffer = model.normalBuffer;
+        this.texCoordinates = model.texCoordinates;
+        this.stride = model.stride;
+        this.numOfIndexes = numOfIndexes;
+        this.attributes = model.attributes;
+    }
+
     /**
      * @return The buffer that describes the positions of the vertices
      */
@@ -97,10 +138,33 @@ public class GLRawModel implements IRawModel {
      * @return The buffer that describes the vertices that are going to be used to render the
      * model
      */
-    public IntBuffer getIndexBuffer() {
+    public Buffer getIndexBuffer() {
         return indexBuffer;
     }
 
+    /**
+     * @param indexOffset Position of the first index
+     * @return One view of the index buffer that starts in the position passed
+     */
+    public Buffer getIndexBuffer(int indexOffset) {
+        if (indexType == IndexTypeEnum.unsignedShort) {
+            ShortBuffer range = ((ShortBuffer) indexBuffer).duplicate();
+            range.position(indexOffset);
+            return range.slice();
+        } else {
+            IntBuffer range = ((IntBuffer) indexBuffer).duplicate();
+            range.position(indexOffset);
+            return range.slice();
+        }
+    }
+
+    /**
+     * @return Type of the indices of the index buffer
+     */
+    public IndexTypeEnum getIndexType() {
+        return indexType;
+    }
+
     /**
      * @return the number of indexes
      */
@@ -123,6 +187,13 @@ public class GLRawModel implements IRawModel {
     }
 
 
+    /**
+     * @return Bytes between two consecutive vertices
+     */
+    public int getStride() {
+        return stride;
+    }
+
     /**
      * @return the number of vertex
      */
@@ -1,9 +1,7 @@
 package com.dferreira.gameEngine.modelGenerators;
 
 import com.dferreira.commons.generic_resources.ModelEnum;
-import com.dferreira.commons.shapes.IShape;
-
-import java.util.List;
+import com.dferreira.commons.shapes.WfMesh;
 
 /**
  * Define the default properties that the element should obey
@@ -19,7 +17,7 @@ public class DefaultModelGenerator {
     /**
      * The name of the .obj that represents the model
      */
-    private List<IShape> objectReference;
+    private WfMesh objectReference;
 
 
     /**
@@ -56,7 +54,7 @@ public class DefaultModelGenerator {
     /**
      * @return The reference to the object that represents the model
      */
-    public List<IShape> getObjectReference() {
+    public WfMesh getObjectReference() {
         return objectReference;
     }
 
@@ -65,7 +63,7 @@ public class DefaultModelGenerator {
      *
      * @param objectReference reference to the object to set
      */
-    public void setObjectReference(List<IShape> objectReference) {
+    public void setObjectReference(WfMesh objectReference) {
         this.objectReference = objectReference;
     }
 
@@ -5,7 +5,11 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
-import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.generic_render.RenderConstants;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.optimizer.LodChain;
+import com.dferreira.commons.optimizer.LodLevel;
+import com.dferreira.commons.shapes.SubMesh;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
 import com.dferreira.gameEngine.models.complexEntities.Material;
@@ -25,15 +29,17 @@ class GenericEntitiesGenerator {
 
 
     /**
-     * Load a textured model
+     * Load a textured model, the vertices of the model are uploaded once and
+     * every group of the model draws a range of the shared indices in each
+     * level of detail
      *
      * @param loader            the loader of the texture
-     * @param shapes            List of shapes that make the model
+     * @param lodChain          Levels of detail of the mesh with one sub mesh by group of the model
      * @param hasTransparency   Flag that indicates if has transparency or not
      * @param normalsPointingUp Indicates that all the normals of the object are pointing up
      * @return the textured model loaded
      */
-    static HashMap<String, MaterialGroup> getTexturedObj(Loader loader, ILoaderRenderAPI loaderAPI, List<IShape> shapes,
+    static HashMap<String, MaterialGroup> getTexturedObj(Loader loader, ILoaderRenderAPI loaderAPI, LodChain lodChain,
                                                          boolean hasTransparency, boolean normalsPointingUp) {
         HashMap<String, MaterialGroup> groupsOfMaterials = new HashMap<>();
 
@@ -43,19 +49,32 @@ class GenericEntitiesGenerator {
         attributes.put(RenderAttributeEnum.textureCoords, TEntityAttribute.textureCoords);
         attributes.put(RenderAttributeEnum.normal, TEntityAttribute.normal);
 
-        for (IShape shape : shapes) {
-            IRawModel model = loaderAPI.loadToRawModel(shape, attributes);
-            Material material = loader.loadMaterial(shape.getMaterial());
+        VertexFormat format = VertexFormat.positionTextureNormal(RenderConstants.VERTEX_LAYOUT, attributes);
+        IRawModel meshModel = loaderAPI.loadToRawModel(lodChain.getMesh(), format);
+        List<SubMesh> subMeshes = lodChain.getMesh().getSubMeshes();
+        for (int i = 0; i < subMeshes.size(); i++) {
+            SubMesh subMesh = subMeshes.get(i);
+            // The same sub mesh in every level of detail
+            List<IRawModel> lodModels = new ArrayList<>(lodChain.getLevels().size());
+            for (LodLevel level : lodChain.getLevels()) {
+                SubMesh lodSubMesh = level.getSubMeshes().get(i);
+                lodModels.add(loaderAPI.loadSubRawModel(meshModel, lodSubMesh.getIndexOffset(),
+                        lodSubMesh.getIndexCount()));
+            }
+            Material material = loader.loadMaterial(subMesh.getMaterial());
             material.setShineDamper(10.0f);
             material.setReflectivity(1.0f);
             material.setHasTransparency(hasTransparency);
             material.setNormalsPointingUp(normalsPointingUp);
-            RawModelMaterial texturedModel = new RawModelMaterial(model, material);
+            RawModelMaterial texturedModel = new RawModelMaterial(lodModels, material);
 
-            List<RawModelMaterial> materials = new ArrayList<>();
-            materials.add(texturedModel);
-            MaterialGroup materialGroup = new MaterialGroup(materials);
-            groupsOfMaterials.put(shape.getGroupName(), materialGroup);
+            // One group can have sub meshes with different materials
+            MaterialGroup materialGroup = groupsOfMaterials.get(subMesh.getGroupName());
+            if (materialGroup == null) {
+                materialGroup = new MaterialGroup(new ArrayList<RawModelMaterial>());
+                groupsOfMaterials.put(subMesh.getGroupName(), materialGroup);
+            }
+            materialGroup.getMaterials().add(texturedModel);
         }
 
         return groupsOfMaterials;
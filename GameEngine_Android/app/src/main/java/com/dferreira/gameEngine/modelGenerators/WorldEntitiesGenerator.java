@@ -1,9 +1,12 @@
 package com.dferreira.gameEngine.modelGenerators;
 
+import com.dferreira.commons.TransformStore;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.optimizer.LodChain;
+import com.dferreira.commons.optimizer.MeshSimplifier;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.gameEngine.models.Terrain;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
@@ -26,15 +29,19 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
     private final static int NUMBER_OF_FLOWERS = 20;
     private final static int NUMBER_OF_MARBLES = 10;
 
+    /* Maximum number of levels of detail of every model (including the full detail) */
+    private final static int LOD_LEVELS = 4;
+
     /**
      * Get one entity in a certain position
      *
-     * @param genericEntity Generic entity
-     * @param position      Position where is to put the entity in the 3D world
+     * @param transformStore Store of the scene where the transformation of the entity is kept
+     * @param genericEntity  Generic entity
+     * @param position       Position where is to put the entity in the 3D world
      * @return the entity to render
      */
-    private static Entity getEntity(GenericEntity genericEntity, Vector3f position) {
-        return new Entity(genericEntity,
+    private static Entity getEntity(TransformStore transformStore, GenericEntity genericEntity, Vector3f position) {
+        return new Entity(transformStore, genericEntity,
                 position,
                 0.0f, 0.0f, 0.0f,    //Rotation
                 0.0f    //Scale
@@ -114,12 +121,13 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
     /**
      * @param loader    loader that will load the entities of the 3D world
      * @param loaderAPI loader that will load the entities of the 3D world
+     * @param transformStore Store of the scene where the transformations of the entities are kept
      * @param resourceProvider  Provider of the resources used in the application
      * @param terrain   The terrain used to determine the height position
      *
      * @return The entities that will compose the 3D world
      */
-    public static Entity[] getEntities(Loader loader, ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider, Terrain terrain) {
+    public static Entity[] getEntities(Loader loader, ILoaderRenderAPI loaderAPI, TransformStore transformStore, IResourceProvider resourceProvider, Terrain terrain) {
 
         HashMap<DefaultModelGenerator, Integer> entitiesMap = getEntitiesMap(resourceProvider);
 
@@ -132,9 +140,10 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
         Random random = new Random();
         int count = 0;
         for (DefaultModelGenerator key : entitiesMap.keySet()) {
-            HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI, key.getObjectReference(),
+            LodChain lodChain = MeshSimplifier.buildLodChain(key.getObjectReference(), LOD_LEVELS);
+            HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI, lodChain,
                     key.getHasTransparency(), key.getNormalsPointingUp());
-            GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, key.getObjectType());
+            GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, key.getObjectType(), lodChain);
             //Prepare generic entity end
             Integer numberOfEntities = entitiesMap.get(key);
             for (int i = 0; i < numberOfEntities; i++) {
@@ -143,7 +152,7 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
                 float yPosition = terrain.getHeightOfTerrain(xPosition, zPosition);
 
                 Vector3f entityPosition = new Vector3f(xPosition, yPosition, zPosition);
-                Entity entity = getEntity(genericEntity, entityPosition);
+                Entity entity = getEntity(transformStore, genericEntity, entityPosition);
                 entity.setScale(key.getScale() * random.nextFloat());
                 entities[count] = entity;
                 ++count;
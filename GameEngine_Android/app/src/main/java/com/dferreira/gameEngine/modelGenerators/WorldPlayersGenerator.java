@@ -1,9 +1,11 @@
 package com.dferreira.gameEngine.modelGenerators;
 
+import com.dferreira.commons.TransformStore;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.optimizer.LodChain;
 import com.dferreira.gameEngine.models.Player;
 import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
 import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
@@ -36,10 +38,11 @@ public class WorldPlayersGenerator extends GenericEntitiesGenerator {
 
     /**
      * @param loader loader that will load the entities of the 3D world
+     * @param transformStore Store of the scene where the transformation of the player is kept
      * @return The player_mtl that is going to be used in the scene
      */
     @SuppressWarnings("UnnecessaryLocalVariable")
-    public static Player getPlayer(Loader loader, ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider) {
+    public static Player getPlayer(Loader loader, ILoaderRenderAPI loaderAPI, TransformStore transformStore, IResourceProvider resourceProvider) {
         DefaultModelGenerator model = getPlayerModel(resourceProvider);
 
         float xPosition = 20.0f;
@@ -49,11 +52,13 @@ public class WorldPlayersGenerator extends GenericEntitiesGenerator {
         Vector3f playerPosition = new Vector3f(xPosition, yPosition, zPosition);
 
         //Load the obj of the player
-        HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI, model.getObjectReference(),
+        // The player is always close to the camera so only has the full detail
+        LodChain lodChain = new LodChain(model.getObjectReference());
+        HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI, lodChain,
                 model.getHasTransparency(), model.getNormalsPointingUp());
-        GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, model.getObjectType());
+        GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, model.getObjectType(), lodChain);
         //Prepare generic entity end
-        Player player = new Player(genericEntity, playerPosition, // Position
+        Player player = new Player(transformStore, genericEntity, playerPosition, // Position
                 0.0f, 0.0f, 0.0f, // Rotation
                 model.getScale() // Scale
         );
@@ -6,6 +6,8 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.RenderConstants;
+import com.dferreira.commons.generic_render.VertexFormat;
 import com.dferreira.commons.generic_resources.TextureEnum;
 import com.dferreira.commons.models.TextureData;
 import com.dferreira.gameEngine.models.Terrain;
@@ -73,7 +75,8 @@ public class WorldTerrainsGenerator {
         attributes.put(RenderAttributeEnum.normal, TTerrainAttribute.normal);
 
 
-        IRawModel model = loaderRenderAPI.loadToRawModel(terrain, attributes);
+        VertexFormat format = VertexFormat.positionTextureNormal(RenderConstants.VERTEX_LAYOUT, attributes);
+        IRawModel model = loaderRenderAPI.loadToRawModel(terrain, format);
 
         Vector3f terrainPosition1 = new Vector3f(0.0f, 0.0f, -0.1f);
         return getTerrain(model, terrain.getHeights(), terrainPosition1);
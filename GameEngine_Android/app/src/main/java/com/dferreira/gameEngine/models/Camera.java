@@ -1,5 +1,6 @@
 package com.dferreira.gameEngine.models;
 
+import com.dferreira.commons.Quaternion;
 import com.dferreira.commons.Vector3f;
 
 /**
@@ -29,11 +30,24 @@ public class Camera {
     @SuppressWarnings("unused")
     private float roll;
 
+    /**
+     * Rotation of the view, the product of the yaw by the pitch (the same as
+     * rotating by the pitch and then by the yaw), updated when they are set
+     */
+    private final Quaternion orientation;
+
+    /**
+     * Rotation of the yaw while the orientation is updated
+     */
+    private final Quaternion yawRotation;
+
     /**
      * Initializer of the camera of the scene
      */
     Camera() {
         this.position = new Vector3f(0.0f, 2.5f, 0.0f);
+        this.orientation = new Quaternion();
+        this.yawRotation = new Quaternion();
     }
 
 
@@ -59,6 +73,7 @@ public class Camera {
     @SuppressWarnings("unused")
     protected void setPitch(float pitch) {
         this.pitch = pitch;
+        updateOrientation();
     }
 
     /**
@@ -75,6 +90,7 @@ public class Camera {
      */
     void setYaw(float yaw) {
         this.yaw = yaw;
+        updateOrientation();
     }
 
     /**
@@ -85,5 +101,19 @@ public class Camera {
         return roll;
     }
 
+    /**
+     * Updates the rotation of the view from the pitch and the yaw
+     */
+    private void updateOrientation() {
+        yawRotation.setFromAxisAngle(yaw, 0.0f, 1.0f, 0.0f);
+        orientation.setFromAxisAngle(pitch, 1.0f, 0.0f, 0.0f);
+        orientation.multiply(yawRotation, orientation);
+    }
 
+    /**
+     * @return the rotation of the view (the product of the yaw by the pitch)
+     */
+    public Quaternion getOrientation() {
+        return orientation;
+    }
 }
@@ -3,6 +3,7 @@ package com.dferreira.gameEngine.models;
 
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.MeshOptimizer;
 import com.dferreira.commons.shapes.IExternalMaterial;
 import com.dferreira.commons.shapes.IShape;
 
@@ -127,6 +128,8 @@ public class TerrainShape implements IShape {
                 indices[pointer++] = bottomRight;
             }
         }
+        // Reorders for the caches of the GPU (the heights keep the grid order)
+        MeshOptimizer.optimize(vertices, textureCoords, normals, indices);
     }
 
     /**
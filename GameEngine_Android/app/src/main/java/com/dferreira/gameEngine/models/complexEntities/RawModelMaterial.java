@@ -1,6 +1,10 @@
 package com.dferreira.gameEngine.models.complexEntities;
 
 import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.optimizer.VertexQuantization;
+
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Wrapper that besides of have the raw model also has the material to put in the model
@@ -8,15 +12,21 @@ import com.dferreira.commons.generic_render.IRawModel;
 public class RawModelMaterial {
 
     /**
-     * Raw model of the entity
+     * Raw models of the entity by level of detail
      */
-    private final IRawModel rawModel;
+    private final List<IRawModel> lodModels;
 
     /**
      * Reference to the material of the entity
      */
     private final Material material;
 
+    /**
+     * Parameters to dequantize the positions of the raw models (null if the
+     * vertices are floats)
+     */
+    private final VertexQuantization quantization;
+
     /**
      * Constructor of the textured model
      *
@@ -24,9 +34,31 @@ public class RawModelMaterial {
      * @param material Reference to the material of the entity
      */
     public RawModelMaterial(IRawModel rawModel, Material material) {
+        this(Collections.singletonList(rawModel), material);
+    }
+
+    /**
+     * Constructor of the textured model with levels of detail
+     *
+     * @param lodModels Raw models of the entity from the full detail to the coarsest
+     * @param material  Reference to the material of the entity
+     */
+    public RawModelMaterial(List<IRawModel> lodModels, Material material) {
+        this(lodModels, material, null);
+    }
+
+    /**
+     * Constructor of the textured model with levels of detail and quantized vertices
+     *
+     * @param lodModels    Raw models of the entity from the full detail to the coarsest
+     * @param material     Reference to the material of the entity
+     * @param quantization Parameters to dequantize the positions (null if the vertices are floats)
+     */
+    public RawModelMaterial(List<IRawModel> lodModels, Material material, VertexQuantization quantization) {
         super();
-        this.rawModel = rawModel;
+        this.lodModels = lodModels;
         this.material = material;
+        this.quantization = quantization;
     }
 
 
@@ -34,7 +66,15 @@ public class RawModelMaterial {
      * @return the raw model of the entity
      */
     public IRawModel getRawModel() {
-        return rawModel;
+        return lodModels.get(0);
+    }
+
+    /**
+     * @param level Level of detail wanted
+     * @return the raw model of the level (or the coarsest if there are less levels)
+     */
+    public IRawModel getRawModel(int level) {
+        return lodModels.get(Math.min(level, lodModels.size() - 1));
     }
 
 
@@ -45,5 +85,12 @@ public class RawModelMaterial {
         return material;
     }
 
+    /**
+     * @return the parameters to dequantize the positions (null if the vertices are floats)
+     */
+    public VertexQuantization getQuantization() {
+        return quantization;
+    }
+
 
 }
@@ -3,9 +3,14 @@ package com.dferreira.gameEngine.renderEngine;
 
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.models.Light;
+import com.dferreira.commons.optimizer.LodChain;
+import com.dferreira.commons.optimizer.VertexQuantization;
+import com.dferreira.commons.textures.TextureStreamer;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.gameEngine.models.Player;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
@@ -16,6 +21,7 @@ import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
 import com.dferreira.gameEngine.models.complexEntities.RawModelMaterial;
 import com.dferreira.gameEngine.shaders.entities.EntityShaderManager;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +37,58 @@ public class EntityRender extends GenericRender {
      */
     private final EntityShaderManager eShader;
 
+    /**
+     * Scale of the projection in the y axle (cotangent of half of the field of view)
+     */
+    private final float projectionScale;
+
+    /**
+     * Transformation matrix of the entity in render (reused by every entity)
+     */
+    private final GLTransformation entityMatrix;
+
+    /**
+     * Level of detail selected for each entity of the batch in render (reused between frames)
+     */
+    private int[] entityLevels;
+
+    /**
+     * Number of entities drawn in each level of detail in the last frame
+     */
+    private int[] entitiesByLevel;
+
+    /**
+     * Number of triangles of the entities drawn in the last frame
+     */
+    private int trianglesDrawn;
+
+    /**
+     * Texture bound by the entities in the frame in render (the materials
+     * with their textures in the same page of one atlas share the bind)
+     */
+    private ITexture boundTexture;
+
+    /**
+     * Number of textures bound by the entities in the last frame
+     */
+    private int textureBinds;
+
+    /**
+     * Number of binds skipped in the last frame because the texture was already bound
+     */
+    private int textureBindsSkipped;
+
+    /**
+     * Streamer where the textures drawn request their levels (null if the textures are not streamed)
+     */
+    private TextureStreamer textureStreamer;
+
+    /**
+     * Largest size in the screen of the entities of the batch in render
+     * (fraction of the height of the screen)
+     */
+    private float batchScreenSize;
+
     /**
      * Initializer of the entity render
      *
@@ -41,6 +99,10 @@ public class EntityRender extends GenericRender {
     public EntityRender(EntityShaderManager sManager, GLTransformation projectionMatrix, IFrameRenderAPI frameRenderAPI) {
         super(frameRenderAPI);
         this.eShader = sManager;
+        this.projectionScale = projectionMatrix.getAsFloatBuffer().get(5);
+        this.entityMatrix = new GLTransformation();
+        this.entityLevels = new int[0];
+        this.entitiesByLevel = new int[0];
 
         sManager.start();
         sManager.loadProjectionMatrix(projectionMatrix);
@@ -50,21 +112,20 @@ public class EntityRender extends GenericRender {
     /**
      * Get the transformation matrix of one entity
      *
-     * @param entity Entity for which is to create the transformation matrix
+     * @param entity       Entity for which is to create the transformation matrix
+     * @param quantization Parameters to dequantize the positions of the model (null if they are floats)
      * @return The transformation matrix that put the entity in its right
-     * position
+     * position (the same matrix is reused by the next entity)
      */
-    private GLTransformation getTransformationMatrix(Entity entity) {
-        GLTransformation matrix = new GLTransformation();
-        matrix.loadIdentity();
-        matrix.translate(entity.getPosition().x, entity.getPosition().y, entity.getPosition().z);
-        //Rotate the entity
-        matrix.rotate(entity.getRotX(), 1.0f, 0.0f, 0.0f);
-        matrix.rotate(entity.getRotY(), 0.0f, 1.0f, 0.0f);
-        matrix.rotate(entity.getRotZ(), 0.0f, 0.0f, 1.0f);
+    private GLTransformation getTransformationMatrix(Entity entity, VertexQuantization quantization) {
+        GLTransformation matrix = entityMatrix;
+        //Translate, rotate and scale the entity computed with the others of the store in the frame
+        entity.getTransformStore().loadMatrix(entity.getTransformIndex(), matrix);
 
-        //Scale the entity
-        matrix.scale(entity.getScale(), entity.getScale(), entity.getScale());
+        //Dequantize the positions of the model
+        if (quantization != null) {
+            quantization.apply(matrix);
+        }
 
         return matrix;
     }
@@ -73,47 +134,105 @@ public class EntityRender extends GenericRender {
     /**
      * Render the entities in the scene
      *
-     * @param skyColor   Color of the sky
-     * @param lights     The lights of the scene
-     * @param viewMatrix View matrix to render the scene
-     * @param entities   List of entities of the scene
-     * @param player     The player of the scene
+     * @param skyColor       Color of the sky
+     * @param lights         The lights of the scene
+     * @param viewMatrix     View matrix to render the scene
+     * @param cameraPosition Position of the camera used to select the levels of detail
+     * @param entities       List of entities of the scene
+     * @param player         The player of the scene
      */
-    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix,
+    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix, Vector3f cameraPosition,
                        Map<GenericEntity, List<Entity>> entities, Player player) {
         eShader.start();
         eShader.loadSkyColor(skyColor);
         eShader.loadLights(lights);
         eShader.loadViewMatrix(viewMatrix);
 
-        this.render(entities);
+        Arrays.fill(entitiesByLevel, 0);
+        trianglesDrawn = 0;
+        boundTexture = null;
+        textureBinds = 0;
+        textureBindsSkipped = 0;
+        this.render(entities, cameraPosition);
         this.renderPlayer(player);
         eShader.stop();
     }
 
+    /**
+     * Selects the level of detail of every entity of one batch from the size
+     * that the sphere around the model has in the screen
+     *
+     * @param batch          Entities that share the same model
+     * @param lodChain       Levels of detail of the model
+     * @param cameraPosition Position of the camera
+     */
+    private void selectLevels(List<Entity> batch, LodChain lodChain, Vector3f cameraPosition) {
+        if (entityLevels.length < batch.size()) {
+            entityLevels = new int[batch.size()];
+        }
+        int levelsCount = lodChain.getLevels().size();
+        if (entitiesByLevel.length < levelsCount) {
+            entitiesByLevel = Arrays.copyOf(entitiesByLevel, levelsCount);
+        }
+        batchScreenSize = 0.0f;
+        for (int i = 0; i < batch.size(); i++) {
+            Entity entity = batch.get(i);
+            float dx = entity.getPosition().x - cameraPosition.x;
+            float dy = entity.getPosition().y - cameraPosition.y;
+            float dz = entity.getPosition().z - cameraPosition.z;
+            float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            int level = 0;
+            float screenSize = Float.MAX_VALUE;
+            if (distance > 0.0f) {
+                screenSize = lodChain.getRadius() * entity.getScale() * projectionScale / distance;
+                level = lodChain.selectLevel(screenSize);
+            }
+            batchScreenSize = Math.max(batchScreenSize, screenSize);
+            entityLevels[i] = level;
+            entitiesByLevel[level]++;
+            trianglesDrawn += lodChain.getLevels().get(level).getTriangleCount();
+        }
+    }
+
     /**
      * Render one hashMap of entities where each key is a group of similar
-     * entities to be render
+     * entities to be render, each entity is drawn with the level of detail
+     * that fits its size in the screen
      *
-     * @param entities HashMap of entities to render
+     * @param entities       HashMap of entities to render
+     * @param cameraPosition Position of the camera
      */
-    private void render(Map<GenericEntity, List<Entity>> entities) {
+    private void render(Map<GenericEntity, List<Entity>> entities, Vector3f cameraPosition) {
         if (!Utils.isEmpty(entities)) {
             for (GenericEntity genericEntity : entities.keySet()) {
+                List<Entity> batch = entities.get(genericEntity);
+                LodChain lodChain = genericEntity.getLodChain();
+                selectLevels(batch, lodChain, cameraPosition);
                 HashMap<String, MaterialGroup> groupsOfMaterials = genericEntity.getGroupsOfMaterials();
                 for (String groupName : groupsOfMaterials.keySet()) {
                     MaterialGroup materialGroup = groupsOfMaterials.get(groupName);
                     for (RawModelMaterial rawModelMaterial : materialGroup.getMaterials()) {
-                        IRawModel model = rawModelMaterial.getRawModel();
                         Material material = rawModelMaterial.getMaterial();
                         prepareMaterial(material);
-                        prepareModel(model);
-                        List<Entity> batch = entities.get(genericEntity);
-                        for (Entity entity : batch) {
-                            loadEntityTransformation(entity);
-                            render(model);
+                        eShader.loadOctahedralNormals(rawModelMaterial.getQuantization() != null);
+                        for (int level = 0; level < lodChain.getLevels().size(); level++) {
+                            IRawModel model = rawModelMaterial.getRawModel(level);
+                            boolean prepared = false;
+                            for (int i = 0; i < batch.size(); i++) {
+                                if (entityLevels[i] != level) {
+                                    continue;
+                                }
+                                if (!prepared) {
+                                    prepareModel(model);
+                                    prepared = true;
+                                }
+                                loadEntityTransformation(batch.get(i), rawModelMaterial.getQuantization());
+                                render(model);
+                            }
+                            if (prepared) {
+                                unPrepareModel(model);
+                            }
                         }
-                        unPrepareModel(model);
                         unPrepareMaterial(material);
                     }
                 }
@@ -127,6 +246,12 @@ public class EntityRender extends GenericRender {
      * @param player the player_mtl that is to render in the scene
      */
     private void renderPlayer(Player player) {
+        // The player can still be loading
+        if (player == null) {
+            return;
+        }
+        // The player is always close to the camera
+        batchScreenSize = Float.MAX_VALUE;
         GenericEntity genericEntity = player.getGenericEntity();
         HashMap<String, MaterialGroup> groupsOfMaterials = genericEntity.getGroupsOfMaterials();
         for (String groupName : groupsOfMaterials.keySet()) {
@@ -135,8 +260,9 @@ public class EntityRender extends GenericRender {
                 IRawModel model = rawModelMaterial.getRawModel();
                 Material material = rawModelMaterial.getMaterial();
                 prepareMaterial(material);
+                eShader.loadOctahedralNormals(rawModelMaterial.getQuantization() != null);
                 prepareModel(model);
-                loadEntityTransformation(player);
+                loadEntityTransformation(player, rawModelMaterial.getQuantization());
                 render(model);
                 unPrepareModel(model);
                 unPrepareMaterial(material);
@@ -160,7 +286,16 @@ public class EntityRender extends GenericRender {
      */
     private void prepareLightingComponent(LightingComponent component) {
         if (component.getTextureWeight() > 0.0f) {
-            this.frameRenderAPI.activeAndBindTexture(component.getTexture());
+            if (textureStreamer != null) {
+                textureStreamer.request(component.getTexture(), batchScreenSize);
+            }
+            if (component.getTexture() == boundTexture) {
+                textureBindsSkipped++;
+            } else {
+                this.frameRenderAPI.activeAndBindTexture(component.getTexture());
+                boundTexture = component.getTexture();
+                textureBinds++;
+            }
         }
 
         // Load the texture weight of the material
@@ -196,11 +331,12 @@ public class EntityRender extends GenericRender {
     /**
      * Load the transformation matrix of the entity
      *
-     * @param entity Entity that is to get prepared to be loaded
+     * @param entity       Entity that is to get prepared to be loaded
+     * @param quantization Parameters to dequantize the positions of the model (null if they are floats)
      */
-    private void loadEntityTransformation(Entity entity) {
+    private void loadEntityTransformation(Entity entity, VertexQuantization quantization) {
         // Load the transformation matrix
-        eShader.loadTransformationMatrix(getTransformationMatrix(entity));
+        eShader.loadTransformationMatrix(getTransformationMatrix(entity, quantization));
     }
 
     /**
@@ -233,6 +369,42 @@ public class EntityRender extends GenericRender {
         }
     }
 
+    /**
+     * @param textureStreamer Streamer where the textures drawn request the
+     *                        levels that fit the size of the entities in the screen
+     */
+    public void setTextureStreamer(TextureStreamer textureStreamer) {
+        this.textureStreamer = textureStreamer;
+    }
+
+    /**
+     * @return Number of entities drawn in each level of detail in the last frame
+     */
+    public int[] getEntitiesByLevel() {
+        return entitiesByLevel;
+    }
+
+    /**
+     * @return Number of triangles of the entities drawn in the last frame (without the player)
+     */
+    public int getTrianglesDrawn() {
+        return trianglesDrawn;
+    }
+
+    /**
+     * @return Number of textures bound by the entities in the last frame
+     */
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    /**
+     * @return Number of binds skipped in the last frame because the texture was already bound
+     */
+    public int getTextureBindsSkipped() {
+        return textureBindsSkipped;
+    }
+
     /**
      * Clean up because we need to clean up when we finish the program
      */
@@ -2,11 +2,15 @@ package com.dferreira.gameEngine.renderEngine;
 
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.models.Light;
+import com.dferreira.commons.textures.TextureStreamer;
+import com.dferreira.commons.utils.MatrixArena;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.TerrainShape;
 import com.dferreira.gameEngine.shaders.terrains.TerrainShaderManager;
 import com.dferreira.gameEngine.textures.TerrainTexturesPack;
 
@@ -17,11 +21,36 @@ import java.util.List;
  */
 @SuppressWarnings("WeakerAccess")
 public class TerrainRender extends GenericRender {
+    /**
+     * Number of times that the textures of the ground repeat along the
+     * terrain (the same of the fragment shader)
+     */
+    private static final float GROUND_TILING = 400.0f;
+
+    /**
+     * Closest distance of the camera to the terrain used to request the levels of the textures
+     */
+    private static final float MIN_DISTANCE = 1.0f;
+
     /**
      * Reference to the shader manager
      */
     private final TerrainShaderManager tShader;
 
+    /**
+     * Scale of the projection in the y axle (cotangent of half of the field of view)
+     */
+    private final float projectionScale;
+
+    /**
+     * Arena where the matrices of the frame are taken from
+     */
+    private final MatrixArena matrixArena;
+
+    /**
+     * Streamer where the textures of the terrains request their levels (null if the textures are not streamed)
+     */
+    private TextureStreamer textureStreamer;
 
     /**
      * Constructor of the terrain render
@@ -29,10 +58,14 @@ public class TerrainRender extends GenericRender {
      * @param sManager         Shader manager
      * @param projectionMatrix The projection matrix of the render
      * @param frameRenderAPI   Reference to the API responsible for render the frame
+     * @param matrixArena      Arena where the matrices of the frame are taken from
      */
-    public TerrainRender(TerrainShaderManager sManager, GLTransformation projectionMatrix, IFrameRenderAPI frameRenderAPI) {
+    public TerrainRender(TerrainShaderManager sManager, GLTransformation projectionMatrix, IFrameRenderAPI frameRenderAPI,
+                         MatrixArena matrixArena) {
         super(frameRenderAPI);
         this.tShader = sManager;
+        this.projectionScale = projectionMatrix.getAsFloatBuffer().get(5);
+        this.matrixArena = matrixArena;
 
         sManager.start();
         sManager.loadProjectionMatrix(projectionMatrix);
@@ -48,13 +81,8 @@ public class TerrainRender extends GenericRender {
      * position
      */
     private GLTransformation getTransformationMatrix(Terrain entity) {
-        GLTransformation matrix = new GLTransformation();
-        matrix.loadIdentity();
+        GLTransformation matrix = matrixArena.obtain();
         matrix.translate(entity.getX(), entity.getY(), entity.getZ());
-        float terrainRotation = 0.0f;
-        matrix.rotate(terrainRotation, 1.0f, 0.0f, 0.0f);
-        matrix.rotate(terrainRotation, 0.0f, 1.0f, 0.0f);
-        matrix.rotate(terrainRotation, 0.0f, 0.0f, 1.0f);
 
         return matrix;
     }
@@ -63,29 +91,33 @@ public class TerrainRender extends GenericRender {
     /**
      * Render the terrains in the scene
      *
-     * @param skyColor   Color of the sky
-     * @param lights     The lights of the scene
-     * @param viewMatrix View matrix to render the scene
-     * @param terrains   List of terrains of the scene
+     * @param skyColor       Color of the sky
+     * @param lights         The lights of the scene
+     * @param viewMatrix     View matrix to render the scene
+     * @param cameraPosition Position of the camera used to request the levels of the textures
+     * @param terrains       List of terrains of the scene
      */
-    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix, List<Terrain> terrains) {
+    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix, Vector3f cameraPosition,
+                       List<Terrain> terrains) {
         tShader.start();
         tShader.loadSkyColor(skyColor);
         tShader.loadLights(lights);
         tShader.loadViewMatrix(viewMatrix);
 
-        this.render(terrains);
+        this.render(terrains, cameraPosition);
         tShader.stop();
     }
 
     /**
      * Render one list of terrains
      *
-     * @param terrains List of Terrains to render
+     * @param terrains       List of Terrains to render
+     * @param cameraPosition Position of the camera
      */
-    private void render(List<Terrain> terrains) {
+    private void render(List<Terrain> terrains, Vector3f cameraPosition) {
         if (!Utils.isEmpty(terrains)) {
             for (Terrain terrain : terrains) {
+                requestTextures(terrain, cameraPosition);
                 prepareTerrain(terrain);
                 prepareInstance(terrain);
                 render(terrain);
@@ -95,6 +127,35 @@ public class TerrainRender extends GenericRender {
     }
 
 
+    /**
+     * Requests the levels of the textures of one terrain from the distance
+     * of the camera to the closest point of the terrain, the weight map spans
+     * the whole terrain and the textures of the ground one tile of it
+     *
+     * @param terrain        The terrain to render
+     * @param cameraPosition Position of the camera
+     */
+    private void requestTextures(Terrain terrain, Vector3f cameraPosition) {
+        if (textureStreamer == null) {
+            return;
+        }
+        float x = Math.max(terrain.getX(), Math.min(cameraPosition.x, terrain.getX() + TerrainShape.SIZE));
+        float z = Math.max(terrain.getZ(), Math.min(cameraPosition.z, terrain.getZ() + TerrainShape.SIZE));
+        float dx = cameraPosition.x - x;
+        float dy = cameraPosition.y - terrain.getHeightOfTerrain(x, z);
+        float dz = cameraPosition.z - z;
+        float distance = Math.max(MIN_DISTANCE, (float) Math.sqrt(dx * dx + dy * dy + dz * dz));
+        float terrainScreenSize = TerrainShape.SIZE * projectionScale / (2.0f * distance);
+        float tileScreenSize = terrainScreenSize / GROUND_TILING;
+
+        TerrainTexturesPack texturesPackage = terrain.getTexturePack();
+        textureStreamer.request(texturesPackage.getWeightMapTexture(), terrainScreenSize);
+        textureStreamer.request(texturesPackage.getBackgroundTexture(), tileScreenSize);
+        textureStreamer.request(texturesPackage.getMudTexture(), tileScreenSize);
+        textureStreamer.request(texturesPackage.getGrassTexture(), tileScreenSize);
+        textureStreamer.request(texturesPackage.getPathTexture(), tileScreenSize);
+    }
+
     /**
      * Bind the several textures of the terrain
      */
@@ -157,6 +218,14 @@ public class TerrainRender extends GenericRender {
     }
 
 
+    /**
+     * @param textureStreamer Streamer where the textures of the terrains
+     *                        request the levels that fit their distance to the camera
+     */
+    public void setTextureStreamer(TextureStreamer textureStreamer) {
+        this.textureStreamer = textureStreamer;
+    }
+
     /**
      * Clean up because we need to clean up when we finish the program
      */
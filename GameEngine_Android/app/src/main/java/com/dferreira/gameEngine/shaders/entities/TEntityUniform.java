@@ -53,6 +53,12 @@ public enum TEntityUniform implements IEnum {
      */
     normalsPointingUp,
 
+    /**
+     * Location of the variable that indicates the normals of the object are
+     * encoded with the octahedral mapping
+     */
+    octahedralNormals,
+
     /**
      * Weight of the texture in the final ambient color to be render
      */
@@ -141,7 +141,7 @@ public class GameEngineRenderer implements GLSurfaceView.Renderer {
         Log.d(TIME_TO_RENDER_TAG, "Time to initialize terrains " + (terrainLoaded.getTime() - renderInitialized.getTime()) + " ms");
 
         /*Prepares the entities that are going to be render*/
-        this.entities = WorldEntitiesGenerator.getEntities(loader, loaderAPI, resourceProvider, terrain);
+        this.entities = WorldEntitiesGenerator.getEntities(loader, loaderAPI, renderer.getTransformStore(), resourceProvider, terrain);
         WorldEntitiesGenerator.loadTextures(loaderAPI, this.entities);
 
         Date entitiesLoaded = new Date();
@@ -170,7 +170,7 @@ public class GameEngineRenderer implements GLSurfaceView.Renderer {
         Log.d(TIME_TO_RENDER_TAG, "Time initialize sky " + (skyBoxLoaded.getTime() - lightLoaded.getTime()) + " ms");
 
         /*Prepares the player_mtl that is going to be used in the scene*/
-        this.player = WorldPlayersGenerator.getPlayer(loader, loaderAPI, resourceProvider);
+        this.player = WorldPlayersGenerator.getPlayer(loader, loaderAPI, renderer.getTransformStore(), resourceProvider);
         WorldPlayersGenerator.loadTextures(loaderAPI, this.player);
 
         Date playerLoader = new Date();
@@ -179,6 +179,8 @@ public class GameEngineRenderer implements GLSurfaceView.Renderer {
 
 
         Log.d(TIME_TO_RENDER_TAG, "Total time:" + (playerLoader.getTime() - renderInitialized.getTime()));
+        Log.d(TIME_TO_RENDER_TAG, "Materials: " + resourceProvider.getMaterialRegistry());
+        Log.d(TIME_TO_RENDER_TAG, "Textures: " + loaderAPI.getTextureRegistry());
     }
 
     /**
@@ -214,6 +216,8 @@ public class GameEngineRenderer implements GLSurfaceView.Renderer {
     public void onSurfaceChanged(GL10 glUnused, int width, int height) {
         this.mWidth = width;
         this.mHeight = height;
+        // The textures request their levels from the pixels that they cover
+        this.renderer.getTextureStreamer().setViewportHeight(height);
     }
 
     /**
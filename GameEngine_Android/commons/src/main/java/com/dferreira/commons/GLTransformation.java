@@ -13,19 +13,31 @@ public class GLTransformation {
 	/* The size of a side of the matrix */
 	private final int MATRIX_SIDE = 4;
 
-	private final int FLOAT_SIZE = 4;
+	private final static int FLOAT_SIZE = 4;
 
 	/* The size of the matrix that is 4x4 */
-	private final int MATRIX_SIZE = 16;
-	private final FloatBuffer mMatrixFloatBuffer;
-    private float[] mMatrix = new float[MATRIX_SIZE];
+	private final static int MATRIX_SIZE = 16;
+	private final float[] mMatrix = new float[MATRIX_SIZE];
+
+	/* Copy of the first matrix of a product when it is the current one (created in the first use) */
+	private float[] operand;
+
+	/*
+	 * Buffer of each thread where the matrices are staged to be handed to the
+	 * render API (one direct buffer by thread instead of one by matrix)
+	 */
+	private final static ThreadLocal<FloatBuffer> stagingBuffer = new ThreadLocal<FloatBuffer>() {
+		@Override
+		protected FloatBuffer initialValue() {
+			return ByteBuffer.allocateDirect(MATRIX_SIZE * FLOAT_SIZE).order(ByteOrder.nativeOrder())
+					.asFloatBuffer();
+		}
+	};
 
 	/**
 	 * Simply allocates space for a matrix of [4x4] floats
 	 */
 	public GLTransformation() {
-		mMatrixFloatBuffer = ByteBuffer.allocateDirect(MATRIX_SIZE * FLOAT_SIZE).order(ByteOrder.nativeOrder())
-				.asFloatBuffer();
 	}
 
 	/**
@@ -67,7 +79,6 @@ public class GLTransformation {
 		if (mag > 0.0f) {
 			float xx, yy, zz, xy, yz, zx, xs, ys, zs;
 			float oneMinusCos;
-			float[] rotMat = new float[MATRIX_SIZE];
 
 			x /= mag;
 			y /= mag;
@@ -84,31 +95,46 @@ public class GLTransformation {
 			zs = z * sinAngle;
 			oneMinusCos = 1.0f - cosAngle;
 
-			// First row
-			rotMat[0] = (oneMinusCos * xx) + cosAngle;
-			rotMat[1] = (oneMinusCos * xy) - zs;
-			rotMat[2] = (oneMinusCos * zx) + ys;
-			rotMat[3] = 0.0F;
-
-			// Second row
-			rotMat[4] = (oneMinusCos * xy) + zs;
-			rotMat[5] = (oneMinusCos * yy) + cosAngle;
-			rotMat[6] = (oneMinusCos * yz) - xs;
-			rotMat[7] = 0.0F;
-
-			// Third row
-			rotMat[8] = (oneMinusCos * zx) - ys;
-			rotMat[9] = (oneMinusCos * yz) + xs;
-			rotMat[10] = (oneMinusCos * zz) + cosAngle;
-			rotMat[11] = 0.0F;
-
-			// Fourth row
-			rotMat[12] = 0.0F;
-			rotMat[13] = 0.0F;
-			rotMat[14] = 0.0F;
-			rotMat[15] = 1.0F;
-
-			multiplyMatrix(rotMat, mMatrix);
+			// The fourth row and column of the rotation are the ones of the identity
+			multiplyRotation((oneMinusCos * xx) + cosAngle, (oneMinusCos * xy) - zs, (oneMinusCos * zx) + ys,
+					(oneMinusCos * xy) + zs, (oneMinusCos * yy) + cosAngle, (oneMinusCos * yz) - xs,
+					(oneMinusCos * zx) - ys, (oneMinusCos * yz) + xs, (oneMinusCos * zz) + cosAngle);
+		}
+	}
+
+	/**
+	 * Multiply the current matrix by the matrix of one rotation (one
+	 * conversion instead of one rotation by axle)
+	 *
+	 * @param rotation
+	 *            Unit quaternion of the rotation
+	 */
+	public void rotate(Quaternion rotation) {
+		float x = rotation.x, y = rotation.y, z = rotation.z, w = rotation.w;
+		float xx = x * x, yy = y * y, zz = z * z;
+		float xy = x * y, xz = x * z, yz = y * z;
+		float wx = w * x, wy = w * y, wz = w * z;
+
+		multiplyRotation(1.0f - 2.0f * (yy + zz), 2.0f * (xy - wz), 2.0f * (xz + wy), 2.0f * (xy + wz),
+				1.0f - 2.0f * (xx + zz), 2.0f * (yz - wx), 2.0f * (xz - wy), 2.0f * (yz + wx),
+				1.0f - 2.0f * (xx + yy));
+	}
+
+	/**
+	 * Multiply the current matrix in place by a matrix that only has the
+	 * upper 3x3 block different from the identity (the first three rows of the
+	 * current matrix are combined), rij is the element of the row i and the
+	 * column j of the block
+	 */
+	private void multiplyRotation(float r00, float r01, float r02, float r10, float r11, float r12, float r20,
+			float r21, float r22) {
+		for (int j = 0; j < MATRIX_SIDE; j++) {
+			float m0 = mMatrix[j];
+			float m1 = mMatrix[4 + j];
+			float m2 = mMatrix[2 * 4 + j];
+			mMatrix[j] = r00 * m0 + r01 * m1 + r02 * m2;
+			mMatrix[4 + j] = r10 * m0 + r11 * m1 + r12 * m2;
+			mMatrix[2 * 4 + j] = r20 * m0 + r21 * m1 + r22 * m2;
 		}
 	}
 
@@ -135,36 +161,30 @@ public class GLTransformation {
 		float deltaX = right - left;
 		float deltaY = top - bottom;
 		float deltaZ = farZ - nearZ;
-		float[] frustum = new float[MATRIX_SIZE];
 
 		if ((nearZ <= 0.0f) || (farZ <= 0.0f) || (deltaX <= 0.0f) || (deltaY <= 0.0f) || (deltaZ <= 0.0f))
 			return;
 
-		// First row
-		frustum[0] = 2.0f * nearZ / deltaX;
-		frustum[1] = 0.0f;
-		frustum[2] = 0.0f;
-		frustum[3] = 0.0f;
-
-		// Second row
-		frustum[4] = 0.0f;
-		frustum[5] = 2.0f * nearZ / deltaY;
-		frustum[6] = 0.0f;
-		frustum[7] = 0.0f;
-
-		// Third row
-		frustum[8] = (right + left) / deltaX;
-		frustum[9] = (top + bottom) / deltaY;
-		frustum[10] = -(nearZ + farZ) / deltaZ;
-		frustum[11] = -1.0f;
-
-		// Fourth row
-		frustum[12] = 0.0f;
-		frustum[13] = 0.0f;
-		frustum[14] = -2.0f * nearZ * farZ / deltaZ;
-		frustum[15] = 0.0f;
-
-		multiplyMatrix(frustum, mMatrix);
+		// The elements of the frustum matrix that are not zero
+		float f0 = 2.0f * nearZ / deltaX;
+		float f5 = 2.0f * nearZ / deltaY;
+		float f8 = (right + left) / deltaX;
+		float f9 = (top + bottom) / deltaY;
+		float f10 = -(nearZ + farZ) / deltaZ;
+		float f11 = -1.0f;
+		float f14 = -2.0f * nearZ * farZ / deltaZ;
+
+		// Each column of the product only depends on the same column of the current matrix
+		for (int j = 0; j < MATRIX_SIDE; j++) {
+			float m0 = mMatrix[j];
+			float m1 = mMatrix[4 + j];
+			float m2 = mMatrix[2 * 4 + j];
+			float m3 = mMatrix[3 * 4 + j];
+			mMatrix[j] = f0 * m0;
+			mMatrix[4 + j] = f5 * m1;
+			mMatrix[2 * 4 + j] = f8 * m0 + f9 * m1 + f10 * m2 + f11 * m3;
+			mMatrix[3 * 4 + j] = f14 * m2;
+		}
 	}
 
 	/**
@@ -195,7 +215,9 @@ public class GLTransformation {
 	}
 
 	/**
-	 * Multiply two matrix
+	 * Multiply two matrix and keeps the result in the current matrix (each
+	 * column of the result only depends on the same column of the second
+	 * matrix so it is written in place)
 	 *
 	 * @param mtlA
 	 *            First matrix
@@ -203,24 +225,24 @@ public class GLTransformation {
 	 *            Second matrix
 	 */
 	private void multiplyMatrix(float[] mtlA, float[] mtlB) {
-		float[] tmp = new float[MATRIX_SIZE];
-		int i;
-
-		for (i = 0; i < MATRIX_SIDE; i++) {
-			tmp[i * MATRIX_SIDE] = (mtlA[i * 4] * mtlB[0]) + (mtlA[i * 4 + 1] * mtlB[4])
-					+ (mtlA[i * 4 + 2] * mtlB[2 * 4]) + (mtlA[i * 4 + 3] * mtlB[3 * 4]);
-
-			tmp[i * MATRIX_SIDE + 1] = (mtlA[i * 4] * mtlB[1]) + (mtlA[i * 4 + 1] * mtlB[5])
-					+ (mtlA[i * 4 + 2] * mtlB[2 * 4 + 1]) + (mtlA[i * 4 + 3] * mtlB[3 * 4 + 1]);
-
-			tmp[i * MATRIX_SIDE + 2] = (mtlA[i * 4] * mtlB[2]) + (mtlA[i * 4 + 1] * mtlB[6])
-					+ (mtlA[i * 4 + 2] * mtlB[2 * 4 + 2]) + (mtlA[i * 4 + 3] * mtlB[3 * 4 + 2]);
-
-			tmp[i * MATRIX_SIDE + 3] = (mtlA[i * 4] * mtlB[3]) + (mtlA[i * 4 + 1] * mtlB[7])
-					+ (mtlA[i * 4 + 2] * mtlB[2 * 4 + 3]) + (mtlA[i * 4 + 3] * mtlB[3 * 4 + 3]);
+		if (mtlA == mMatrix) {
+			if (operand == null) {
+				operand = new float[MATRIX_SIZE];
+			}
+			System.arraycopy(mtlA, 0, operand, 0, MATRIX_SIZE);
+			mtlA = operand;
 		}
 
-		mMatrix = tmp;
+		for (int j = 0; j < MATRIX_SIDE; j++) {
+			float b0 = mtlB[j];
+			float b1 = mtlB[4 + j];
+			float b2 = mtlB[2 * 4 + j];
+			float b3 = mtlB[3 * 4 + j];
+			for (int i = 0; i < MATRIX_SIDE; i++) {
+				mMatrix[i * MATRIX_SIDE + j] = (mtlA[i * 4] * b0) + (mtlA[i * 4 + 1] * b1) + (mtlA[i * 4 + 2] * b2)
+						+ (mtlA[i * 4 + 3] * b3);
+			}
+		}
 	}
 
 	/**
@@ -262,19 +284,97 @@ public class GLTransformation {
 	 *            scaling vector in the z-axle
 	 */
 	public void scale(float x, float y, float z) {
-		float[] scaleMatrix = new float[MATRIX_SIZE];
-
-		for (int i = 0; i < MATRIX_SIZE; i++) {
-			scaleMatrix[i] = 0.0f;
+		// Scales the first three rows in place
+		for (int j = 0; j < MATRIX_SIDE; j++) {
+			mMatrix[j] *= x;
+			mMatrix[4 + j] *= y;
+			mMatrix[2 * 4 + j] *= z;
 		}
+	}
 
-		// Set the main diagonal
-		scaleMatrix[0] = x;
-		scaleMatrix[5] = y;
-		scaleMatrix[10] = z;
-		scaleMatrix[15] = 1.0f;
+	/**
+	 * Replace the current matrix with the one of a translation followed by
+	 * the rotations in x, y and z and a uniform scale, the same as
+	 * {@link #loadIdentity()}, {@link #translate(float, float, float)},
+	 * three calls to {@link #rotate(float, float, float, float)} and
+	 * {@link #scale(float, float, float)} but written at once
+	 *
+	 * @param position
+	 *            translation vector
+	 * @param rotX
+	 *            rotation around the x-axle, in degrees
+	 * @param rotY
+	 *            rotation around the y-axle, in degrees
+	 * @param rotZ
+	 *            rotation around the z-axle, in degrees
+	 * @param scale
+	 *            scale in the three axles
+	 */
+	public void setTRS(Vector3f position, float rotX, float rotY, float rotZ, float scale) {
+		double radX = Math.toRadians(rotX);
+		double radY = Math.toRadians(rotY);
+		double radZ = Math.toRadians(rotZ);
+		float sx = (float) Math.sin(radX);
+		float cx = (float) Math.cos(radX);
+		float sy = (float) Math.sin(radY);
+		float cy = (float) Math.cos(radY);
+		float sz = (float) Math.sin(radZ);
+		float cz = (float) Math.cos(radZ);
+
+		// Rows of the rotation in z by the rotation in y by the rotation in x
+		mMatrix[0] = scale * (cz * cy);
+		mMatrix[1] = scale * (cz * sy * sx - sz * cx);
+		mMatrix[2] = scale * (cz * sy * cx + sz * sx);
+		mMatrix[3] = 0.0f;
+
+		mMatrix[4] = scale * (sz * cy);
+		mMatrix[5] = scale * (sz * sy * sx + cz * cx);
+		mMatrix[6] = scale * (sz * sy * cx - cz * sx);
+		mMatrix[7] = 0.0f;
+
+		mMatrix[8] = scale * -sy;
+		mMatrix[9] = scale * (cy * sx);
+		mMatrix[10] = scale * (cy * cx);
+		mMatrix[11] = 0.0f;
+
+		// The translation is the last column
+		mMatrix[12] = position.x;
+		mMatrix[13] = position.y;
+		mMatrix[14] = position.z;
+		mMatrix[15] = 1.0f;
+	}
 
-		this.multiplyMatrix(scaleMatrix, this.mMatrix);
+	/**
+	 * Set the matrix that scales, rotates and translates one entity (the same
+	 * as the one of the angles of Euler when the rotation is the one of
+	 * {@link Quaternion#setFromEuler(float, float, float)})
+	 *
+	 * @param position
+	 *            Position of the entity
+	 * @param rotation
+	 *            Unit quaternion of the rotation of the entity
+	 * @param scale
+	 *            Scale of the entity
+	 */
+	public void setTRS(Vector3f position, Quaternion rotation, float scale) {
+		rotation.toMatrix(mMatrix, 0, scale);
+
+		// The translation is the last column
+		mMatrix[12] = position.x;
+		mMatrix[13] = position.y;
+		mMatrix[14] = position.z;
+	}
+
+	/**
+	 * Copies one matrix kept in one array of matrices
+	 *
+	 * @param matrices
+	 *            Array with the matrices
+	 * @param offset
+	 *            Position of the matrix in the array
+	 */
+	public void set(float[] matrices, int offset) {
+		System.arraycopy(matrices, offset, mMatrix, 0, MATRIX_SIZE);
 	}
 
 	/**
@@ -295,11 +395,14 @@ public class GLTransformation {
 	}
 
 	/**
-	 * @return current matrix in float buffer type
+	 * @return current matrix in float buffer type (shared by the thread so it
+	 *         is only valid until the next call)
 	 */
 	public FloatBuffer getAsFloatBuffer() {
-		mMatrixFloatBuffer.put(mMatrix).position(0);
-		return mMatrixFloatBuffer;
+		FloatBuffer buffer = stagingBuffer.get();
+		buffer.clear();
+		buffer.put(mMatrix).position(0);
+		return buffer;
 	}
 
 	/**
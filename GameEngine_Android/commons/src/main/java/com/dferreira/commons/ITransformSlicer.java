@@ -0,0 +1,20 @@
+package com.dferreira.commons;
+
+/**
+ * Computes the model matrices of the entities changed in a range of one
+ * transform store, for instance in slices across the cores (the platforms
+ * that have the threads for it give their own implementation)
+ */
+public interface ITransformSlicer {
+
+    /**
+     * Computes the matrices of the entities changed in one range, calling
+     * {@link TransformStore#computeDirtyMatrices(int, int)} over ranges that
+     * do not overlap
+     *
+     * @param store The store of the entities
+     * @param from  Index of the first entity
+     * @param to    Index after the last entity
+     */
+    void computeDirtyMatrices(TransformStore store, int from, int to);
+}
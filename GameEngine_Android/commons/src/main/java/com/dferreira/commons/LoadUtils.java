@@ -1,6 +1,9 @@
 package com.dferreira.commons;
 
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.pack.AssetPack;
+import com.dferreira.commons.textures.KtxParser;
+import com.dferreira.commons.utils.DirectBufferPool;
 import com.dferreira.commons.utils.Utils;
 
 import org.newdawn.slick.opengl.PNGDecoder;
@@ -12,6 +15,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LoadUtils {
 
@@ -25,6 +37,21 @@ public class LoadUtils {
      */
     private final static String RESOURCES_PATH_RELATIVE_TO_CLASSES = "../../resources/main/";
 
+    /**
+     * Size of the buffer used to read the resources
+     */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Name of the threads that decode the textures
+     */
+    private final static String DECODER_NAME = "PNGDecoder-";
+
+    /**
+     * Threads that decode the batches of textures (created on the first batch)
+     */
+    private static ExecutorService decoders;
+
     /**
      * Due to the differences how resources are saved during debug
      * phase and when they are inside jar a file can return null just because needs
@@ -89,34 +116,177 @@ public class LoadUtils {
         return str;
     }
 
+    /**
+     * Reads all the bytes of a certain resource
+     *
+     * @param fileName id of the resource to read
+     * @return The bytes of the resource or null if it was not possible to read
+     */
+    public static byte[] readBytesFromRawResource(String fileName) {
+        InputStream inputStream = getInputStreamToResource(fileName);
+        if (inputStream == null) {
+            return null;
+        }
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                byteArrayOutputStream.write(buffer, 0, bytesRead);
+            }
+            return byteArrayOutputStream.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Load texture from resource
      *
-     * @param fileName
-     * @return
+     * @param fileName Path of the png file
+     * @return The data of the texture or null if it was not possible to decode
      */
     public static TextureData loadTexture(String fileName) {
-        int width = 0;
-        int height = 0;
+        return loadTexture(fileName, null);
+    }
 
-        ByteBuffer buffer = null;
+    /**
+     * Load texture from resource, the header of the png is read first so the
+     * buffer of the pixels has the exact size of the image (the KTX
+     * containers are read with their compressed levels as they are)
+     *
+     * @param fileName Path of the png or KTX file
+     * @param pool     Pool where the buffer of the pixels is taken from (null to allocate a new one)
+     * @return The data of the texture (that has to be released after the upload
+     * when it is pooled) or null if it was not possible to decode
+     */
+    public static TextureData loadTexture(String fileName, DirectBufferPool pool) {
+        if (KtxParser.isKtx(fileName)) {
+            return KtxParser.parse(readBytesFromRawResource(fileName));
+        }
+        return decodeTexture(getInputStreamToResource(fileName), pool);
+    }
+
+    /**
+     * Load texture from one pack of assets, the KTX containers stored are
+     * views of the mapped pack
+     *
+     * @param pack     Pack of assets
+     * @param fileName Name of the png or KTX file in the pack
+     * @param pool     Pool where the buffer of the pixels is taken from (null to allocate a new one)
+     * @return The data of the texture (that has to be released after the upload
+     * when it is pooled) or null if it was not possible to decode
+     */
+    public static TextureData loadTexture(AssetPack pack, String fileName, DirectBufferPool pool) {
+        if (KtxParser.isKtx(fileName)) {
+            ByteBuffer content = pack.getBuffer(fileName);
+            return (content == null) ? null : KtxParser.parse(content);
+        }
+        return decodeTexture(pack.getInputStream(fileName), pool);
+    }
 
+    /**
+     * @param in   Stream with the png file (closed at the end)
+     * @param pool Pool where the buffer of the pixels is taken from (null to allocate a new one)
+     * @return The data of the texture or null if it was not possible to decode
+     */
+    private static TextureData decodeTexture(InputStream in, DirectBufferPool pool) {
+        if (in == null) {
+            return null;
+        }
+        ByteBuffer buffer = null;
         try {
-            InputStream in = getInputStreamToResource(fileName);
             PNGDecoder decoder = new PNGDecoder(in);
-            width = decoder.getWidth();
-            height = decoder.getHeight();
-            buffer = ByteBuffer.allocateDirect(NUMBER_OF_COMPONENTS * width * height);
+            int width = decoder.getWidth();
+            int height = decoder.getHeight();
+            int size = NUMBER_OF_COMPONENTS * width * height;
+            buffer = (pool == null) ? ByteBuffer.allocateDirect(size) : pool.acquire(size);
             decoder.decode(buffer, NUMBER_OF_COMPONENTS * width, PNGDecoder.RGBA);
             buffer.flip();
-            in.close();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-            return null;
+            return new TextureData(buffer, width, height, pool);
         } catch (IOException e) {
             e.printStackTrace();
+            if ((pool != null) && (buffer != null)) {
+                pool.release(buffer);
+            }
             return null;
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return The threads that decode the batches of textures
+     */
+    private static synchronized ExecutorService getDecoders() {
+        if (decoders == null) {
+            decoders = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, DECODER_NAME + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return decoders;
+    }
+
+    /**
+     * Decodes several textures at once, one by thread
+     *
+     * @param fileNames Paths of the png (or KTX) files
+     * @param pool      Pool where the buffers of the pixels are taken from (null to allocate new ones)
+     * @return The data of the textures in the same order of the files (null
+     * the ones that were not possible to decode)
+     */
+    public static TextureData[] loadTextures(String[] fileNames, DirectBufferPool pool) {
+        return loadTextures(null, fileNames, pool);
+    }
+
+    /**
+     * Decodes several textures at once, one by thread
+     *
+     * @param pack      Pack of assets with the files (null to read them from the resources)
+     * @param fileNames Paths of the png (or KTX) files
+     * @param pool      Pool where the buffers of the pixels are taken from (null to allocate new ones)
+     * @return The data of the textures in the same order of the files (null
+     * the ones that were not possible to decode)
+     */
+    public static TextureData[] loadTextures(final AssetPack pack, String[] fileNames, final DirectBufferPool pool) {
+        TextureData[] textures = new TextureData[fileNames.length];
+        List<Callable<TextureData>> tasks = new ArrayList<>(fileNames.length);
+        for (final String fileName : fileNames) {
+            tasks.add(new Callable<TextureData>() {
+                @Override
+                public TextureData call() throws Exception {
+                    return (pack == null) ? loadTexture(fileName, pool) : loadTexture(pack, fileName, pool);
+                }
+            });
+        }
+        try {
+            List<Future<TextureData>> results = getDecoders().invokeAll(tasks);
+            for (int i = 0; i < textures.length; i++) {
+                textures[i] = results.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
         }
-        return new TextureData(buffer, width, height);
+        return textures;
     }
 }
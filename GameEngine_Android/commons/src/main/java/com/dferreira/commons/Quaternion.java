@@ -0,0 +1,278 @@
+package com.dferreira.commons;
+
+/**
+ * Represents one rotation in the 3D world as a unit quaternion with its
+ * x,y,z (vector) and w (scalar) components, the operations write the result
+ * in the quaternion itself so they do not allocate
+ */
+public class Quaternion {
+
+	/* Below this difference of the angles the interpolation is linear */
+	private final static float SLERP_THRESHOLD = 0.9995f;
+
+	/* Below this cosine of the rotation in y the rotations in x and z are around the same axle */
+	private final static double GIMBAL_THRESHOLD = 1e-6;
+
+	/* Components of the vector part */
+	public float x;
+	public float y;
+	public float z;
+
+	/* Scalar part */
+	public float w;
+
+	/**
+	 * Creates the identity rotation
+	 */
+	public Quaternion() {
+		this.w = 1.0f;
+	}
+
+	/**
+	 * The constructor of the quaternion
+	 *
+	 * @param x
+	 *            x component of the vector part
+	 * @param y
+	 *            y component of the vector part
+	 * @param z
+	 *            z component of the vector part
+	 * @param w
+	 *            Scalar part
+	 */
+	public Quaternion(float x, float y, float z, float w) {
+		set(x, y, z, w);
+	}
+
+	/**
+	 * Sets the components of the quaternion
+	 *
+	 * @param x
+	 *            x component of the vector part
+	 * @param y
+	 *            y component of the vector part
+	 * @param z
+	 *            z component of the vector part
+	 * @param w
+	 *            Scalar part
+	 */
+	public void set(float x, float y, float z, float w) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+	}
+
+	/**
+	 * @param quaternion
+	 *            Quaternion to copy
+	 */
+	public void set(Quaternion quaternion) {
+		set(quaternion.x, quaternion.y, quaternion.z, quaternion.w);
+	}
+
+	/**
+	 * Sets the identity rotation
+	 */
+	public void setIdentity() {
+		set(0.0f, 0.0f, 0.0f, 1.0f);
+	}
+
+	/**
+	 * Sets the rotation around one axle
+	 *
+	 * @param angle
+	 *            Angle of the rotation in degrees
+	 * @param x
+	 *            x component of the axle
+	 * @param y
+	 *            y component of the axle
+	 * @param z
+	 *            z component of the axle
+	 */
+	public void setFromAxisAngle(float angle, float x, float y, float z) {
+		float mag = (float) Math.sqrt((double) (x * x + y * y + z * z));
+		if (mag <= 0.0f) {
+			setIdentity();
+			return;
+		}
+		double halfAngle = Math.toRadians(angle) / 2.0;
+		float sinHalf = (float) Math.sin(halfAngle) / mag;
+		set(x * sinHalf, y * sinHalf, z * sinHalf, (float) Math.cos(halfAngle));
+	}
+
+	/**
+	 * Sets the rotation of the angles of Euler of the entities: the rotation
+	 * in x, then the one in y and then the one in z (the same matrix of
+	 * {@link GLTransformation#setTRS(Vector3f, float, float, float, float)})
+	 *
+	 * @param rotX
+	 *            Rotation in the x axle in degrees
+	 * @param rotY
+	 *            Rotation in the y axle in degrees
+	 * @param rotZ
+	 *            Rotation in the z axle in degrees
+	 */
+	public void setFromEuler(float rotX, float rotY, float rotZ) {
+		double halfX = Math.toRadians(rotX) / 2.0;
+		double halfY = Math.toRadians(rotY) / 2.0;
+		double halfZ = Math.toRadians(rotZ) / 2.0;
+		double sx = Math.sin(halfX);
+		double cx = Math.cos(halfX);
+		double sy = Math.sin(halfY);
+		double cy = Math.cos(halfY);
+		double sz = Math.sin(halfZ);
+		double cz = Math.cos(halfZ);
+
+		// Product of the rotation in z by the one in y by the one in x
+		set((float) (cz * cy * sx - sz * sy * cx), (float) (cz * sy * cx + sz * cy * sx),
+				(float) (sz * cy * cx - cz * sy * sx), (float) (cz * cy * cx + sz * sy * sx));
+	}
+
+	/**
+	 * Gets the angles of Euler of the rotation in the order of
+	 * {@link #setFromEuler(float, float, float)} (the rotation in y is between
+	 * -90 and 90 degrees)
+	 *
+	 * @param euler
+	 *            Vector where the rotations in the x, y and z axles are put in
+	 *            degrees
+	 * @return The vector passed
+	 */
+	public Vector3f toEuler(Vector3f euler) {
+		// Elements of the matrix of the rotation
+		double r00 = 1.0 - 2.0 * ((double) y * y + (double) z * z);
+		double r10 = 2.0 * ((double) x * y + (double) z * w);
+		double r20 = 2.0 * ((double) x * z - (double) y * w);
+		double cosY = Math.sqrt(r00 * r00 + r10 * r10);
+		if (cosY > GIMBAL_THRESHOLD) {
+			double r21 = 2.0 * ((double) y * z + (double) x * w);
+			double r22 = 1.0 - 2.0 * ((double) x * x + (double) y * y);
+			euler.x = (float) Math.toDegrees(Math.atan2(r21, r22));
+			euler.z = (float) Math.toDegrees(Math.atan2(r10, r00));
+		} else {
+			// The rotations in x and z are around the same axle, all of it goes to x
+			double r11 = 1.0 - 2.0 * ((double) x * x + (double) z * z);
+			double r12 = 2.0 * ((double) y * z - (double) x * w);
+			euler.x = (float) Math.toDegrees(Math.atan2(-r12, r11));
+			euler.z = 0.0f;
+		}
+		euler.y = (float) Math.toDegrees(Math.atan2(-r20, cosY));
+		return euler;
+	}
+
+	/**
+	 * Sets the product of two rotations, the rotation of b followed by the
+	 * one of a (any of them can be this quaternion)
+	 *
+	 * @param a
+	 *            Left operand
+	 * @param b
+	 *            Right operand
+	 */
+	public void multiply(Quaternion a, Quaternion b) {
+		float rx = a.w * b.x + a.x * b.w + a.y * b.z - a.z * b.y;
+		float ry = a.w * b.y - a.x * b.z + a.y * b.w + a.z * b.x;
+		float rz = a.w * b.z + a.x * b.y - a.y * b.x + a.z * b.w;
+		float rw = a.w * b.w - a.x * b.x - a.y * b.y - a.z * b.z;
+		set(rx, ry, rz, rw);
+	}
+
+	/**
+	 * Normalizes the components of the quaternion
+	 */
+	public void normalise() {
+		float magnitude = (float) Math.sqrt((double) (x * x + y * y + z * z + w * w));
+		if (magnitude > 0.0f) {
+			set(x / magnitude, y / magnitude, z / magnitude, w / magnitude);
+		} else {
+			setIdentity();
+		}
+	}
+
+	/**
+	 * Sets the spherical interpolation between two rotations by the shortest
+	 * path (any of them can be this quaternion)
+	 *
+	 * @param a
+	 *            Rotation at the start
+	 * @param b
+	 *            Rotation at the end
+	 * @param t
+	 *            Fraction of the way from a to b (0 to 1)
+	 */
+	public void slerp(Quaternion a, Quaternion b, float t) {
+		float bx = b.x, by = b.y, bz = b.z, bw = b.w;
+		float cosAngle = a.x * bx + a.y * by + a.z * bz + a.w * bw;
+		// The same rotation has two quaternions, the closest one is used
+		if (cosAngle < 0.0f) {
+			cosAngle = -cosAngle;
+			bx = -bx;
+			by = -by;
+			bz = -bz;
+			bw = -bw;
+		}
+		float fromA;
+		float fromB;
+		if (cosAngle > SLERP_THRESHOLD) {
+			// The rotations are so close that the interpolation is linear
+			fromA = 1.0f - t;
+			fromB = t;
+		} else {
+			double angle = Math.acos(cosAngle);
+			double sinAngle = Math.sin(angle);
+			fromA = (float) (Math.sin((1.0f - t) * angle) / sinAngle);
+			fromB = (float) (Math.sin(t * angle) / sinAngle);
+		}
+		set(fromA * a.x + fromB * bx, fromA * a.y + fromB * by, fromA * a.z + fromB * bz, fromA * a.w + fromB * bw);
+		if (cosAngle > SLERP_THRESHOLD) {
+			normalise();
+		}
+	}
+
+	/**
+	 * Writes the matrix of the rotation scaled in the layout of
+	 * {@link GLTransformation} (the rows of the rotation one after the
+	 * other), the translation is zero
+	 *
+	 * @param matrix
+	 *            Array where the matrix is written
+	 * @param offset
+	 *            Position of the matrix in the array
+	 * @param scale
+	 *            Scale of the rotation
+	 */
+	public void toMatrix(float[] matrix, int offset, float scale) {
+		float xx = x * x, yy = y * y, zz = z * z;
+		float xy = x * y, xz = x * z, yz = y * z;
+		float wx = w * x, wy = w * y, wz = w * z;
+
+		matrix[offset] = scale * (1.0f - 2.0f * (yy + zz));
+		matrix[offset + 1] = scale * (2.0f * (xy - wz));
+		matrix[offset + 2] = scale * (2.0f * (xz + wy));
+		matrix[offset + 3] = 0.0f;
+
+		matrix[offset + 4] = scale * (2.0f * (xy + wz));
+		matrix[offset + 5] = scale * (1.0f - 2.0f * (xx + zz));
+		matrix[offset + 6] = scale * (2.0f * (yz - wx));
+		matrix[offset + 7] = 0.0f;
+
+		matrix[offset + 8] = scale * (2.0f * (xz - wy));
+		matrix[offset + 9] = scale * (2.0f * (yz + wx));
+		matrix[offset + 10] = scale * (1.0f - 2.0f * (xx + yy));
+		matrix[offset + 11] = 0.0f;
+
+		matrix[offset + 12] = 0.0f;
+		matrix[offset + 13] = 0.0f;
+		matrix[offset + 14] = 0.0f;
+		matrix[offset + 15] = 1.0f;
+	}
+
+	/**
+	 * Transforms the quaternion into a string
+	 */
+	@Override
+	public String toString() {
+		return String.format("(%f,%f,%f,%f)", x, y, z, w);
+	}
+}
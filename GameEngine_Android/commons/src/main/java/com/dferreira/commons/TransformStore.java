@@ -0,0 +1,511 @@
+package com.dferreira.commons;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the positions, the rotations and the scales of the entities in
+ * contiguous arrays (one array by component) and computes the model matrices
+ * of all of them at once, once by frame, into one array of floats. The
+ * rotations are kept as quaternions converted when the rotations are set so
+ * the loop that builds the matrices only multiplies and adds components of
+ * arrays (the scenery is mostly static so the rotations seldom change).
+ * The matrices are kept between frames, only the ones of the entities
+ * changed since the last frame are built again
+ */
+public class TransformStore {
+
+    /**
+     * Number of floats of one matrix
+     */
+    public final static int MATRIX_SIZE = 16;
+
+    /**
+     * Number of entities that the store has room for when it is created
+     */
+    private final static int DEFAULT_CAPACITY = 1024;
+
+    /* Components of the positions */
+    private float[] positionX;
+    private float[] positionY;
+    private float[] positionZ;
+
+    /* Rotations in degrees (angles of Euler) */
+    private float[] rotationX;
+    private float[] rotationY;
+    private float[] rotationZ;
+
+    /* Components of the quaternions of the rotations */
+    private float[] orientationX;
+    private float[] orientationY;
+    private float[] orientationZ;
+    private float[] orientationW;
+
+    /* Scales */
+    private float[] scale;
+
+    /* Model matrices of the entities (16 floats by entity) */
+    private float[] matrices;
+
+    /* Entities changed since their matrices were built */
+    private boolean[] dirty;
+
+    /* Number of entities changed since the matrices were built */
+    private int dirtyCount;
+
+    /* Range of the entities changed since the matrices were built */
+    private int dirtyFrom;
+    private int dirtyTo;
+
+    /* Incremented by every change of the entities of the store */
+    private long version;
+
+    /* Version of the store when the matrices were built */
+    private long computedVersion;
+
+    /* Number of matrices built in the last frame */
+    private int frameRebuilt;
+
+    /* Number of matrices kept from the frames before in the last frame */
+    private int frameCached;
+
+    /* Number of entities in the store */
+    private int count;
+
+    /* Number of entities with the matrix computed in the last frame */
+    private int computedCount;
+
+    /* Computes the matrices of the entities changed (null to compute them in the calling thread) */
+    private ITransformSlicer slicer;
+
+    /* Matrix of one entity added after the matrices of the frame were computed */
+    private final float[] scratch;
+
+    /* Rotation converted when it is set */
+    private final Quaternion rotation;
+
+    /* Angles of Euler of one rotation set as quaternion */
+    private final Vector3f euler;
+
+    /**
+     * Constructor of one store with room for the entities of one scene
+     */
+    public TransformStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Number of entities that the store has room for (it grows when needed)
+     */
+    public TransformStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.positionX = new float[capacity];
+        this.positionY = new float[capacity];
+        this.positionZ = new float[capacity];
+        this.rotationX = new float[capacity];
+        this.rotationY = new float[capacity];
+        this.rotationZ = new float[capacity];
+        this.orientationX = new float[capacity];
+        this.orientationY = new float[capacity];
+        this.orientationZ = new float[capacity];
+        this.orientationW = new float[capacity];
+        this.scale = new float[capacity];
+        this.matrices = new float[capacity * MATRIX_SIZE];
+        this.dirty = new boolean[capacity];
+        this.computedVersion = -1;
+        this.scratch = new float[MATRIX_SIZE];
+        this.rotation = new Quaternion();
+        this.euler = new Vector3f(0.0f, 0.0f, 0.0f);
+    }
+
+    /**
+     * Makes room for one more entity doubling the arrays when they are full
+     */
+    private void ensureCapacity() {
+        if (count < scale.length) {
+            return;
+        }
+        int capacity = scale.length * 2;
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        positionZ = Arrays.copyOf(positionZ, capacity);
+        rotationX = Arrays.copyOf(rotationX, capacity);
+        rotationY = Arrays.copyOf(rotationY, capacity);
+        rotationZ = Arrays.copyOf(rotationZ, capacity);
+        orientationX = Arrays.copyOf(orientationX, capacity);
+        orientationY = Arrays.copyOf(orientationY, capacity);
+        orientationZ = Arrays.copyOf(orientationZ, capacity);
+        orientationW = Arrays.copyOf(orientationW, capacity);
+        scale = Arrays.copyOf(scale, capacity);
+        matrices = Arrays.copyOf(matrices, capacity * MATRIX_SIZE);
+        dirty = Arrays.copyOf(dirty, capacity);
+    }
+
+    /**
+     * Marks the matrix of one entity to be built again in the next frame
+     *
+     * @param index Index of the entity
+     */
+    private void invalidate(int index) {
+        version++;
+        if (dirty[index]) {
+            return;
+        }
+        dirty[index] = true;
+        if (dirtyCount == 0) {
+            dirtyFrom = index;
+            dirtyTo = index + 1;
+        } else {
+            dirtyFrom = Math.min(dirtyFrom, index);
+            dirtyTo = Math.max(dirtyTo, index + 1);
+        }
+        dirtyCount++;
+    }
+
+    /**
+     * Adds one entity to the store
+     *
+     * @param x     Position in the x axle
+     * @param y     Position in the y axle
+     * @param z     Position in the z axle
+     * @param rotX  Rotation in the x axle in degrees
+     * @param rotY  Rotation in the y axle in degrees
+     * @param rotZ  Rotation in the z axle in degrees
+     * @param scale Scale of the entity
+     * @return Index of the entity in the store
+     */
+    public int add(float x, float y, float z, float rotX, float rotY, float rotZ, float scale) {
+        ensureCapacity();
+        int index = count;
+        count++;
+        setPosition(index, x, y, z);
+        setRotation(index, rotX, rotY, rotZ);
+        setScale(index, scale);
+        return index;
+    }
+
+    /**
+     * @param index    Index of the entity
+     * @param position Vector where the position is put
+     * @return The vector passed
+     */
+    public Vector3f getPosition(int index, Vector3f position) {
+        position.x = positionX[index];
+        position.y = positionY[index];
+        position.z = positionZ[index];
+        return position;
+    }
+
+    /**
+     * @param index Index of the entity
+     * @param x     Position in the x axle
+     * @param y     Position in the y axle
+     * @param z     Position in the z axle
+     */
+    public void setPosition(int index, float x, float y, float z) {
+        positionX[index] = x;
+        positionY[index] = y;
+        positionZ[index] = z;
+        invalidate(index);
+    }
+
+    /**
+     * Increases the position of one entity
+     *
+     * @param index Index of the entity
+     * @param dx    X component to be increase
+     * @param dy    Y component to be increase
+     * @param dz    Z component to be increase
+     */
+    public void increasePosition(int index, float dx, float dy, float dz) {
+        positionX[index] += dx;
+        positionY[index] += dy;
+        positionZ[index] += dz;
+        invalidate(index);
+    }
+
+    /**
+     * @param index Index of the entity
+     * @param rotX  Rotation in the x axle in degrees
+     * @param rotY  Rotation in the y axle in degrees
+     * @param rotZ  Rotation in the z axle in degrees
+     */
+    public void setRotation(int index, float rotX, float rotY, float rotZ) {
+        rotationX[index] = rotX;
+        rotationY[index] = rotY;
+        rotationZ[index] = rotZ;
+        rotation.setFromEuler(rotX, rotY, rotZ);
+        putOrientation(index, rotation);
+    }
+
+    /**
+     * @param index       Index of the entity
+     * @param orientation Unit quaternion of the rotation of the entity (the
+     *                    angles of Euler are computed from it)
+     */
+    public void setOrientation(int index, Quaternion orientation) {
+        orientation.toEuler(euler);
+        rotationX[index] = euler.x;
+        rotationY[index] = euler.y;
+        rotationZ[index] = euler.z;
+        putOrientation(index, orientation);
+    }
+
+    /**
+     * @param index       Index of the entity
+     * @param orientation Quaternion where the rotation of the entity is put
+     * @return The quaternion passed
+     */
+    public Quaternion getOrientation(int index, Quaternion orientation) {
+        orientation.set(orientationX[index], orientationY[index], orientationZ[index], orientationW[index]);
+        return orientation;
+    }
+
+    /**
+     * @param index       Index of the entity
+     * @param orientation Unit quaternion of the rotation of the entity
+     */
+    private void putOrientation(int index, Quaternion orientation) {
+        orientationX[index] = orientation.x;
+        orientationY[index] = orientation.y;
+        orientationZ[index] = orientation.z;
+        orientationW[index] = orientation.w;
+        invalidate(index);
+    }
+
+    /**
+     * @param index Index of the entity
+     * @return Rotation of the entity in the x axle in degrees
+     */
+    public float getRotX(int index) {
+        return rotationX[index];
+    }
+
+    /**
+     * @param index Index of the entity
+     * @return Rotation of the entity in the y axle in degrees
+     */
+    public float getRotY(int index) {
+        return rotationY[index];
+    }
+
+    /**
+     * @param index Index of the entity
+     * @return Rotation of the entity in the z axle in degrees
+     */
+    public float getRotZ(int index) {
+        return rotationZ[index];
+    }
+
+    /**
+     * @param index Index of the entity
+     * @return Scale of the entity
+     */
+    public float getScale(int index) {
+        return scale[index];
+    }
+
+    /**
+     * @param index Index of the entity
+     * @param scale Scale of the entity
+     */
+    public void setScale(int index, float scale) {
+        this.scale[index] = scale;
+        invalidate(index);
+    }
+
+    /**
+     * Computes the model matrices of one range of entities, the matrix of
+     * each one is the one of {@link GLTransformation#setTRS(Vector3f, Quaternion, float)}
+     *
+     * @param from Index of the first entity
+     * @param to   Index after the last entity
+     */
+    public void computeMatrices(int from, int to) {
+        computeMatrices(from, to, matrices, from * MATRIX_SIZE);
+    }
+
+    /**
+     * Computes the model matrices of the entities changed in one range (the
+     * ranges that do not overlap can be computed in different threads)
+     *
+     * @param from Index of the first entity
+     * @param to   Index after the last entity
+     */
+    public void computeDirtyMatrices(int from, int to) {
+        int i = from;
+        while (i < to) {
+            if (!dirty[i]) {
+                i++;
+                continue;
+            }
+            // The entities changed one after the other are built in one loop
+            int end = i;
+            while ((end < to) && dirty[end]) {
+                dirty[end] = false;
+                end++;
+            }
+            computeMatrices(i, end);
+            i = end;
+        }
+    }
+
+    /**
+     * Computes the model matrices of one range of entities into one array
+     *
+     * @param from   Index of the first entity
+     * @param to     Index after the last entity
+     * @param dst    Array where the matrices are written
+     * @param offset Position of the matrix of the first entity in the array
+     */
+    private void computeMatrices(int from, int to, float[] dst, int offset) {
+        final float[] px = positionX, py = positionY, pz = positionZ;
+        final float[] qx = orientationX, qy = orientationY, qz = orientationZ, qw = orientationW;
+        final float[] s = scale;
+        int m = offset;
+        for (int i = from; i < to; i++, m += MATRIX_SIZE) {
+            float xx = qx[i] * qx[i], yy = qy[i] * qy[i], zz = qz[i] * qz[i];
+            float xy = qx[i] * qy[i], xz = qx[i] * qz[i], yz = qy[i] * qz[i];
+            float wx = qw[i] * qx[i], wy = qw[i] * qy[i], wz = qw[i] * qz[i];
+
+            // Rows of the matrix of the rotation (the one of Quaternion.toMatrix)
+            dst[m] = s[i] * (1.0f - 2.0f * (yy + zz));
+            dst[m + 1] = s[i] * (2.0f * (xy - wz));
+            dst[m + 2] = s[i] * (2.0f * (xz + wy));
+            dst[m + 3] = 0.0f;
+
+            dst[m + 4] = s[i] * (2.0f * (xy + wz));
+            dst[m + 5] = s[i] * (1.0f - 2.0f * (xx + zz));
+            dst[m + 6] = s[i] * (2.0f * (yz - wx));
+            dst[m + 7] = 0.0f;
+
+            dst[m + 8] = s[i] * (2.0f * (xz - wy));
+            dst[m + 9] = s[i] * (2.0f * (yz + wx));
+            dst[m + 10] = s[i] * (1.0f - 2.0f * (xx + yy));
+            dst[m + 11] = 0.0f;
+
+            // The translation is the last column
+            dst[m + 12] = px[i];
+            dst[m + 13] = py[i];
+            dst[m + 14] = pz[i];
+            dst[m + 15] = 1.0f;
+        }
+    }
+
+    /**
+     * Computes the model matrices of the entities changed since the last
+     * frame (nothing is done when the version of the store is the same),
+     * called once by frame before the entities are rendered
+     */
+    public void computeMatrices() {
+        frameRebuilt = dirtyCount;
+        frameCached = count - dirtyCount;
+        if (version == computedVersion) {
+            return;
+        }
+        if (dirtyCount > 0) {
+            if (slicer != null) {
+                slicer.computeDirtyMatrices(this, dirtyFrom, dirtyTo);
+            } else {
+                computeDirtyMatrices(dirtyFrom, dirtyTo);
+            }
+        }
+        dirtyCount = 0;
+        computedCount = count;
+        computedVersion = version;
+    }
+
+    /**
+     * Marks the matrices of every entity to be built again in the next frame
+     */
+    public void invalidateAll() {
+        version++;
+        Arrays.fill(dirty, 0, count, true);
+        dirtyCount = count;
+        dirtyFrom = 0;
+        dirtyTo = count;
+    }
+
+    /**
+     * Loads the model matrix of one entity computed in the frame (computed
+     * alone if the entity was added after the matrices of the frame)
+     *
+     * @param index  Index of the entity
+     * @param matrix Matrix where the model matrix is loaded
+     */
+    public void loadMatrix(int index, GLTransformation matrix) {
+        if (index < computedCount) {
+            matrix.set(matrices, index * MATRIX_SIZE);
+        } else {
+            computeMatrices(index, index + 1, scratch, 0);
+            matrix.set(scratch, 0);
+        }
+    }
+
+    /**
+     * @return Version of the store, incremented by every change of its
+     * entities (the renders can skip their work when it is the same)
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Number of matrices built in the last frame
+     */
+    public int getFrameRebuilt() {
+        return frameRebuilt;
+    }
+
+    /**
+     * @return Number of matrices kept from the frames before in the last frame
+     */
+    public int getFrameCached() {
+        return frameCached;
+    }
+
+    /**
+     * @return Fraction of the matrices of the last frame kept from the frames before
+     */
+    public float getFrameHitRatio() {
+        int total = frameRebuilt + frameCached;
+        return (total == 0) ? 1.0f : frameCached / (float) total;
+    }
+
+    /**
+     * @return Model matrices of the entities computed in the last frame (16 floats by entity)
+     */
+    public float[] getMatrices() {
+        return matrices;
+    }
+
+    /**
+     * @param slicer Computes the matrices of the entities changed, for
+     *               instance in slices across the cores (null to compute them
+     *               in the calling thread)
+     */
+    public void setSlicer(ITransformSlicer slicer) {
+        this.slicer = slicer;
+    }
+
+    /**
+     * @return Computes the matrices of the entities changed (null if they are
+     * computed in the calling thread)
+     */
+    public ITransformSlicer getSlicer() {
+        return slicer;
+    }
+
+    /**
+     * @return Number of entities in the store
+     */
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d entities (room for %d), %s, last frame %d cached %d rebuilt (hit ratio %.3f), "
+                        + "version %d", count, scale.length, (slicer == null) ? "serial" : slicer,
+                frameCached, frameRebuilt, getFrameHitRatio(), version);
+    }
+}
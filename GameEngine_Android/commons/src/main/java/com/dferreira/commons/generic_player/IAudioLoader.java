@@ -1,6 +1,7 @@
 package com.dferreira.commons.generic_player;
 
 import com.dferreira.commons.generic_resources.AudioEnum;
+import com.dferreira.commons.generic_resources.IAudioData;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 
 import java.util.List;
@@ -20,6 +21,14 @@ public interface IAudioLoader {
      */
     IAudioDescription loadAudio(AudioEnum audioEnum, IResourceProvider resourceProvider);
 
+    /**
+     * Load one audio already decoded in an audio descriptor
+     *
+     * @param audioData The audio decoded
+     * @return The audio descriptor of the audio loaded
+     */
+    IAudioDescription loadAudio(IAudioData audioData);
+
     /**
      * @param numberOfSources Number of audio sources to generate
      * @return A list of the audio sources generated
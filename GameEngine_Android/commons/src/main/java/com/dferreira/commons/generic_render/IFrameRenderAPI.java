@@ -86,6 +86,18 @@ public interface IFrameRenderAPI {
 	 */
 	void drawTrianglesIndexes(IRawModel model);
 
+	/**
+	 * Draw a range of the indexes of a model as a set of triangles
+	 *
+	 * @param model
+	 *            The model to be drawn
+	 * @param indexOffset
+	 *            Position of the first index to draw
+	 * @param indexCount
+	 *            Number of indices to draw
+	 */
+	void drawTrianglesIndexes(IRawModel model, int indexOffset, int indexCount);
+
 	/**
 	 * Draw a set of triangles using for that there vertex
 	 *
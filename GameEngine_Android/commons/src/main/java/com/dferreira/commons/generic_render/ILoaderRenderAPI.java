@@ -3,7 +3,12 @@ package com.dferreira.commons.generic_render;
 import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_resources.TextureEnum;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.QuantizedMesh;
+import com.dferreira.commons.shapes.IBufferShape;
 import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.textures.CompressedFormat;
+import com.dferreira.commons.textures.TextureStreamer;
+import com.dferreira.commons.utils.ResourceRegistry;
 
 import java.util.HashMap;
 
@@ -33,6 +38,64 @@ public interface ILoaderRenderAPI {
     @SuppressWarnings("SameParameterValue")
     ITexture loadTexture(String filename, boolean repeat);
 
+    /**
+     * Load a texture already decoded in the Render API
+     *
+     * @param textureData The data of the texture to load
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The identifier of the texture loaded
+     */
+    ITexture loadTexture(TextureData textureData, boolean repeat);
+
+    /**
+     * Load a texture of a file already decoded in the Render API, the
+     * textures of files already loaded are shared as in
+     * {@link #loadTexture(String, boolean)}
+     *
+     * @param filename    The filename of the texture
+     * @param textureData The data of the texture decoded from the file
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The identifier of the texture loaded
+     */
+    ITexture loadTexture(String filename, TextureData textureData, boolean repeat);
+
+    /**
+     * Uploads again one texture already loaded with other levels, the
+     * texture keeps being the same for the materials that use it
+     *
+     * @param texture     The texture loaded
+     * @param textureData The data of the texture with the levels to upload
+     * @param repeat      The same value used to load the texture
+     */
+    void reloadTexture(ITexture texture, TextureData textureData, boolean repeat);
+
+    /**
+     * @return Streamer that uploads the levels of the textures by demand
+     */
+    TextureStreamer getTextureStreamer();
+
+    /**
+     * The textures compressed in formats not supported are not loaded
+     *
+     * @param format Format of the blocks of a compressed texture
+     * @return True if the Render API uploads the textures in the format as they are
+     */
+    boolean isCompressedFormatSupported(CompressedFormat format);
+
+    /**
+     * Releases one reference to a texture loaded from a file, the texture is
+     * deleted from the Render API when nothing else uses it
+     *
+     * @param filename The filename of the texture
+     * @param repeat   The same value used to load the texture
+     */
+    void releaseTexture(String filename, boolean repeat);
+
+    /**
+     * @return Registry of the textures loaded from files with the statistics of reuse
+     */
+    ResourceRegistry<ITexture> getTextureRegistry();
+
     /**
      * Loads the data of a texture without bind
      *
@@ -51,14 +114,54 @@ public interface ILoaderRenderAPI {
     @SuppressWarnings("SameParameterValue")
     ITexture loadTCubeMap(TextureEnum[] textures, boolean repeat);
 
+    /**
+     * Load a set of textures already decoded in the Render API
+     *
+     * @param textures The images of the cube already decoded
+     * @param repeat   Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The identifier of the texture
+     */
+    @SuppressWarnings("SameParameterValue")
+    ITexture loadTCubeMap(TextureData[] textures, boolean repeat);
+
     /**
      * Load from a shape to one equivalent IRawModel
      *
-     * @param shape      The shape to load
-     * @param attributes List of attributes associated with the model
+     * @param shape  The shape to load
+     * @param format Layout of the vertices and locations of their attributes
      * @return The raw model loaded
      */
-    IRawModel loadToRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes);
+    IRawModel loadToRawModel(IShape shape, VertexFormat format);
+
+    /**
+     * Load from a shape backed by buffers to one equivalent IRawModel, the
+     * direct buffers are used without an intermediate copy
+     *
+     * @param shape  The shape to load
+     * @param format Layout of the vertices and locations of their attributes
+     * @return The raw model loaded
+     */
+    IRawModel loadToRawModel(IBufferShape shape, VertexFormat format);
+
+    /**
+     * Load the packed vertices of one quantized mesh to one equivalent
+     * IRawModel
+     *
+     * @param mesh The quantized mesh to load
+     * @return The raw model loaded (null if the Render API does not support the format)
+     */
+    IRawModel loadToRawModel(QuantizedMesh mesh);
+
+    /**
+     * Creates a raw model that shares the buffers of one model already loaded
+     * but only draws a range of its indices (nothing is uploaded again)
+     *
+     * @param model       The model loaded that has the buffers
+     * @param indexOffset Position of the first index to draw
+     * @param indexCount  Number of indices to draw
+     * @return The raw model of the range
+     */
+    IRawModel loadSubRawModel(IRawModel model, int indexOffset, int indexCount);
 
     /**
      * Load a list of 2D positions to GLRawModel
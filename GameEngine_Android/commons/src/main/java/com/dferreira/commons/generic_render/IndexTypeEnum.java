@@ -0,0 +1,42 @@
+package com.dferreira.commons.generic_render;
+
+/**
+ * Enum with the types of the indices of the triangles supported by the
+ * render engine
+ */
+public enum IndexTypeEnum {
+    /**
+     * Indices of 16 bits (for meshes with less than 65536 vertices)
+     */
+    unsignedShort,
+
+    /**
+     * Indices of 32 bits
+     */
+    unsignedInt;
+
+    /**
+     * Number of vertices that can be addressed with indices of 16 bits
+     */
+    private final static int MAX_SHORT_VERTICES = 65536;
+
+    /**
+     * @return Number of bytes of one index
+     */
+    public int getBytes() {
+        switch (this) {
+            case unsignedShort:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+
+    /**
+     * @param vertexCount Number of vertices referenced by the indices
+     * @return The narrowest type of index able to address all the vertices
+     */
+    public static IndexTypeEnum forVertexCount(int vertexCount) {
+        return (vertexCount <= MAX_SHORT_VERTICES) ? unsignedShort : unsignedInt;
+    }
+}
@@ -28,4 +28,10 @@ public class RenderConstants {
      */
     @SuppressWarnings("FieldCanBeLocal")
     public final static int NUMBER_COMPONENTS_PER_NORMAL_ATTR = 3;
+
+    /**
+     * Layout of the vertices of the meshes (one buffer by attribute or one
+     * interleaved buffer)
+     */
+    public final static VertexLayoutEnum VERTEX_LAYOUT = VertexLayoutEnum.interleaved;
 }
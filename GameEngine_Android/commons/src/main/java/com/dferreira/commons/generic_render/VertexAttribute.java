@@ -0,0 +1,96 @@
+package com.dferreira.commons.generic_render;
+
+import com.dferreira.commons.IEnum;
+
+/**
+ * Describes one attribute of the vertices of one vertex format
+ */
+public class VertexAttribute {
+
+    /**
+     * What the attribute represents
+     */
+    private final RenderAttributeEnum semantic;
+
+    /**
+     * Location of the attribute in the shader program
+     */
+    private final IEnum location;
+
+    /**
+     * Number of components of the attribute
+     */
+    private final int components;
+
+    /**
+     * Type of the components of the attribute
+     */
+    private final VertexAttributeTypeEnum type;
+
+    /**
+     * Offset in bytes of the attribute from the start of the vertex
+     * (0 when every attribute has its own buffer)
+     */
+    private final int offset;
+
+    /**
+     * @param semantic   What the attribute represents
+     * @param location   Location of the attribute in the shader program
+     * @param components Number of float components of the attribute
+     * @param offset     Offset in bytes of the attribute from the start of the vertex
+     */
+    VertexAttribute(RenderAttributeEnum semantic, IEnum location, int components, int offset) {
+        this(semantic, location, components, VertexAttributeTypeEnum.float32, offset);
+    }
+
+    /**
+     * @param semantic   What the attribute represents
+     * @param location   Location of the attribute in the shader program
+     * @param components Number of components of the attribute
+     * @param type       Type of the components of the attribute
+     * @param offset     Offset in bytes of the attribute from the start of the vertex
+     */
+    VertexAttribute(RenderAttributeEnum semantic, IEnum location, int components, VertexAttributeTypeEnum type,
+                    int offset) {
+        this.semantic = semantic;
+        this.location = location;
+        this.components = components;
+        this.type = type;
+        this.offset = offset;
+    }
+
+    /**
+     * @return What the attribute represents
+     */
+    public RenderAttributeEnum getSemantic() {
+        return semantic;
+    }
+
+    /**
+     * @return Location of the attribute in the shader program
+     */
+    public IEnum getLocation() {
+        return location;
+    }
+
+    /**
+     * @return Number of components of the attribute
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * @return Type of the components of the attribute
+     */
+    public VertexAttributeTypeEnum getType() {
+        return type;
+    }
+
+    /**
+     * @return Offset in bytes of the attribute from the start of the vertex
+     */
+    public int getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,52 @@
+package com.dferreira.commons.generic_render;
+
+/**
+ * Enum with the types of the components of the attributes of the vertices
+ */
+public enum VertexAttributeTypeEnum {
+    /**
+     * Float of 32 bits
+     */
+    float32,
+
+    /**
+     * Half float of 16 bits
+     */
+    halfFloat,
+
+    /**
+     * Signed integer of 16 bits read as a float without normalization
+     */
+    int16,
+
+    /**
+     * Signed integer of 8 bits normalized to [-1, 1]
+     */
+    snorm8,
+
+    /**
+     * Signed integer of 16 bits normalized to [-1, 1]
+     */
+    snorm16;
+
+    /**
+     * @return Number of bytes of one component
+     */
+    public int getBytes() {
+        switch (this) {
+            case float32:
+                return 4;
+            case snorm8:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
+    /**
+     * @return True if the integers are normalized to [-1, 1] when read
+     */
+    public boolean isNormalized() {
+        return (this == snorm8) || (this == snorm16);
+    }
+}
@@ -0,0 +1,257 @@
+package com.dferreira.commons.generic_render;
+
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.utils.DirectBufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Describes how the attributes of the vertices of one mesh are laid out in
+ * the render API: one buffer by attribute or one interleaved buffer with a
+ * stride and the offset of every attribute. The attributes are floats except
+ * in the quantized format where they are packed in 16 bytes by vertex
+ */
+public class VertexFormat {
+
+    /**
+     * Number of bytes of one float
+     */
+    private final static int FLOAT_IN_BYTES = 4;
+
+    /**
+     * Number of components of the coordinates of a texture
+     */
+    private final static int TEXTURE_COORDS_SIZE = 2;
+
+    /**
+     * Number of components of one normal encoded with the octahedral mapping
+     */
+    private final static int OCTAHEDRAL_NORMAL_SIZE = 2;
+
+    /**
+     * Offsets in bytes of the attributes of the quantized format (the position
+     * is padded to 4 bytes so every attribute is aligned)
+     */
+    private final static int QUANTIZED_POSITION_OFFSET = 0;
+    private final static int QUANTIZED_NORMAL_OFFSET = 8;
+    private final static int QUANTIZED_TEXTURE_OFFSET = 12;
+
+    /**
+     * Bytes of one vertex of the quantized format
+     */
+    private final static int QUANTIZED_STRIDE = 16;
+
+    /**
+     * Layout of the vertices
+     */
+    private final VertexLayoutEnum layout;
+
+    /**
+     * Attributes of every vertex in the order they are stored
+     */
+    private final List<VertexAttribute> attributes;
+
+    /**
+     * Locations of the attributes in the shader program by semantic
+     */
+    private final HashMap<RenderAttributeEnum, IEnum> locations;
+
+    /**
+     * Bytes between two consecutive vertices (0 when the attributes are in separate buffers)
+     */
+    private final int stride;
+
+    /**
+     * Number of floats of one vertex with all its attributes (or of words of
+     * 4 bytes in the quantized format)
+     */
+    private final int vertexSize;
+
+    /**
+     * Constructor of the vertex format
+     *
+     * @param layout     Layout of the vertices
+     * @param semantics  What every attribute represents in the order they are stored
+     * @param locations  Locations of the attributes in the shader program by semantic
+     * @param components Number of float components of every attribute
+     */
+    public VertexFormat(VertexLayoutEnum layout, RenderAttributeEnum[] semantics,
+                        HashMap<RenderAttributeEnum, IEnum> locations, int[] components) {
+        this.layout = layout;
+        this.locations = locations;
+        List<VertexAttribute> attributes = new ArrayList<>(semantics.length);
+        int size = 0;
+        for (int i = 0; i < semantics.length; i++) {
+            int offset = (layout == VertexLayoutEnum.interleaved) ? size * FLOAT_IN_BYTES : 0;
+            attributes.add(new VertexAttribute(semantics[i], locations.get(semantics[i]), components[i], offset));
+            size += components[i];
+        }
+        this.attributes = Collections.unmodifiableList(attributes);
+        this.vertexSize = size;
+        this.stride = (layout == VertexLayoutEnum.interleaved) ? size * FLOAT_IN_BYTES : 0;
+    }
+
+    /**
+     * Constructor of one interleaved format with attributes already placed
+     *
+     * @param attributes Attributes of every vertex in the order they are stored
+     * @param locations  Locations of the attributes in the shader program by semantic
+     * @param stride     Bytes between two consecutive vertices
+     */
+    private VertexFormat(List<VertexAttribute> attributes, HashMap<RenderAttributeEnum, IEnum> locations,
+                         int stride) {
+        this.layout = VertexLayoutEnum.interleaved;
+        this.attributes = Collections.unmodifiableList(attributes);
+        this.locations = locations;
+        this.stride = stride;
+        this.vertexSize = stride / FLOAT_IN_BYTES;
+    }
+
+    /**
+     * @param layout    Layout of the vertices
+     * @param locations Locations of the position, coordinates of texture and normal in the shader program
+     * @return The format of the meshes with position, coordinates of texture and normal by vertex
+     */
+    public static VertexFormat positionTextureNormal(VertexLayoutEnum layout,
+                                                     HashMap<RenderAttributeEnum, IEnum> locations) {
+        RenderAttributeEnum[] semantics = {RenderAttributeEnum.position, RenderAttributeEnum.textureCoords,
+                RenderAttributeEnum.normal};
+        int[] components = {RenderConstants.VERTEX_SIZE, TEXTURE_COORDS_SIZE,
+                RenderConstants.NUMBER_COMPONENTS_PER_NORMAL_ATTR};
+        return new VertexFormat(layout, semantics, locations, components);
+    }
+
+    /**
+     * Format with the position quantized to integers of 16 bits relative to
+     * the bounds of the mesh (the dequantization goes in the transformation
+     * matrix), the normal encoded with the octahedral mapping in two
+     * normalized integers and the coordinates of the texture as half floats
+     *
+     * @param locations  Locations of the position, coordinates of texture and normal in the shader program
+     * @param normalBits Bits of each component of the normal (8 or 16)
+     * @return The quantized format with 16 bytes by vertex
+     */
+    public static VertexFormat quantized(HashMap<RenderAttributeEnum, IEnum> locations, int normalBits) {
+        VertexAttributeTypeEnum normalType = (normalBits <= 8) ? VertexAttributeTypeEnum.snorm8
+                : VertexAttributeTypeEnum.snorm16;
+        List<VertexAttribute> attributes = new ArrayList<>();
+        attributes.add(new VertexAttribute(RenderAttributeEnum.position, locations.get(RenderAttributeEnum.position),
+                RenderConstants.VERTEX_SIZE, VertexAttributeTypeEnum.int16, QUANTIZED_POSITION_OFFSET));
+        attributes.add(new VertexAttribute(RenderAttributeEnum.textureCoords,
+                locations.get(RenderAttributeEnum.textureCoords), TEXTURE_COORDS_SIZE,
+                VertexAttributeTypeEnum.halfFloat, QUANTIZED_TEXTURE_OFFSET));
+        attributes.add(new VertexAttribute(RenderAttributeEnum.normal, locations.get(RenderAttributeEnum.normal),
+                OCTAHEDRAL_NORMAL_SIZE, normalType, QUANTIZED_NORMAL_OFFSET));
+        return new VertexFormat(attributes, locations, QUANTIZED_STRIDE);
+    }
+
+    /**
+     * @return True if the attributes are not all floats
+     */
+    public boolean isQuantized() {
+        for (VertexAttribute attribute : attributes) {
+            if (attribute.getType() != VertexAttributeTypeEnum.float32) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param semantic What the attribute represents
+     * @return The attribute of the format with the semantic (null if none)
+     */
+    public VertexAttribute getAttribute(RenderAttributeEnum semantic) {
+        for (VertexAttribute attribute : attributes) {
+            if (attribute.getSemantic() == semantic) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Interleaves the attributes of the vertices in one buffer (only for the
+     * formats where all the attributes are floats)
+     *
+     * @param sources One buffer by attribute in the order of the format (from the position to the limit)
+     * @return A direct buffer with all the attributes of each vertex next to each other
+     */
+    public FloatBuffer interleave(FloatBuffer... sources) {
+        return interleaveInto(DirectBufferUtils.createFloatBuffer(getVertexCount(sources) * vertexSize), sources);
+    }
+
+    /**
+     * @param sources One buffer by attribute in the order of the format (from the position to the limit)
+     * @return Number of vertices of the sources
+     */
+    public int getVertexCount(FloatBuffer... sources) {
+        return sources[0].remaining() / attributes.get(0).getComponents();
+    }
+
+    /**
+     * Interleaves the attributes of the vertices in a buffer given (only for
+     * the formats where all the attributes are floats)
+     *
+     * @param buffer  Buffer where the vertices are written (from the position, with
+     *                room for the number of vertices times the size of one vertex)
+     * @param sources One buffer by attribute in the order of the format (from the position to the limit)
+     * @return The same buffer flipped with all the attributes of each vertex next to each other
+     */
+    public FloatBuffer interleaveInto(FloatBuffer buffer, FloatBuffer... sources) {
+        int vertexCount = getVertexCount(sources);
+        int[] positions = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            positions[i] = sources[i].position();
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            for (int i = 0; i < sources.length; i++) {
+                int components = attributes.get(i).getComponents();
+                for (int c = 0; c < components; c++) {
+                    buffer.put(sources[i].get(positions[i]++));
+                }
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return Layout of the vertices
+     */
+    public VertexLayoutEnum getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return Attributes of every vertex in the order they are stored
+     */
+    public List<VertexAttribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return Locations of the attributes in the shader program by semantic
+     */
+    public HashMap<RenderAttributeEnum, IEnum> getLocations() {
+        return locations;
+    }
+
+    /**
+     * @return Bytes between two consecutive vertices (0 when the attributes are in separate buffers)
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * @return Number of floats of one vertex with all its attributes
+     */
+    public int getVertexSize() {
+        return vertexSize;
+    }
+}
@@ -0,0 +1,16 @@
+package com.dferreira.commons.generic_render;
+
+/**
+ * Enum with the layouts of the vertices of one mesh in the render API
+ */
+public enum VertexLayoutEnum {
+    /**
+     * One buffer by attribute (positions, coordinates of texture, normals)
+     */
+    separate,
+
+    /**
+     * One buffer with all the attributes of each vertex next to each other
+     */
+    interleaved
+}
@@ -1,9 +1,11 @@
 package com.dferreira.commons.generic_resources;
 
 import com.dferreira.commons.models.TextureData;
-import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.utils.ResourceRegistry;
 
-import java.util.List;
+import java.util.HashMap;
 
 /**
  * Contains all the methods required to get the resources of the game
@@ -13,9 +15,9 @@ public interface IResourceProvider {
 	/**
 	 * @param modelEnum
 	 *            The model to load
-	 * @return The list of shapes that make part of the model to load
+	 * @return The mesh of the model to load with one sub mesh by group
 	 */
-	List<IShape> getResource(ModelEnum modelEnum);
+	WfMesh getResource(ModelEnum modelEnum);
 
 	/**
 	 * @param textureEnum
@@ -25,12 +27,36 @@ public interface IResourceProvider {
 	TextureData getResource(TextureEnum textureEnum);
 
 	/**
+	 * Decodes several textures at once, the data has to be released after the
+	 * upload
+	 * 
+	 * @param textureEnums
+	 *            The textures to load
+	 * @return The information of the textures in the same order
+	 */
+	TextureData[] getResources(TextureEnum[] textureEnums);
+
+	/**
+	 * The files of KTX containers (.ktx or .ktx2) are read as
+	 * {@link com.dferreira.commons.models.CompressedTextureData} with the
+	 * levels of the container
+	 * 
 	 * @param textureFileName
 	 *            Name of the file where the texture it is
 	 * @return The texture data of the file passed
 	 */
 	TextureData getTexture(String textureFileName);
 
+	/**
+	 * Decodes several textures at once, the data has to be released after the
+	 * upload
+	 * 
+	 * @param textureFileNames
+	 *            Names of the files where the textures are
+	 * @return The texture data of the files in the same order
+	 */
+	TextureData[] getTextures(String[] textureFileNames);
+
 	/**
 	 * @param textEnum
 	 *            The text to load
@@ -48,6 +74,11 @@ public interface IResourceProvider {
 	 */
 	IAudioData getResource(AudioEnum audioEnum);
 
+	/**
+	 * @return Registry with the materials already parsed by file of materials
+	 */
+	ResourceRegistry<HashMap<String, IExternalMaterial>> getMaterialRegistry();
+
 	/**
 	 * Dispose the resources used by the resource provider
 	 */
@@ -0,0 +1,151 @@
+package com.dferreira.commons.loading;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Handle to one asset that is still being loaded, the scene polls it every
+ * frame and uses the asset once it is done
+ *
+ * @param <T> Type of the asset
+ */
+public class AssetFuture<T> {
+
+    /**
+     * Name of the asset (for the reports)
+     */
+    private final String name;
+
+    /**
+     * Released when the asset is done or failed
+     */
+    private final CountDownLatch done;
+
+    /**
+     * Tasks to run when the asset is done or failed
+     */
+    private final List<Runnable> continuations;
+
+    /**
+     * The asset loaded
+     */
+    private volatile T result;
+
+    /**
+     * What made the load fail (null if it did not fail)
+     */
+    private volatile Throwable error;
+
+    /**
+     * @param name Name of the asset
+     */
+    AssetFuture(String name) {
+        this.name = name;
+        this.done = new CountDownLatch(1);
+        this.continuations = new ArrayList<>();
+    }
+
+    /**
+     * Completes the asset and runs the tasks waiting for it
+     *
+     * @param result The asset loaded
+     */
+    void complete(T result) {
+        this.result = result;
+        finish();
+    }
+
+    /**
+     * Completes the asset without result
+     *
+     * @param error What made the load fail
+     */
+    void fail(Throwable error) {
+        this.error = error;
+        finish();
+    }
+
+    /**
+     * Releases the waiting threads and runs the continuations
+     */
+    private void finish() {
+        List<Runnable> toRun;
+        synchronized (continuations) {
+            done.countDown();
+            toRun = new ArrayList<>(continuations);
+            continuations.clear();
+        }
+        for (Runnable continuation : toRun) {
+            continuation.run();
+        }
+    }
+
+    /**
+     * Adds one task to run when the asset is done or failed (immediately if
+     * it already is)
+     *
+     * @param continuation The task to run
+     */
+    void onDone(Runnable continuation) {
+        synchronized (continuations) {
+            if (done.getCount() > 0) {
+                continuations.add(continuation);
+                return;
+            }
+        }
+        continuation.run();
+    }
+
+    /**
+     * @return Name of the asset
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return True if the asset is done or failed
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * @return True if the load of the asset failed
+     */
+    public boolean isFailed() {
+        return isDone() && (error != null);
+    }
+
+    /**
+     * @return The asset loaded or null if it is not done or failed
+     */
+    public T get() {
+        return result;
+    }
+
+    /**
+     * @return What made the load fail (null if it did not fail)
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Blocks until the asset is done, only for the workers that decode assets
+     * that depend on others (never in the thread of the render API because
+     * the uploads are done there)
+     *
+     * @return The asset loaded or null if it failed
+     */
+    public T await() {
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return result;
+    }
+}
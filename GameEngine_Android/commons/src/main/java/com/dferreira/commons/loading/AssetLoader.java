@@ -0,0 +1,301 @@
+package com.dferreira.commons.loading;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipeline that loads the assets of the scene: the file I/O and the decode
+ * run in a pool of workers and the uploads to the render API are queued for
+ * the thread of the render API, which drains them between frames with a
+ * budget of time so the scene starts before every asset is loaded
+ */
+public class AssetLoader {
+
+    /**
+     * Nanoseconds in one millisecond
+     */
+    private final static double NANOS_IN_MILLIS = 1000000.0;
+
+    /**
+     * Name of the threads of the workers
+     */
+    private final static String WORKER_NAME = "AssetLoader-";
+
+    /**
+     * Workers that read and decode the assets
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Uploads ready to run in the thread of the render API
+     */
+    private final Queue<Runnable> uploads;
+
+    /**
+     * Number of assets (decodes and uploads) not done yet
+     */
+    private final AtomicInteger pending;
+
+    /**
+     * Moment when the pipeline was created (nanoseconds)
+     */
+    private final long startTime;
+
+    /**
+     * Moment when the first frame was rendered (-1 if none yet)
+     */
+    private long firstFrameTime;
+
+    /**
+     * Moment when the last asset was loaded (-1 if there are assets pending)
+     */
+    private long loadedTime;
+
+    /**
+     * Number of uploads done
+     */
+    private int uploadsDone;
+
+    /**
+     * Sum of the time spent in uploads (nanoseconds)
+     */
+    private long uploadTime;
+
+    /**
+     * Longest time spent in uploads in one frame (nanoseconds)
+     */
+    private long maxFrameUploadTime;
+
+    /**
+     * Constructor of the pipeline with one worker by processor (except the
+     * one of the render API)
+     */
+    public AssetLoader() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Constructor of the pipeline
+     *
+     * @param workersCount Number of workers that decode the assets
+     */
+    public AssetLoader(int workersCount) {
+        this.workers = Executors.newFixedThreadPool(workersCount, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, WORKER_NAME + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.uploads = new ConcurrentLinkedQueue<>();
+        this.pending = new AtomicInteger();
+        this.startTime = System.nanoTime();
+        this.firstFrameTime = -1;
+        this.loadedTime = -1;
+    }
+
+    /**
+     * @param name Name of the asset
+     * @return A new handle counted as pending
+     */
+    private <T> AssetFuture<T> newFuture(String name) {
+        pending.incrementAndGet();
+        return new AssetFuture<>(name);
+    }
+
+    /**
+     * Completes one handle and counts it as done
+     */
+    private <T> void complete(AssetFuture<T> future, T result) {
+        future.complete(result);
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Fails one handle and counts it as done
+     */
+    private void fail(AssetFuture<?> future, Throwable error) {
+        future.fail(error);
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Reads and decodes one asset in the workers (the task can not use the
+     * render API)
+     *
+     * @param name Name of the asset
+     * @param task Task that reads and decodes the asset
+     * @return Handle to the asset decoded
+     */
+    public <T> AssetFuture<T> decode(String name, final Callable<T> task) {
+        final AssetFuture<T> future = newFuture(name);
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    complete(future, task.call());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    fail(future, e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Queues the upload of one asset for the thread of the render API once
+     * its data is decoded
+     *
+     * @param name    Name of the asset
+     * @param decoded Handle to the data decoded
+     * @param task    Task that uploads the data to the render API
+     * @return Handle to the asset uploaded
+     */
+    public <D, T> AssetFuture<T> upload(String name, final AssetFuture<D> decoded, final IUploadTask<D, T> task) {
+        final AssetFuture<T> future = newFuture(name);
+        decoded.onDone(new Runnable() {
+            @Override
+            public void run() {
+                uploads.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (decoded.isFailed()) {
+                            fail(future, decoded.getError());
+                            return;
+                        }
+                        try {
+                            complete(future, task.upload(decoded.get()));
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                            fail(future, e);
+                        }
+                    }
+                });
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Decodes one asset in the workers and uploads it in the thread of the
+     * render API
+     *
+     * @param name   Name of the asset
+     * @param decode Task that reads and decodes the asset
+     * @param upload Task that uploads the data to the render API
+     * @return Handle to the asset uploaded
+     */
+    public <D, T> AssetFuture<T> load(String name, Callable<D> decode, IUploadTask<D, T> upload) {
+        return upload(name, decode(name, decode), upload);
+    }
+
+    /**
+     * Runs the uploads queued until the budget of time is spent (at least one
+     * upload runs if there is any), has to be called in the thread of the
+     * render API
+     *
+     * @param budget Time that the uploads can take (nanoseconds)
+     * @return Number of uploads done
+     */
+    public int processUploads(long budget) {
+        long start = System.nanoTime();
+        int count = 0;
+        Runnable upload;
+        while ((upload = uploads.poll()) != null) {
+            upload.run();
+            count++;
+            if (System.nanoTime() - start >= budget) {
+                break;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        uploadsDone += count;
+        uploadTime += elapsed;
+        maxFrameUploadTime = Math.max(maxFrameUploadTime, elapsed);
+        // Every handle is created before the first frame so reaching zero means all is loaded
+        if ((loadedTime < 0) && (pending.get() == 0)) {
+            loadedTime = System.nanoTime();
+        }
+        return count;
+    }
+
+    /**
+     * Indicates that one frame was rendered (the first one is the time to the first frame)
+     */
+    public void frameRendered() {
+        if (firstFrameTime < 0) {
+            firstFrameTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return True if every asset requested is done (or failed)
+     */
+    public boolean isLoaded() {
+        return loadedTime >= 0;
+    }
+
+    /**
+     * @return Number of assets (decodes and uploads) not done yet
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * @return Time from the creation of the pipeline to the first frame (milliseconds, -1 if none yet)
+     */
+    public double getTimeToFirstFrame() {
+        return (firstFrameTime < 0) ? -1.0 : (firstFrameTime - startTime) / NANOS_IN_MILLIS;
+    }
+
+    /**
+     * @return Time from the creation of the pipeline to the load of the last asset (milliseconds, -1 if loading)
+     */
+    public double getTotalLoadTime() {
+        return (loadedTime < 0) ? -1.0 : (loadedTime - startTime) / NANOS_IN_MILLIS;
+    }
+
+    /**
+     * @return Number of uploads done
+     */
+    public int getUploadsDone() {
+        return uploadsDone;
+    }
+
+    /**
+     * @return Sum of the time spent in uploads (milliseconds)
+     */
+    public double getUploadTime() {
+        return uploadTime / NANOS_IN_MILLIS;
+    }
+
+    /**
+     * @return Longest time spent in uploads in one frame (milliseconds)
+     */
+    public double getMaxFrameUploadTime() {
+        return maxFrameUploadTime / NANOS_IN_MILLIS;
+    }
+
+    /**
+     * Stops the workers (the assets not decoded yet are never done)
+     */
+    public void dispose() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("first frame %.1f ms, loaded in %.1f ms, %d uploads in %.1f ms (max %.1f ms by frame)",
+                getTimeToFirstFrame(), getTotalLoadTime(), uploadsDone, getUploadTime(), getMaxFrameUploadTime());
+    }
+}
@@ -0,0 +1,19 @@
+package com.dferreira.commons.loading;
+
+/**
+ * Part of the load of one asset that has to run in the thread of the render
+ * API (upload of buffers and textures)
+ *
+ * @param <D> Type of the data decoded by the workers
+ * @param <T> Type of the asset created
+ */
+public interface IUploadTask<D, T> {
+
+    /**
+     * Uploads the data decoded to the render API
+     *
+     * @param data The data decoded by the workers
+     * @return The asset ready to be used
+     */
+    T upload(D data);
+}
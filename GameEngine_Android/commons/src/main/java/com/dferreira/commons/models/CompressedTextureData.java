@@ -0,0 +1,56 @@
+package com.dferreira.commons.models;
+
+import com.dferreira.commons.textures.CompressedFormat;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Holds the blocks of a texture compressed in a format that the render API
+ * uploads as it is, the levels below come already compressed from the
+ * container (they are not generated)
+ */
+public class CompressedTextureData extends TextureData {
+
+    /**
+     * Format of the blocks
+     */
+    private final CompressedFormat format;
+
+    /**
+     * @param buffer The blocks of the level
+     * @param width  Width of the level in pixels
+     * @param height Height of the level in pixels
+     * @param format Format of the blocks
+     */
+    public CompressedTextureData(ByteBuffer buffer, int width, int height, CompressedFormat format) {
+        super(buffer, width, height);
+        this.format = format;
+    }
+
+    /**
+     * @return Format of the blocks
+     */
+    public CompressedFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return Bytes of the blocks of the texture with all its levels
+     */
+    public int getByteCount() {
+        int bytes = getBuffer().remaining();
+        if (getMipmaps() != null) {
+            for (TextureData mipmap : getMipmaps()) {
+                bytes += mipmap.getBuffer().remaining();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        int levels = 1 + ((getMipmaps() == null) ? 0 : getMipmaps().length);
+        return String.format("%s %dx%d, %d levels, %d KB", format, getWidth(), getHeight(), levels,
+                getByteCount() / 1024);
+    }
+}
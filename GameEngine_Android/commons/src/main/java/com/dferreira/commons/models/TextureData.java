@@ -1,5 +1,7 @@
 package com.dferreira.commons.models;
 
+import com.dferreira.commons.utils.DirectBufferPool;
+
 import java.nio.ByteBuffer;
 
 /**
@@ -39,6 +41,18 @@ public class TextureData {
 	 */
 	private final ByteBuffer buffer;
 
+	/**
+	 * Pool where the buffer goes back when it is released (null if the buffer
+	 * is not pooled or was already released)
+	 */
+	private DirectBufferPool pool;
+
+	/**
+	 * Levels below the texture from the half of its size to 1x1 (null if the
+	 * texture has no mipmaps)
+	 */
+	private TextureData[] mipmaps;
+
 	/**
 	 * The constructor of the texture data
 	 * 
@@ -56,6 +70,77 @@ public class TextureData {
 		this.height = height;
 	}
 
+	/**
+	 * The constructor of the texture data with the pixels in a buffer of a
+	 * pool
+	 * 
+	 * @param buffer
+	 *            The buffer with data about the pixels of the image
+	 * @param width
+	 *            Width of the texture
+	 * @param height
+	 *            Height of the texture
+	 * @param pool
+	 *            Pool where the buffer goes back when it is released
+	 */
+	public TextureData(ByteBuffer buffer, int width, int height, DirectBufferPool pool) {
+		this(buffer, width, height);
+		this.pool = pool;
+	}
+
+	/**
+	 * Gives the buffer back to its pool once the pixels were uploaded (does
+	 * nothing if the buffer is not pooled), the data can not be used after
+	 */
+	public void release() {
+		if (pool != null) {
+			pool.release(buffer);
+			pool = null;
+		}
+		release(mipmaps);
+	}
+
+	/**
+	 * @return Pool where the buffer goes back when it is released (null if
+	 *         the buffer is not pooled)
+	 */
+	public DirectBufferPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return Levels below the texture from the half of its size to 1x1 (null
+	 *         if the texture has no mipmaps)
+	 */
+	public TextureData[] getMipmaps() {
+		return mipmaps;
+	}
+
+	/**
+	 * @param mipmaps
+	 *            Levels below the texture from the half of its size to 1x1
+	 */
+	public void setMipmaps(TextureData[] mipmaps) {
+		this.mipmaps = mipmaps;
+	}
+
+	/**
+	 * Gives the buffers of several textures back to their pools
+	 * 
+	 * @param textures
+	 *            The textures already uploaded (can have null elements)
+	 */
+	public static void release(TextureData[] textures) {
+		if (textures == null) {
+			return;
+		}
+		for (TextureData texture : textures) {
+			if (texture != null) {
+				texture.release();
+			}
+		}
+	}
+
 	/**
 	 * @return the width
 	 */
@@ -0,0 +1,85 @@
+package com.dferreira.commons.optimizer;
+
+/**
+ * Efficiency of one index buffer on a post-transform vertex cache, computed on
+ * the CPU simulating a FIFO cache
+ */
+public class CacheMetrics {
+
+    /**
+     * Size of the cache simulated by default (conservative for mobile GPUs)
+     */
+    public final static int DEFAULT_CACHE_SIZE = 16;
+
+    /**
+     * Average cache miss ratio: vertices transformed by triangle (0.5 to 3)
+     */
+    private final float acmr;
+
+    /**
+     * Average transform to vertex ratio: vertices transformed by vertex used (1 is optimal)
+     */
+    private final float atvr;
+
+    /**
+     * @param acmr Average cache miss ratio
+     * @param atvr Average transform to vertex ratio
+     */
+    private CacheMetrics(float acmr, float atvr) {
+        this.acmr = acmr;
+        this.atvr = atvr;
+    }
+
+    /**
+     * Simulates a FIFO cache over a range of the indices
+     *
+     * @param indices     Indices of the triangles
+     * @param offset      First index of the range
+     * @param count       Number of indices of the range
+     * @param vertexCount Number of vertices referenced by the indices
+     * @param cacheSize   Number of entries of the cache
+     * @return The metrics of the range
+     */
+    public static CacheMetrics analyze(int[] indices, int offset, int count, int vertexCount, int cacheSize) {
+        int[] timestamps = new int[vertexCount];
+        int time = cacheSize + 1;
+        int transformed = 0;
+        int used = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int vertex = indices[i];
+            if (timestamps[vertex] == 0) {
+                used++;
+            }
+            if (time - timestamps[vertex] > cacheSize) {
+                timestamps[vertex] = time++;
+                transformed++;
+            }
+        }
+        int triangles = count / 3;
+        return new CacheMetrics((triangles == 0) ? 0.0f : (float) transformed / triangles,
+                (used == 0) ? 0.0f : (float) transformed / used);
+    }
+
+    /**
+     * @param indices     Indices of the triangles
+     * @param vertexCount Number of vertices referenced by the indices
+     * @return The metrics of all the indices with the default size of cache
+     */
+    public static CacheMetrics analyze(int[] indices, int vertexCount) {
+        return analyze(indices, 0, indices.length, vertexCount, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @return Average cache miss ratio: vertices transformed by triangle
+     */
+    public float getAcmr() {
+        return acmr;
+    }
+
+    /**
+     * @return Average transform to vertex ratio: vertices transformed by vertex used
+     */
+    public float getAtvr() {
+        return atvr;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.shapes.WfMesh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Levels of detail of one mesh. All the levels share the vertices of the
+ * mesh, the indices of every level follow the ones of the previous level in
+ * the same index buffer so the whole chain is uploaded once
+ */
+public class LodChain {
+
+    /**
+     * Projected error (as a fraction of half of the height of the screen)
+     * accepted when a level is selected, around two pixels in 1080p
+     */
+    private final static float MAX_SCREEN_ERROR = 0.004f;
+
+    /**
+     * Mesh with the vertices and the indices of all the levels
+     */
+    private final WfMesh mesh;
+
+    /**
+     * Levels from the full detail to the coarsest
+     */
+    private final List<LodLevel> levels;
+
+    /**
+     * Radius of the sphere around the origin of the model that contains it
+     */
+    private final float radius;
+
+    /**
+     * Time that took to simplify the mesh in milliseconds
+     */
+    private final float simplificationTime;
+
+    /**
+     * Biggest projected size of the radius where each level can be used
+     */
+    private final float[] maxScreenSizes;
+
+    /**
+     * @param mesh               Mesh with the vertices and the indices of all the levels
+     * @param levels             Levels from the full detail to the coarsest
+     * @param radius             Radius of the sphere around the origin that contains the model
+     * @param simplificationTime Time that took to simplify the mesh in milliseconds
+     */
+    public LodChain(WfMesh mesh, List<LodLevel> levels, float radius, float simplificationTime) {
+        this.mesh = mesh;
+        this.levels = levels;
+        this.radius = radius;
+        this.simplificationTime = simplificationTime;
+        this.maxScreenSizes = new float[levels.size()];
+        for (int i = 0; i < maxScreenSizes.length; i++) {
+            float error = levels.get(i).getError();
+            maxScreenSizes[i] = (error > 0.0f) ? MAX_SCREEN_ERROR * radius / error : Float.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Chain with only the full detail of one mesh
+     *
+     * @param mesh The mesh
+     */
+    public LodChain(WfMesh mesh) {
+        this(mesh, singleLevel(mesh), MeshSimplifier.getRadius(mesh.getVertices()), 0.0f);
+    }
+
+    /**
+     * @param mesh The mesh
+     * @return List with only the full detail level of the mesh
+     */
+    private static List<LodLevel> singleLevel(WfMesh mesh) {
+        List<LodLevel> levels = new ArrayList<>(1);
+        levels.add(new LodLevel(mesh.getSubMeshes(), mesh.getIndicesBuffer().remaining() / 3, 0.0f));
+        return levels;
+    }
+
+    /**
+     * Selects the coarsest level that does not have a visible error
+     *
+     * @param screenSize Projected radius of the model as a fraction of half of the height of the screen
+     * @return The index of the level to draw
+     */
+    public int selectLevel(float screenSize) {
+        for (int i = maxScreenSizes.length - 1; i > 0; i--) {
+            if (screenSize <= maxScreenSizes[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Mesh with the vertices and the indices of all the levels
+     */
+    public WfMesh getMesh() {
+        return mesh;
+    }
+
+    /**
+     * @return Levels from the full detail to the coarsest
+     */
+    public List<LodLevel> getLevels() {
+        return levels;
+    }
+
+    /**
+     * @return Radius of the sphere around the origin of the model that contains it
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return Time that took to simplify the mesh in milliseconds
+     */
+    public float getSimplificationTime() {
+        return simplificationTime;
+    }
+}
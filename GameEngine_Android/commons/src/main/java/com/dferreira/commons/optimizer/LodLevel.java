@@ -0,0 +1,59 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.shapes.SubMesh;
+
+import java.util.List;
+
+/**
+ * One level of detail of a mesh: the ranges of indices that draw it (one by
+ * sub mesh of the original mesh, in the same order) and the error that it has
+ */
+public class LodLevel {
+
+    /**
+     * Ranges of indices of the level (one by sub mesh of the original mesh)
+     */
+    private final List<SubMesh> subMeshes;
+
+    /**
+     * Number of triangles of the level
+     */
+    private final int triangleCount;
+
+    /**
+     * Distance that the surface of the level is away from the original (in model units)
+     */
+    private final float error;
+
+    /**
+     * @param subMeshes     Ranges of indices of the level
+     * @param triangleCount Number of triangles of the level
+     * @param error         Distance that the surface is away from the original
+     */
+    public LodLevel(List<SubMesh> subMeshes, int triangleCount, float error) {
+        this.subMeshes = subMeshes;
+        this.triangleCount = triangleCount;
+        this.error = error;
+    }
+
+    /**
+     * @return Ranges of indices of the level (one by sub mesh of the original mesh)
+     */
+    public List<SubMesh> getSubMeshes() {
+        return subMeshes;
+    }
+
+    /**
+     * @return Number of triangles of the level
+     */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * @return Distance that the surface of the level is away from the original (in model units)
+     */
+    public float getError() {
+        return error;
+    }
+}
@@ -0,0 +1,77 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.utils.DirectBufferUtils;
+
+import java.nio.IntBuffer;
+
+/**
+ * Optimisation stage of the meshes before they are uploaded. The triangles
+ * are reordered for the post-transform cache and for the overdraw and then
+ * the vertices are renumbered by first use for the fetch of the attributes
+ */
+public class MeshOptimizer {
+
+    /* Number of coordinates of one position */
+    private final static int COORDINATES_BY_VERTEX = 3;
+
+    /* Number of coordinates of one texture */
+    private final static int COORDINATES_BY_TEXTURE = 2;
+
+    /* Number of coordinates of one normal */
+    private final static int COORDINATES_BY_NORMAL = 3;
+
+    /**
+     * Reorders the triangles of one range of indices
+     */
+    private static void optimizeTriangles(int[] indices, int offset, int count, float[] positions, int vertexCount) {
+        VertexCacheOptimizer.optimize(indices, offset, count, vertexCount);
+        OverdrawOptimizer.optimize(indices, offset, count, positions, vertexCount);
+    }
+
+    /**
+     * Optimises one mesh keeping every sub mesh in its range of indices
+     *
+     * @param mesh Mesh with the vertices shared by all the sub meshes
+     * @return A new mesh with direct buffers in the optimised order
+     */
+    public static WfMesh optimize(WfMesh mesh) {
+        float[] positions = mesh.getVertices();
+        int[] indices = mesh.getIndices();
+        int vertexCount = positions.length / COORDINATES_BY_VERTEX;
+
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            optimizeTriangles(indices, subMesh.getIndexOffset(), subMesh.getIndexCount(), positions, vertexCount);
+        }
+        int[] remap = VertexFetchOptimizer.reorderByFirstUse(indices, vertexCount);
+
+        IntBuffer indicesBuffer = DirectBufferUtils.createIntBuffer(indices.length);
+        indicesBuffer.put(indices).flip();
+        return new WfMesh(VertexFetchOptimizer.remap(mesh.getVerticesBuffer(), COORDINATES_BY_VERTEX, remap),
+                VertexFetchOptimizer.remap(mesh.getTextureCoordsBuffer(), COORDINATES_BY_TEXTURE, remap),
+                VertexFetchOptimizer.remap(mesh.getNormalsBuffer(), COORDINATES_BY_NORMAL, remap),
+                indicesBuffer, mesh.getSubMeshes());
+    }
+
+    /**
+     * Optimises in place one shape made of one range of indices
+     *
+     * @param vertices      Positions of the vertices
+     * @param textureCoords Coordinates of the textures
+     * @param normals       Normal vectors
+     * @param indices       Indices of the triangles
+     */
+    public static void optimize(float[] vertices, float[] textureCoords, float[] normals, int[] indices) {
+        int vertexCount = vertices.length / COORDINATES_BY_VERTEX;
+        optimizeTriangles(indices, 0, indices.length, vertices, vertexCount);
+        int[] remap = VertexFetchOptimizer.reorderByFirstUse(indices, vertexCount);
+
+        System.arraycopy(VertexFetchOptimizer.remap(vertices, COORDINATES_BY_VERTEX, remap), 0, vertices, 0,
+                vertices.length);
+        System.arraycopy(VertexFetchOptimizer.remap(textureCoords, COORDINATES_BY_TEXTURE, remap), 0, textureCoords,
+                0, textureCoords.length);
+        System.arraycopy(VertexFetchOptimizer.remap(normals, COORDINATES_BY_NORMAL, remap), 0, normals, 0,
+                normals.length);
+    }
+}
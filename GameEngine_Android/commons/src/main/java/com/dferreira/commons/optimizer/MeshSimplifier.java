@@ -0,0 +1,552 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.utils.DirectBufferUtils;
+import com.dferreira.commons.utils.LongIntHashMap;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds levels of detail of one mesh collapsing the edges that add the
+ * smallest quadric error (Garland and Heckbert). The vertices are never
+ * moved nor created so every level is only a new list of indices over the
+ * same vertices. The topology is the one of the vertices welded by position
+ * and texture coordinates (the normals of faceted meshes do not split it),
+ * the corners that are not collapsed keep their own vertex. To keep the seams
+ * of the textures and the boundaries of the materials the vertices that
+ * share the position with other vertex or that are used by more than one sub
+ * mesh are locked, the vertices in the border of the mesh can only slide
+ * along the border
+ */
+public class MeshSimplifier {
+
+    /* Number of coordinates of one position */
+    private final static int COORDINATES_BY_VERTEX = 3;
+
+    /* Number of coordinates of one texture */
+    private final static int COORDINATES_BY_TEXTURE = 2;
+
+    /* Ratio of triangles that every level tries to keep of the previous level */
+    private final static float LEVEL_RATIO = 0.5f;
+
+    /* Minimum ratio of triangles removed from the previous level to create a new level */
+    private final static float MIN_REDUCTION = 0.1f;
+
+    /* Maximum error of the coarsest level relatively to the radius of the mesh */
+    private final static float MAX_RELATIVE_ERROR = 0.25f;
+
+    /* Weight of the planes that keep the borders in place */
+    private final static double BORDER_WEIGHT = 10.0;
+
+    /* Nanoseconds in one millisecond */
+    private final static double NANOS_IN_MILLIS = 1000000.0;
+
+    /* The vertex can collapse to any neighbor */
+    private final static byte KIND_MANIFOLD = 0;
+
+    /* The vertex can only collapse along a border */
+    private final static byte KIND_BORDER = 1;
+
+    /* The vertex can not collapse */
+    private final static byte KIND_LOCKED = 2;
+
+    /* Elements of one quadric (upper triangle of a 4x4 matrix plus the weight) */
+    private final static int QUADRIC_SIZE = 11;
+
+    /**
+     * @param positions Positions of the vertices
+     * @return Radius of the sphere around the origin that contains all the positions
+     */
+    public static float getRadius(float[] positions) {
+        float radius = 0.0f;
+        for (int i = 0; i < positions.length; i += COORDINATES_BY_VERTEX) {
+            float x = positions[i];
+            float y = positions[i + 1];
+            float z = positions[i + 2];
+            radius = Math.max(radius, x * x + y * y + z * z);
+        }
+        return (float) Math.sqrt(radius);
+    }
+
+    /**
+     * Builds the levels of detail of one mesh, every level tries to have half
+     * of the triangles of the previous one. The chain stops earlier when the
+     * error is too big or the simplification does not progress
+     *
+     * @param mesh   Mesh to simplify
+     * @param levels Maximum number of levels including the full detail
+     * @return The chain with all the levels
+     */
+    public static LodChain buildLodChain(WfMesh mesh, int levels) {
+        long start = System.nanoTime();
+        float[] positions = mesh.getVertices();
+        float[] textureCoords = mesh.getTextureCoords();
+        int vertexCount = positions.length / COORDINATES_BY_VERTEX;
+        int[] indices = mesh.getIndices();
+        List<SubMesh> subMeshes = mesh.getSubMeshes();
+        float radius = getRadius(positions);
+
+        // Sub mesh of every triangle (the sub meshes are ranges of triangles)
+        int[] groups = new int[indices.length / 3];
+        for (int s = 0; s < subMeshes.size(); s++) {
+            SubMesh subMesh = subMeshes.get(s);
+            int first = subMesh.getIndexOffset() / 3;
+            Arrays.fill(groups, first, first + subMesh.getIndexCount() / 3, s);
+        }
+        // Topology of the vertices welded by position and texture coordinates
+        int[] welded = weld(positions, textureCoords, vertexCount);
+        int[] topology = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            topology[i] = welded[indices[i]];
+        }
+        LongIntHashMap edges = countEdges(topology, topology.length / 3);
+        boolean[] locked = lockSeamsAndBoundaries(positions, welded, vertexCount, topology, groups);
+        double[] quadrics = computeQuadrics(positions, vertexCount, topology, edges);
+
+        List<LodLevel> lodLevels = new ArrayList<>(levels);
+        List<int[]> levelIndices = new ArrayList<>(levels);
+        lodLevels.add(new LodLevel(subMeshes, indices.length / 3, 0.0f));
+        levelIndices.add(indices);
+
+        int[] current = indices.clone();
+        int[] currentTopology = topology;
+        int[] currentGroups = groups.clone();
+        int triangleCount = current.length / 3;
+        int offset = indices.length;
+        double maxError = MAX_RELATIVE_ERROR * radius;
+        double[] error = new double[1];
+        for (int level = 1; level < levels; level++) {
+            int target = (int) (triangleCount * LEVEL_RATIO);
+            int count = simplify(positions, vertexCount, currentTopology, current, currentGroups, triangleCount,
+                    locked, quadrics, target, maxError * maxError, error);
+            if (count > triangleCount * (1.0f - MIN_REDUCTION)) {
+                break;
+            }
+            triangleCount = count;
+
+            // The triangles keep the order so every sub mesh is still one range
+            int[] simplified = Arrays.copyOf(current, count * 3);
+            List<SubMesh> levelSubMeshes = new ArrayList<>(subMeshes.size());
+            int triangle = 0;
+            for (int s = 0; s < subMeshes.size(); s++) {
+                int first = triangle;
+                while ((triangle < count) && (currentGroups[triangle] == s)) {
+                    triangle++;
+                }
+                int rangeCount = (triangle - first) * 3;
+                VertexCacheOptimizer.optimize(simplified, first * 3, rangeCount, vertexCount);
+                SubMesh subMesh = subMeshes.get(s);
+                levelSubMeshes.add(new SubMesh(offset + first * 3, rangeCount, subMesh.getGroupName(),
+                        subMesh.getMaterial()));
+            }
+            lodLevels.add(new LodLevel(levelSubMeshes, count, (float) Math.sqrt(error[0])));
+            levelIndices.add(simplified);
+            offset += simplified.length;
+        }
+
+        // The indices of all the levels go in the same buffer
+        IntBuffer indicesBuffer = DirectBufferUtils.createIntBuffer(offset);
+        for (int[] level : levelIndices) {
+            indicesBuffer.put(level);
+        }
+        indicesBuffer.flip();
+        WfMesh chainMesh = new WfMesh(mesh.getVerticesBuffer(), mesh.getTextureCoordsBuffer(),
+                mesh.getNormalsBuffer(), indicesBuffer, subMeshes);
+        return new LodChain(chainMesh, lodLevels, radius, (float) ((System.nanoTime() - start) / NANOS_IN_MILLIS));
+    }
+
+    /**
+     * @return Key of the edge between two vertices (the same for both directions)
+     */
+    private static long edgeKey(int a, int b) {
+        // Plus one because the key 0 is reserved by the map
+        return (a < b) ? (((long) a + 1) << 32) | (b + 1) : (((long) b + 1) << 32) | (a + 1);
+    }
+
+    /**
+     * @return Number of triangles that use every edge
+     */
+    private static LongIntHashMap countEdges(int[] indices, int triangleCount) {
+        LongIntHashMap edges = new LongIntHashMap(triangleCount * 3);
+        for (int t = 0; t < triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                long key = edgeKey(indices[t * 3 + k], indices[t * 3 + (k + 1) % 3]);
+                int count = edges.get(key);
+                edges.put(key, (count == LongIntHashMap.NO_VALUE) ? 1 : count + 1);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * @return True if both vertices have the same position
+     */
+    private static boolean samePosition(float[] positions, int a, int b) {
+        return (positions[a * 3] == positions[b * 3]) && (positions[a * 3 + 1] == positions[b * 3 + 1])
+                && (positions[a * 3 + 2] == positions[b * 3 + 2]);
+    }
+
+    /**
+     * @return Hash of the position of one vertex (odd so it is never the reserved key)
+     */
+    private static long positionKey(float[] positions, int v) {
+        long x = Float.floatToIntBits(positions[v * 3]);
+        long y = Float.floatToIntBits(positions[v * 3 + 1]);
+        long z = Float.floatToIntBits(positions[v * 3 + 2]);
+        return ((x << 32) ^ (y << 16) ^ z ^ (z << 48)) | 1L;
+    }
+
+    /**
+     * @return The first vertex with the same position and texture coordinates of every vertex
+     */
+    private static int[] weld(float[] positions, float[] textureCoords, int vertexCount) {
+        int[] welded = new int[vertexCount];
+        LongIntHashMap firstByKey = new LongIntHashMap(vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            long u = Float.floatToIntBits(textureCoords[v * COORDINATES_BY_TEXTURE]);
+            long t = Float.floatToIntBits(textureCoords[v * COORDINATES_BY_TEXTURE + 1]);
+            long key = positionKey(positions, v) ^ ((u << 24) ^ (t << 40) ^ t) * 0x9E3779B97F4A7C15L | 1L;
+            // Probes the following odd keys when other vertex has the same hash
+            while (true) {
+                int other = firstByKey.get(key);
+                if (other == LongIntHashMap.NO_VALUE) {
+                    firstByKey.put(key, v);
+                    welded[v] = v;
+                    break;
+                }
+                if (samePosition(positions, other, v)
+                        && (textureCoords[other * 2] == textureCoords[v * 2])
+                        && (textureCoords[other * 2 + 1] == textureCoords[v * 2 + 1])) {
+                    welded[v] = other;
+                    break;
+                }
+                key += 2;
+            }
+        }
+        return welded;
+    }
+
+    /**
+     * Locks the welded vertices in the seams of the textures (other welded
+     * vertex with the same position) and in the boundaries between sub meshes
+     */
+    private static boolean[] lockSeamsAndBoundaries(float[] positions, int[] welded, int vertexCount, int[] indices,
+                                                    int[] groups) {
+        boolean[] locked = new boolean[vertexCount];
+        LongIntHashMap firstByPosition = new LongIntHashMap(vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            if (welded[v] != v) {
+                continue;
+            }
+            long key = positionKey(positions, v);
+            while (true) {
+                int other = firstByPosition.get(key);
+                if (other == LongIntHashMap.NO_VALUE) {
+                    firstByPosition.put(key, v);
+                    break;
+                }
+                if (samePosition(positions, other, v)) {
+                    locked[v] = true;
+                    locked[other] = true;
+                    break;
+                }
+                key += 2;
+            }
+        }
+
+        int[] groupOfVertex = new int[vertexCount];
+        Arrays.fill(groupOfVertex, -1);
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            int group = groups[i / 3];
+            if (groupOfVertex[v] < 0) {
+                groupOfVertex[v] = group;
+            } else if (groupOfVertex[v] != group) {
+                locked[v] = true;
+            }
+        }
+        return locked;
+    }
+
+    /**
+     * Adds one plane to a quadric
+     */
+    private static void addPlane(double[] quadrics, int vertex, double a, double b, double c, double d, double weight) {
+        int q = vertex * QUADRIC_SIZE;
+        quadrics[q] += weight * a * a;
+        quadrics[q + 1] += weight * a * b;
+        quadrics[q + 2] += weight * a * c;
+        quadrics[q + 3] += weight * a * d;
+        quadrics[q + 4] += weight * b * b;
+        quadrics[q + 5] += weight * b * c;
+        quadrics[q + 6] += weight * b * d;
+        quadrics[q + 7] += weight * c * c;
+        quadrics[q + 8] += weight * c * d;
+        quadrics[q + 9] += weight * d * d;
+        quadrics[q + 10] += weight;
+    }
+
+    /**
+     * @return Mean of the squared distances of one point to the planes of the quadric of a vertex
+     */
+    private static double evaluate(double[] quadrics, int vertex, double x, double y, double z) {
+        int q = vertex * QUADRIC_SIZE;
+        double error = quadrics[q] * x * x + 2.0 * quadrics[q + 1] * x * y + 2.0 * quadrics[q + 2] * x * z
+                + 2.0 * quadrics[q + 3] * x + quadrics[q + 4] * y * y + 2.0 * quadrics[q + 5] * y * z
+                + 2.0 * quadrics[q + 6] * y + quadrics[q + 7] * z * z + 2.0 * quadrics[q + 8] * z + quadrics[q + 9];
+        double weight = quadrics[q + 10];
+        return (weight > 0.0) ? Math.abs(error) / weight : 0.0;
+    }
+
+    /**
+     * Quadrics of the planes of the triangles around every vertex weighted by
+     * area plus planes perpendicular to the border edges
+     */
+    private static double[] computeQuadrics(float[] positions, int vertexCount, int[] indices, LongIntHashMap edges) {
+        double[] quadrics = new double[vertexCount * QUADRIC_SIZE];
+        for (int t = 0; t < indices.length / 3; t++) {
+            int a = indices[t * 3];
+            int b = indices[t * 3 + 1];
+            int c = indices[t * 3 + 2];
+            double e1x = positions[b * 3] - positions[a * 3];
+            double e1y = positions[b * 3 + 1] - positions[a * 3 + 1];
+            double e1z = positions[b * 3 + 2] - positions[a * 3 + 2];
+            double e2x = positions[c * 3] - positions[a * 3];
+            double e2y = positions[c * 3 + 1] - positions[a * 3 + 1];
+            double e2z = positions[c * 3 + 2] - positions[a * 3 + 2];
+            double nx = e1y * e2z - e1z * e2y;
+            double ny = e1z * e2x - e1x * e2z;
+            double nz = e1x * e2y - e1y * e2x;
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length == 0.0) {
+                continue;
+            }
+            nx /= length;
+            ny /= length;
+            nz /= length;
+            double d = -(nx * positions[a * 3] + ny * positions[a * 3 + 1] + nz * positions[a * 3 + 2]);
+            double area = length * 0.5;
+            addPlane(quadrics, a, nx, ny, nz, d, area);
+            addPlane(quadrics, b, nx, ny, nz, d, area);
+            addPlane(quadrics, c, nx, ny, nz, d, area);
+
+            for (int k = 0; k < 3; k++) {
+                int from = indices[t * 3 + k];
+                int to = indices[t * 3 + (k + 1) % 3];
+                if (edges.get(edgeKey(from, to)) != 1) {
+                    continue;
+                }
+                // Plane that contains the border edge and is perpendicular to the triangle
+                double ex = positions[to * 3] - positions[from * 3];
+                double ey = positions[to * 3 + 1] - positions[from * 3 + 1];
+                double ez = positions[to * 3 + 2] - positions[from * 3 + 2];
+                double px = ey * nz - ez * ny;
+                double py = ez * nx - ex * nz;
+                double pz = ex * ny - ey * nx;
+                double pLength = Math.sqrt(px * px + py * py + pz * pz);
+                if (pLength == 0.0) {
+                    continue;
+                }
+                px /= pLength;
+                py /= pLength;
+                pz /= pLength;
+                double pd = -(px * positions[from * 3] + py * positions[from * 3 + 1] + pz * positions[from * 3 + 2]);
+                double weight = BORDER_WEIGHT * (ex * ex + ey * ey + ez * ez);
+                addPlane(quadrics, from, px, py, pz, pd, weight);
+                addPlane(quadrics, to, px, py, pz, pd, weight);
+            }
+        }
+        return quadrics;
+    }
+
+    /**
+     * @return True if moving the vertex u to the position of v turns over some triangle of u
+     */
+    private static boolean flips(float[] positions, int[] indices, int[] adjacency, int start, int end, int u, int v) {
+        for (int j = start; j < end; j++) {
+            int t = adjacency[j];
+            int a = indices[t * 3];
+            int b = indices[t * 3 + 1];
+            int c = indices[t * 3 + 2];
+            if ((a == v) || (b == v) || (c == v)) {
+                // This triangle disappears
+                continue;
+            }
+            // The two other vertices in the order of the winding
+            int o1 = (a == u) ? b : ((b == u) ? c : a);
+            int o2 = (a == u) ? c : ((b == u) ? a : b);
+            float x1 = positions[o1 * 3], y1 = positions[o1 * 3 + 1], z1 = positions[o1 * 3 + 2];
+            float x2 = positions[o2 * 3], y2 = positions[o2 * 3 + 1], z2 = positions[o2 * 3 + 2];
+            float ux = positions[u * 3], uy = positions[u * 3 + 1], uz = positions[u * 3 + 2];
+            float vx = positions[v * 3], vy = positions[v * 3 + 1], vz = positions[v * 3 + 2];
+
+            float oldX = (y1 - uy) * (z2 - uz) - (z1 - uz) * (y2 - uy);
+            float oldY = (z1 - uz) * (x2 - ux) - (x1 - ux) * (z2 - uz);
+            float oldZ = (x1 - ux) * (y2 - uy) - (y1 - uy) * (x2 - ux);
+            float newX = (y1 - vy) * (z2 - vz) - (z1 - vz) * (y2 - vy);
+            float newY = (z1 - vz) * (x2 - vx) - (x1 - vx) * (z2 - vz);
+            float newZ = (x1 - vx) * (y2 - vy) - (y1 - vy) * (x2 - vx);
+            if (oldX * newX + oldY * newY + oldZ * newZ <= 0.0f) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapses edges in passes until the target number of triangles or the
+     * maximum error is reached. In each pass every vertex takes part in one
+     * collapse at most and the collapses are done from the cheapest
+     *
+     * @param indices       Indices of the welded vertices of the triangles (compacted in place)
+     * @param corners       Vertices of the corners of the triangles (compacted in place)
+     * @param groups        Sub mesh of every triangle (compacted in place)
+     * @param triangleCount Number of triangles in the arrays
+     * @param target        Number of triangles wanted
+     * @param maxError      Maximum squared error accepted
+     * @param error         Biggest squared error of a collapse done (updated)
+     * @return The number of triangles left
+     */
+    private static int simplify(float[] positions, int vertexCount, int[] indices, int[] corners, int[] groups,
+                                int triangleCount, boolean[] locked, double[] quadrics, int target, double maxError,
+                                double[] error) {
+        byte[] kinds = new byte[vertexCount];
+        int[] borderEdges = new int[vertexCount];
+        int[] remap = new int[vertexCount];
+        boolean[] touched = new boolean[vertexCount];
+        int[] adjacencyStart = new int[vertexCount + 1];
+        int[] fill = new int[vertexCount];
+
+        while (triangleCount > target) {
+            // Kinds of the vertices in the current topology
+            LongIntHashMap edges = countEdges(indices, triangleCount);
+            Arrays.fill(borderEdges, 0);
+            for (int v = 0; v < vertexCount; v++) {
+                kinds[v] = locked[v] ? KIND_LOCKED : KIND_MANIFOLD;
+            }
+            for (int t = 0; t < triangleCount; t++) {
+                for (int k = 0; k < 3; k++) {
+                    int a = indices[t * 3 + k];
+                    int b = indices[t * 3 + (k + 1) % 3];
+                    int count = edges.get(edgeKey(a, b));
+                    if (count == 1) {
+                        borderEdges[a]++;
+                        borderEdges[b]++;
+                    } else if (count > 2) {
+                        kinds[a] = KIND_LOCKED;
+                        kinds[b] = KIND_LOCKED;
+                    }
+                }
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                if ((kinds[v] == KIND_MANIFOLD) && (borderEdges[v] != 0)) {
+                    kinds[v] = (borderEdges[v] == 2) ? KIND_BORDER : KIND_LOCKED;
+                }
+            }
+
+            // Triangles of every vertex
+            Arrays.fill(adjacencyStart, 0);
+            for (int i = 0; i < triangleCount * 3; i++) {
+                adjacencyStart[indices[i] + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                adjacencyStart[v + 1] += adjacencyStart[v];
+            }
+            int[] adjacency = new int[triangleCount * 3];
+            System.arraycopy(adjacencyStart, 0, fill, 0, vertexCount);
+            for (int i = 0; i < triangleCount * 3; i++) {
+                adjacency[fill[indices[i]]++] = i / 3;
+            }
+
+            // Collapses allowed sorted by cost (positive floats sort as their bits)
+            long[] candidates = new long[triangleCount * 6];
+            int[] candidateFrom = new int[triangleCount * 6];
+            int[] candidateTo = new int[triangleCount * 6];
+            int candidateCount = 0;
+            for (int t = 0; t < triangleCount; t++) {
+                for (int k = 0; k < 3; k++) {
+                    int a = indices[t * 3 + k];
+                    int b = indices[t * 3 + (k + 1) % 3];
+                    boolean border = (edges.get(edgeKey(a, b)) == 1);
+                    for (int direction = 0; direction < 2; direction++) {
+                        int u = (direction == 0) ? a : b;
+                        int v = (direction == 0) ? b : a;
+                        boolean allowed = (kinds[u] == KIND_MANIFOLD)
+                                || ((kinds[u] == KIND_BORDER) && border && (kinds[v] != KIND_MANIFOLD));
+                        if (!allowed) {
+                            continue;
+                        }
+                        float cost = (float) evaluate(quadrics, u, positions[v * 3], positions[v * 3 + 1],
+                                positions[v * 3 + 2]);
+                        candidates[candidateCount] = ((long) Float.floatToIntBits(cost) << 32) | candidateCount;
+                        candidateFrom[candidateCount] = u;
+                        candidateTo[candidateCount] = v;
+                        candidateCount++;
+                    }
+                }
+            }
+            Arrays.sort(candidates, 0, candidateCount);
+
+            for (int v = 0; v < vertexCount; v++) {
+                remap[v] = v;
+            }
+            Arrays.fill(touched, false);
+            int removed = 0;
+            int goal = triangleCount - target;
+            for (int i = 0; (i < candidateCount) && (removed < goal); i++) {
+                float cost = Float.intBitsToFloat((int) (candidates[i] >>> 32));
+                if (cost > maxError) {
+                    break;
+                }
+                int candidate = (int) candidates[i];
+                int u = candidateFrom[candidate];
+                int v = candidateTo[candidate];
+                if (touched[u] || touched[v]
+                        || flips(positions, indices, adjacency, adjacencyStart[u], adjacencyStart[u + 1], u, v)) {
+                    continue;
+                }
+                remap[u] = v;
+                touched[u] = true;
+                touched[v] = true;
+                for (int q = 0; q < QUADRIC_SIZE; q++) {
+                    quadrics[v * QUADRIC_SIZE + q] += quadrics[u * QUADRIC_SIZE + q];
+                }
+                for (int j = adjacencyStart[u]; j < adjacencyStart[u + 1]; j++) {
+                    int t = adjacency[j];
+                    if ((indices[t * 3] == v) || (indices[t * 3 + 1] == v) || (indices[t * 3 + 2] == v)) {
+                        removed++;
+                    }
+                }
+                error[0] = Math.max(error[0], cost);
+            }
+            if (removed == 0) {
+                break;
+            }
+
+            // Applies the collapses dropping the triangles that became degenerated
+            int write = 0;
+            for (int t = 0; t < triangleCount; t++) {
+                int a = remap[indices[t * 3]];
+                int b = remap[indices[t * 3 + 1]];
+                int c = remap[indices[t * 3 + 2]];
+                if ((a == b) || (b == c) || (a == c)) {
+                    continue;
+                }
+                for (int k = 0; k < 3; k++) {
+                    int vertex = indices[t * 3 + k];
+                    // The corners moved take the vertex where they collapsed
+                    corners[write * 3 + k] = (remap[vertex] == vertex) ? corners[t * 3 + k] : remap[vertex];
+                    indices[write * 3 + k] = remap[vertex];
+                }
+                groups[write] = groups[t];
+                write++;
+            }
+            triangleCount = write;
+        }
+        return triangleCount;
+    }
+}
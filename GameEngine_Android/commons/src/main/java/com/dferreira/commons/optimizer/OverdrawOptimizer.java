@@ -0,0 +1,139 @@
+package com.dferreira.commons.optimizer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Reduces the overdraw of one index buffer already optimised for the vertex
+ * cache (Tipsify). The triangles are split in clusters where the cache
+ * restarts (triangles where all the vertices miss) so the order inside of
+ * the clusters keeps the locality, then the clusters are sorted to draw
+ * first the ones that face outwards of the mesh since they tend to occlude
+ * the others from any point of view
+ */
+public class OverdrawOptimizer {
+
+    /* Number of coordinates of one position */
+    private final static int COORDINATES_BY_VERTEX = 3;
+
+    /**
+     * Reorders in place the triangles of a range of indices
+     *
+     * @param indices     Indices of the triangles
+     * @param offset      First index of the range
+     * @param count       Number of indices of the range (multiple of 3)
+     * @param positions   Positions of the vertices (x, y, z)
+     * @param vertexCount Number of vertices referenced by the indices
+     */
+    public static void optimize(int[] indices, int offset, int count, float[] positions, int vertexCount) {
+        int triangleCount = count / 3;
+        if (triangleCount < 2) {
+            return;
+        }
+
+        // A cluster starts in every triangle that does not hit the cache
+        int[] clusterStarts = new int[triangleCount + 1];
+        int clusterCount = 0;
+        int[] timestamps = new int[vertexCount];
+        int cacheSize = CacheMetrics.DEFAULT_CACHE_SIZE;
+        int time = cacheSize + 1;
+        for (int t = 0; t < triangleCount; t++) {
+            int misses = 0;
+            for (int k = 0; k < 3; k++) {
+                int vertex = indices[offset + t * 3 + k];
+                if (time - timestamps[vertex] > cacheSize) {
+                    timestamps[vertex] = time++;
+                    misses++;
+                }
+            }
+            if ((t == 0) || (misses == 3)) {
+                clusterStarts[clusterCount++] = t;
+            }
+        }
+        clusterStarts[clusterCount] = triangleCount;
+        if (clusterCount < 2) {
+            return;
+        }
+
+        // Centroid of the mesh weighted by the area of the triangles
+        float[] centroids = new float[clusterCount * 3];
+        float[] normals = new float[clusterCount * 3];
+        float[] areas = new float[clusterCount];
+        float meshX = 0.0f, meshY = 0.0f, meshZ = 0.0f, meshArea = 0.0f;
+        for (int c = 0; c < clusterCount; c++) {
+            for (int t = clusterStarts[c]; t < clusterStarts[c + 1]; t++) {
+                int base = offset + t * 3;
+                int a = indices[base] * COORDINATES_BY_VERTEX;
+                int b = indices[base + 1] * COORDINATES_BY_VERTEX;
+                int d = indices[base + 2] * COORDINATES_BY_VERTEX;
+                float e1x = positions[b] - positions[a];
+                float e1y = positions[b + 1] - positions[a + 1];
+                float e1z = positions[b + 2] - positions[a + 2];
+                float e2x = positions[d] - positions[a];
+                float e2y = positions[d + 1] - positions[a + 1];
+                float e2z = positions[d + 2] - positions[a + 2];
+                // The length of the cross product is twice the area
+                float nx = e1y * e2z - e1z * e2y;
+                float ny = e1z * e2x - e1x * e2z;
+                float nz = e1x * e2y - e1y * e2x;
+                float area = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+                float cx = (positions[a] + positions[b] + positions[d]) / 3.0f;
+                float cy = (positions[a + 1] + positions[b + 1] + positions[d + 1]) / 3.0f;
+                float cz = (positions[a + 2] + positions[b + 2] + positions[d + 2]) / 3.0f;
+
+                centroids[c * 3] += cx * area;
+                centroids[c * 3 + 1] += cy * area;
+                centroids[c * 3 + 2] += cz * area;
+                normals[c * 3] += nx;
+                normals[c * 3 + 1] += ny;
+                normals[c * 3 + 2] += nz;
+                areas[c] += area;
+            }
+            meshX += centroids[c * 3];
+            meshY += centroids[c * 3 + 1];
+            meshZ += centroids[c * 3 + 2];
+            meshArea += areas[c];
+        }
+        if (meshArea > 0.0f) {
+            meshX /= meshArea;
+            meshY /= meshArea;
+            meshZ /= meshArea;
+        }
+
+        // Clusters that face outwards of the centroid go first
+        final float[] sortKeys = new float[clusterCount];
+        Integer[] order = new Integer[clusterCount];
+        for (int c = 0; c < clusterCount; c++) {
+            order[c] = c;
+            if (areas[c] <= 0.0f) {
+                continue;
+            }
+            float dx = centroids[c * 3] / areas[c] - meshX;
+            float dy = centroids[c * 3 + 1] / areas[c] - meshY;
+            float dz = centroids[c * 3 + 2] / areas[c] - meshZ;
+            float nx = normals[c * 3];
+            float ny = normals[c * 3 + 1];
+            float nz = normals[c * 3 + 2];
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length > 0.0f) {
+                sortKeys[c] = (dx * nx + dy * ny + dz * nz) / length;
+            }
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Float.compare(sortKeys[b], sortKeys[a]);
+            }
+        });
+
+        int[] output = new int[count];
+        int position = 0;
+        for (Integer c : order) {
+            int start = offset + clusterStarts[c] * 3;
+            int length = (clusterStarts[c + 1] - clusterStarts[c]) * 3;
+            System.arraycopy(indices, start, output, position, length);
+            position += length;
+        }
+        System.arraycopy(output, 0, indices, offset, count);
+    }
+}
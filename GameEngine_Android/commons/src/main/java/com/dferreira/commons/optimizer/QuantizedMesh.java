@@ -0,0 +1,143 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.generic_render.VertexFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Vertices of one mesh packed in a quantized vertex format with the indices
+ * of the mesh and the maximum error that the quantization caused in every
+ * attribute
+ */
+public class QuantizedMesh {
+
+    /**
+     * Format of the packed vertices
+     */
+    private final VertexFormat format;
+
+    /**
+     * Packed vertices (direct buffer in the native order)
+     */
+    private final ByteBuffer vertices;
+
+    /**
+     * Indices of the triangles of the mesh
+     */
+    private final IntBuffer indices;
+
+    /**
+     * Number of vertices of the mesh
+     */
+    private final int vertexCount;
+
+    /**
+     * Parameters to dequantize the positions
+     */
+    private final VertexQuantization quantization;
+
+    /**
+     * Maximum distance between one original position and the dequantized one (in model units)
+     */
+    private final float maxPositionError;
+
+    /**
+     * Maximum angle between one original normal and the decoded one (in degrees)
+     */
+    private final float maxNormalError;
+
+    /**
+     * Maximum difference between one original coordinate of texture and the decoded one
+     */
+    private final float maxTextureError;
+
+    /**
+     * @param format           Format of the packed vertices
+     * @param vertices         Packed vertices
+     * @param indices          Indices of the triangles of the mesh
+     * @param vertexCount      Number of vertices of the mesh
+     * @param quantization     Parameters to dequantize the positions
+     * @param maxPositionError Maximum error of the positions (in model units)
+     * @param maxNormalError   Maximum error of the normals (in degrees)
+     * @param maxTextureError  Maximum error of the coordinates of texture
+     */
+    QuantizedMesh(VertexFormat format, ByteBuffer vertices, IntBuffer indices, int vertexCount,
+                  VertexQuantization quantization, float maxPositionError, float maxNormalError,
+                  float maxTextureError) {
+        this.format = format;
+        this.vertices = vertices;
+        this.indices = indices;
+        this.vertexCount = vertexCount;
+        this.quantization = quantization;
+        this.maxPositionError = maxPositionError;
+        this.maxNormalError = maxNormalError;
+        this.maxTextureError = maxTextureError;
+    }
+
+    /**
+     * @return Format of the packed vertices
+     */
+    public VertexFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return Packed vertices (direct buffer in the native order)
+     */
+    public ByteBuffer getVertices() {
+        return vertices.duplicate();
+    }
+
+    /**
+     * @return Indices of the triangles of the mesh
+     */
+    public IntBuffer getIndices() {
+        return indices.duplicate();
+    }
+
+    /**
+     * @return Number of vertices of the mesh
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return Parameters to dequantize the positions
+     */
+    public VertexQuantization getQuantization() {
+        return quantization;
+    }
+
+    /**
+     * @return Maximum distance between one original position and the dequantized one (in model units)
+     */
+    public float getMaxPositionError() {
+        return maxPositionError;
+    }
+
+    /**
+     * @return Maximum angle between one original normal and the decoded one (in degrees)
+     */
+    public float getMaxNormalError() {
+        return maxNormalError;
+    }
+
+    /**
+     * @return Maximum difference between one original coordinate of texture and the decoded one
+     */
+    public float getMaxTextureError() {
+        return maxTextureError;
+    }
+
+    /**
+     * @return Description of the size and of the errors of the quantization
+     */
+    @Override
+    public String toString() {
+        return String.format("%d vertices, %d bytes, position error %.6f, normal error %.3f deg, "
+                        + "texture error %.6f", vertexCount, vertexCount * format.getStride(), maxPositionError,
+                maxNormalError, maxTextureError);
+    }
+}
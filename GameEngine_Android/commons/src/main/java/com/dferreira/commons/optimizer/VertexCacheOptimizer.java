@@ -0,0 +1,203 @@
+package com.dferreira.commons.optimizer;
+
+import java.util.Arrays;
+
+/**
+ * Reorders the triangles of an index buffer to reuse the vertices that are in
+ * the post-transform cache of the GPU (linear-speed vertex cache optimisation
+ * of Tom Forsyth). The next triangle is always the best scored of the ones
+ * that use vertices in the cache, the score favours recent vertices and the
+ * ones with few triangles left
+ */
+public class VertexCacheOptimizer {
+
+    /* Size of the cache modeled by the scores */
+    private final static int CACHE_SIZE = 32;
+
+    /* How fast the score decays with the position in the cache */
+    private final static float CACHE_DECAY_POWER = 1.5f;
+
+    /* Score of the vertices of the last triangle (lower to avoid strips going back) */
+    private final static float LAST_TRIANGLE_SCORE = 0.75f;
+
+    /* Boost of the vertices that have few triangles left */
+    private final static float VALENCE_BOOST_SCALE = 2.0f;
+    private final static float VALENCE_BOOST_POWER = 0.5f;
+
+    /* Number of valences with the boost precomputed */
+    private final static int MAX_PRECOMPUTED_VALENCE = 64;
+
+    /* Score by position in the cache */
+    private final static float[] CACHE_POSITION_SCORES = new float[CACHE_SIZE];
+
+    /* Score by number of triangles left */
+    private final static float[] VALENCE_SCORES = new float[MAX_PRECOMPUTED_VALENCE];
+
+    static {
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            if (i < 3) {
+                CACHE_POSITION_SCORES[i] = LAST_TRIANGLE_SCORE;
+            } else {
+                float scaler = 1.0f / (CACHE_SIZE - 3);
+                CACHE_POSITION_SCORES[i] = (float) Math.pow(1.0f - (i - 3) * scaler, CACHE_DECAY_POWER);
+            }
+        }
+        for (int i = 1; i < MAX_PRECOMPUTED_VALENCE; i++) {
+            VALENCE_SCORES[i] = VALENCE_BOOST_SCALE * (float) Math.pow(i, -VALENCE_BOOST_POWER);
+        }
+    }
+
+    /**
+     * @param cachePosition    Position of the vertex in the cache (-1 if outside)
+     * @param remainingValence Number of triangles not emitted that use the vertex
+     * @return The score of the vertex
+     */
+    private static float getVertexScore(int cachePosition, int remainingValence) {
+        if (remainingValence == 0) {
+            // No triangle needs the vertex
+            return -1.0f;
+        }
+        float score = (cachePosition < 0) ? 0.0f : CACHE_POSITION_SCORES[cachePosition];
+        score += (remainingValence < MAX_PRECOMPUTED_VALENCE) ? VALENCE_SCORES[remainingValence]
+                : VALENCE_BOOST_SCALE * (float) Math.pow(remainingValence, -VALENCE_BOOST_POWER);
+        return score;
+    }
+
+    /**
+     * Reorders in place the triangles of a range of indices
+     *
+     * @param indices     Indices of the triangles
+     * @param offset      First index of the range
+     * @param count       Number of indices of the range (multiple of 3)
+     * @param vertexCount Number of vertices referenced by the indices
+     */
+    public static void optimize(int[] indices, int offset, int count, int vertexCount) {
+        int triangleCount = count / 3;
+        if (triangleCount < 2) {
+            return;
+        }
+
+        // Triangles of every vertex (the first valence[v] entries are the ones not emitted)
+        int[] valence = new int[vertexCount];
+        for (int i = offset; i < offset + count; i++) {
+            valence[indices[i]]++;
+        }
+        int[] adjacencyStart = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            adjacencyStart[v + 1] = adjacencyStart[v] + valence[v];
+        }
+        int[] adjacency = new int[count];
+        int[] fill = Arrays.copyOf(adjacencyStart, vertexCount);
+        for (int t = 0; t < triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                int v = indices[offset + t * 3 + k];
+                adjacency[fill[v]++] = t;
+            }
+        }
+
+        int[] cachePosition = new int[vertexCount];
+        Arrays.fill(cachePosition, -1);
+        float[] vertexScores = new float[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexScores[v] = getVertexScore(-1, valence[v]);
+        }
+
+        // The first triangle is the best of all
+        int bestTriangle = 0;
+        float bestScore = -Float.MAX_VALUE;
+        for (int t = 0; t < triangleCount; t++) {
+            int base = offset + t * 3;
+            float score = vertexScores[indices[base]] + vertexScores[indices[base + 1]]
+                    + vertexScores[indices[base + 2]];
+            if (score > bestScore) {
+                bestScore = score;
+                bestTriangle = t;
+            }
+        }
+
+        boolean[] emitted = new boolean[triangleCount];
+        int[] output = new int[count];
+        int[] cache = new int[CACHE_SIZE + 3];
+        int[] newCache = new int[CACHE_SIZE + 3];
+        int cacheCount = 0;
+        int nextTriangle = 0;
+
+        for (int o = 0; o < triangleCount; o++) {
+            if (bestTriangle < 0) {
+                // Dead end: continues with the next triangle in the original order
+                while (emitted[nextTriangle]) {
+                    nextTriangle++;
+                }
+                bestTriangle = nextTriangle;
+            }
+            int base = offset + bestTriangle * 3;
+            int a = indices[base];
+            int b = indices[base + 1];
+            int c = indices[base + 2];
+            emitted[bestTriangle] = true;
+
+            int newCount = 0;
+            for (int k = 0; k < 3; k++) {
+                int v = indices[base + k];
+                output[o * 3 + k] = v;
+
+                // Removes the triangle from the ones left of the vertex
+                int start = adjacencyStart[v];
+                int end = start + valence[v];
+                for (int j = start; j < end; j++) {
+                    if (adjacency[j] == bestTriangle) {
+                        adjacency[j] = adjacency[end - 1];
+                        break;
+                    }
+                }
+                valence[v]--;
+
+                boolean inCache = false;
+                for (int j = 0; j < newCount; j++) {
+                    inCache |= (newCache[j] == v);
+                }
+                if (!inCache) {
+                    newCache[newCount++] = v;
+                }
+            }
+            // The vertices of the triangle go to the front of the cache
+            for (int i = 0; i < cacheCount; i++) {
+                int v = cache[i];
+                if ((v != a) && (v != b) && (v != c)) {
+                    newCache[newCount++] = v;
+                }
+            }
+            int[] swap = cache;
+            cache = newCache;
+            newCache = swap;
+
+            // Updates the scores of the vertices in the cache (and of the ones evicted)
+            for (int i = 0; i < newCount; i++) {
+                int v = cache[i];
+                cachePosition[v] = (i < CACHE_SIZE) ? i : -1;
+                vertexScores[v] = getVertexScore(cachePosition[v], valence[v]);
+            }
+            cacheCount = Math.min(newCount, CACHE_SIZE);
+
+            // Next triangle is the best of the ones that use vertices in the cache
+            bestTriangle = -1;
+            bestScore = -Float.MAX_VALUE;
+            for (int i = 0; i < cacheCount; i++) {
+                int v = cache[i];
+                int start = adjacencyStart[v];
+                int end = start + valence[v];
+                for (int j = start; j < end; j++) {
+                    int t = adjacency[j];
+                    int tBase = offset + t * 3;
+                    float score = vertexScores[indices[tBase]] + vertexScores[indices[tBase + 1]]
+                            + vertexScores[indices[tBase + 2]];
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestTriangle = t;
+                    }
+                }
+            }
+        }
+        System.arraycopy(output, 0, indices, offset, count);
+    }
+}
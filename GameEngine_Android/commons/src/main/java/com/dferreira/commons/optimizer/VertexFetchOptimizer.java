@@ -0,0 +1,71 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.utils.DirectBufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Reorders the vertices in the order that they are used by the triangles so
+ * the fetch of the attributes reads the memory sequentially
+ */
+public class VertexFetchOptimizer {
+
+    /**
+     * Renumbers the vertices by first use and rewrites the indices in place,
+     * the vertices that are not used by any triangle go to the end
+     *
+     * @param indices     Indices of the triangles
+     * @param vertexCount Number of vertices referenced by the indices
+     * @return The new position of every vertex
+     */
+    public static int[] reorderByFirstUse(int[] indices, int vertexCount) {
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for (int i = 0; i < indices.length; i++) {
+            int vertex = indices[i];
+            if (remap[vertex] < 0) {
+                remap[vertex] = next++;
+            }
+            indices[i] = remap[vertex];
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            if (remap[v] < 0) {
+                remap[v] = next++;
+            }
+        }
+        return remap;
+    }
+
+    /**
+     * @param attributes Attributes of the vertices in the old order
+     * @param components Number of components by vertex
+     * @param remap      New position of every vertex
+     * @return The attributes in the new order
+     */
+    public static float[] remap(float[] attributes, int components, int[] remap) {
+        float[] result = new float[attributes.length];
+        for (int v = 0; v < remap.length; v++) {
+            System.arraycopy(attributes, v * components, result, remap[v] * components, components);
+        }
+        return result;
+    }
+
+    /**
+     * @param attributes Attributes of the vertices in the old order
+     * @param components Number of components by vertex
+     * @param remap      New position of every vertex
+     * @return Direct buffer with the attributes in the new order
+     */
+    public static FloatBuffer remap(FloatBuffer attributes, int components, int[] remap) {
+        FloatBuffer result = DirectBufferUtils.createFloatBuffer(attributes.remaining());
+        int start = attributes.position();
+        for (int v = 0; v < remap.length; v++) {
+            for (int k = 0; k < components; k++) {
+                result.put(remap[v] * components + k, attributes.get(start + v * components + k));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.GLTransformation;
+
+/**
+ * Parameters to dequantize the positions of one quantized mesh: the center
+ * of its bounds and the size of one step of the quantization in each axis.
+ * The dequantization is folded in the transformation matrix of the entities
+ * so the vertex shader does not change
+ */
+public class VertexQuantization {
+
+    /**
+     * Center of the bounds of the mesh
+     */
+    private final float[] positionOffset;
+
+    /**
+     * Size of one step of the quantized positions in each axis
+     */
+    private final float[] positionScale;
+
+    /**
+     * @param positionOffset Center of the bounds of the mesh
+     * @param positionScale  Size of one step of the quantized positions in each axis
+     */
+    public VertexQuantization(float[] positionOffset, float[] positionScale) {
+        this.positionOffset = positionOffset;
+        this.positionScale = positionScale;
+    }
+
+    /**
+     * Multiplies the transformation matrix of one entity by the
+     * dequantization of the positions
+     *
+     * @param matrix Transformation matrix of the entity
+     */
+    public void apply(GLTransformation matrix) {
+        matrix.translate(positionOffset[0], positionOffset[1], positionOffset[2]);
+        matrix.scale(positionScale[0], positionScale[1], positionScale[2]);
+    }
+
+    /**
+     * @param quantized Quantized position
+     * @param axis      Index of the axis
+     * @return The position dequantized in the axis
+     */
+    public float dequantize(int quantized, int axis) {
+        return positionOffset[axis] + quantized * positionScale[axis];
+    }
+
+    /**
+     * @return Center of the bounds of the mesh
+     */
+    public float[] getPositionOffset() {
+        return positionOffset;
+    }
+
+    /**
+     * @return Size of one step of the quantized positions in each axis
+     */
+    public float[] getPositionScale() {
+        return positionScale;
+    }
+}
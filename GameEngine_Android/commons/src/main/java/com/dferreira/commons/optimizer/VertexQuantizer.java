@@ -0,0 +1,218 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.VertexAttribute;
+import com.dferreira.commons.generic_render.VertexAttributeTypeEnum;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.shapes.IBufferShape;
+import com.dferreira.commons.utils.HalfFloat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Packs the vertices of one mesh in the quantized vertex format:
+ * positions in integers of 16 bits relative to the bounds of the mesh,
+ * normals with the octahedral mapping in two normalized integers of 8 or 16
+ * bits and coordinates of texture in half floats. The dequantization of
+ * the positions goes in the transformation matrix so the normals are encoded
+ * divided by the same scale, once multiplied by the matrix they get the
+ * original direction
+ */
+public class VertexQuantizer {
+
+    /**
+     * Biggest value of one position quantized in 16 bits
+     */
+    private final static int MAX_POSITION = Short.MAX_VALUE;
+
+    /**
+     * Smallest half size of the bounds in one axis (avoids the division by
+     * zero in the flat meshes)
+     */
+    private final static float MIN_HALF_EXTENT = 1e-6f;
+
+    /**
+     * Number of coordinates of the positions and normals
+     */
+    private final static int COORDINATES_BY_VERTEX = 3;
+
+    /**
+     * Number of coordinates of the textures
+     */
+    private final static int COORDINATES_BY_TEXTURE = 2;
+
+    /**
+     * Packs the vertices of one mesh
+     *
+     * @param shape  The mesh to quantize
+     * @param format Quantized format (see {@link VertexFormat#quantized})
+     * @return The packed vertices with the errors of the quantization
+     */
+    public static QuantizedMesh quantize(IBufferShape shape, VertexFormat format) {
+        FloatBuffer positions = shape.getVerticesBuffer();
+        FloatBuffer textures = shape.getTextureCoordsBuffer();
+        FloatBuffer normals = shape.getNormalsBuffer();
+        int vertexCount = positions.remaining() / COORDINATES_BY_VERTEX;
+        int positionStart = positions.position();
+        int textureStart = textures.position();
+        int normalStart = normals.position();
+
+        // Bounds of the mesh
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int v = 0; v < vertexCount; v++) {
+            for (int axis = 0; axis < COORDINATES_BY_VERTEX; axis++) {
+                float value = positions.get(positionStart + v * COORDINATES_BY_VERTEX + axis);
+                min[axis] = Math.min(min[axis], value);
+                max[axis] = Math.max(max[axis], value);
+            }
+        }
+        float[] center = new float[COORDINATES_BY_VERTEX];
+        float[] halfExtent = new float[COORDINATES_BY_VERTEX];
+        float[] scale = new float[COORDINATES_BY_VERTEX];
+        for (int axis = 0; axis < COORDINATES_BY_VERTEX; axis++) {
+            center[axis] = (vertexCount == 0) ? 0.0f : (min[axis] + max[axis]) * 0.5f;
+            halfExtent[axis] = (vertexCount == 0) ? MIN_HALF_EXTENT
+                    : Math.max((max[axis] - min[axis]) * 0.5f, MIN_HALF_EXTENT);
+            scale[axis] = halfExtent[axis] / MAX_POSITION;
+        }
+        VertexQuantization quantization = new VertexQuantization(center, scale);
+
+        VertexAttribute positionAttribute = format.getAttribute(RenderAttributeEnum.position);
+        VertexAttribute textureAttribute = format.getAttribute(RenderAttributeEnum.textureCoords);
+        VertexAttribute normalAttribute = format.getAttribute(RenderAttributeEnum.normal);
+        boolean shortNormals = normalAttribute.getType() == VertexAttributeTypeEnum.snorm16;
+        int maxNormal = shortNormals ? Short.MAX_VALUE : Byte.MAX_VALUE;
+
+        ByteBuffer vertices = ByteBuffer.allocateDirect(vertexCount * format.getStride())
+                .order(ByteOrder.nativeOrder());
+        float maxPositionError = 0.0f;
+        float maxNormalError = 0.0f;
+        float maxTextureError = 0.0f;
+        float[] normal = new float[COORDINATES_BY_VERTEX];
+        int[] encoded = new int[2];
+        for (int v = 0; v < vertexCount; v++) {
+            int vertex = v * format.getStride();
+
+            // Position
+            float squaredError = 0.0f;
+            for (int axis = 0; axis < COORDINATES_BY_VERTEX; axis++) {
+                float value = positions.get(positionStart + v * COORDINATES_BY_VERTEX + axis);
+                int quantized = Math.round((value - center[axis]) / scale[axis]);
+                quantized = Math.max(-MAX_POSITION, Math.min(MAX_POSITION, quantized));
+                vertices.putShort(vertex + positionAttribute.getOffset() + axis * 2, (short) quantized);
+                float difference = quantization.dequantize(quantized, axis) - value;
+                squaredError += difference * difference;
+            }
+            maxPositionError = Math.max(maxPositionError, (float) Math.sqrt(squaredError));
+
+            // Normal divided by the scale of the dequantization
+            for (int axis = 0; axis < COORDINATES_BY_VERTEX; axis++) {
+                normal[axis] = normals.get(normalStart + v * COORDINATES_BY_VERTEX + axis);
+            }
+            float angle = encodeNormal(normal, halfExtent, maxNormal, encoded);
+            maxNormalError = Math.max(maxNormalError, angle);
+            if (shortNormals) {
+                vertices.putShort(vertex + normalAttribute.getOffset(), (short) encoded[0]);
+                vertices.putShort(vertex + normalAttribute.getOffset() + 2, (short) encoded[1]);
+            } else {
+                vertices.put(vertex + normalAttribute.getOffset(), (byte) encoded[0]);
+                vertices.put(vertex + normalAttribute.getOffset() + 1, (byte) encoded[1]);
+            }
+
+            // Coordinates of the texture
+            for (int c = 0; c < COORDINATES_BY_TEXTURE; c++) {
+                float value = textures.get(textureStart + v * COORDINATES_BY_TEXTURE + c);
+                short half = HalfFloat.toHalf(value);
+                vertices.putShort(vertex + textureAttribute.getOffset() + c * 2, half);
+                maxTextureError = Math.max(maxTextureError, Math.abs(HalfFloat.toFloat(half) - value));
+            }
+        }
+
+        return new QuantizedMesh(format, vertices, shape.getIndicesBuffer().duplicate(), vertexCount, quantization,
+                maxPositionError, maxNormalError, maxTextureError);
+    }
+
+    /**
+     * @return -1 for negative values otherwise 1
+     */
+    private static float signNotZero(float value) {
+        return (value < 0.0f) ? -1.0f : 1.0f;
+    }
+
+    /**
+     * Encodes one normal with the octahedral mapping, of the integers around
+     * the exact mapping keeps the ones that decode closer to the normal
+     *
+     * @param normal     The normal to encode
+     * @param halfExtent Half size of the bounds in each axis (what the matrix scales)
+     * @param maxValue   Biggest integer of one component
+     * @param encoded    Where to put the two components encoded
+     * @return The angle between the normal and the decoded one (in degrees)
+     */
+    private static float encodeNormal(float[] normal, float[] halfExtent, int maxValue, int[] encoded) {
+        float x = normal[0] / halfExtent[0];
+        float y = normal[1] / halfExtent[1];
+        float z = normal[2] / halfExtent[2];
+        float length = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        if (length == 0.0f) {
+            encoded[0] = 0;
+            encoded[1] = 0;
+            return 0.0f;
+        }
+        float u = x / length;
+        float v = y / length;
+        if (z < 0.0f) {
+            float foldedU = (1.0f - Math.abs(v)) * signNotZero(u);
+            float foldedV = (1.0f - Math.abs(u)) * signNotZero(v);
+            u = foldedU;
+            v = foldedV;
+        }
+
+        int baseU = (int) Math.floor(u * maxValue);
+        int baseV = (int) Math.floor(v * maxValue);
+        float bestCosine = -2.0f;
+        for (int i = 0; i <= 1; i++) {
+            for (int j = 0; j <= 1; j++) {
+                int candidateU = Math.max(-maxValue, Math.min(maxValue, baseU + i));
+                int candidateV = Math.max(-maxValue, Math.min(maxValue, baseV + j));
+                float cosine = getCosine(normal, halfExtent, candidateU / (float) maxValue,
+                        candidateV / (float) maxValue);
+                if (cosine > bestCosine) {
+                    bestCosine = cosine;
+                    encoded[0] = candidateU;
+                    encoded[1] = candidateV;
+                }
+            }
+        }
+        return (float) Math.toDegrees(Math.acos(Math.min(1.0f, bestCosine)));
+    }
+
+    /**
+     * Decodes one normal as the vertex shader does and multiplies it by the
+     * scale of the dequantization
+     *
+     * @return The cosine of the angle between the normal and the decoded one
+     */
+    private static float getCosine(float[] normal, float[] halfExtent, float u, float v) {
+        float x = u;
+        float y = v;
+        float z = 1.0f - Math.abs(u) - Math.abs(v);
+        if (z < 0.0f) {
+            x = (1.0f - Math.abs(v)) * signNotZero(u);
+            y = (1.0f - Math.abs(u)) * signNotZero(v);
+        }
+        x *= halfExtent[0];
+        y *= halfExtent[1];
+        z *= halfExtent[2];
+        float decodedLength = (float) Math.sqrt(x * x + y * y + z * z);
+        float normalLength = (float) Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1]
+                + normal[2] * normal[2]);
+        if ((decodedLength == 0.0f) || (normalLength == 0.0f)) {
+            return 1.0f;
+        }
+        return (x * normal[0] + y * normal[1] + z * normal[2]) / (decodedLength * normalLength);
+    }
+}
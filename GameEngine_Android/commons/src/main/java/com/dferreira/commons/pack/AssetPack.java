@@ -0,0 +1,297 @@
+package com.dferreira.commons.pack;
+
+import com.dferreira.commons.utils.ByteBufferInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the assets of one pack mapped at once in memory. The pack has one
+ * header, one directory with the entries sorted by name, the names and the
+ * contents aligned so the ones stored without compression are handed out as
+ * views of the mapped file without any copy:
+ * <pre>
+ * header    magic, version, entries, directory offset, names offset and size
+ * directory per entry: name offset, name length, offset, stored size, size, flags
+ * names     UTF-8
+ * contents  each one aligned to {@link #CONTENT_ALIGNMENT} bytes
+ * </pre>
+ * Every number is little endian so the pack built in one machine is read in
+ * any other
+ */
+public class AssetPack {
+
+    /**
+     * Identifies the packs ("PAK1")
+     */
+    final static int MAGIC = 0x314B4150;
+
+    /**
+     * Version of the format of the packs
+     */
+    final static int VERSION = 1;
+
+    /**
+     * Size of the header in bytes
+     */
+    final static int HEADER_SIZE = 32;
+
+    /**
+     * Size of each entry of the directory in bytes
+     */
+    final static int ENTRY_SIZE = 24;
+
+    /**
+     * Alignment of the contents in bytes
+     */
+    final static int CONTENT_ALIGNMENT = 16;
+
+    /**
+     * Flag of the contents compressed with deflate
+     */
+    final static int FLAG_DEFLATED = 1;
+
+    /**
+     * Encoding of the names
+     */
+    final static Charset NAMES_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * The mapped file
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Offset of the entry in the directory by name
+     */
+    private final HashMap<String, Integer> entries;
+
+    /**
+     * Names of the entries in the order of the directory
+     */
+    private final List<String> names;
+
+    /**
+     * @param buffer  The mapped file
+     * @param entries Offset of the entry in the directory by name
+     * @param names   Names of the entries in the order of the directory
+     */
+    private AssetPack(MappedByteBuffer buffer, HashMap<String, Integer> entries, List<String> names) {
+        this.buffer = buffer;
+        this.entries = entries;
+        this.names = names;
+    }
+
+    /**
+     * Maps one pack and reads its directory
+     *
+     * @param file File of the pack
+     * @return The pack or null if the file is missing or is not a valid pack
+     */
+    public static AssetPack open(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+                return null;
+            }
+            int count = buffer.getInt();
+            int directoryOffset = buffer.getInt();
+            int namesOffset = buffer.getInt();
+            int namesSize = buffer.getInt();
+            if (((long) directoryOffset + (long) count * ENTRY_SIZE > fileSize)
+                    || ((long) namesOffset + namesSize > fileSize)) {
+                return null;
+            }
+
+            byte[] namesContent = new byte[namesSize];
+            buffer.position(namesOffset);
+            buffer.get(namesContent);
+            HashMap<String, Integer> entries = new HashMap<>(count * 2);
+            List<String> names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int entry = directoryOffset + i * ENTRY_SIZE;
+                int nameOffset = buffer.getInt(entry);
+                int nameLength = buffer.getInt(entry + 4);
+                long end = (long) buffer.getInt(entry + 8) + buffer.getInt(entry + 12);
+                if ((nameOffset < 0) || (nameLength < 0) || (nameOffset + nameLength > namesSize)
+                        || (end > fileSize)) {
+                    return null;
+                }
+                String name = new String(namesContent, nameOffset, nameLength, NAMES_CHARSET);
+                entries.put(name, entry);
+                names.add(name);
+            }
+            return new AssetPack(buffer, entries, Collections.unmodifiableList(names));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            // The mapping stays valid after the channel is closed
+            if (randomAccessFile != null) {
+                try {
+                    randomAccessFile.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Names of the assets sorted
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @param name Name of the asset (path relative to the folder packed with /)
+     * @return True if the pack has the asset
+     */
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * @param name Name of the asset
+     * @return Size of the asset after decompressed or -1 if the pack has not it
+     */
+    public int getSize(String name) {
+        Integer entry = entries.get(name);
+        return (entry == null) ? -1 : buffer.getInt(entry + 16);
+    }
+
+    /**
+     * @param name Name of the asset
+     * @return True if the asset is compressed in the pack
+     */
+    public boolean isCompressed(String name) {
+        Integer entry = entries.get(name);
+        return (entry != null) && ((buffer.getInt(entry + 20) & FLAG_DEFLATED) != 0);
+    }
+
+    /**
+     * @return Size of the mapped file in bytes
+     */
+    public int getFileSize() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Can be called from several threads at once
+     *
+     * @param name Name of the asset
+     * @return The content of the asset as a read only view of the mapped file
+     * when it is stored or in a new direct buffer when it is compressed, null
+     * if the pack has not the asset
+     */
+    public ByteBuffer getBuffer(String name) {
+        Integer entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        int offset = buffer.getInt(entry + 8);
+        int storedSize = buffer.getInt(entry + 12);
+        int size = buffer.getInt(entry + 16);
+        int flags = buffer.getInt(entry + 20);
+
+        ByteBuffer content = buffer.duplicate();
+        content.limit(offset + storedSize);
+        content.position(offset);
+        content = content.slice();
+        if ((flags & FLAG_DEFLATED) == 0) {
+            return content.asReadOnlyBuffer();
+        }
+        return inflate(content, storedSize, size);
+    }
+
+    /**
+     * @param content    The compressed content
+     * @param storedSize Bytes of the compressed content
+     * @param size       Bytes of the content after decompressed
+     * @return The content decompressed in a new direct buffer
+     */
+    private static ByteBuffer inflate(ByteBuffer content, int storedSize, int size) {
+        byte[] input = new byte[storedSize];
+        content.get(input);
+        byte[] output = new byte[size];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int inflated = 0;
+            while ((inflated < size) && !inflater.finished()) {
+                int count = inflater.inflate(output, inflated, size - inflated);
+                if ((count == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != size) {
+                System.err.println("The asset has " + inflated + " bytes instead of " + size);
+                return null;
+            }
+        } catch (DataFormatException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            inflater.end();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.put(output);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @param name Name of the asset
+     * @return A copy of the content of the asset or null if the pack has not it
+     */
+    public byte[] getBytes(String name) {
+        ByteBuffer content = getBuffer(name);
+        if (content == null) {
+            return null;
+        }
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param name Name of the asset
+     * @return Stream over the content of the asset or null if the pack has not it
+     */
+    public InputStream getInputStream(String name) {
+        ByteBuffer content = getBuffer(name);
+        return (content == null) ? null : new ByteBufferInputStream(content);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d assets, %d KB", names.size(), getFileSize() / 1024);
+    }
+}
@@ -0,0 +1,239 @@
+package com.dferreira.commons.pack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Builds one {@link AssetPack} with all the files of a folder. The contents
+ * that get smaller enough are compressed with deflate, the ones already
+ * compressed (images, audio) and the textures that are uploaded as they are
+ * stay stored so they are read straight from the mapped file
+ */
+public class AssetPackWriter {
+
+    /**
+     * Extensions of the files that are never compressed
+     */
+    private final static Set<String> STORED_EXTENSIONS = new HashSet<>(Arrays.asList("png", "ogg", "ktx", "ktx2",
+            "jpg"));
+
+    /**
+     * A content is only kept compressed when it gets smaller than this ratio
+     * of its size
+     */
+    private final static double MIN_COMPRESSION_RATIO = 0.9;
+
+    /**
+     * Size of the buffer used to compress the contents
+     */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Files to pack sorted by name
+     */
+    private final List<PackFile> files = new ArrayList<>();
+
+    /**
+     * One file to pack
+     */
+    private static class PackFile implements Comparable<PackFile> {
+        private final String name;
+        private final File file;
+
+        private PackFile(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        @Override
+        public int compareTo(PackFile other) {
+            return name.compareTo(other.name);
+        }
+    }
+
+    /**
+     * Adds all the files of a folder and of its sub folders
+     *
+     * @param folder Folder with the files
+     * @param prefix Prefix of the names of the files (the path of the folder
+     *               in the pack)
+     */
+    public void addFolder(File folder, String prefix) {
+        File[] children = folder.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                addFolder(child, prefix + child.getName() + "/");
+            } else if (child.isFile()) {
+                files.add(new PackFile(prefix + child.getName(), child));
+            }
+        }
+    }
+
+    /**
+     * @param name Name of the file
+     * @return True if the file can be compressed
+     */
+    private static boolean isCompressible(String name) {
+        int dot = name.lastIndexOf('.');
+        return (dot < 0) || !STORED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+    }
+
+    /**
+     * @param content Content to compress
+     * @return The content compressed or null if it does not get smaller enough
+     */
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 1);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                compressed.write(buffer, 0, count);
+            }
+            return (compressed.size() < content.length * MIN_COMPRESSION_RATIO) ? compressed.toByteArray() : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param file File to read
+     * @return All the bytes of the file
+     */
+    private static byte[] readFile(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            byte[] content = new byte[(int) randomAccessFile.length()];
+            randomAccessFile.readFully(content);
+            return content;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * @param offset Offset to align
+     * @return The offset aligned to the contents
+     */
+    private static int align(int offset) {
+        return (offset + AssetPack.CONTENT_ALIGNMENT - 1) & ~(AssetPack.CONTENT_ALIGNMENT - 1);
+    }
+
+    /**
+     * Writes the pack with all the files added
+     *
+     * @param output File of the pack (replaced when complete)
+     * @return True if the pack was written
+     */
+    public boolean write(File output) {
+        Collections.sort(files);
+        int count = files.size();
+        byte[][] names = new byte[count][];
+        int namesSize = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = files.get(i).name.getBytes(AssetPack.NAMES_CHARSET);
+            namesSize += names[i].length;
+        }
+        int directoryOffset = AssetPack.HEADER_SIZE;
+        int namesOffset = directoryOffset + count * AssetPack.ENTRY_SIZE;
+
+        ByteBuffer header = ByteBuffer.allocate(namesOffset + namesSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(count);
+        header.putInt(directoryOffset).putInt(namesOffset).putInt(namesSize);
+
+        File temporary = new File(output.getPath() + ".tmp");
+        File folder = output.getAbsoluteFile().getParentFile();
+        if ((folder != null) && !folder.isDirectory() && !folder.mkdirs()) {
+            return false;
+        }
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(temporary);
+            FileChannel channel = outputStream.getChannel();
+
+            // The contents are written first and the header at the end with their offsets
+            int offset = align(header.capacity());
+            int nameOffset = 0;
+            for (int i = 0; i < count; i++) {
+                PackFile packFile = files.get(i);
+                byte[] content = readFile(packFile.file);
+                byte[] compressed = isCompressible(packFile.name) ? deflate(content) : null;
+                byte[] stored = (compressed == null) ? content : compressed;
+
+                channel.position(offset);
+                ByteBuffer data = ByteBuffer.wrap(stored);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                header.position(directoryOffset + i * AssetPack.ENTRY_SIZE);
+                header.putInt(nameOffset).putInt(names[i].length);
+                header.putInt(offset).putInt(stored.length).putInt(content.length);
+                header.putInt((compressed == null) ? 0 : AssetPack.FLAG_DEFLATED);
+                header.position(namesOffset + nameOffset);
+                header.put(names[i]);
+                nameOffset += names[i].length;
+                offset = align(offset + stored.length);
+            }
+            header.rewind();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            outputStream.close();
+            outputStream = null;
+
+            // Replace the previous version only when the new one is complete
+            return (!output.exists() || output.delete()) && temporary.renameTo(output);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs one folder, used by the build
+     *
+     * @param args Folder to pack and file of the pack
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: AssetPackWriter <folder> <pack file>");
+            System.exit(1);
+        }
+        AssetPackWriter writer = new AssetPackWriter();
+        writer.addFolder(new File(args[0]), "");
+        File output = new File(args[1]);
+        if (!writer.write(output)) {
+            System.err.println("Could not write the pack " + output);
+            System.exit(1);
+        }
+        System.out.println("Packed " + AssetPack.open(output) + " in " + output);
+    }
+}
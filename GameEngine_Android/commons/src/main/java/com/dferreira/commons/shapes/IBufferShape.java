@@ -0,0 +1,33 @@
+package com.dferreira.commons.shapes;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Shape that keeps its data in buffers, when the buffers are direct (for
+ * instance mapped from a file) they can be handed to the render API without
+ * being copied
+ */
+public interface IBufferShape extends IShape {
+
+	/**
+	 * @return the vertices of the shape
+	 */
+	FloatBuffer getVerticesBuffer();
+
+	/**
+	 * @return the Coordinates of the textures of the shape
+	 */
+	FloatBuffer getTextureCoordsBuffer();
+
+	/**
+	 * 
+	 * @return the normal vectors that make the shape
+	 */
+	FloatBuffer getNormalsBuffer();
+
+	/**
+	 * @return The indices of the vertices that make the shape
+	 */
+	IntBuffer getIndicesBuffer();
+}
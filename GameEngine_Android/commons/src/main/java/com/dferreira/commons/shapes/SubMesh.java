@@ -0,0 +1,64 @@
+package com.dferreira.commons.shapes;
+
+/**
+ * Range of the indices of one mesh that is drawn with the same material (one
+ * group of a waveFront file)
+ */
+public class SubMesh {
+
+	private final int indexOffset;
+	private final int indexCount;
+	private final String groupName;
+	private final IExternalMaterial material;
+
+	/**
+	 * Constructor of the sub mesh
+	 * 
+	 * @param indexOffset
+	 *            Position of the first index of the sub mesh in the indices of
+	 *            the mesh
+	 * @param indexCount
+	 *            Number of indices of the sub mesh
+	 * @param groupName
+	 *            Name of the group wish belongs
+	 * @param material
+	 *            Material of the sub mesh if any
+	 */
+	public SubMesh(int indexOffset, int indexCount, String groupName, IExternalMaterial material) {
+		super();
+		this.indexOffset = indexOffset;
+		this.indexCount = indexCount;
+		this.groupName = groupName;
+		this.material = material;
+	}
+
+	/**
+	 * @return Position of the first index of the sub mesh in the indices of the
+	 *         mesh
+	 */
+	public int getIndexOffset() {
+		return indexOffset;
+	}
+
+	/**
+	 * @return Number of indices of the sub mesh
+	 */
+	public int getIndexCount() {
+		return indexCount;
+	}
+
+	/**
+	 * @return the groupName Name of the group wish belongs
+	 */
+	public String getGroupName() {
+		return groupName;
+	}
+
+	/**
+	 * 
+	 * @return The material associated with the sub mesh
+	 */
+	public IExternalMaterial getMaterial() {
+		return material;
+	}
+}
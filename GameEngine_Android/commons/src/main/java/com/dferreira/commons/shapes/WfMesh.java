@@ -0,0 +1,186 @@
+package com.dferreira.commons.shapes;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * Represents all the groups of one waveFront file sharing the same vertices,
+ * the indices of the groups are stored one after the other and every group is
+ * one range of them (sub mesh)
+ */
+public class WfMesh implements IBufferShape {
+
+	private final FloatBuffer vertices;
+	private final FloatBuffer textureCoords;
+	private final FloatBuffer normals;
+	private final IntBuffer indices;
+	private final List<SubMesh> subMeshes;
+
+	/**
+	 * Constructor of the waveFront mesh
+	 * 
+	 * @param vertices
+	 *            Vertices shared by all the groups
+	 * @param textureCoords
+	 *            Coordinate of the textures shared by all the groups
+	 * @param normals
+	 *            The normal vectors shared by all the groups
+	 * @param indices
+	 *            Indices of all the groups one after the other
+	 * @param subMeshes
+	 *            Range of the indices used by every group
+	 */
+	public WfMesh(float[] vertices, float[] textureCoords, float[] normals, int[] indices, List<SubMesh> subMeshes) {
+		this(FloatBuffer.wrap(vertices), FloatBuffer.wrap(textureCoords), FloatBuffer.wrap(normals),
+				IntBuffer.wrap(indices), subMeshes);
+	}
+
+	/**
+	 * Constructor of the waveFront mesh from buffers
+	 * 
+	 * @param vertices
+	 *            Vertices shared by all the groups
+	 * @param textureCoords
+	 *            Coordinate of the textures shared by all the groups
+	 * @param normals
+	 *            The normal vectors shared by all the groups
+	 * @param indices
+	 *            Indices of all the groups one after the other
+	 * @param subMeshes
+	 *            Range of the indices used by every group
+	 */
+	public WfMesh(FloatBuffer vertices, FloatBuffer textureCoords, FloatBuffer normals, IntBuffer indices,
+			List<SubMesh> subMeshes) {
+		super();
+		this.vertices = vertices;
+		this.textureCoords = textureCoords;
+		this.normals = normals;
+		this.indices = indices;
+		this.subMeshes = subMeshes;
+	}
+
+	/**
+	 * @param buffer
+	 *            Buffer to convert
+	 * @return The array behind the buffer or a copy of the buffer when it is
+	 *         not backed by an array
+	 */
+	private static float[] toArray(FloatBuffer buffer) {
+		if (buffer.hasArray() && (buffer.arrayOffset() == 0) && (buffer.position() == 0)
+				&& (buffer.limit() == buffer.array().length)) {
+			return buffer.array();
+		}
+		float[] array = new float[buffer.remaining()];
+		buffer.duplicate().get(array);
+		return array;
+	}
+
+	/**
+	 * @param buffer
+	 *            Buffer to convert
+	 * @return The array behind the buffer or a copy of the buffer when it is
+	 *         not backed by an array
+	 */
+	private static int[] toArray(IntBuffer buffer) {
+		if (buffer.hasArray() && (buffer.arrayOffset() == 0) && (buffer.position() == 0)
+				&& (buffer.limit() == buffer.array().length)) {
+			return buffer.array();
+		}
+		int[] array = new int[buffer.remaining()];
+		buffer.duplicate().get(array);
+		return array;
+	}
+
+	/**
+	 * @return the vertices of the file (copied when the mesh is backed by
+	 *         direct buffers)
+	 */
+	@Override
+	public float[] getVertices() {
+		return toArray(vertices);
+	}
+
+	/**
+	 * @return the coordinates of the textures of the file (copied when the
+	 *         mesh is backed by direct buffers)
+	 */
+	@Override
+	public float[] getTextureCoords() {
+		return toArray(textureCoords);
+	}
+
+	/**
+	 * 
+	 * @return the normal vectors that make the shape (copied when the mesh is
+	 *         backed by direct buffers)
+	 */
+	@Override
+	public float[] getNormals() {
+		return toArray(normals);
+	}
+
+	/**
+	 * @return the indices of all the groups of the file (copied when the mesh
+	 *         is backed by direct buffers)
+	 */
+	@Override
+	public int[] getIndices() {
+		return toArray(indices);
+	}
+
+	/**
+	 * @return the vertices of the file
+	 */
+	@Override
+	public FloatBuffer getVerticesBuffer() {
+		return vertices;
+	}
+
+	/**
+	 * @return the coordinates of the textures of the file
+	 */
+	@Override
+	public FloatBuffer getTextureCoordsBuffer() {
+		return textureCoords;
+	}
+
+	/**
+	 * @return the normal vectors that make the shape
+	 */
+	@Override
+	public FloatBuffer getNormalsBuffer() {
+		return normals;
+	}
+
+	/**
+	 * @return the indices of all the groups of the file
+	 */
+	@Override
+	public IntBuffer getIndicesBuffer() {
+		return indices;
+	}
+
+	/**
+	 * @return null because the mesh is made of several groups
+	 */
+	@Override
+	public String getGroupName() {
+		return null;
+	}
+
+	/**
+	 * @return null because every sub mesh has its own material
+	 */
+	@Override
+	public IExternalMaterial getMaterial() {
+		return null;
+	}
+
+	/**
+	 * @return The range of indices of every group of the file
+	 */
+	public List<SubMesh> getSubMeshes() {
+		return subMeshes;
+	}
+}
@@ -0,0 +1,192 @@
+package com.dferreira.commons.textures;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs rectangles in pages of a fixed size with the skyline algorithm: every
+ * page keeps the outline of the top of the rectangles already packed and each
+ * new rectangle goes where its top ends lowest (the leftmost of the ties), a
+ * new page is opened when it does not fit in any
+ */
+public class AtlasPacker {
+
+    /**
+     * One horizontal segment of the skyline of one page
+     */
+    private static class Segment {
+
+        /* Column where the segment starts */
+        private int x;
+
+        /* Row of the top of the rectangles below the segment */
+        private int y;
+
+        /* Width of the segment */
+        private int width;
+
+        /**
+         * @param x     Column where the segment starts
+         * @param y     Row of the top of the rectangles below the segment
+         * @param width Width of the segment
+         */
+        Segment(int x, int y, int width) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+        }
+    }
+
+    /* Width of each page */
+    private final int pageWidth;
+
+    /* Height of each page */
+    private final int pageHeight;
+
+    /* Skyline of every page ordered by column */
+    private final List<List<Segment>> skylines;
+
+    /* Width used of every page */
+    private final List<Integer> usedWidths;
+
+    /**
+     * @param pageWidth  Width of each page
+     * @param pageHeight Height of each page
+     */
+    public AtlasPacker(int pageWidth, int pageHeight) {
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.skylines = new ArrayList<>();
+        this.usedWidths = new ArrayList<>();
+    }
+
+    /**
+     * @param skyline Skyline of one page
+     * @param index   Index of the segment where the rectangle starts
+     * @param width   Width of the rectangle
+     * @param height  Height of the rectangle
+     * @return The row where the rectangle is placed or -1 if it does not fit
+     */
+    private int fit(List<Segment> skyline, int index, int width, int height) {
+        int x = skyline.get(index).x;
+        if (x + width > pageWidth) {
+            return -1;
+        }
+        int y = 0;
+        int remaining = width;
+        for (int i = index; remaining > 0; i++) {
+            Segment segment = skyline.get(i);
+            y = Math.max(y, segment.y);
+            if (y + height > pageHeight) {
+                return -1;
+            }
+            remaining -= segment.width;
+        }
+        return y;
+    }
+
+    /**
+     * Raises the skyline over one rectangle placed
+     *
+     * @param skyline Skyline of one page
+     * @param index   Index of the segment where the rectangle starts
+     * @param x       Column of the rectangle
+     * @param y       Row of the rectangle
+     * @param width   Width of the rectangle
+     * @param height  Height of the rectangle
+     */
+    private void raise(List<Segment> skyline, int index, int x, int y, int width, int height) {
+        skyline.add(index, new Segment(x, y + height, width));
+        // Cuts the segments under the rectangle
+        int i = index + 1;
+        while (i < skyline.size()) {
+            Segment segment = skyline.get(i);
+            int overlap = x + width - segment.x;
+            if (overlap <= 0) {
+                break;
+            }
+            if (overlap < segment.width) {
+                segment.x += overlap;
+                segment.width -= overlap;
+                break;
+            }
+            skyline.remove(i);
+        }
+        // Merges the neighbours at the same height
+        for (i = 0; i < skyline.size() - 1; ) {
+            Segment segment = skyline.get(i);
+            Segment next = skyline.get(i + 1);
+            if (segment.y == next.y) {
+                segment.width += next.width;
+                skyline.remove(i + 1);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Places one rectangle in the pages
+     *
+     * @param width  Width of the rectangle
+     * @param height Height of the rectangle
+     * @return The page and the position of the rectangle or null if it is bigger than one page
+     */
+    public AtlasRegion pack(int width, int height) {
+        if ((width > pageWidth) || (height > pageHeight)) {
+            return null;
+        }
+        for (int page = 0; page <= skylines.size(); page++) {
+            if (page == skylines.size()) {
+                List<Segment> skyline = new ArrayList<>();
+                skyline.add(new Segment(0, 0, pageWidth));
+                skylines.add(skyline);
+                usedWidths.add(0);
+            }
+            List<Segment> skyline = skylines.get(page);
+            int bestIndex = -1;
+            int bestY = 0;
+            for (int i = 0; i < skyline.size(); i++) {
+                int y = fit(skyline, i, width, height);
+                if ((y >= 0) && ((bestIndex < 0) || (y < bestY))) {
+                    bestIndex = i;
+                    bestY = y;
+                }
+            }
+            if (bestIndex >= 0) {
+                int x = skyline.get(bestIndex).x;
+                raise(skyline, bestIndex, x, bestY, width, height);
+                usedWidths.set(page, Math.max(usedWidths.get(page), x + width));
+                return new AtlasRegion(page, x, bestY, width, height);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Number of pages opened
+     */
+    public int getPagesCount() {
+        return skylines.size();
+    }
+
+    /**
+     * @param page Index of the page
+     * @return Width of the page up to the rightmost rectangle
+     */
+    public int getUsedWidth(int page) {
+        return usedWidths.get(page);
+    }
+
+    /**
+     * @param page Index of the page
+     * @return Height of the page up to the highest rectangle
+     */
+    public int getUsedHeight(int page) {
+        int height = 0;
+        for (Segment segment : skylines.get(page)) {
+            height = Math.max(height, segment.y);
+        }
+        return height;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dferreira.commons.textures;
+
+/**
+ * Place of one texture in the pages of one atlas (the gutter around it is
+ * not part of the region)
+ */
+public class AtlasRegion {
+
+    /**
+     * Index of the page where the texture is
+     */
+    private final int page;
+
+    /**
+     * Column of the first pixel of the texture in the page
+     */
+    private final int x;
+
+    /**
+     * Row of the first pixel of the texture in the page
+     */
+    private final int y;
+
+    /**
+     * Width of the texture
+     */
+    private final int width;
+
+    /**
+     * Height of the texture
+     */
+    private final int height;
+
+    /**
+     * @param page   Index of the page where the texture is
+     * @param x      Column of the first pixel of the texture in the page
+     * @param y      Row of the first pixel of the texture in the page
+     * @param width  Width of the texture
+     * @param height Height of the texture
+     */
+    AtlasRegion(int page, int x, int y, int width, int height) {
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @return Index of the page where the texture is
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @return Column of the first pixel of the texture in the page
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return Row of the first pixel of the texture in the page
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return Width of the texture
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Height of the texture
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("page %d (%d, %d) %dx%d", page, x, y, width, height);
+    }
+}
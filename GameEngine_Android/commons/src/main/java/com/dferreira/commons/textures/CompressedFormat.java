@@ -0,0 +1,127 @@
+package com.dferreira.commons.textures;
+
+/**
+ * Formats of the textures compressed in blocks that the render APIs upload
+ * as they are, with the identifiers that the containers use for them
+ */
+public enum CompressedFormat {
+
+    BC1_RGB(0x83F0, 131, 4, 4, 8),
+    BC1_RGB_SRGB(0x8C4C, 132, 4, 4, 8),
+    BC1_RGBA(0x83F1, 133, 4, 4, 8),
+    BC1_RGBA_SRGB(0x8C4D, 134, 4, 4, 8),
+    BC2_RGBA(0x83F2, 135, 4, 4, 16),
+    BC2_RGBA_SRGB(0x8C4E, 136, 4, 4, 16),
+    BC3_RGBA(0x83F3, 137, 4, 4, 16),
+    BC3_RGBA_SRGB(0x8C4F, 138, 4, 4, 16),
+    BC7_RGBA(0x8E8C, 145, 4, 4, 16),
+    BC7_RGBA_SRGB(0x8E8D, 146, 4, 4, 16),
+    ETC1_RGB(0x8D64, 0, 4, 4, 8),
+    ETC2_RGB(0x9274, 147, 4, 4, 8),
+    ETC2_RGB_SRGB(0x9275, 148, 4, 4, 8),
+    ETC2_RGB_A1(0x9276, 149, 4, 4, 8),
+    ETC2_RGB_A1_SRGB(0x9277, 150, 4, 4, 8),
+    ETC2_RGBA(0x9278, 151, 4, 4, 16),
+    ETC2_RGBA_SRGB(0x9279, 152, 4, 4, 16),
+    ASTC_4x4(0x93B0, 157, 4, 4, 16),
+    ASTC_4x4_SRGB(0x93D0, 158, 4, 4, 16),
+    ASTC_6x6(0x93B4, 165, 6, 6, 16),
+    ASTC_6x6_SRGB(0x93D4, 166, 6, 6, 16),
+    ASTC_8x8(0x93B7, 171, 8, 8, 16),
+    ASTC_8x8_SRGB(0x93D7, 172, 8, 8, 16);
+
+    /* Internal format of openGL */
+    private final int glInternalFormat;
+
+    /* Format of vulkan used by the KTX2 containers (zero if it has none) */
+    private final int vkFormat;
+
+    /* Width of each block in pixels */
+    private final int blockWidth;
+
+    /* Height of each block in pixels */
+    private final int blockHeight;
+
+    /* Bytes of each block */
+    private final int blockBytes;
+
+    /**
+     * @param glInternalFormat Internal format of openGL
+     * @param vkFormat         Format of vulkan used by the KTX2 containers (zero if it has none)
+     * @param blockWidth       Width of each block in pixels
+     * @param blockHeight      Height of each block in pixels
+     * @param blockBytes       Bytes of each block
+     */
+    CompressedFormat(int glInternalFormat, int vkFormat, int blockWidth, int blockHeight, int blockBytes) {
+        this.glInternalFormat = glInternalFormat;
+        this.vkFormat = vkFormat;
+        this.blockWidth = blockWidth;
+        this.blockHeight = blockHeight;
+        this.blockBytes = blockBytes;
+    }
+
+    /**
+     * @param glInternalFormat Internal format of openGL
+     * @return The format or null if it is not supported
+     */
+    public static CompressedFormat fromGLInternalFormat(int glInternalFormat) {
+        for (CompressedFormat format : values()) {
+            if (format.glInternalFormat == glInternalFormat) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param vkFormat Format of vulkan
+     * @return The format or null if it is not supported
+     */
+    public static CompressedFormat fromVkFormat(int vkFormat) {
+        for (CompressedFormat format : values()) {
+            if ((format.vkFormat != 0) && (format.vkFormat == vkFormat)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Internal format of openGL
+     */
+    public int getGLInternalFormat() {
+        return glInternalFormat;
+    }
+
+    /**
+     * @return Width of each block in pixels
+     */
+    public int getBlockWidth() {
+        return blockWidth;
+    }
+
+    /**
+     * @return Height of each block in pixels
+     */
+    public int getBlockHeight() {
+        return blockHeight;
+    }
+
+    /**
+     * @return Bytes of each block
+     */
+    public int getBlockBytes() {
+        return blockBytes;
+    }
+
+    /**
+     * @param width  Width of the level in pixels
+     * @param height Height of the level in pixels
+     * @return The bytes of the level (the blocks of the borders are whole)
+     */
+    public int getLevelSize(int width, int height) {
+        int columns = (width + blockWidth - 1) / blockWidth;
+        int rows = (height + blockHeight - 1) / blockHeight;
+        return columns * rows * blockBytes;
+    }
+}
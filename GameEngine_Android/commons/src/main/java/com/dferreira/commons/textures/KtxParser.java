@@ -0,0 +1,294 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.models.CompressedTextureData;
+import com.dferreira.commons.models.TextureData;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads the 2D textures compressed in blocks of the KTX (version 1 and 2)
+ * containers. The levels are views of the buffer of the container (nothing
+ * is copied), the containers with arrays, cube maps, depth or
+ * supercompression are not supported
+ */
+public class KtxParser {
+
+    /**
+     * Extension of the files of the version 1 of the container
+     */
+    public final static String KTX_EXTENSION = ".ktx";
+
+    /**
+     * Extension of the files of the version 2 of the container
+     */
+    public final static String KTX2_EXTENSION = ".ktx2";
+
+    /**
+     * Identifier in the start of the files of the version 1
+     */
+    private final static byte[] KTX_IDENTIFIER = {(byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r',
+            '\n', 0x1A, '\n'};
+
+    /**
+     * Identifier in the start of the files of the version 2
+     */
+    private final static byte[] KTX2_IDENTIFIER = {(byte) 0xAB, 'K', 'T', 'X', ' ', '2', '0', (byte) 0xBB, '\r',
+            '\n', 0x1A, '\n'};
+
+    /**
+     * Value of the field of the endianness in the byte order of the writer
+     */
+    private final static int KTX_ENDIANNESS = 0x04030201;
+
+    /**
+     * Size of the header of the version 1 (with the identifier)
+     */
+    private final static int KTX_HEADER_SIZE = 64;
+
+    /**
+     * Size of the header of the version 2 (with the identifier and the index)
+     */
+    private final static int KTX2_HEADER_SIZE = 80;
+
+    /**
+     * Size of each entry of the index of the levels of the version 2
+     */
+    private final static int KTX2_LEVEL_ENTRY_SIZE = 24;
+
+    /**
+     * Alignment of the levels of the version 1
+     */
+    private final static int KTX_LEVEL_ALIGNMENT = 4;
+
+    private final static Logger logger = LogManager.getLogger(KtxParser.class);
+
+    /**
+     * @param fileName Name of a file
+     * @return True if the file is a KTX container (by its extension)
+     */
+    public static boolean isKtx(String fileName) {
+        if (fileName == null) {
+            return false;
+        }
+        String lowerCase = fileName.toLowerCase();
+        return lowerCase.endsWith(KTX_EXTENSION) || lowerCase.endsWith(KTX2_EXTENSION);
+    }
+
+    /**
+     * @param data       Content of the container
+     * @param identifier Identifier expected
+     * @return True if the container starts with the identifier
+     */
+    private static boolean startsWith(ByteBuffer data, byte[] identifier) {
+        if (data.remaining() < identifier.length) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length; i++) {
+            if (data.get(data.position() + i) != identifier[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param data   Content of the container
+     * @param offset Offset of the level from the start of the container
+     * @param size   Bytes of the level
+     * @return View of the bytes of the level
+     */
+    private static ByteBuffer slice(ByteBuffer data, int offset, int size) {
+        ByteBuffer view = data.duplicate();
+        view.limit(data.position() + offset + size);
+        view.position(data.position() + offset);
+        return view.slice();
+    }
+
+    /**
+     * @param levels Levels from the base to the smallest
+     * @return The base level with the other levels as its mipmaps
+     */
+    private static CompressedTextureData chain(CompressedTextureData[] levels) {
+        CompressedTextureData base = levels[0];
+        if (levels.length > 1) {
+            TextureData[] mipmaps = new TextureData[levels.length - 1];
+            System.arraycopy(levels, 1, mipmaps, 0, mipmaps.length);
+            base.setMipmaps(mipmaps);
+        }
+        return base;
+    }
+
+    /**
+     * @param format    Format of the blocks
+     * @param width     Width of the base level
+     * @param height    Height of the base level
+     * @param level     Index of the level
+     * @param levelSize Bytes of the level in the container
+     * @return True if the level has the size expected for its dimensions
+     */
+    private static boolean checkLevelSize(CompressedFormat format, int width, int height, int level, long levelSize) {
+        int expected = format.getLevelSize(Math.max(1, width >> level), Math.max(1, height >> level));
+        if (levelSize != expected) {
+            logger.error("Level " + level + " has " + levelSize + " bytes instead of " + expected);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param data Content of a container of the version 1 (little or big endian)
+     * @return The texture or null if the container is not supported
+     */
+    private static CompressedTextureData parseKtx(ByteBuffer data) {
+        if (data.remaining() < KTX_HEADER_SIZE) {
+            logger.error("The KTX header is truncated");
+            return null;
+        }
+        ByteBuffer header = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = data.position();
+        if (header.getInt(start + 12) != KTX_ENDIANNESS) {
+            header.order(ByteOrder.BIG_ENDIAN);
+        }
+        int glType = header.getInt(start + 16);
+        int glFormat = header.getInt(start + 24);
+        int glInternalFormat = header.getInt(start + 28);
+        int width = header.getInt(start + 36);
+        int height = header.getInt(start + 40);
+        int depth = header.getInt(start + 44);
+        int arrayElements = header.getInt(start + 48);
+        int faces = header.getInt(start + 52);
+        int levelsCount = Math.max(1, header.getInt(start + 56));
+        int keyValueBytes = header.getInt(start + 60);
+
+        CompressedFormat format = CompressedFormat.fromGLInternalFormat(glInternalFormat);
+        if ((glType != 0) || (glFormat != 0) || (format == null)) {
+            logger.error(String.format("The KTX internal format 0x%X is not a supported compressed format",
+                    glInternalFormat));
+            return null;
+        }
+        if ((width <= 0) || (height <= 0) || (depth != 0) || (arrayElements != 0) || (faces != 1)) {
+            logger.error("Only 2D KTX textures are supported");
+            return null;
+        }
+
+        CompressedTextureData[] levels = new CompressedTextureData[levelsCount];
+        int offset = KTX_HEADER_SIZE + keyValueBytes;
+        for (int level = 0; level < levelsCount; level++) {
+            if (offset + 4 > data.remaining()) {
+                logger.error("The KTX level " + level + " is truncated");
+                return null;
+            }
+            int levelSize = header.getInt(start + offset);
+            offset += 4;
+            if ((levelSize < 0) || (offset + levelSize > data.remaining())) {
+                logger.error("The KTX level " + level + " is truncated");
+                return null;
+            }
+            if (!checkLevelSize(format, width, height, level, levelSize)) {
+                return null;
+            }
+            levels[level] = new CompressedTextureData(slice(data, offset, levelSize), Math.max(1, width >> level),
+                    Math.max(1, height >> level), format);
+            // Each level is padded to four bytes
+            offset += (levelSize + KTX_LEVEL_ALIGNMENT - 1) & ~(KTX_LEVEL_ALIGNMENT - 1);
+        }
+        return chain(levels);
+    }
+
+    /**
+     * @param data Content of a container of the version 2 (always little endian)
+     * @return The texture or null if the container is not supported
+     */
+    private static CompressedTextureData parseKtx2(ByteBuffer data) {
+        if (data.remaining() < KTX2_HEADER_SIZE) {
+            logger.error("The KTX2 header is truncated");
+            return null;
+        }
+        ByteBuffer header = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = data.position();
+        int vkFormat = header.getInt(start + 12);
+        int width = header.getInt(start + 20);
+        int height = header.getInt(start + 24);
+        int depth = header.getInt(start + 28);
+        int layers = header.getInt(start + 32);
+        int faces = header.getInt(start + 36);
+        int levelsCount = Math.max(1, header.getInt(start + 40));
+        int supercompression = header.getInt(start + 44);
+
+        CompressedFormat format = CompressedFormat.fromVkFormat(vkFormat);
+        if (format == null) {
+            logger.error("The KTX2 format " + vkFormat + " is not a supported compressed format");
+            return null;
+        }
+        if (supercompression != 0) {
+            logger.error("The KTX2 supercompression " + supercompression + " is not supported");
+            return null;
+        }
+        if ((width <= 0) || (height <= 0) || (depth != 0) || (layers != 0) || (faces != 1)) {
+            logger.error("Only 2D KTX2 textures are supported");
+            return null;
+        }
+        if (KTX2_HEADER_SIZE + levelsCount * KTX2_LEVEL_ENTRY_SIZE > data.remaining()) {
+            logger.error("The KTX2 index of the levels is truncated");
+            return null;
+        }
+
+        // The index has the base level first although the smallest level is first in the file
+        CompressedTextureData[] levels = new CompressedTextureData[levelsCount];
+        for (int level = 0; level < levelsCount; level++) {
+            int entry = start + KTX2_HEADER_SIZE + level * KTX2_LEVEL_ENTRY_SIZE;
+            long offset = header.getLong(entry);
+            long levelSize = header.getLong(entry + 8);
+            if ((offset < 0) || (levelSize < 0) || (offset + levelSize > data.remaining())) {
+                logger.error("The KTX2 level " + level + " is truncated");
+                return null;
+            }
+            if (!checkLevelSize(format, width, height, level, levelSize)) {
+                return null;
+            }
+            levels[level] = new CompressedTextureData(slice(data, (int) offset, (int) levelSize),
+                    Math.max(1, width >> level), Math.max(1, height >> level), format);
+        }
+        return chain(levels);
+    }
+
+    /**
+     * Reads one container already in memory
+     *
+     * @param data Content of the container from its position (the levels are
+     *             views of it so it should be direct to be uploaded)
+     * @return The base level with the levels below as its mipmaps or null if
+     * the container is not valid or not supported
+     */
+    public static CompressedTextureData parse(ByteBuffer data) {
+        if (startsWith(data, KTX_IDENTIFIER)) {
+            return parseKtx(data);
+        } else if (startsWith(data, KTX2_IDENTIFIER)) {
+            return parseKtx2(data);
+        } else {
+            logger.error("The content is not a KTX container");
+            return null;
+        }
+    }
+
+    /**
+     * Reads one container read from a file
+     *
+     * @param content Content of the container (copied to one direct buffer)
+     * @return The base level with the levels below as its mipmaps or null if
+     * the container is not valid or not supported
+     */
+    public static CompressedTextureData parse(byte[] content) {
+        if (content == null) {
+            return null;
+        }
+        ByteBuffer data = ByteBuffer.allocateDirect(content.length);
+        data.put(content);
+        data.flip();
+        return parse(data);
+    }
+}
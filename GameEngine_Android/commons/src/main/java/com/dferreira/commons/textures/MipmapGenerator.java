@@ -0,0 +1,255 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.models.CompressedTextureData;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.utils.DirectBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Builds the chain of mipmaps of one texture in the CPU (so it can run in the
+ * workers of the loading pipeline). Each level is the box filter of 2x2
+ * pixels of the level above done in linear space (the colors of the textures
+ * are sRGB) and, for the textures tested against one alpha reference, the
+ * alpha of each level is scaled so the fraction of pixels that pass the test
+ * is the same of the base level (otherwise the foliage fades with the
+ * distance)
+ */
+public class MipmapGenerator {
+
+    /**
+     * Number of components of each pixel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Index of the alpha component in one pixel
+     */
+    private final static int ALPHA = 3;
+
+    /**
+     * Maximum value of one component
+     */
+    private final static int MAX_COMPONENT = 255;
+
+    /**
+     * Number of steps of the search of the scale of the alpha that keeps the coverage
+     */
+    private final static int COVERAGE_SEARCH_STEPS = 16;
+
+    /**
+     * Maximum scale applied to the alpha to keep the coverage
+     */
+    private final static float MAX_ALPHA_SCALE = 8.0f;
+
+    /**
+     * Linear value of each sRGB component
+     */
+    private final static float[] SRGB_TO_LINEAR = new float[MAX_COMPONENT + 1];
+
+    static {
+        for (int i = 0; i <= MAX_COMPONENT; i++) {
+            SRGB_TO_LINEAR[i] = toLinear(i / (float) MAX_COMPONENT);
+        }
+    }
+
+    /**
+     * @param srgb Component in sRGB space (0 to 1)
+     * @return The component in linear space (0 to 1)
+     */
+    private static float toLinear(float srgb) {
+        return (srgb <= 0.04045f) ? srgb / 12.92f : (float) Math.pow((srgb + 0.055f) / 1.055f, 2.4f);
+    }
+
+    /**
+     * @param linear Component in linear space (0 to 1)
+     * @return The component in sRGB space (0 to 1)
+     */
+    private static float toSRGB(float linear) {
+        return (linear <= 0.0031308f) ? linear * 12.92f : 1.055f * (float) Math.pow(linear, 1.0f / 2.4f) - 0.055f;
+    }
+
+    /**
+     * @param value Component (0 to 1)
+     * @return The component as one byte rounded to the nearest
+     */
+    private static byte toByte(float value) {
+        int component = Math.round(value * MAX_COMPONENT);
+        return (byte) Math.max(0, Math.min(MAX_COMPONENT, component));
+    }
+
+    /**
+     * @param texture Texture with the pixels in RGBA
+     * @return The pixels of the texture in linear space (the alpha is kept linear)
+     */
+    private static float[] decode(TextureData texture) {
+        ByteBuffer buffer = texture.getBuffer();
+        float[] pixels = new float[texture.getWidth() * texture.getHeight() * COMPONENTS];
+        for (int i = 0; i < pixels.length; i++) {
+            int component = buffer.get(i) & 0xFF;
+            pixels[i] = ((i % COMPONENTS) == ALPHA) ? component / (float) MAX_COMPONENT : SRGB_TO_LINEAR[component];
+        }
+        return pixels;
+    }
+
+    /**
+     * Box filter of 2x2 pixels (the last row or column is repeated when the
+     * size is odd)
+     *
+     * @param pixels Pixels of the level above in linear space
+     * @param width  Width of the level above
+     * @param height Height of the level above
+     * @return The pixels of the next level in linear space
+     */
+    static float[] downsample(float[] pixels, int width, int height) {
+        int levelWidth = Math.max(1, width / 2);
+        int levelHeight = Math.max(1, height / 2);
+        float[] level = new float[levelWidth * levelHeight * COMPONENTS];
+        for (int y = 0; y < levelHeight; y++) {
+            int y0 = Math.min(2 * y, height - 1) * width;
+            int y1 = Math.min(2 * y + 1, height - 1) * width;
+            for (int x = 0; x < levelWidth; x++) {
+                int x0 = Math.min(2 * x, width - 1);
+                int x1 = Math.min(2 * x + 1, width - 1);
+                int target = (y * levelWidth + x) * COMPONENTS;
+                for (int c = 0; c < COMPONENTS; c++) {
+                    level[target + c] = 0.25f * (pixels[(y0 + x0) * COMPONENTS + c]
+                            + pixels[(y0 + x1) * COMPONENTS + c]
+                            + pixels[(y1 + x0) * COMPONENTS + c]
+                            + pixels[(y1 + x1) * COMPONENTS + c]);
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * @param pixels         Pixels in linear space
+     * @param alphaScale     Scale applied to the alpha
+     * @param alphaReference Reference of the alpha test
+     * @return Fraction of the pixels that pass the alpha test
+     */
+    static float getCoverage(float[] pixels, float alphaScale, float alphaReference) {
+        int passed = 0;
+        int count = pixels.length / COMPONENTS;
+        for (int i = ALPHA; i < pixels.length; i += COMPONENTS) {
+            if (Math.min(1.0f, pixels[i] * alphaScale) >= alphaReference) {
+                passed++;
+            }
+        }
+        return passed / (float) count;
+    }
+
+    /**
+     * Finds the scale of the alpha of one level that gets the closest coverage
+     * to the one desired (binary search, the coverage grows with the scale)
+     *
+     * @param pixels         Pixels of the level in linear space
+     * @param coverage       Coverage desired
+     * @param alphaReference Reference of the alpha test
+     * @return The scale to apply to the alpha of the level
+     */
+    private static float findAlphaScale(float[] pixels, float coverage, float alphaReference) {
+        float low = 0.0f;
+        float high = MAX_ALPHA_SCALE;
+        float best = 1.0f;
+        float bestError = Math.abs(getCoverage(pixels, best, alphaReference) - coverage);
+        for (int i = 0; i < COVERAGE_SEARCH_STEPS; i++) {
+            float middle = 0.5f * (low + high);
+            float levelCoverage = getCoverage(pixels, middle, alphaReference);
+            float error = Math.abs(levelCoverage - coverage);
+            if (error < bestError) {
+                best = middle;
+                bestError = error;
+            }
+            if (levelCoverage < coverage) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param pixels     Pixels in linear space
+     * @param width      Width of the level
+     * @param height     Height of the level
+     * @param alphaScale Scale applied to the alpha
+     * @param pool       Pool where the buffer is taken from (null to allocate a new one)
+     * @return The level with the pixels in sRGB
+     */
+    private static TextureData encode(float[] pixels, int width, int height, float alphaScale,
+                                      DirectBufferPool pool) {
+        ByteBuffer buffer = (pool == null) ? ByteBuffer.allocateDirect(pixels.length) : pool.acquire(pixels.length);
+        for (int i = 0; i < pixels.length; i++) {
+            boolean alpha = (i % COMPONENTS) == ALPHA;
+            buffer.put(alpha ? toByte(Math.min(1.0f, pixels[i] * alphaScale)) : toByte(toSRGB(pixels[i])));
+        }
+        buffer.flip();
+        return new TextureData(buffer, width, height, pool);
+    }
+
+    /**
+     * Builds the levels of the chain below the base level
+     *
+     * @param texture        Base level with the pixels in RGBA (sRGB)
+     * @param alphaReference Reference of the alpha test to keep the coverage
+     *                       (not positive to filter the alpha as the colors)
+     * @param pool           Pool where the buffers of the levels are taken from (null to allocate new ones)
+     * @return The levels from the half of the size of the base to 1x1
+     */
+    public static TextureData[] generate(TextureData texture, float alphaReference, DirectBufferPool pool) {
+        int width = texture.getWidth();
+        int height = texture.getHeight();
+        int levels = 0;
+        for (int size = Math.max(width, height); size > 1; size /= 2) {
+            levels++;
+        }
+        TextureData[] mipmaps = new TextureData[levels];
+        float[] pixels = decode(texture);
+        float coverage = (alphaReference > 0.0f) ? getCoverage(pixels, 1.0f, alphaReference) : 0.0f;
+        for (int i = 0; i < levels; i++) {
+            pixels = downsample(pixels, width, height);
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+            float alphaScale = (alphaReference > 0.0f) ? findAlphaScale(pixels, coverage, alphaReference) : 1.0f;
+            mipmaps[i] = encode(pixels, width, height, alphaScale, pool);
+        }
+        return mipmaps;
+    }
+
+    /**
+     * Builds the chain of the texture and attaches it to the texture (the
+     * levels are taken from the pool of the texture if it is pooled), the
+     * compressed textures keep the levels of their containers
+     *
+     * @param texture        Base level with the pixels in RGBA (sRGB)
+     * @param alphaReference Reference of the alpha test to keep the coverage
+     *                       (not positive to filter the alpha as the colors)
+     * @return The same texture with the mipmaps
+     */
+    public static TextureData attach(TextureData texture, float alphaReference) {
+        if ((texture != null) && (texture.getMipmaps() == null) && !(texture instanceof CompressedTextureData)) {
+            texture.setMipmaps(generate(texture, alphaReference, texture.getPool()));
+        }
+        return texture;
+    }
+
+    /**
+     * Builds the chains of several textures
+     *
+     * @param textures       Base levels (can have null elements)
+     * @param alphaReference Reference of the alpha test to keep the coverage
+     *                       (not positive to filter the alpha as the colors)
+     * @return The same textures with the mipmaps
+     */
+    public static TextureData[] attach(TextureData[] textures, float alphaReference) {
+        if (textures != null) {
+            for (TextureData texture : textures) {
+                attach(texture, alphaReference);
+            }
+        }
+        return textures;
+    }
+}
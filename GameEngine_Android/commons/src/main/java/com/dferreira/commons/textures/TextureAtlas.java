@@ -0,0 +1,399 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.models.CompressedTextureData;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.utils.Utils;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Several small textures packed in a few pages so the materials that use
+ * them share the same bind. Every texture is surrounded by a gutter with the
+ * pixels of its edges repeated and starts aligned to the size of the gutter,
+ * so the levels of the chain of mipmaps down to one pixel of gutter never mix
+ * two textures (the pages only have those levels). The meshes that use the
+ * textures need their coordinates of texture remapped to the pages
+ */
+public class TextureAtlas {
+
+    /**
+     * Number of levels of the chain of mipmaps of the pages below the base
+     */
+    public final static int MIPMAP_LEVELS = 3;
+
+    /**
+     * Pixels repeated around each texture (one pixel in the last level)
+     */
+    public final static int GUTTER = 1 << MIPMAP_LEVELS;
+
+    /**
+     * Number of components of each pixel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Tolerance of the coordinates of texture out of the range [0, 1]
+     */
+    private final static float COORDINATE_TOLERANCE = 0.001f;
+
+    /**
+     * The vertex is not used by any sub mesh
+     */
+    private final static int UNUSED = -1;
+
+    /**
+     * The vertex is used by a sub mesh without texture
+     */
+    private final static int UNTEXTURED = -2;
+
+    /* Name of the atlas (prefix of the name of the pages) */
+    private final String name;
+
+    /* Region of every texture packed by name of file */
+    private final HashMap<String, AtlasRegion> regions;
+
+    /* Pages with their chains of mipmaps */
+    private final TextureData[] pages;
+
+    /* Number of pixels of the textures packed */
+    private final long texturesPixels;
+
+    /**
+     * @param name           Name of the atlas
+     * @param regions        Region of every texture packed by name of file
+     * @param pages          Pages with their chains of mipmaps
+     * @param texturesPixels Number of pixels of the textures packed
+     */
+    private TextureAtlas(String name, HashMap<String, AtlasRegion> regions, TextureData[] pages,
+                         long texturesPixels) {
+        this.name = name;
+        this.regions = regions;
+        this.pages = pages;
+        this.texturesPixels = texturesPixels;
+    }
+
+    /**
+     * @param size Size in pixels
+     * @return The size rounded up to the gutter
+     */
+    private static int alignToGutter(int size) {
+        return (size + GUTTER - 1) & ~(GUTTER - 1);
+    }
+
+    /**
+     * @param texture Texture to pack
+     * @return True if the texture has pixels (is not compressed) and is big
+     * enough to have all the levels of the pages
+     */
+    public static boolean canPack(TextureData texture) {
+        return (texture != null) && !(texture instanceof CompressedTextureData) && (texture.getWidth() >= GUTTER)
+                && (texture.getHeight() >= GUTTER);
+    }
+
+    /**
+     * @param texture Base level of one texture
+     * @param level   Level of the chain (zero is the base)
+     * @return The level of the chain of the texture (built if it does not have one)
+     */
+    private static TextureData getLevel(TextureData texture, int level) {
+        if (level == 0) {
+            return texture;
+        }
+        return MipmapGenerator.attach(texture, 0.0f).getMipmaps()[level - 1];
+    }
+
+    /**
+     * Copies one level of one texture to the same level of one page and
+     * repeats its edges in the gutter around it
+     *
+     * @param source    Level of the texture
+     * @param page      Pixels of the level of the page
+     * @param pageWidth Width of the level of the page
+     * @param x         Column of the texture in the level of the page
+     * @param y         Row of the texture in the level of the page
+     * @param gutter    Pixels of gutter in the level
+     */
+    private static void blit(TextureData source, ByteBuffer page, int pageWidth, int x, int y, int gutter) {
+        ByteBuffer pixels = source.getBuffer();
+        // The pixels are copied as integers in the order of the source so the bytes keep their order
+        ByteBuffer target = page.duplicate().order(pixels.order());
+        int width = source.getWidth();
+        int height = source.getHeight();
+        for (int row = -gutter; row < height + gutter; row++) {
+            int sourceRow = Math.max(0, Math.min(height - 1, row)) * width;
+            int targetRow = (y + row) * pageWidth + x;
+            for (int column = -gutter; column < width + gutter; column++) {
+                int sourceColumn = Math.max(0, Math.min(width - 1, column));
+                target.putInt((targetRow + column) * COMPONENTS, pixels.getInt((sourceRow + sourceColumn) * COMPONENTS));
+            }
+        }
+    }
+
+    /**
+     * Packs the textures in pages
+     *
+     * @param name     Name of the atlas (prefix of the name of the pages)
+     * @param textures Textures to pack by name of file (the ones that do not
+     *                 fit in one page or are too small are left out)
+     * @param pageSize Maximum width and height of each page
+     * @return The atlas with the textures that were packed
+     */
+    public static TextureAtlas build(String name, Map<String, TextureData> textures, int pageSize) {
+        // The tallest first leave less holes under the skyline
+        List<Map.Entry<String, TextureData>> entries = new ArrayList<>();
+        for (Map.Entry<String, TextureData> entry : textures.entrySet()) {
+            if (canPack(entry.getValue())) {
+                entries.add(entry);
+            }
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, TextureData>>() {
+            @Override
+            public int compare(Map.Entry<String, TextureData> a, Map.Entry<String, TextureData> b) {
+                int byHeight = b.getValue().getHeight() - a.getValue().getHeight();
+                return (byHeight != 0) ? byHeight : b.getValue().getWidth() - a.getValue().getWidth();
+            }
+        });
+
+        AtlasPacker packer = new AtlasPacker(pageSize, pageSize);
+        HashMap<String, AtlasRegion> regions = new HashMap<>();
+        long texturesPixels = 0;
+        for (Map.Entry<String, TextureData> entry : entries) {
+            TextureData texture = entry.getValue();
+            AtlasRegion cell = packer.pack(alignToGutter(texture.getWidth()) + 2 * GUTTER,
+                    alignToGutter(texture.getHeight()) + 2 * GUTTER);
+            if (cell == null) {
+                continue;
+            }
+            regions.put(entry.getKey(), new AtlasRegion(cell.getPage(), cell.getX() + GUTTER, cell.getY() + GUTTER,
+                    texture.getWidth(), texture.getHeight()));
+            texturesPixels += texture.getWidth() * texture.getHeight();
+        }
+
+        TextureData[] pages = new TextureData[packer.getPagesCount()];
+        for (int page = 0; page < pages.length; page++) {
+            // The sizes of the cells are multiples of the gutter so each level halves exactly
+            int width = packer.getUsedWidth(page);
+            int height = packer.getUsedHeight(page);
+            TextureData[] levels = new TextureData[MIPMAP_LEVELS + 1];
+            for (int level = 0; level < levels.length; level++) {
+                int levelWidth = width >> level;
+                int levelHeight = height >> level;
+                ByteBuffer pixels = ByteBuffer.allocateDirect(levelWidth * levelHeight * COMPONENTS);
+                for (Map.Entry<String, AtlasRegion> entry : regions.entrySet()) {
+                    AtlasRegion region = entry.getValue();
+                    if (region.getPage() == page) {
+                        blit(getLevel(textures.get(entry.getKey()), level), pixels, levelWidth,
+                                region.getX() >> level, region.getY() >> level, GUTTER >> level);
+                    }
+                }
+                levels[level] = new TextureData(pixels, levelWidth, levelHeight);
+            }
+            pages[page] = levels[0];
+            pages[page].setMipmaps(Arrays.copyOfRange(levels, 1, levels.length));
+        }
+        return new TextureAtlas(name, regions, pages, texturesPixels);
+    }
+
+    /**
+     * @param subMesh Sub mesh of one mesh
+     * @return Name of the file of the diffuse texture of the sub mesh (null if it has not)
+     */
+    private static String getTextureFileName(SubMesh subMesh) {
+        if (subMesh.getMaterial() == null) {
+            return null;
+        }
+        String fileName = subMesh.getMaterial().getDiffuseTextureFileName();
+        return Utils.isEmpty(fileName) ? null : fileName;
+    }
+
+    /**
+     * Finds the texture of every vertex of one mesh
+     *
+     * @param mesh          The mesh
+     * @param fileNames     Names of the files of the textures found (filled by the method)
+     * @param textureCoords Coordinates of texture of the mesh
+     * @return The index of the texture of each vertex in the names of files (or
+     * one of the negative constants) or null if the mesh can not be remapped
+     * because one vertex is shared by sub meshes with different textures or
+     * one vertex has coordinates out of the texture
+     */
+    private static int[] getVertexTextures(WfMesh mesh, List<String> fileNames, float[] textureCoords) {
+        int[] vertexTextures = new int[textureCoords.length / 2];
+        Arrays.fill(vertexTextures, UNUSED);
+        IntBuffer indices = mesh.getIndicesBuffer();
+        int start = indices.position();
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            String fileName = getTextureFileName(subMesh);
+            int texture = UNTEXTURED;
+            if (fileName != null) {
+                texture = fileNames.indexOf(fileName);
+                if (texture < 0) {
+                    texture = fileNames.size();
+                    fileNames.add(fileName);
+                }
+            }
+            for (int i = subMesh.getIndexOffset(); i < subMesh.getIndexOffset() + subMesh.getIndexCount(); i++) {
+                int vertex = indices.get(start + i);
+                if ((vertexTextures[vertex] != UNUSED) && (vertexTextures[vertex] != texture)) {
+                    return null;
+                }
+                if ((texture >= 0) && (vertexTextures[vertex] == UNUSED)) {
+                    for (int c = 0; c < 2; c++) {
+                        float coordinate = textureCoords[2 * vertex + c];
+                        if ((coordinate < -COORDINATE_TOLERANCE) || (coordinate > 1.0f + COORDINATE_TOLERANCE)) {
+                            return null;
+                        }
+                    }
+                }
+                vertexTextures[vertex] = texture;
+            }
+        }
+        return vertexTextures;
+    }
+
+    /**
+     * @param mesh The mesh
+     * @return The names of the files of the textures of the mesh if it can be
+     * remapped (every coordinate of texture inside the texture and no vertex
+     * shared by sub meshes with different textures) or null
+     */
+    public static List<String> getRemappableTextures(WfMesh mesh) {
+        List<String> fileNames = new ArrayList<>();
+        return (getVertexTextures(mesh, fileNames, mesh.getTextureCoords()) == null) ? null : fileNames;
+    }
+
+    /**
+     * Remaps the coordinates of texture of the sub meshes whose textures are
+     * in the atlas to the pages (the mesh is not changed)
+     *
+     * @param mesh The mesh to remap
+     * @return The mesh with the coordinates remapped (sharing the other
+     * buffers) or null if the mesh can not be remapped or does not use the atlas
+     */
+    public WfMesh remap(WfMesh mesh) {
+        float[] textureCoords = mesh.getTextureCoords();
+        List<String> fileNames = new ArrayList<>();
+        int[] vertexTextures = getVertexTextures(mesh, fileNames, textureCoords);
+        if (vertexTextures == null) {
+            return null;
+        }
+        AtlasRegion[] textureRegions = new AtlasRegion[fileNames.size()];
+        boolean usesAtlas = false;
+        for (int i = 0; i < textureRegions.length; i++) {
+            textureRegions[i] = regions.get(fileNames.get(i));
+            usesAtlas |= (textureRegions[i] != null);
+        }
+        if (!usesAtlas) {
+            return null;
+        }
+        float[] remapped = Arrays.copyOf(textureCoords, textureCoords.length);
+        for (int vertex = 0; vertex < vertexTextures.length; vertex++) {
+            if ((vertexTextures[vertex] < 0) || (textureRegions[vertexTextures[vertex]] == null)) {
+                continue;
+            }
+            AtlasRegion region = textureRegions[vertexTextures[vertex]];
+            TextureData page = pages[region.getPage()];
+            float u = Math.max(0.0f, Math.min(1.0f, remapped[2 * vertex]));
+            float v = Math.max(0.0f, Math.min(1.0f, remapped[2 * vertex + 1]));
+            remapped[2 * vertex] = (region.getX() + u * region.getWidth()) / page.getWidth();
+            remapped[2 * vertex + 1] = (region.getY() + v * region.getHeight()) / page.getHeight();
+        }
+        return new WfMesh(mesh.getVerticesBuffer(), FloatBuffer.wrap(remapped), mesh.getNormalsBuffer(),
+                mesh.getIndicesBuffer(), mesh.getSubMeshes());
+    }
+
+    /**
+     * @param fileName Name of the file of one texture
+     * @return True if the texture was packed in the atlas
+     */
+    public boolean contains(String fileName) {
+        return regions.containsKey(fileName);
+    }
+
+    /**
+     * @param fileName Name of the file of one texture
+     * @return The region of the texture (null if it was not packed)
+     */
+    public AtlasRegion getRegion(String fileName) {
+        return regions.get(fileName);
+    }
+
+    /**
+     * @return Number of textures packed
+     */
+    public int getRegionsCount() {
+        return regions.size();
+    }
+
+    /**
+     * @return Number of pages
+     */
+    public int getPagesCount() {
+        return pages.length;
+    }
+
+    /**
+     * @param page Index of the page
+     * @return The page with its chain of mipmaps
+     */
+    public TextureData getPage(int page) {
+        return pages[page];
+    }
+
+    /**
+     * @param page Index of the page
+     * @return Largest side of the textures packed in the page (the texels
+     * that one repeat of the textures of the page spans at most)
+     */
+    public int getLargestRegionSize(int page) {
+        int size = 0;
+        for (AtlasRegion region : regions.values()) {
+            if (region.getPage() == page) {
+                size = Math.max(size, Math.max(region.getWidth(), region.getHeight()));
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @param page Index of the page
+     * @return Name of the page (to share it as if it was one file)
+     */
+    public String getPageName(int page) {
+        return name + "#" + page;
+    }
+
+    /**
+     * @return Fraction of the pixels of the pages taken by the textures (the
+     * rest are gutters and holes)
+     */
+    public float getEfficiency() {
+        long pagesPixels = 0;
+        for (TextureData page : pages) {
+            pagesPixels += page.getWidth() * page.getHeight();
+        }
+        return (pagesPixels == 0) ? 0.0f : texturesPixels / (float) pagesPixels;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%s: %d textures in %d pages (", name, regions.size(), pages.length));
+        for (int i = 0; i < pages.length; i++) {
+            builder.append((i == 0) ? "" : ", ").append(pages[i].getWidth()).append('x').append(pages[i].getHeight());
+        }
+        builder.append(String.format("), %.1f%% efficiency", 100.0f * getEfficiency()));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,518 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.generic_render.ILoaderRenderAPI;
+import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.models.CompressedTextureData;
+import com.dferreira.commons.models.TextureData;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Streams the levels of the textures to the Render API by demand: when one
+ * texture is loaded only its small levels are uploaded, then in each frame
+ * the renders request the level that each texture needs from the size that
+ * it has in the screen and the streamer uploads the finer levels needed (and
+ * drops the ones that are not needed any more) keeping the memory of the
+ * textures within one budget. The whole chain of levels stays in memory so
+ * any level can be uploaded without decode the texture again
+ */
+public class TextureStreamer {
+
+    /**
+     * Largest size of the levels uploaded when the textures are loaded
+     */
+    public final static int LOAD_LEVEL_SIZE = 64;
+
+    /**
+     * Budget of the memory of the Render API used by the textures streamed
+     * when it is not set (64 MB)
+     */
+    public final static long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Bytes uploaded by frame at most (one level is always uploaded so the
+     * requests progress)
+     */
+    private final static long UPLOAD_BYTES_BY_FRAME = 8L * 1024 * 1024;
+
+    /**
+     * Frames that one texture keeps the levels finer than the ones needed
+     * before they are dropped (so they are not streamed in and out while the
+     * camera moves)
+     */
+    private final static int DROP_DELAY_FRAMES = 120;
+
+    /**
+     * Height of the viewport in pixels when it is not set
+     */
+    private final static int DEFAULT_VIEWPORT_HEIGHT = 600;
+
+    /**
+     * Number of bytes of one pixel of the textures not compressed (RGBA)
+     */
+    private final static int BYTES_BY_PIXEL = 4;
+
+    /**
+     * State of one texture streamed
+     */
+    private static class StreamedTexture {
+        final ITexture texture;
+        final boolean repeat;
+        /* Levels from the base to the smallest */
+        final TextureData[] levels;
+        /* Bytes of the chain from each level to the smallest */
+        final long[] chainBytes;
+        /* Texels of the texture used by one repeat of it in the screen */
+        final int span;
+        /* Level uploaded when the texture was loaded (always resident) */
+        final int loadLevel;
+        /* Finest level in the Render API */
+        int residentLevel;
+        /* Finest level requested in the frame in render (the number of levels if it was not requested) */
+        int requestedLevel;
+        /* Finest level that the texture keeps */
+        int desiredLevel;
+        /* Frame when the desired level was confirmed for the last time */
+        int desiredFrame;
+
+        StreamedTexture(ITexture texture, boolean repeat, TextureData[] levels, int span, int loadLevel) {
+            this.texture = texture;
+            this.repeat = repeat;
+            this.levels = levels;
+            this.span = span;
+            this.loadLevel = loadLevel;
+            this.residentLevel = loadLevel;
+            this.requestedLevel = levels.length;
+            this.desiredLevel = loadLevel;
+            this.chainBytes = new long[levels.length + 1];
+            for (int i = levels.length - 1; i >= 0; i--) {
+                chainBytes[i] = chainBytes[i + 1] + getBytes(levels[i]);
+            }
+        }
+    }
+
+    /**
+     * Loader where the levels are uploaded
+     */
+    private final ILoaderRenderAPI loaderAPI;
+
+    /**
+     * Textures streamed by the texture in the Render API
+     */
+    private final HashMap<ITexture, StreamedTexture> textures;
+
+    /**
+     * Textures streamed in the order that they were loaded
+     */
+    private final List<StreamedTexture> streamed;
+
+    /**
+     * Textures waiting for finer levels (reused between frames)
+     */
+    private final List<StreamedTexture> candidates;
+
+    /**
+     * Budget of the memory of the Render API used by the textures streamed
+     */
+    private long budgetBytes;
+
+    /**
+     * Height of the viewport in pixels
+     */
+    private int viewportHeight;
+
+    /**
+     * Bytes of the levels of the textures streamed in the Render API
+     */
+    private long residentBytes;
+
+    /**
+     * Number of the frame in render
+     */
+    private int frame;
+
+    /**
+     * Number of textures that were waiting for finer levels at the end of the last frame
+     */
+    private int pendingRequests;
+
+    /**
+     * Average of the levels that the textures requested in the last frame
+     * were coarser than the ones requested
+     */
+    private float averageMipBias;
+
+    /**
+     * Number of levels uploaded after the load
+     */
+    private int levelsStreamedIn;
+
+    /**
+     * Number of levels dropped
+     */
+    private int levelsDropped;
+
+    /**
+     * Bytes uploaded after the load
+     */
+    private long bytesStreamed;
+
+    /**
+     * @param loaderAPI Loader where the levels are uploaded
+     */
+    public TextureStreamer(ILoaderRenderAPI loaderAPI) {
+        this.loaderAPI = loaderAPI;
+        this.textures = new HashMap<>();
+        this.streamed = new ArrayList<>();
+        this.candidates = new ArrayList<>();
+        this.budgetBytes = DEFAULT_BUDGET_BYTES;
+        this.viewportHeight = DEFAULT_VIEWPORT_HEIGHT;
+    }
+
+    /**
+     * @param level Level of one texture
+     * @return Bytes of the level in the Render API
+     */
+    private static long getBytes(TextureData level) {
+        if (level instanceof CompressedTextureData) {
+            return level.getBuffer().remaining();
+        }
+        return (long) level.getWidth() * level.getHeight() * BYTES_BY_PIXEL;
+    }
+
+    /**
+     * @param texture Texture with its mipmaps
+     * @return The levels from the base to the smallest
+     */
+    private static TextureData[] getLevels(TextureData texture) {
+        TextureData[] mipmaps = texture.getMipmaps();
+        TextureData[] levels = new TextureData[(mipmaps == null) ? 1 : mipmaps.length + 1];
+        levels[0] = texture;
+        if (mipmaps != null) {
+            System.arraycopy(mipmaps, 0, levels, 1, mipmaps.length);
+        }
+        return levels;
+    }
+
+    /**
+     * @param levels Levels from the base to the smallest
+     * @return The finest level that is not larger than the size uploaded at load
+     */
+    private static int getLoadLevel(TextureData[] levels) {
+        for (int i = 0; i < levels.length; i++) {
+            if (Math.max(levels[i].getWidth(), levels[i].getHeight()) <= LOAD_LEVEL_SIZE) {
+                return i;
+            }
+        }
+        return levels.length - 1;
+    }
+
+    /**
+     * @param levels Levels from the base to the smallest
+     * @param level  Level to use as base
+     * @return One texture that has the level as base and the levels below as
+     * its mipmaps (the pixels are shared)
+     */
+    private static TextureData getChain(TextureData[] levels, int level) {
+        TextureData base = levels[level];
+        TextureData chain;
+        if (base instanceof CompressedTextureData) {
+            chain = new CompressedTextureData(base.getBuffer(), base.getWidth(), base.getHeight(),
+                    ((CompressedTextureData) base).getFormat());
+        } else {
+            chain = new TextureData(base.getBuffer(), base.getWidth(), base.getHeight());
+        }
+        chain.setMipmaps(Arrays.copyOfRange(levels, level + 1, levels.length));
+        return chain;
+    }
+
+    /**
+     * Copies the levels that are in buffers of a pool (they go back to the
+     * pool when the caller releases the texture after the load)
+     *
+     * @param levels Levels from the base to the smallest
+     * @return The levels that can be kept
+     */
+    private static TextureData[] retain(TextureData[] levels) {
+        TextureData[] retained = new TextureData[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            TextureData level = levels[i];
+            if (level.getPool() == null) {
+                retained[i] = level;
+            } else {
+                ByteBuffer source = level.getBuffer().duplicate();
+                ByteBuffer copy = ByteBuffer.allocateDirect(source.remaining());
+                copy.put(source);
+                copy.flip();
+                retained[i] = new TextureData(copy, level.getWidth(), level.getHeight());
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Loads one texture with only its small levels
+     *
+     * @param key         Key of the texture in the registry of the loader (null if it is not shared)
+     * @param textureData The data of the texture (the mipmaps are built if it has not them)
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The texture loaded
+     */
+    public ITexture loadTexture(String key, TextureData textureData, boolean repeat) {
+        return loadTexture(key, textureData, repeat, (textureData == null) ? 0 : textureData.getWidth());
+    }
+
+    /**
+     * Loads one texture with only its small levels
+     *
+     * @param key         Key of the texture in the registry of the loader (null if it is not shared)
+     * @param textureData The data of the texture (the mipmaps are built if it has not them)
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @param span        Texels of the base level used by one repeat of the texture in the screen
+     *                    (smaller than its width when only a region is used as in one page of an atlas)
+     * @return The texture loaded
+     */
+    public ITexture loadTexture(String key, TextureData textureData, boolean repeat, int span) {
+        if (textureData == null) {
+            return null;
+        }
+        TextureData[] levels = getLevels(MipmapGenerator.attach(textureData, 0.0f));
+        int loadLevel = getLoadLevel(levels);
+        TextureData chain = (loadLevel == 0) ? textureData : getChain(levels, loadLevel);
+        ITexture texture = (key == null) ? loaderAPI.loadTexture(chain, repeat)
+                : loaderAPI.loadTexture(key, chain, repeat);
+        // Nothing to stream or the texture is shared and was already streamed
+        if ((texture == null) || (loadLevel == 0) || textures.containsKey(texture)) {
+            return texture;
+        }
+        StreamedTexture streamedTexture = new StreamedTexture(texture, repeat, retain(levels), span, loadLevel);
+        textures.put(texture, streamedTexture);
+        streamed.add(streamedTexture);
+        residentBytes += streamedTexture.chainBytes[loadLevel];
+        return texture;
+    }
+
+    /**
+     * Starts the requests of one frame
+     */
+    public void beginFrame() {
+        frame++;
+        for (StreamedTexture streamedTexture : streamed) {
+            streamedTexture.requestedLevel = streamedTexture.levels.length;
+        }
+    }
+
+    /**
+     * Requests the level that one texture needs in the frame in render (the
+     * textures that are not streamed are ignored)
+     *
+     * @param texture    The texture
+     * @param screenSize Fraction of the height of the screen covered by one
+     *                   repeat of the texture
+     */
+    public void request(ITexture texture, float screenSize) {
+        StreamedTexture streamedTexture = textures.get(texture);
+        if (streamedTexture == null) {
+            return;
+        }
+        float pixels = screenSize * viewportHeight;
+        int level = 0;
+        if (pixels < streamedTexture.span) {
+            // Floor of the logarithm of the texels by pixel
+            level = Math.getExponent(streamedTexture.span / Math.max(pixels, Float.MIN_NORMAL));
+        }
+        level = Math.min(level, streamedTexture.levels.length - 1);
+        streamedTexture.requestedLevel = Math.min(streamedTexture.requestedLevel, level);
+    }
+
+    /**
+     * Uploads one texture with a different level as base
+     *
+     * @param streamedTexture The texture
+     * @param level           Level to use as base
+     */
+    private void setResidentLevel(StreamedTexture streamedTexture, int level) {
+        loaderAPI.reloadTexture(streamedTexture.texture, getChain(streamedTexture.levels, level),
+                streamedTexture.repeat);
+        residentBytes += streamedTexture.chainBytes[level] - streamedTexture.chainBytes[streamedTexture.residentLevel];
+        if (level < streamedTexture.residentLevel) {
+            levelsStreamedIn += streamedTexture.residentLevel - level;
+            bytesStreamed += streamedTexture.chainBytes[level];
+        } else {
+            levelsDropped += level - streamedTexture.residentLevel;
+        }
+        streamedTexture.residentLevel = level;
+    }
+
+    /**
+     * Drops the levels that the other textures have finer than the ones
+     * requested in the frame until the bytes needed are free
+     *
+     * @param bytes  Bytes needed
+     * @param except Texture that needs the bytes
+     */
+    private void reclaim(long bytes, StreamedTexture except) {
+        for (StreamedTexture streamedTexture : streamed) {
+            if (residentBytes + bytes <= budgetBytes) {
+                return;
+            }
+            int needed = Math.min(streamedTexture.requestedLevel, streamedTexture.loadLevel);
+            if ((streamedTexture != except) && (streamedTexture.residentLevel < needed)) {
+                setResidentLevel(streamedTexture, needed);
+                streamedTexture.desiredLevel = needed;
+                streamedTexture.desiredFrame = frame;
+            }
+        }
+    }
+
+    /**
+     * Streams the levels requested in the frame, called once by frame after
+     * the renders did their requests
+     */
+    public void update() {
+        candidates.clear();
+        int requestedCount = 0;
+        long bias = 0;
+        for (StreamedTexture streamedTexture : streamed) {
+            // The finer levels are only dropped after some frames without being needed
+            int target = Math.min(streamedTexture.requestedLevel, streamedTexture.loadLevel);
+            if ((target <= streamedTexture.desiredLevel) || (frame - streamedTexture.desiredFrame > DROP_DELAY_FRAMES)) {
+                streamedTexture.desiredLevel = target;
+                streamedTexture.desiredFrame = frame;
+            }
+            if (streamedTexture.desiredLevel > streamedTexture.residentLevel) {
+                setResidentLevel(streamedTexture, streamedTexture.desiredLevel);
+            } else if (streamedTexture.desiredLevel < streamedTexture.residentLevel) {
+                candidates.add(streamedTexture);
+            }
+        }
+
+        // The textures further from the level that they need are served first
+        Collections.sort(candidates, new Comparator<StreamedTexture>() {
+            @Override
+            public int compare(StreamedTexture a, StreamedTexture b) {
+                return (b.residentLevel - b.desiredLevel) - (a.residentLevel - a.desiredLevel);
+            }
+        });
+        long uploadBytes = UPLOAD_BYTES_BY_FRAME;
+        boolean uploaded = false;
+        for (StreamedTexture streamedTexture : candidates) {
+            int resident = streamedTexture.residentLevel;
+            int level = resident;
+            for (int i = resident - 1; i >= streamedTexture.desiredLevel; i--) {
+                long extraBytes = streamedTexture.chainBytes[i] - streamedTexture.chainBytes[resident];
+                if (residentBytes + extraBytes > budgetBytes) {
+                    reclaim(extraBytes, streamedTexture);
+                    if (residentBytes + extraBytes > budgetBytes) {
+                        break;
+                    }
+                }
+                // The whole chain is uploaded again from the new base
+                if ((streamedTexture.chainBytes[i] > uploadBytes) && uploaded) {
+                    break;
+                }
+                level = i;
+                if (streamedTexture.chainBytes[i] > uploadBytes) {
+                    break;
+                }
+            }
+            if (level < resident) {
+                setResidentLevel(streamedTexture, level);
+                uploadBytes -= Math.min(uploadBytes, streamedTexture.chainBytes[level]);
+                uploaded = true;
+            }
+        }
+
+        pendingRequests = 0;
+        for (StreamedTexture streamedTexture : streamed) {
+            if (streamedTexture.desiredLevel < streamedTexture.residentLevel) {
+                pendingRequests++;
+            }
+            if (streamedTexture.requestedLevel < streamedTexture.levels.length) {
+                requestedCount++;
+                bias += Math.max(0, streamedTexture.residentLevel - streamedTexture.requestedLevel);
+            }
+        }
+        averageMipBias = (requestedCount == 0) ? 0.0f : bias / (float) requestedCount;
+    }
+
+    /**
+     * @param budgetBytes Budget of the memory of the Render API used by the
+     *                    textures streamed (the levels uploaded at load are
+     *                    always resident)
+     */
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * @return Budget of the memory of the Render API used by the textures streamed
+     */
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * @param viewportHeight Height of the viewport in pixels
+     */
+    public void setViewportHeight(int viewportHeight) {
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * @return Bytes of the levels of the textures streamed in the Render API
+     */
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * @return Number of textures that were waiting for finer levels at the end of the last frame
+     */
+    public int getPendingRequests() {
+        return pendingRequests;
+    }
+
+    /**
+     * @return Average of the levels that the textures requested in the last
+     * frame were coarser than the ones requested (zero when every texture has
+     * the level that it needs)
+     */
+    public float getAverageMipBias() {
+        return averageMipBias;
+    }
+
+    /**
+     * @return Number of levels uploaded after the load
+     */
+    public int getLevelsStreamedIn() {
+        return levelsStreamedIn;
+    }
+
+    /**
+     * @return Number of levels dropped
+     */
+    public int getLevelsDropped() {
+        return levelsDropped;
+    }
+
+    /**
+     * @return Number of textures streamed
+     */
+    public int getTexturesCount() {
+        return streamed.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d textures, %d KB resident of %d KB, %d pending, mip bias %.2f, "
+                        + "%d levels in (%d KB), %d out", streamed.size(), residentBytes / 1024, budgetBytes / 1024,
+                pendingRequests, averageMipBias, levelsStreamedIn, bytesStreamed / 1024, levelsDropped);
+    }
+}
@@ -0,0 +1,54 @@
+package com.dferreira.commons.utils;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the bytes of a buffer (usually one view of a mapped file) as a
+ * stream so the decoders that only accept streams read them without copies
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    /**
+     * Bytes still to read (from the position to the limit)
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * @param buffer Bytes to read from its position to its limit (the buffer
+     *               passed is not changed)
+     */
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count) {
+        int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
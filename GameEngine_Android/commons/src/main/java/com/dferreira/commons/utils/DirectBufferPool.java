@@ -0,0 +1,131 @@
+package com.dferreira.commons.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the direct buffers released after the upload of their data so the
+ * next decodes reuse them instead of allocating new memory out of the java
+ * heap (that is only freed when the garbage collector runs)
+ */
+public class DirectBufferPool {
+
+    /* Buffers free to be reused */
+    private final List<ByteBuffer> free;
+
+    /* Maximum number of bytes kept in buffers free */
+    private final long maxRetainedBytes;
+
+    /* Number of bytes kept in buffers free */
+    private long retainedBytes;
+
+    /* Number of buffers allocated because there was none free big enough */
+    private int allocations;
+
+    /* Number of buffers reused */
+    private int reuses;
+
+    /* Number of bytes allocated */
+    private long allocatedBytes;
+
+    /**
+     * Constructor of an empty pool
+     *
+     * @param maxRetainedBytes Maximum number of bytes kept in buffers free (the
+     *                         buffers released above it are left to the garbage collector)
+     */
+    public DirectBufferPool(long maxRetainedBytes) {
+        this.free = new ArrayList<>();
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Gets one buffer with the size requested, reuses the smallest buffer free
+     * that fits it
+     *
+     * @param size Number of bytes needed
+     * @return A direct buffer with the position at zero and the limit at the size requested
+     */
+    public ByteBuffer acquire(int size) {
+        synchronized (this) {
+            int best = -1;
+            for (int i = 0; i < free.size(); i++) {
+                int capacity = free.get(i).capacity();
+                if ((capacity >= size) && ((best < 0) || (capacity < free.get(best).capacity()))) {
+                    best = i;
+                }
+            }
+            if (best >= 0) {
+                ByteBuffer buffer = free.remove(best);
+                retainedBytes -= buffer.capacity();
+                reuses++;
+                buffer.clear();
+                buffer.limit(size);
+                return buffer;
+            }
+            allocations++;
+            allocatedBytes += size;
+        }
+        // The allocation is done out of the lock because it zeroes the memory
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    /**
+     * Gives one buffer back to the pool, its content can not be used after
+     *
+     * @param buffer The buffer acquired before
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        if ((buffer == null) || !buffer.isDirect()) {
+            return;
+        }
+        if (retainedBytes + buffer.capacity() > maxRetainedBytes) {
+            return;
+        }
+        free.add(buffer);
+        retainedBytes += buffer.capacity();
+    }
+
+    /**
+     * Drops every buffer free
+     */
+    public synchronized void clear() {
+        free.clear();
+        retainedBytes = 0;
+    }
+
+    /**
+     * @return Number of buffers allocated because there was none free big enough
+     */
+    public synchronized int getAllocations() {
+        return allocations;
+    }
+
+    /**
+     * @return Number of buffers reused
+     */
+    public synchronized int getReuses() {
+        return reuses;
+    }
+
+    /**
+     * @return Number of bytes allocated
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return Number of bytes kept in buffers free
+     */
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d allocations (%d KB), %d reuses, %d KB retained", allocations,
+                allocatedBytes / 1024, reuses, retainedBytes / 1024);
+    }
+}
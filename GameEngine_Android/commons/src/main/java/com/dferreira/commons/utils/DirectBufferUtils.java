@@ -0,0 +1,72 @@
+package com.dferreira.commons.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Creates buffers out of the java heap in the native order so they can be
+ * handed to the render API without any copy
+ */
+public class DirectBufferUtils {
+
+    /**
+     * Number of bytes of one float or integer
+     */
+    private final static int ELEMENT_IN_BYTES = 4;
+
+    /**
+     * Number of bytes of one short
+     */
+    private final static int SHORT_IN_BYTES = 2;
+
+    /**
+     * @param size Number of floats of the buffer
+     * @return A direct buffer of floats in the native order
+     */
+    public static FloatBuffer createFloatBuffer(int size) {
+        return ByteBuffer.allocateDirect(size * ELEMENT_IN_BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * @param size Number of integers of the buffer
+     * @return A direct buffer of integers in the native order
+     */
+    public static IntBuffer createIntBuffer(int size) {
+        return ByteBuffer.allocateDirect(size * ELEMENT_IN_BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * @param size Number of shorts of the buffer
+     * @return A direct buffer of shorts in the native order
+     */
+    public static ShortBuffer createShortBuffer(int size) {
+        return ByteBuffer.allocateDirect(size * SHORT_IN_BYTES).order(ByteOrder.nativeOrder()).asShortBuffer();
+    }
+
+    /**
+     * Narrows indices that are all lower than 65536 to shorts (read as unsigned
+     * by the render API)
+     *
+     * @param indices Indices to narrow (from the position to the limit)
+     * @return A direct buffer of shorts with the same indices
+     */
+    public static ShortBuffer toShortBuffer(IntBuffer indices) {
+        ShortBuffer buffer = createShortBuffer(indices.remaining());
+        for (int i = indices.position(); i < indices.limit(); i++) {
+            buffer.put((short) indices.get(i));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @param indices Indices to narrow (all lower than 65536)
+     * @return A direct buffer of shorts with the same indices
+     */
+    public static ShortBuffer toShortBuffer(int[] indices) {
+        return toShortBuffer(IntBuffer.wrap(indices));
+    }
+}
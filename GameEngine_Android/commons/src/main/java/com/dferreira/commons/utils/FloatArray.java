@@ -0,0 +1,108 @@
+package com.dferreira.commons.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of primitive floats (avoids the boxing of a List of Floats)
+ */
+public class FloatArray {
+
+    /**
+     * Capacity used when none is specified
+     */
+    private final static int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Storage of the elements
+     */
+    private float[] data;
+
+    /**
+     * Number of elements in use
+     */
+    private int size;
+
+    /**
+     * Constructor with the default capacity
+     */
+    public FloatArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Number of elements that can be added before the first growth
+     */
+    public FloatArray(int capacity) {
+        this.data = new float[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    /**
+     * Make sure that the array can hold the number of elements passed
+     *
+     * @param capacity Minimum capacity required
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            int newCapacity = Math.max(capacity, data.length + (data.length >> 1));
+            data = Arrays.copyOf(data, newCapacity);
+        }
+    }
+
+    /**
+     * @param value Element to append in the end of the array
+     */
+    public void add(float value) {
+        if (size == data.length) {
+            ensureCapacity(size + 1);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Appends all the elements of other array in the end of this one
+     *
+     * @param other Array to append
+     */
+    public void addAll(FloatArray other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.data, 0, data, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * @param index Position of the element
+     * @return The element in the position passed
+     */
+    public float get(int index) {
+        return data[index];
+    }
+
+    /**
+     * @return Number of elements in the array
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the elements without release the storage
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return Internal storage of the array (only the first size() elements are valid)
+     */
+    public float[] getData() {
+        return data;
+    }
+
+    /**
+     * @return A copy of the elements with the exact size
+     */
+    public float[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
@@ -0,0 +1,92 @@
+package com.dferreira.commons.utils;
+
+/**
+ * Converts between floats of 32 bits and half floats of 16 bits (IEEE 754
+ * binary16) rounding to the nearest even value
+ */
+public class HalfFloat {
+
+    /**
+     * Bits of the sign of one half float
+     */
+    private final static int SIGN_MASK = 0x8000;
+
+    /**
+     * Bits of the exponent of one half float when it is infinite or not a number
+     */
+    private final static int INFINITE_EXPONENT = 0x7c00;
+
+    /**
+     * Difference between the bias of the exponent of one float and of one half float
+     */
+    private final static int EXPONENT_BIAS_DIFFERENCE = 127 - 15;
+
+    /**
+     * @param value Float to convert
+     * @return The bits of the nearest half float
+     */
+    public static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & SIGN_MASK;
+        int exponent = (bits >>> 23) & 0xff;
+        int mantissa = bits & 0x7fffff;
+
+        if (exponent == 0xff) {
+            // Infinite or not a number
+            return (short) (sign | INFINITE_EXPONENT | ((mantissa != 0) ? 0x200 : 0));
+        }
+        int halfExponent = exponent - EXPONENT_BIAS_DIFFERENCE;
+        if (halfExponent >= 0x1f) {
+            return (short) (sign | INFINITE_EXPONENT);
+        }
+        if (halfExponent <= 0) {
+            if (halfExponent < -10) {
+                return (short) sign;
+            }
+            // Sub normal half float
+            int full = mantissa | 0x800000;
+            int shift = 14 - halfExponent;
+            int half = full >> shift;
+            int remainder = full & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if ((remainder > halfway) || ((remainder == halfway) && ((half & 1) != 0))) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = (halfExponent << 10) | (mantissa >> 13);
+        int remainder = mantissa & 0x1fff;
+        // The carry of the rounding goes to the exponent as expected
+        if ((remainder > 0x1000) || ((remainder == 0x1000) && ((half & 1) != 0))) {
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    /**
+     * @param half Bits of one half float
+     * @return The float with the same value
+     */
+    public static float toFloat(short half) {
+        int sign = (half & SIGN_MASK) << 16;
+        int exponent = (half >>> 10) & 0x1f;
+        int mantissa = half & 0x3ff;
+
+        if (exponent == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        if (exponent == 0) {
+            if (mantissa == 0) {
+                return Float.intBitsToFloat(sign);
+            }
+            // Normalizes the sub normal half float
+            exponent = 1;
+            while ((mantissa & 0x400) == 0) {
+                mantissa <<= 1;
+                exponent--;
+            }
+            mantissa &= 0x3ff;
+        }
+        return Float.intBitsToFloat(sign | ((exponent + EXPONENT_BIAS_DIFFERENCE) << 23) | (mantissa << 13));
+    }
+}
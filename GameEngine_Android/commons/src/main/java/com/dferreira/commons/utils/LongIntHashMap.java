@@ -0,0 +1,124 @@
+package com.dferreira.commons.utils;
+
+/**
+ * Hash map from primitive longs to primitive integers using open addressing
+ * with linear probing (no boxing of keys nor values).
+ * The key 0 is reserved to mark the empty slots
+ */
+public class LongIntHashMap {
+
+    /**
+     * Value returned when the key does not exist in the map
+     */
+    public final static int NO_VALUE = -1;
+
+    /* Maximum ratio of used slots before the table grows */
+    private final static float LOAD_FACTOR = 0.5f;
+
+    /* Golden ratio used to spread the bits of the keys */
+    private final static long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /* Keys of the slots (0 when the slot is empty) */
+    private long[] keys;
+
+    /* Values of the slots */
+    private int[] values;
+
+    /* Number of keys in the map */
+    private int size;
+
+    /* Mask used to go from an hash to a slot */
+    private int mask;
+
+    /**
+     * @param expectedSize Number of keys that the map should hold without grow
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = 1;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(Math.max(capacity, 16));
+    }
+
+    /**
+     * @param capacity Number of slots of the table (power of two)
+     */
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+    /**
+     * @param key The key
+     * @return The first slot where the key should be
+     */
+    private int slot(long key) {
+        long hash = key * HASH_MULTIPLIER;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * @param key The key to look for (different of 0)
+     * @return The value associated with the key or NO_VALUE if it does not exist
+     */
+    public int get(long key) {
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Associates a value with a key, replaces the previous value if any
+     *
+     * @param key   The key (different of 0)
+     * @param value The value to associate
+     */
+    public void put(long key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("The key 0 is reserved");
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            rehash();
+        }
+    }
+
+    /**
+     * Doubles the number of slots of the table
+     */
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+}
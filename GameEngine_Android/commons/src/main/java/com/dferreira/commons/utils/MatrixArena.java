@@ -0,0 +1,118 @@
+package com.dferreira.commons.utils;
+
+import com.dferreira.commons.GLTransformation;
+
+/**
+ * Hands out the transformation matrices used while one frame is rendered
+ * from a pool allocated once, the matrices are all given back at once when
+ * the next frame starts so the renders do not create one matrix by draw
+ * (the matrices are handed to the render API through the buffer shared by
+ * the thread)
+ */
+public class MatrixArena {
+
+    /* Matrices of the pool */
+    private final GLTransformation[] matrices;
+
+    /* Number of matrices handed out in the frame in render */
+    private int used;
+
+    /* Counts the overflows and the peak of use */
+    private boolean debug;
+
+    /* Number of matrices handed out in the frame in render out of the pool */
+    private int frameOverflows;
+
+    /* Number of matrices handed out out of the pool since the start */
+    private int overflows;
+
+    /* Largest number of matrices handed out in one frame */
+    private int peakUsed;
+
+    /**
+     * @param capacity Number of matrices of the pool
+     */
+    public MatrixArena(int capacity) {
+        this.matrices = new GLTransformation[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.matrices[i] = new GLTransformation();
+        }
+    }
+
+    /**
+     * Gets one matrix valid until the next call to {@link #reset()}, when the
+     * pool is exhausted the matrix is created (and counted in debug mode)
+     *
+     * @return The identity matrix
+     */
+    public GLTransformation obtain() {
+        GLTransformation matrix;
+        if (used < matrices.length) {
+            matrix = matrices[used];
+        } else {
+            matrix = new GLTransformation();
+            if (debug) {
+                frameOverflows++;
+                overflows++;
+            }
+        }
+        used++;
+        matrix.loadIdentity();
+        return matrix;
+    }
+
+    /**
+     * Gives back every matrix handed out, called when one frame starts
+     */
+    public void reset() {
+        if (debug) {
+            peakUsed = Math.max(peakUsed, used);
+        }
+        used = 0;
+        frameOverflows = 0;
+    }
+
+    /**
+     * @param debug True to count the matrices handed out of the pool
+     */
+    public void setDebug(boolean debug) {
+        this.debug = debug;
+    }
+
+    /**
+     * @return Number of matrices of the pool
+     */
+    public int getCapacity() {
+        return matrices.length;
+    }
+
+    /**
+     * @return Number of matrices handed out in the frame in render
+     */
+    public int getUsed() {
+        return used;
+    }
+
+    /**
+     * @return Number of matrices handed out of the pool in the frame in render (only counted in debug mode)
+     */
+    public int getFrameOverflows() {
+        return frameOverflows;
+    }
+
+    /**
+     * @return Number of matrices handed out of the pool since the start (only counted in debug mode)
+     */
+    public int getOverflows() {
+        return overflows;
+    }
+
+    @Override
+    public String toString() {
+        if (!debug) {
+            return String.format("%d matrices, %d used", matrices.length, used);
+        }
+        return String.format("%d matrices, %d used (peak %d), %d overflows", matrices.length, used,
+                Math.max(peakUsed, used), overflows);
+    }
+}
@@ -0,0 +1,159 @@
+package com.dferreira.commons.utils;
+
+import java.util.HashMap;
+
+/**
+ * Interns resources by key so the resources that are referenced more than
+ * once are only loaded once. Every acquire of one existing resource counts one
+ * more reference and the bytes that were not loaded again, the resource is
+ * removed when the last reference is released
+ *
+ * @param <T> Type of the resources kept
+ */
+public class ResourceRegistry<T> {
+
+    /**
+     * Resource with the number of references to it
+     */
+    private static class Entry<T> {
+        final T resource;
+        final int bytes;
+        int references;
+
+        Entry(T resource, int bytes) {
+            this.resource = resource;
+            this.bytes = bytes;
+            this.references = 1;
+        }
+    }
+
+    /* Resources by key */
+    private final HashMap<String, Entry<T>> entries;
+
+    /* Number of acquires that found the resource */
+    private int hits;
+
+    /* Number of acquires that did not find the resource */
+    private int misses;
+
+    /* Bytes that were not loaded because the resource was already registered */
+    private long bytesSaved;
+
+    /**
+     * Constructor of an empty registry
+     */
+    public ResourceRegistry() {
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Gets one resource adding one reference to it
+     *
+     * @param key Key of the resource
+     * @return The resource or null if it is not registered (the caller should load and register it)
+     */
+    public synchronized T acquire(String key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        bytesSaved += entry.bytes;
+        entry.references++;
+        return entry.resource;
+    }
+
+    /**
+     * Registers one resource just loaded with one reference
+     *
+     * @param key      Key of the resource
+     * @param resource The resource
+     * @param bytes    Size of the resource in bytes (what repeated references save)
+     * @return The resource registered first with the same key (if other thread registered it meanwhile)
+     */
+    public synchronized T register(String key, T resource, int bytes) {
+        Entry<T> entry = entries.get(key);
+        if (entry != null) {
+            entry.references++;
+            return entry.resource;
+        }
+        entries.put(key, new Entry<>(resource, bytes));
+        return resource;
+    }
+
+    /**
+     * Removes one reference of the resource
+     *
+     * @param key Key of the resource
+     * @return The resource if this was the last reference (the caller should dispose it) otherwise null
+     */
+    public synchronized T release(String key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.references--;
+        if (entry.references > 0) {
+            return null;
+        }
+        entries.remove(key);
+        return entry.resource;
+    }
+
+    /**
+     * @param key Key of the resource
+     * @return Number of references to the resource (0 if it is not registered)
+     */
+    public synchronized int getReferences(String key) {
+        Entry<T> entry = entries.get(key);
+        return (entry == null) ? 0 : entry.references;
+    }
+
+    /**
+     * @return Number of resources registered
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Number of acquires that found the resource
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Number of acquires that did not find the resource
+     */
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Bytes that were not loaded because the resource was already registered
+     */
+    public synchronized long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /**
+     * Removes all the resources and resets the statistics
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        bytesSaved = 0;
+    }
+
+    /**
+     * @return The statistics of the registry to show in the logs
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d resources, %d hits, %d misses, %d KB saved", entries.size(), hits, misses,
+                bytesSaved / 1024);
+    }
+}
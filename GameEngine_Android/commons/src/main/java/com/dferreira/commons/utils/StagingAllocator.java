@@ -0,0 +1,300 @@
+package com.dferreira.commons.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Carves the buffers where the data is staged before the upload to the render
+ * API out of large slabs of memory out of the java heap. Each slab bumps a
+ * pointer to allocate and keeps the blocks released below the pointer in a
+ * list of free ranges (merged with their neighbours) to reuse them, so after
+ * the first uploads no direct buffer is allocated anymore
+ */
+public class StagingAllocator {
+
+    /**
+     * Size of each slab (the requests bigger get one slab of their own)
+     */
+    public final static int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Alignment of the blocks (bytes)
+     */
+    private final static int ALIGNMENT = 16;
+
+    /**
+     * Allocator shared by the loaders
+     */
+    private final static StagingAllocator shared = new StagingAllocator(DEFAULT_SLAB_SIZE);
+
+    /**
+     * Slab of memory out of the java heap
+     */
+    static class Slab {
+
+        /* Memory of the slab */
+        private final ByteBuffer memory;
+
+        /* Ranges released below the top by offset (bytes) */
+        private final TreeMap<Integer, Integer> free;
+
+        /* Offset of the first byte never allocated since the slab was empty */
+        private int top;
+
+        /* Number of blocks not released */
+        private int live;
+
+        /**
+         * @param size Size of the slab (bytes)
+         */
+        Slab(int size) {
+            this.memory = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+            this.free = new TreeMap<>();
+        }
+
+        /**
+         * @return Memory of the slab
+         */
+        ByteBuffer getMemory() {
+            return memory;
+        }
+
+        /**
+         * Reserves one range in the slab, first in the ranges released and then
+         * after the top
+         *
+         * @param size Size of the range (multiple of the alignment)
+         * @return Offset of the range reserved or -1 if it does not fit
+         */
+        int reserve(int size) {
+            for (Map.Entry<Integer, Integer> range : free.entrySet()) {
+                int offset = range.getKey();
+                int rangeSize = range.getValue();
+                if (rangeSize >= size) {
+                    free.remove(offset);
+                    if (rangeSize > size) {
+                        free.put(offset + size, rangeSize - size);
+                    }
+                    live++;
+                    return offset;
+                }
+            }
+            if (top + size > memory.capacity()) {
+                return -1;
+            }
+            int offset = top;
+            top += size;
+            live++;
+            return offset;
+        }
+
+        /**
+         * Gives one range back to the slab
+         *
+         * @param offset Offset of the range
+         * @param size   Size of the range
+         */
+        void unreserve(int offset, int size) {
+            live--;
+            if (live == 0) {
+                // Empty so all the slab is free again
+                free.clear();
+                top = 0;
+                return;
+            }
+            Integer nextSize = free.remove(offset + size);
+            if (nextSize != null) {
+                size += nextSize;
+            }
+            Map.Entry<Integer, Integer> previous = free.floorEntry(offset);
+            if ((previous != null) && (previous.getKey() + previous.getValue() == offset)) {
+                offset = previous.getKey();
+                size += previous.getValue();
+                free.remove(offset);
+            }
+            if (offset + size == top) {
+                top = offset;
+            } else {
+                free.put(offset, size);
+            }
+        }
+
+        /**
+         * @return True if there is no block of the slab not released
+         */
+        boolean isEmpty() {
+            return live == 0;
+        }
+    }
+
+    /* Size of each slab */
+    private final int slabSize;
+
+    /* Slabs where the blocks are carved */
+    private final List<Slab> slabs;
+
+    /* Bytes of the blocks not released */
+    private long usedBytes;
+
+    /* Maximum of bytes of blocks not released at the same time */
+    private long highWaterUsedBytes;
+
+    /* Bytes of the slabs */
+    private long slabBytes;
+
+    /* Maximum of bytes of the slabs at the same time */
+    private long highWaterSlabBytes;
+
+    /* Number of blocks allocated */
+    private int allocations;
+
+    /* Number of blocks released */
+    private int releases;
+
+    /* Number of slabs created */
+    private int slabsCreated;
+
+    /**
+     * @param slabSize Size of each slab (bytes)
+     */
+    public StagingAllocator(int slabSize) {
+        this.slabSize = slabSize;
+        this.slabs = new ArrayList<>();
+    }
+
+    /**
+     * @return Allocator shared by the loaders
+     */
+    public static StagingAllocator getShared() {
+        return shared;
+    }
+
+    /**
+     * @param bytes Number of bytes
+     * @return The number of bytes rounded up to the alignment
+     */
+    private static int align(int bytes) {
+        return (bytes + ALIGNMENT - 1) & ~(ALIGNMENT - 1);
+    }
+
+    /**
+     * Adds one slab to the allocator
+     *
+     * @param size Size of the slab
+     * @return The slab created
+     */
+    private Slab addSlab(int size) {
+        Slab slab = new Slab(size);
+        slabs.add(slab);
+        slabsCreated++;
+        slabBytes += size;
+        highWaterSlabBytes = Math.max(highWaterSlabBytes, slabBytes);
+        return slab;
+    }
+
+    /**
+     * Allocates one block to stage data
+     *
+     * @param bytes Number of bytes needed
+     * @return The block with the position at zero and the limit at the bytes requested
+     */
+    public synchronized StagingBlock allocate(int bytes) {
+        int size = align(Math.max(bytes, 1));
+        Slab slab = null;
+        int offset = -1;
+        if (size <= slabSize) {
+            for (int i = 0; (i < slabs.size()) && (offset < 0); i++) {
+                slab = slabs.get(i);
+                // The slabs of one block only are not shared so they can be freed
+                if (slab.getMemory().capacity() == slabSize) {
+                    offset = slab.reserve(size);
+                }
+            }
+        }
+        if (offset < 0) {
+            slab = addSlab(Math.max(size, slabSize));
+            offset = slab.reserve(size);
+        }
+        allocations++;
+        usedBytes += size;
+        highWaterUsedBytes = Math.max(highWaterUsedBytes, usedBytes);
+        return new StagingBlock(this, slab, offset, size, bytes);
+    }
+
+    /**
+     * Gives one block back to its slab, the slabs bigger than the default
+     * are freed as soon as they are empty
+     *
+     * @param block The block to release
+     */
+    synchronized void release(StagingBlock block) {
+        Slab slab = block.getSlab();
+        slab.unreserve(block.getOffset(), block.getSize());
+        releases++;
+        usedBytes -= block.getSize();
+        if (slab.isEmpty() && (slab.getMemory().capacity() > slabSize)) {
+            slabs.remove(slab);
+            slabBytes -= slab.getMemory().capacity();
+        }
+    }
+
+    /**
+     * @return Bytes of the blocks not released
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return Maximum of bytes of blocks not released at the same time
+     */
+    public synchronized long getHighWaterUsedBytes() {
+        return highWaterUsedBytes;
+    }
+
+    /**
+     * @return Bytes of the slabs
+     */
+    public synchronized long getSlabBytes() {
+        return slabBytes;
+    }
+
+    /**
+     * @return Maximum of bytes of the slabs at the same time
+     */
+    public synchronized long getHighWaterSlabBytes() {
+        return highWaterSlabBytes;
+    }
+
+    /**
+     * @return Number of blocks allocated
+     */
+    public synchronized int getAllocations() {
+        return allocations;
+    }
+
+    /**
+     * @return Number of blocks released
+     */
+    public synchronized int getReleases() {
+        return releases;
+    }
+
+    /**
+     * @return Number of slabs created
+     */
+    public synchronized int getSlabsCreated() {
+        return slabsCreated;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d blocks (%d released), %d KB used (high water %d KB), %d slabs created, "
+                        + "%d KB of slabs (high water %d KB)", allocations, releases, usedBytes / 1024,
+                highWaterUsedBytes / 1024, slabsCreated, slabBytes / 1024, highWaterSlabBytes / 1024);
+    }
+}
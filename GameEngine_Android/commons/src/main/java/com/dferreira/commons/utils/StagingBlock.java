@@ -0,0 +1,114 @@
+package com.dferreira.commons.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Range of one slab of the staging allocator where the data is written before
+ * being handed to the render API, has to be released once the render API
+ * copied it
+ */
+public class StagingBlock {
+
+    /* Allocator that owns the slab */
+    private final StagingAllocator allocator;
+
+    /* Slab where the block is */
+    private final StagingAllocator.Slab slab;
+
+    /* Offset of the block in the slab (bytes) */
+    private final int offset;
+
+    /* Size of the block reserved in the slab (bytes) */
+    private final int size;
+
+    /* View of the bytes requested in the native order */
+    private final ByteBuffer buffer;
+
+    /* Indicates that the block was given back to the allocator */
+    private boolean released;
+
+    /**
+     * @param allocator Allocator that owns the slab
+     * @param slab      Slab where the block is
+     * @param offset    Offset of the block in the slab (bytes)
+     * @param size      Size of the block reserved in the slab (bytes)
+     * @param bytes     Number of bytes requested
+     */
+    StagingBlock(StagingAllocator allocator, StagingAllocator.Slab slab, int offset, int size, int bytes) {
+        this.allocator = allocator;
+        this.slab = slab;
+        this.offset = offset;
+        this.size = size;
+        ByteBuffer view = slab.getMemory().duplicate();
+        view.limit(offset + bytes);
+        view.position(offset);
+        this.buffer = view.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return Slab where the block is
+     */
+    StagingAllocator.Slab getSlab() {
+        return slab;
+    }
+
+    /**
+     * @return Offset of the block in the slab (bytes)
+     */
+    int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Size of the block reserved in the slab (bytes)
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The bytes of the block (position at zero and limit at the size requested)
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return View of the block as floats
+     */
+    public FloatBuffer asFloatBuffer() {
+        return buffer.asFloatBuffer();
+    }
+
+    /**
+     * @return View of the block as integers
+     */
+    public IntBuffer asIntBuffer() {
+        return buffer.asIntBuffer();
+    }
+
+    /**
+     * @return View of the block as shorts
+     */
+    public ShortBuffer asShortBuffer() {
+        return buffer.asShortBuffer();
+    }
+
+    /**
+     * Gives the block back to the allocator (only the first call has effect),
+     * the views of the block can not be used after
+     */
+    public void release() {
+        synchronized (allocator) {
+            if (released) {
+                return;
+            }
+            released = true;
+        }
+        allocator.release(this);
+    }
+}
@@ -0,0 +1,82 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.utils.IntArray;
+
+/**
+ * Corners of the faces that share the same material and group in one
+ * waveFront file
+ */
+class FaceGroup {
+
+    /**
+     * Number of indices that describe one corner of a face (vertex, texture, normal)
+     */
+    static final int INDICES_BY_CORNER = 3;
+
+    /**
+     * Name of the material used by the faces (if any)
+     */
+    private final String materialName;
+
+    /**
+     * Name of the group where the faces belong (if any)
+     */
+    private final String groupName;
+
+    /**
+     * Triples (vertexIndex, textureIndex, normalIndex) of every corner of the
+     * faces, -1 when the component does not exist
+     */
+    private final IntArray corners;
+
+    /**
+     * @param materialName Name of the material used by the faces
+     * @param groupName    Name of the group where the faces belong
+     */
+    FaceGroup(String materialName, String groupName) {
+        this.materialName = materialName;
+        this.groupName = groupName;
+        this.corners = new IntArray();
+    }
+
+    /**
+     * Adds one corner of a face to the group
+     *
+     * @param vertexIndex  Index of the vertex
+     * @param textureIndex Index of the texture coordinate
+     * @param normalIndex  Index of the normal
+     */
+    void addCorner(int vertexIndex, int textureIndex, int normalIndex) {
+        corners.add(vertexIndex);
+        corners.add(textureIndex);
+        corners.add(normalIndex);
+    }
+
+    /**
+     * @return Name of the material used by the faces
+     */
+    String getMaterialName() {
+        return materialName;
+    }
+
+    /**
+     * @return Name of the group where the faces belong
+     */
+    String getGroupName() {
+        return groupName;
+    }
+
+    /**
+     * @return The triples of indices of every corner
+     */
+    IntArray getCorners() {
+        return corners;
+    }
+
+    /**
+     * @return Number of corners in the group
+     */
+    int getCornersCount() {
+        return corners.size() / INDICES_BY_CORNER;
+    }
+}
@@ -0,0 +1,469 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.ColorRGB;
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Cache of the meshes parsed from waveFront files in a binary format that can
+ * be memory mapped: one header, one table with the materials and the sub
+ * meshes and the sections of floats and integers aligned so they can be used
+ * as direct buffers without copy them.
+ * The cache is invalidated when the hash of the source files changes
+ */
+public class MeshCache {
+
+    /* Identifies the files of the cache ("MSH1" in native order) */
+    private final static int MAGIC = 0x4D534831;
+
+    /* Version of the format of the files */
+    private final static int VERSION = 2;
+
+    /* Size of the header in bytes */
+    private final static int HEADER_SIZE = 64;
+
+    /* Alignment of every section of the file in bytes */
+    private final static int SECTION_ALIGNMENT = 16;
+
+    /* Bytes of one float or integer */
+    private final static int ELEMENT_IN_BYTES = 4;
+
+    /* Extension of the files of the cache */
+    private final static String CACHE_EXTENSION = ".mesh";
+
+    /* Extension of the files that are still being written */
+    private final static String TEMPORARY_EXTENSION = ".tmp";
+
+    /* Prefix of the lines of one waveFront file that import materials */
+    private final static String MATERIAL_LIBRARY_PREFIX = "mtllib ";
+
+    /* Parameters of the FNV-1a hash */
+    private final static long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private final static long FNV_PRIME = 0x100000001B3L;
+
+    /**
+     * Folder where the files of the cache are
+     */
+    private final File directory;
+
+    /**
+     * @param directory Folder where the files of the cache are going to be written
+     */
+    public MeshCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The hash of an empty content
+     */
+    public static long hash() {
+        return FNV_OFFSET_BASIS;
+    }
+
+    /**
+     * Adds the content of one source file to an hash
+     *
+     * @param hash    The hash of the previous content
+     * @param content The content to add
+     * @return The new hash
+     */
+    public static long hash(long hash, byte[] content) {
+        for (byte b : content) {
+            hash ^= (b & 0xFF);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * @param content Bytes of one waveFront file
+     * @return The names of the material files used by the waveFront file
+     */
+    public static List<String> getMaterialLibraries(byte[] content) {
+        List<String> libraries = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < content.length) {
+            int lineEnd = lineStart;
+            while ((lineEnd < content.length) && (content[lineEnd] != '\n')) {
+                lineEnd++;
+            }
+            if (startsWith(content, lineStart, lineEnd, MATERIAL_LIBRARY_PREFIX)) {
+                String library = new String(content, lineStart + MATERIAL_LIBRARY_PREFIX.length(),
+                        lineEnd - lineStart - MATERIAL_LIBRARY_PREFIX.length()).trim();
+                libraries.add(library);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return libraries;
+    }
+
+    /**
+     * Replaces the materials of a mesh read from the cache by the ones of the
+     * provider, interned by material file and name, so the models keep
+     * sharing the same instances as when they are parsed
+     *
+     * @param mesh                Mesh read from the cache
+     * @param content             Bytes of the waveFront file of the mesh
+     * @param subResourceProvider Provider of the materials interned
+     * @return A mesh with the same buffers and the materials of the provider
+     */
+    public static WfMesh internMaterials(WfMesh mesh, byte[] content, ISubResourceProvider subResourceProvider) {
+        HashMap<String, IExternalMaterial> materials = new HashMap<>();
+        for (String library : getMaterialLibraries(content)) {
+            HashMap<String, IExternalMaterial> libraryMaterials = subResourceProvider.getMaterials(library);
+            if (libraryMaterials != null) {
+                materials.putAll(libraryMaterials);
+            }
+        }
+        List<SubMesh> subMeshes = new ArrayList<>();
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            IExternalMaterial material = subMesh.getMaterial();
+            IExternalMaterial interned = (material == null) ? null : materials.get(material.getName());
+            subMeshes.add(new SubMesh(subMesh.getIndexOffset(), subMesh.getIndexCount(), subMesh.getGroupName(),
+                    (interned == null) ? material : interned));
+        }
+        return new WfMesh(mesh.getVerticesBuffer(), mesh.getTextureCoordsBuffer(), mesh.getNormalsBuffer(),
+                mesh.getIndicesBuffer(), subMeshes);
+    }
+
+    /**
+     * @return True if the line starts with the prefix passed
+     */
+    private static boolean startsWith(byte[] content, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (content[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param name Name of the model
+     * @return The file of the cache of the model
+     */
+    private File getFile(String name) {
+        return new File(directory, name + CACHE_EXTENSION);
+    }
+
+    /**
+     * @param position Position in the file
+     * @return The next position aligned to the start of one section
+     */
+    private static int align(int position) {
+        return (position + SECTION_ALIGNMENT - 1) & ~(SECTION_ALIGNMENT - 1);
+    }
+
+    /**
+     * Writes one string that can be null
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads one string that can be null
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Writes one color that can be null
+     */
+    private static void writeColor(DataOutputStream out, ColorRGB color) throws IOException {
+        out.writeBoolean(color != null);
+        if (color != null) {
+            out.writeFloat(color.r);
+            out.writeFloat(color.g);
+            out.writeFloat(color.b);
+        }
+    }
+
+    /**
+     * Reads one color that can be null
+     */
+    private static ColorRGB readColor(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new ColorRGB(in.readFloat(), in.readFloat(), in.readFloat()) : null;
+    }
+
+    /**
+     * Writes all the properties of one material
+     */
+    private static void writeMaterial(DataOutputStream out, IExternalMaterial material) throws IOException {
+        writeString(out, material.getName());
+        out.writeFloat(material.getWeightSpecularColor());
+        writeColor(out, material.getSpecularColor());
+        writeColor(out, material.getAmbientColor());
+        writeColor(out, material.getDiffuseColor());
+        writeColor(out, material.getEmissiveColor());
+        out.writeFloat(material.getOpticalDensity());
+        out.writeFloat(material.getDissolveFactor());
+        out.writeInt(material.getIlluminationModel());
+        writeColor(out, material.getTransmissionFactor());
+        writeString(out, material.getDiffuseTextureFileName());
+        writeString(out, material.getSpecularTextureFileName());
+        writeString(out, material.getAmbientTextureFileName());
+        writeString(out, material.getBumpTextureFileName());
+        writeString(out, material.getOpacityTextureFileName());
+    }
+
+    /**
+     * Reads all the properties of one material
+     */
+    private static IExternalMaterial readMaterial(DataInputStream in) throws IOException {
+        WfMaterial material = new WfMaterial();
+        material.setName(readString(in));
+        material.setWeightSpecularColor(in.readFloat());
+        material.setSpecularColor(readColor(in));
+        material.setAmbientColor(readColor(in));
+        material.setDiffuseColor(readColor(in));
+        material.setEmissiveColor(readColor(in));
+        material.setOpticalDensity(in.readFloat());
+        material.setDissolveFactor(in.readFloat());
+        material.setIlluminationModel(in.readInt());
+        material.setTransmissionFactor(readColor(in));
+        material.setDiffuseTextureFileName(readString(in));
+        material.setSpecularTextureFileName(readString(in));
+        material.setAmbientTextureFileName(readString(in));
+        material.setBumpTextureFileName(readString(in));
+        material.setOpacityTextureFileName(readString(in));
+        return material;
+    }
+
+    /**
+     * @param mesh The mesh to describe
+     * @return The table with the materials and the sub meshes of the mesh
+     */
+    private static byte[] writeTable(WfMesh mesh) throws IOException {
+        List<IExternalMaterial> materials = new ArrayList<>();
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            if ((subMesh.getMaterial() != null) && !materials.contains(subMesh.getMaterial())) {
+                materials.add(subMesh.getMaterial());
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(materials.size());
+        for (IExternalMaterial material : materials) {
+            writeMaterial(out, material);
+        }
+        out.writeInt(mesh.getSubMeshes().size());
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            out.writeInt(subMesh.getIndexOffset());
+            out.writeInt(subMesh.getIndexCount());
+            writeString(out, subMesh.getGroupName());
+            out.writeInt(materials.indexOf(subMesh.getMaterial()));
+        }
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param table The table with the materials and the sub meshes
+     * @return The sub meshes described in the table
+     */
+    private static List<SubMesh> readTable(byte[] table) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(table));
+        int materialsCount = in.readInt();
+        List<IExternalMaterial> materials = new ArrayList<>(materialsCount);
+        for (int i = 0; i < materialsCount; i++) {
+            materials.add(readMaterial(in));
+        }
+        int subMeshesCount = in.readInt();
+        List<SubMesh> subMeshes = new ArrayList<>(subMeshesCount);
+        for (int i = 0; i < subMeshesCount; i++) {
+            int indexOffset = in.readInt();
+            int indexCount = in.readInt();
+            String groupName = readString(in);
+            int materialIndex = in.readInt();
+            IExternalMaterial material = (materialIndex < 0) ? null : materials.get(materialIndex);
+            subMeshes.add(new SubMesh(indexOffset, indexCount, groupName, material));
+        }
+        in.close();
+        return subMeshes;
+    }
+
+    /**
+     * Writes one mesh in the cache
+     *
+     * @param name Name of the model
+     * @param hash Hash of the source files of the model
+     * @param mesh The mesh to write
+     * @return True if the mesh was written, false otherwise
+     */
+    public boolean save(String name, long hash, WfMesh mesh) {
+        FloatBuffer vertices = mesh.getVerticesBuffer().duplicate();
+        FloatBuffer textures = mesh.getTextureCoordsBuffer().duplicate();
+        FloatBuffer normals = mesh.getNormalsBuffer().duplicate();
+        IntBuffer indices = mesh.getIndicesBuffer().duplicate();
+
+        File temporary = new File(directory, name + TEMPORARY_EXTENSION);
+        FileOutputStream outputStream = null;
+        try {
+            byte[] table = writeTable(mesh);
+
+            int tableOffset = HEADER_SIZE;
+            int verticesOffset = align(tableOffset + table.length);
+            int texturesOffset = align(verticesOffset + vertices.remaining() * ELEMENT_IN_BYTES);
+            int normalsOffset = align(texturesOffset + textures.remaining() * ELEMENT_IN_BYTES);
+            int indicesOffset = align(normalsOffset + normals.remaining() * ELEMENT_IN_BYTES);
+            int fileSize = indicesOffset + indices.remaining() * ELEMENT_IN_BYTES;
+
+            ByteBuffer buffer = ByteBuffer.allocate(fileSize).order(ByteOrder.nativeOrder());
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(hash);
+            buffer.putInt(tableOffset).putInt(table.length);
+            buffer.putInt(verticesOffset).putInt(vertices.remaining());
+            buffer.putInt(texturesOffset).putInt(textures.remaining());
+            buffer.putInt(normalsOffset).putInt(normals.remaining());
+            buffer.putInt(indicesOffset).putInt(indices.remaining());
+
+            buffer.position(tableOffset);
+            buffer.put(table);
+            buffer.position(verticesOffset);
+            buffer.asFloatBuffer().put(vertices);
+            buffer.position(texturesOffset);
+            buffer.asFloatBuffer().put(textures);
+            buffer.position(normalsOffset);
+            buffer.asFloatBuffer().put(normals);
+            buffer.position(indicesOffset);
+            buffer.asIntBuffer().put(indices);
+            buffer.rewind();
+
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                return false;
+            }
+            outputStream = new FileOutputStream(temporary);
+            FileChannel channel = outputStream.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            outputStream.close();
+            outputStream = null;
+
+            // Replace the previous version only when the new one is complete
+            File file = getFile(name);
+            return (!file.exists() || file.delete()) && temporary.renameTo(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param buffer Mapped file
+     * @param offset Offset of the section in bytes
+     * @param count  Number of elements of the section
+     * @return View of the section in native order
+     */
+    private static ByteBuffer getSection(MappedByteBuffer buffer, int offset, int count) {
+        ByteBuffer section = buffer.duplicate();
+        section.position(offset);
+        section.limit(offset + count * ELEMENT_IN_BYTES);
+        return section.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Maps one mesh from the cache, the buffers of the mesh are views over
+     * the mapped file
+     *
+     * @param name Name of the model
+     * @param hash Hash of the source files of the model
+     * @return The mesh or null if it is not in the cache or is outdated
+     */
+    public WfMesh load(String name, long hash) {
+        File file = getFile(name);
+        if (!file.isFile()) {
+            return null;
+        }
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.nativeOrder());
+
+            // A different magic also means a file written with another byte order
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION) || (buffer.getLong() != hash)) {
+                return null;
+            }
+            int tableOffset = buffer.getInt();
+            int tableLength = buffer.getInt();
+            int verticesOffset = buffer.getInt();
+            int verticesCount = buffer.getInt();
+            int texturesOffset = buffer.getInt();
+            int texturesCount = buffer.getInt();
+            int normalsOffset = buffer.getInt();
+            int normalsCount = buffer.getInt();
+            int indicesOffset = buffer.getInt();
+            int indicesCount = buffer.getInt();
+            if ((long) indicesOffset + (long) indicesCount * ELEMENT_IN_BYTES > fileSize) {
+                return null;
+            }
+
+            byte[] table = new byte[tableLength];
+            buffer.position(tableOffset);
+            buffer.get(table);
+            List<SubMesh> subMeshes = readTable(table);
+
+            FloatBuffer vertices = getSection(buffer, verticesOffset, verticesCount).asFloatBuffer();
+            FloatBuffer textures = getSection(buffer, texturesOffset, texturesCount).asFloatBuffer();
+            FloatBuffer normals = getSection(buffer, normalsOffset, normalsCount).asFloatBuffer();
+            IntBuffer indices = getSection(buffer, indicesOffset, indicesCount).asIntBuffer();
+            return new WfMesh(vertices, textures, normals, indices, subMeshes);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            // The mapping stays valid after the channel is closed
+            if (randomAccessFile != null) {
+                try {
+                    randomAccessFile.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.utils.FloatArray;
+import com.dferreira.commons.utils.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * Parses the records of a waveFront file scanning directly the raw bytes.
+ * The numbers are parsed in place and written straight to primitive arrays so
+ * no object is created by vertex, normal, texture coordinate or face
+ */
+class OBJByteParser {
+
+    /* Size of the chunks read from the input stream */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /* Initial capacity of the arrays of coordinates */
+    private final static int INITIAL_CAPACITY = 1024;
+
+    /* Character for split material and group */
+    private final static String MAT_GROUP_SPLIT = "@";
+
+    /* Maximum number of significant digits that are exact in a double */
+    private final static int MAX_EXACT_DIGITS = 15;
+
+    /* Powers of ten that are exactly represented in a double */
+    private final static double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /* Charset of the names that are in the file */
+    private final static Charset CHARSET = Charset.forName("UTF-8");
+
+    /* Provider of the materials referenced by the file (null to only keep the name of the file) */
+    private final ISubResourceProvider subResourceProvider;
+
+    /* Positions of the vertices */
+    private final FloatArray vertices;
+
+    /* Coordinates of the textures */
+    private final FloatArray textures;
+
+    /* Normal vectors */
+    private final FloatArray normals;
+
+    /* Faces by key of material and group (in order of appearance) */
+    private final HashMap<String, FaceGroup> faceGroups;
+
+    /* Materials referenced by the file (if any) */
+    private HashMap<String, IExternalMaterial> materials;
+
+    /* Name of the last file of materials referenced (if any) */
+    private String materialsFileName;
+
+    /* Number of vertices, texture coordinates and normals defined before the
+     * bytes parsed (used by the relative indices when parsing part of a file) */
+    private int vertexBase;
+    private int textureBase;
+    private int normalBase;
+
+    /* Name of the group of the faces that follow */
+    private String currentGroupName;
+
+    /* Name of the material of the faces that follow */
+    private String currentMaterialName;
+
+    /* Group where the faces that follow are added (null until the first face) */
+    private FaceGroup currentFaceGroup;
+
+    /* Position of the cursor in the line being parsed */
+    private int pos;
+
+    /* Corners of the polygon being parsed (vertex, texture, normal) */
+    private int[] polygon;
+
+    /**
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     */
+    OBJByteParser(ISubResourceProvider subResourceProvider) {
+        this.subResourceProvider = subResourceProvider;
+        this.vertices = new FloatArray(INITIAL_CAPACITY);
+        this.textures = new FloatArray(INITIAL_CAPACITY);
+        this.normals = new FloatArray(INITIAL_CAPACITY);
+        this.faceGroups = new LinkedHashMap<>();
+        this.currentGroupName = Utils.EMPTY_STRING;
+        this.currentMaterialName = Utils.EMPTY_STRING;
+        this.currentFaceGroup = null;
+        this.polygon = new int[4 * FaceGroup.INDICES_BY_CORNER];
+    }
+
+    /**
+     * Reads all the stream in chunks and parses every line of it
+     *
+     * @param inputStream The resource where the waveFront file exists
+     * @throws IOException If the stream can not be read
+     */
+    void parse(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        int read;
+
+        while ((read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    parseLine(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            // Keeps the incomplete line in the beginning of the buffer
+            length -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+            if (length == buffer.length) {
+                byte[] bigger = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, bigger, 0, length);
+                buffer = bigger;
+            }
+        }
+        if (length > 0) {
+            parseLine(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Parses all the lines in a range of bytes
+     *
+     * @param buffer Bytes of the file
+     * @param start  First byte of the range
+     * @param end    End of the range (exclusive)
+     */
+    void parse(byte[] buffer, int start, int end) {
+        int lineStart = start;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == '\n') {
+                parseLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < end) {
+            parseLine(buffer, lineStart, end);
+        }
+    }
+
+    /**
+     * @param c Byte to check
+     * @return True if the byte separates tokens
+     */
+    static boolean isBlank(byte c) {
+        return (c == ' ') || (c == '\t') || (c == '\r');
+    }
+
+    /**
+     * @param buffer Bytes of the line
+     * @param start  Start of the token
+     * @param end    End of the token
+     * @param prefix The prefix to compare with
+     * @return True if the token is equal to the prefix
+     */
+    static boolean isPrefix(byte[] buffer, int start, int end, String prefix) {
+        if (end - start != prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses one line of the file
+     *
+     * @param buffer Bytes of the file
+     * @param start  First byte of the line
+     * @param end    End of the line (exclusive)
+     */
+    private void parseLine(byte[] buffer, int start, int end) {
+        // Skip the leading blanks
+        while ((start < end) && isBlank(buffer[start])) {
+            start++;
+        }
+        if (start == end) {
+            return;
+        }
+        int tokenEnd = start;
+        while ((tokenEnd < end) && !isBlank(buffer[tokenEnd])) {
+            tokenEnd++;
+        }
+        this.pos = tokenEnd;
+
+        if (isPrefix(buffer, start, tokenEnd, OBJPrefix.VERTEX)) {
+            // Parses the vertices
+            vertices.add(parseFloat(buffer, end));
+            vertices.add(parseFloat(buffer, end));
+            vertices.add(parseFloat(buffer, end));
+        } else if (isPrefix(buffer, start, tokenEnd, OBJPrefix.TEXTURE)) {
+            // Parses the texture coordinates
+            textures.add(parseFloat(buffer, end));
+            textures.add(parseFloat(buffer, end));
+        } else if (isPrefix(buffer, start, tokenEnd, OBJPrefix.NORMAL)) {
+            // Parses the normals
+            normals.add(parseFloat(buffer, end));
+            normals.add(parseFloat(buffer, end));
+            normals.add(parseFloat(buffer, end));
+        } else if (isPrefix(buffer, start, tokenEnd, OBJPrefix.FACE)) {
+            // Parses the faces
+            parseFace(buffer, end);
+        } else if (buffer[start] == OBJPrefix.COMMENT.charAt(0)) {
+            // The comments in the OBJ do nothing
+        } else if (isPrefix(buffer, start, tokenEnd, OBJPrefix.SMOOTH_SHADING)) {
+            // Defines the smooth shading (Not done yet)
+        } else if (isPrefix(buffer, start, tokenEnd, OBJPrefix.OBJECT_NAME)
+                || isPrefix(buffer, start, tokenEnd, OBJPrefix.GROUP)) {
+            // Define the name of the object or the group
+            setGroupName(parseString(buffer, end));
+        } else if (isPrefix(buffer, start, tokenEnd, OBJPrefix.USE_MATERIAL)) {
+            // Updates the current material used
+            setMaterialName(parseString(buffer, end));
+        } else if (isPrefix(buffer, start, tokenEnd, OBJPrefix.MATERIALS)) {
+            // Definition of the list of materials of the model
+            materialsFileName = parseString(buffer, end);
+            if (subResourceProvider != null) {
+                materials = subResourceProvider.getMaterials(materialsFileName);
+            }
+        } else {
+            System.err.println("Impossible to parse:" + new String(buffer, start, end - start, CHARSET));
+        }
+    }
+
+    /**
+     * Defines the number of elements that exist before the bytes that are
+     * going to be parsed, required when only a part of the file is parsed
+     *
+     * @param vertexBase  Number of vertices defined before
+     * @param textureBase Number of texture coordinates defined before
+     * @param normalBase  Number of normals defined before
+     */
+    void setBaseCounts(int vertexBase, int textureBase, int normalBase) {
+        this.vertexBase = vertexBase;
+        this.textureBase = textureBase;
+        this.normalBase = normalBase;
+    }
+
+    /**
+     * @param groupName Name of the group of the faces that follow
+     */
+    void setGroupName(String groupName) {
+        this.currentGroupName = groupName;
+        this.currentFaceGroup = null;
+    }
+
+    /**
+     * @param materialName Name of the material of the faces that follow
+     */
+    void setMaterialName(String materialName) {
+        this.currentMaterialName = materialName;
+        this.currentFaceGroup = null;
+    }
+
+    /**
+     * @return The rest of the line as a trimmed string
+     */
+    private String parseString(byte[] buffer, int end) {
+        String value = toTrimmedString(buffer, pos, end);
+        pos = end;
+        return value;
+    }
+
+    /**
+     * @param buffer Bytes of the line
+     * @param start  Start of the text
+     * @param end    End of the text (exclusive)
+     * @return The text without the blanks in the extremities
+     */
+    static String toTrimmedString(byte[] buffer, int start, int end) {
+        while ((start < end) && isBlank(buffer[start])) {
+            start++;
+        }
+        while ((end > start) && isBlank(buffer[end - 1])) {
+            end--;
+        }
+        return new String(buffer, start, end - start, CHARSET);
+    }
+
+    /**
+     * @return The group where the faces that follow are going to be added
+     */
+    private FaceGroup getCurrentFaceGroup() {
+        if (currentFaceGroup == null) {
+            String key = currentMaterialName + MAT_GROUP_SPLIT + currentGroupName;
+            currentFaceGroup = faceGroups.get(key);
+            if (currentFaceGroup == null) {
+                currentFaceGroup = new FaceGroup(currentMaterialName, currentGroupName);
+                faceGroups.put(key, currentFaceGroup);
+            }
+        }
+        return currentFaceGroup;
+    }
+
+    /**
+     * Parses one face, polygons with more than three corners are split in a
+     * fan of triangles
+     */
+    private void parseFace(byte[] buffer, int end) {
+        int corners = 0;
+        while (true) {
+            while ((pos < end) && isBlank(buffer[pos])) {
+                pos++;
+            }
+            if (pos >= end) {
+                break;
+            }
+            if ((corners + 1) * FaceGroup.INDICES_BY_CORNER > polygon.length) {
+                int[] bigger = new int[polygon.length * 2];
+                System.arraycopy(polygon, 0, bigger, 0, polygon.length);
+                polygon = bigger;
+            }
+            int offset = corners * FaceGroup.INDICES_BY_CORNER;
+            polygon[offset] = parseIndex(buffer, end,
+                    vertexBase + vertices.size() / OBJLoader.COORDINATES_BY_VERTEX);
+            polygon[offset + 1] = -1;
+            polygon[offset + 2] = -1;
+            if ((pos < end) && (buffer[pos] == '/')) {
+                pos++;
+                polygon[offset + 1] = parseIndex(buffer, end,
+                        textureBase + textures.size() / OBJLoader.COORDINATES_BY_TEXTURE);
+                if ((pos < end) && (buffer[pos] == '/')) {
+                    pos++;
+                    polygon[offset + 2] = parseIndex(buffer, end,
+                            normalBase + normals.size() / OBJLoader.COORDINATES_BY_NORMAL);
+                }
+            }
+            corners++;
+        }
+
+        FaceGroup faceGroup = getCurrentFaceGroup();
+        for (int i = 1; i < corners - 1; i++) {
+            addCorner(faceGroup, 0);
+            addCorner(faceGroup, i);
+            addCorner(faceGroup, i + 1);
+        }
+    }
+
+    /**
+     * @param faceGroup Group where to add the corner
+     * @param corner    Corner of the polygon to add
+     */
+    private void addCorner(FaceGroup faceGroup, int corner) {
+        int offset = corner * FaceGroup.INDICES_BY_CORNER;
+        faceGroup.addCorner(polygon[offset], polygon[offset + 1], polygon[offset + 2]);
+    }
+
+    /**
+     * Parses one index of a face in place
+     *
+     * @param count Number of elements defined until now (used by relative indices)
+     * @return The zero based index or -1 if the index is empty
+     */
+    private int parseIndex(byte[] buffer, int end, int count) {
+        boolean negative = false;
+        if ((pos < end) && (buffer[pos] == '-')) {
+            negative = true;
+            pos++;
+        }
+        int start = pos;
+        int value = 0;
+        while (pos < end) {
+            int digit = buffer[pos] - '0';
+            if ((digit < 0) || (digit > 9)) {
+                break;
+            }
+            value = value * 10 + digit;
+            pos++;
+        }
+        if (pos == start) {
+            return -1;
+        }
+        return negative ? (count - value) : (value - 1);
+    }
+
+    /**
+     * Parses one float in place
+     *
+     * @return The number parsed
+     */
+    private float parseFloat(byte[] buffer, int end) {
+        while ((pos < end) && isBlank(buffer[pos])) {
+            pos++;
+        }
+        int start = pos;
+        boolean negative = false;
+        if ((pos < end) && ((buffer[pos] == '-') || (buffer[pos] == '+'))) {
+            negative = (buffer[pos] == '-');
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+
+        // Integer part
+        while ((pos < end) && (buffer[pos] >= '0') && (buffer[pos] <= '9')) {
+            hasDigits = true;
+            if ((mantissa != 0) || (buffer[pos] != '0')) {
+                if (digits < MAX_EXACT_DIGITS) {
+                    mantissa = mantissa * 10 + (buffer[pos] - '0');
+                } else {
+                    exponent++;
+                }
+                digits++;
+            }
+            pos++;
+        }
+        // Fraction part
+        if ((pos < end) && (buffer[pos] == '.')) {
+            pos++;
+            while ((pos < end) && (buffer[pos] >= '0') && (buffer[pos] <= '9')) {
+                hasDigits = true;
+                if ((mantissa != 0) || (buffer[pos] != '0')) {
+                    if (digits < MAX_EXACT_DIGITS) {
+                        mantissa = mantissa * 10 + (buffer[pos] - '0');
+                        exponent--;
+                    }
+                    digits++;
+                } else {
+                    exponent--;
+                }
+                pos++;
+            }
+        }
+        // Exponent part
+        if (hasDigits && (pos < end) && ((buffer[pos] == 'e') || (buffer[pos] == 'E'))) {
+            pos++;
+            boolean negativeExponent = false;
+            if ((pos < end) && ((buffer[pos] == '-') || (buffer[pos] == '+'))) {
+                negativeExponent = (buffer[pos] == '-');
+                pos++;
+            }
+            int value = 0;
+            while ((pos < end) && (buffer[pos] >= '0') && (buffer[pos] <= '9')) {
+                value = value * 10 + (buffer[pos] - '0');
+                pos++;
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        boolean endOfToken = (pos >= end) || isBlank(buffer[pos]);
+        if (hasDigits && endOfToken && (digits <= MAX_EXACT_DIGITS)
+                && (exponent >= -POWERS_OF_TEN.length + 1) && (exponent < POWERS_OF_TEN.length)) {
+            double value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return (float) (negative ? -value : value);
+        } else {
+            // Uncommon representation falls back to the library parser
+            while ((pos < end) && !isBlank(buffer[pos])) {
+                pos++;
+            }
+            return Float.parseFloat(new String(buffer, start, pos - start, CHARSET));
+        }
+    }
+
+    /**
+     * @return Positions of the vertices
+     */
+    FloatArray getVertices() {
+        return vertices;
+    }
+
+    /**
+     * @return Coordinates of the textures
+     */
+    FloatArray getTextures() {
+        return textures;
+    }
+
+    /**
+     * @return Normal vectors
+     */
+    FloatArray getNormals() {
+        return normals;
+    }
+
+    /**
+     * @return Faces by key of material and group (in order of appearance)
+     */
+    HashMap<String, FaceGroup> getFaceGroups() {
+        return faceGroups;
+    }
+
+    /**
+     * @return Materials referenced by the file (if any)
+     */
+    HashMap<String, IExternalMaterial> getMaterials() {
+        return materials;
+    }
+
+    /**
+     * @return Name of the last file of materials referenced (if any)
+     */
+    String getMaterialsFileName() {
+        return materialsFileName;
+    }
+}
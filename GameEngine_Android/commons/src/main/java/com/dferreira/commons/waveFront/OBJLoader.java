@@ -6,16 +6,24 @@ import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_resources.ISubResourceProvider;
 import com.dferreira.commons.shapes.IExternalMaterial;
 import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
 import com.dferreira.commons.shapes.WfObject;
+import com.dferreira.commons.utils.DirectBufferUtils;
+import com.dferreira.commons.utils.FloatArray;
 import com.dferreira.commons.utils.Utils;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Parses files in wavefront format
@@ -229,6 +237,165 @@ public class OBJLoader extends GenericLoader {
     }
 
 
+    /**
+     * Uses the arrays parsed from the bytes of the waveFront file to create one
+     * mesh, every unique (vertex, texture, normal) triple of the faces is
+     * welded into one vertex of the output and every group becomes one range
+     * of the indices. The output is written straight to direct buffers that
+     * the render API can use without copy them
+     *
+     * @param vertices   Positions of the vertices
+     * @param normals    Normal vectors
+     * @param textures   Coordinates of the textures
+     * @param faceGroups Faces by key of material and group
+     * @param materials  HashMap of materials that make part of the object (if any)
+     * @return The waveFront element as a mesh
+     */
+    private static WfMesh createMesh(FloatArray vertices, FloatArray normals, FloatArray textures,
+                                     HashMap<String, FaceGroup> faceGroups, HashMap<String, IExternalMaterial> materials) {
+        int numberOfCorners = 0;
+        for (FaceGroup faceGroup : faceGroups.values()) {
+            numberOfCorners += faceGroup.getCornersCount();
+        }
+        VertexWelder welder = new VertexWelder(vertices, textures, normals, numberOfCorners);
+
+        // Weld the corners of every group and put their indices one after the other
+        IntBuffer indicesBuffer = DirectBufferUtils.createIntBuffer(numberOfCorners);
+        List<SubMesh> subMeshes = new ArrayList<>();
+        int indexOffset = 0;
+        for (FaceGroup faceGroup : faceGroups.values()) {
+            int[] corners = faceGroup.getCorners().getData();
+            int cornersCount = faceGroup.getCornersCount();
+
+            for (int i = 0; i < cornersCount; i++) {
+                int offset = i * FaceGroup.INDICES_BY_CORNER;
+                indicesBuffer.put(welder.weld(corners[offset], corners[offset + 1], corners[offset + 2]));
+            }
+
+            IExternalMaterial material = null;
+            if ((materials != null) && (materials.containsKey(faceGroup.getMaterialName()))) {
+                material = materials.get(faceGroup.getMaterialName());
+            }
+            subMeshes.add(new SubMesh(indexOffset, cornersCount, faceGroup.getGroupName(), material));
+            indexOffset += cornersCount;
+        }
+
+        int vertexCount = welder.getVertexCount();
+        FloatBuffer verticesBuffer = DirectBufferUtils.createFloatBuffer(vertexCount * COORDINATES_BY_VERTEX);
+        FloatBuffer texturesBuffer = DirectBufferUtils.createFloatBuffer(vertexCount * COORDINATES_BY_TEXTURE);
+        FloatBuffer normalsBuffer = DirectBufferUtils.createFloatBuffer(vertexCount * COORDINATES_BY_NORMAL);
+        welder.fill(verticesBuffer, texturesBuffer, normalsBuffer);
+
+        verticesBuffer.flip();
+        texturesBuffer.flip();
+        normalsBuffer.flip();
+        indicesBuffer.flip();
+        return new WfMesh(verticesBuffer, texturesBuffer, normalsBuffer, indicesBuffer, subMeshes);
+    }
+
+    /**
+     * Parses one waveFront file scanning its raw bytes without creating objects
+     * by each line of the file. Unlike {@link #loadObjModel(InputStream, ISubResourceProvider)}
+     * the vertices are welded by (vertex, texture, normal) so a position shared
+     * by faces with different normals or texture coordinates keeps all of them
+     *
+     * @param inputStream         The resource where the waveFront file exists
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return Wavefront object as one mesh with a sub mesh by group
+     */
+    public static WfMesh loadObjMeshFromBytes(InputStream inputStream, ISubResourceProvider subResourceProvider) {
+        try {
+            OBJByteParser parser = new OBJByteParser(subResourceProvider);
+            parser.parse(inputStream);
+            return createMesh(parser.getVertices(), parser.getNormals(), parser.getTextures(),
+                    parser.getFaceGroups(), parser.getMaterials());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Parses the bytes of one waveFront file in line aligned chunks on the
+     * threads of the parser pool, the result is the same of
+     * {@link #loadObjMeshFromBytes(InputStream, ISubResourceProvider)}
+     *
+     * @param content             The bytes of the waveFront file
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return Wavefront object as one mesh with a sub mesh by group
+     */
+    public static WfMesh loadObjMeshFromBytes(byte[] content, ISubResourceProvider subResourceProvider) {
+        return loadObjMeshFromBytes(content, subResourceProvider, ParserPool.INSTANCE);
+    }
+
+    /**
+     * Holds the pool where the chunks of big files are parsed, it is only
+     * created on the first parallel parse so loading the OBJLoader does not
+     * need the fork/join classes (Android before API 21 does not have them)
+     */
+    private static class ParserPool {
+        private final static ForkJoinPool INSTANCE = new ForkJoinPool();
+    }
+
+    /**
+     * Parses the bytes of one waveFront file in line aligned chunks on the
+     * threads of the pool passed
+     *
+     * @param content             The bytes of the waveFront file
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @param pool                Pool where the chunks are parsed
+     * @return Wavefront object as one mesh with a sub mesh by group
+     */
+    public static WfMesh loadObjMeshFromBytes(byte[] content, ISubResourceProvider subResourceProvider,
+                                              ForkJoinPool pool) {
+        try {
+            OBJParallelParser parser = new OBJParallelParser(pool, subResourceProvider);
+            parser.parse(content);
+            return createMesh(parser.getVertices(), parser.getNormals(), parser.getTextures(),
+                    parser.getFaceGroups(), parser.getMaterials());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Same as {@link #loadObjMeshFromBytes(InputStream, ISubResourceProvider)}
+     * but splits the mesh in one shape by group (the arrays of the vertices are
+     * shared by all the shapes)
+     *
+     * @param inputStream         The resource where the waveFront file exists
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return Wavefront object
+     */
+    public static List<IShape> loadObjModelFromBytes(InputStream inputStream, ISubResourceProvider subResourceProvider) {
+        WfMesh mesh = loadObjMeshFromBytes(inputStream, subResourceProvider);
+        if (mesh == null) {
+            return null;
+        }
+        // The mesh is backed by direct buffers so the arrays are copied only once
+        float[] verticesArray = mesh.getVertices();
+        float[] texturesArray = mesh.getTextureCoords();
+        float[] normalsArray = mesh.getNormals();
+        int[] indices = mesh.getIndices();
+
+        List<IShape> wfObjectList = new ArrayList<>();
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            int[] indicesArray = Arrays.copyOfRange(indices, subMesh.getIndexOffset(),
+                    subMesh.getIndexOffset() + subMesh.getIndexCount());
+            IShape shape = new WfObject(verticesArray, texturesArray, normalsArray, indicesArray,
+                    subMesh.getGroupName(), subMesh.getMaterial());
+            wfObjectList.add(shape);
+        }
+        return wfObjectList;
+    }
+
     /**
      * Parse a component in string format and return its short value
      *
@@ -0,0 +1,277 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.utils.FloatArray;
+import com.dferreira.commons.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses one waveFront file in line aligned chunks using a fork join pool.
+ * A first pass counts the elements and collects the group and material that
+ * are active at the end of every chunk so the second pass can parse each
+ * chunk with the state of the file in its beginning. The partial results are
+ * merged in the order of the file so the output is the same of {@link OBJByteParser}
+ */
+class OBJParallelParser {
+
+    /* Minimum size of one chunk in bytes (smaller files are parsed by one thread) */
+    private final static int MIN_CHUNK_SIZE = 256 * 1024;
+
+    /* Number of chunks created by thread of the pool to balance the work */
+    private final static int CHUNKS_BY_THREAD = 2;
+
+    /**
+     * Elements defined in one chunk and the state of the file in its end
+     */
+    private static class ChunkSummary {
+        int vertices;
+        int textures;
+        int normals;
+        /* Last group, material and file of materials defined (null if none) */
+        String groupName;
+        String materialName;
+        String materialsFileName;
+    }
+
+    /* Pool where the chunks are parsed */
+    private final ForkJoinPool pool;
+
+    /* Provider of the materials referenced by the file */
+    private final ISubResourceProvider subResourceProvider;
+
+    /* Positions of the vertices */
+    private FloatArray vertices;
+
+    /* Coordinates of the textures */
+    private FloatArray textures;
+
+    /* Normal vectors */
+    private FloatArray normals;
+
+    /* Faces by key of material and group (in order of appearance) */
+    private HashMap<String, FaceGroup> faceGroups;
+
+    /* Materials referenced by the file (if any) */
+    private HashMap<String, IExternalMaterial> materials;
+
+    /**
+     * @param pool                Pool where the chunks are parsed
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     */
+    OBJParallelParser(ForkJoinPool pool, ISubResourceProvider subResourceProvider) {
+        this.pool = pool;
+        this.subResourceProvider = subResourceProvider;
+    }
+
+    /**
+     * @param content Bytes of the file
+     * @return The start of every chunk plus the end of the file
+     */
+    private int[] split(byte[] content) {
+        int chunks = Math.min(pool.getParallelism() * CHUNKS_BY_THREAD, content.length / MIN_CHUNK_SIZE);
+        chunks = Math.max(1, chunks);
+
+        int[] boundaries = new int[chunks + 1];
+        boundaries[chunks] = content.length;
+        for (int i = 1; i < chunks; i++) {
+            int boundary = Math.max(boundaries[i - 1], (int) ((long) content.length * i / chunks));
+            // Every chunk starts in the beginning of a line
+            while ((boundary < content.length) && (boundary > 0) && (content[boundary - 1] != '\n')) {
+                boundary++;
+            }
+            boundaries[i] = boundary;
+        }
+        return boundaries;
+    }
+
+    /**
+     * Counts the elements of one chunk and gets the state in the end of it
+     */
+    private static ChunkSummary summarize(byte[] content, int start, int end) {
+        ChunkSummary summary = new ChunkSummary();
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while ((lineEnd < end) && (content[lineEnd] != '\n')) {
+                lineEnd++;
+            }
+            int tokenStart = lineStart;
+            while ((tokenStart < lineEnd) && OBJByteParser.isBlank(content[tokenStart])) {
+                tokenStart++;
+            }
+            int tokenEnd = tokenStart;
+            while ((tokenEnd < lineEnd) && !OBJByteParser.isBlank(content[tokenEnd])) {
+                tokenEnd++;
+            }
+
+            if (OBJByteParser.isPrefix(content, tokenStart, tokenEnd, OBJPrefix.VERTEX)) {
+                summary.vertices++;
+            } else if (OBJByteParser.isPrefix(content, tokenStart, tokenEnd, OBJPrefix.TEXTURE)) {
+                summary.textures++;
+            } else if (OBJByteParser.isPrefix(content, tokenStart, tokenEnd, OBJPrefix.NORMAL)) {
+                summary.normals++;
+            } else if (OBJByteParser.isPrefix(content, tokenStart, tokenEnd, OBJPrefix.OBJECT_NAME)
+                    || OBJByteParser.isPrefix(content, tokenStart, tokenEnd, OBJPrefix.GROUP)) {
+                summary.groupName = OBJByteParser.toTrimmedString(content, tokenEnd, lineEnd);
+            } else if (OBJByteParser.isPrefix(content, tokenStart, tokenEnd, OBJPrefix.USE_MATERIAL)) {
+                summary.materialName = OBJByteParser.toTrimmedString(content, tokenEnd, lineEnd);
+            } else if (OBJByteParser.isPrefix(content, tokenStart, tokenEnd, OBJPrefix.MATERIALS)) {
+                summary.materialsFileName = OBJByteParser.toTrimmedString(content, tokenEnd, lineEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return summary;
+    }
+
+    /**
+     * Parses all the bytes of one waveFront file
+     *
+     * @param content Bytes of the file
+     * @throws Exception If some chunk could not be parsed
+     */
+    void parse(final byte[] content) throws Exception {
+        final int[] boundaries = split(content);
+        int chunks = boundaries.length - 1;
+
+        // First pass: what is defined in every chunk
+        List<Callable<ChunkSummary>> summaryTasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final int chunk = i;
+            summaryTasks.add(new Callable<ChunkSummary>() {
+                @Override
+                public ChunkSummary call() {
+                    return summarize(content, boundaries[chunk], boundaries[chunk + 1]);
+                }
+            });
+        }
+        List<ChunkSummary> summaries = getAll(pool.invokeAll(summaryTasks));
+
+        // Second pass: parse every chunk with the state of the file in its beginning
+        String groupName = Utils.EMPTY_STRING;
+        String materialName = Utils.EMPTY_STRING;
+        String materialsFileName = null;
+        int vertexBase = 0;
+        int textureBase = 0;
+        int normalBase = 0;
+        List<Callable<OBJByteParser>> parseTasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final int chunk = i;
+            final OBJByteParser parser = new OBJByteParser(null);
+            parser.setBaseCounts(vertexBase, textureBase, normalBase);
+            parser.setGroupName(groupName);
+            parser.setMaterialName(materialName);
+            parseTasks.add(new Callable<OBJByteParser>() {
+                @Override
+                public OBJByteParser call() {
+                    parser.parse(content, boundaries[chunk], boundaries[chunk + 1]);
+                    return parser;
+                }
+            });
+
+            ChunkSummary summary = summaries.get(i);
+            vertexBase += summary.vertices;
+            textureBase += summary.textures;
+            normalBase += summary.normals;
+            if (summary.groupName != null) {
+                groupName = summary.groupName;
+            }
+            if (summary.materialName != null) {
+                materialName = summary.materialName;
+            }
+            if (summary.materialsFileName != null) {
+                materialsFileName = summary.materialsFileName;
+            }
+        }
+        List<OBJByteParser> parsers = getAll(pool.invokeAll(parseTasks));
+
+        merge(parsers, vertexBase, textureBase, normalBase);
+        // The materials are loaded once in the calling thread (the last file wins as in the sequential parser)
+        this.materials = (materialsFileName == null) ? null : subResourceProvider.getMaterials(materialsFileName);
+    }
+
+    /**
+     * @param futures Futures of the tasks already completed
+     * @return The results of the tasks
+     */
+    private static <T> List<T> getAll(List<Future<T>> futures) throws InterruptedException, ExecutionException {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    /**
+     * Joins the results of all the chunks in the order of the file
+     *
+     * @param parsers  Parsers of the chunks
+     * @param vertexCount  Number of vertices in the file
+     * @param textureCount Number of texture coordinates in the file
+     * @param normalCount  Number of normals in the file
+     */
+    private void merge(List<OBJByteParser> parsers, int vertexCount, int textureCount, int normalCount) {
+        vertices = new FloatArray(vertexCount * OBJLoader.COORDINATES_BY_VERTEX);
+        textures = new FloatArray(textureCount * OBJLoader.COORDINATES_BY_TEXTURE);
+        normals = new FloatArray(normalCount * OBJLoader.COORDINATES_BY_NORMAL);
+        faceGroups = new LinkedHashMap<>();
+
+        for (OBJByteParser parser : parsers) {
+            vertices.addAll(parser.getVertices());
+            textures.addAll(parser.getTextures());
+            normals.addAll(parser.getNormals());
+            for (Map.Entry<String, FaceGroup> entry : parser.getFaceGroups().entrySet()) {
+                FaceGroup faceGroup = faceGroups.get(entry.getKey());
+                if (faceGroup == null) {
+                    faceGroups.put(entry.getKey(), entry.getValue());
+                } else {
+                    faceGroup.getCorners().addAll(entry.getValue().getCorners());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Positions of the vertices
+     */
+    FloatArray getVertices() {
+        return vertices;
+    }
+
+    /**
+     * @return Coordinates of the textures
+     */
+    FloatArray getTextures() {
+        return textures;
+    }
+
+    /**
+     * @return Normal vectors
+     */
+    FloatArray getNormals() {
+        return normals;
+    }
+
+    /**
+     * @return Faces by key of material and group (in order of appearance)
+     */
+    HashMap<String, FaceGroup> getFaceGroups() {
+        return faceGroups;
+    }
+
+    /**
+     * @return Materials referenced by the file (if any)
+     */
+    HashMap<String, IExternalMaterial> getMaterials() {
+        return materials;
+    }
+}
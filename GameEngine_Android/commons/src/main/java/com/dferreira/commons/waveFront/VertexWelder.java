@@ -0,0 +1,142 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.utils.FloatArray;
+import com.dferreira.commons.utils.IntArray;
+import com.dferreira.commons.utils.LongIntHashMap;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Welds the corners of the faces of a waveFront file: every unique triple
+ * (vertexIndex, textureIndex, normalIndex) becomes one output vertex so a
+ * position shared by faces with different normals or texture coordinates is
+ * split instead of overwritten
+ */
+class VertexWelder {
+
+    /* Number of bits used by each index in the key of a corner */
+    private final static int BITS_BY_INDEX = 21;
+
+    /* Maximum index that can be packed in the key of a corner */
+    private final static int MAX_INDEX = (1 << BITS_BY_INDEX) - 2;
+
+    /* Positions of the vertices read from the file */
+    private final float[] vertices;
+
+    /* Coordinates of the textures read from the file */
+    private final float[] textures;
+
+    /* Normal vectors read from the file */
+    private final float[] normals;
+
+    /* Output index of every triple already welded */
+    private final LongIntHashMap weldedCorners;
+
+    /* Triple (vertexIndex, textureIndex, normalIndex) of every welded vertex */
+    private final IntArray uniqueCorners;
+
+    /**
+     * @param vertices        Positions of the vertices read from the file
+     * @param textures        Coordinates of the textures read from the file
+     * @param normals         Normal vectors read from the file
+     * @param numberOfCorners Number of corners that are going to be welded
+     */
+    VertexWelder(FloatArray vertices, FloatArray textures, FloatArray normals, int numberOfCorners) {
+        this.vertices = vertices.getData();
+        this.textures = textures.getData();
+        this.normals = normals.getData();
+        // The number of unique corners is at most the number of positions or of corners
+        int expected = Math.min(numberOfCorners, vertices.size());
+        this.weldedCorners = new LongIntHashMap(expected);
+        this.uniqueCorners = new IntArray(expected * FaceGroup.INDICES_BY_CORNER);
+    }
+
+    /**
+     * @param vertexIndex  Index of the vertex
+     * @param textureIndex Index of the texture coordinate (-1 if none)
+     * @param normalIndex  Index of the normal (-1 if none)
+     * @return The key of the corner (never 0 because the vertex index is always present)
+     */
+    private static long getKey(int vertexIndex, int textureIndex, int normalIndex) {
+        if ((vertexIndex > MAX_INDEX) || (textureIndex > MAX_INDEX) || (normalIndex > MAX_INDEX)) {
+            throw new IllegalArgumentException("Index of face bigger than " + MAX_INDEX);
+        }
+        return ((long) (vertexIndex + 1) << (2 * BITS_BY_INDEX))
+                | ((long) (textureIndex + 1) << BITS_BY_INDEX)
+                | (long) (normalIndex + 1);
+    }
+
+    /**
+     * Only assigns the index of the welded vertex, the attributes are copied
+     * once by {@link #fill(FloatBuffer, FloatBuffer, FloatBuffer)} when the
+     * number of vertices is known
+     *
+     * @param vertexIndex  Index of the vertex
+     * @param textureIndex Index of the texture coordinate (-1 if none)
+     * @param normalIndex  Index of the normal (-1 if none)
+     * @return The index of the welded vertex that represents the corner
+     */
+    int weld(int vertexIndex, int textureIndex, int normalIndex) {
+        long key = getKey(vertexIndex, textureIndex, normalIndex);
+        int index = weldedCorners.get(key);
+        if (index != LongIntHashMap.NO_VALUE) {
+            return index;
+        }
+        index = weldedCorners.size();
+        weldedCorners.put(key, index);
+        uniqueCorners.add(vertexIndex);
+        uniqueCorners.add(textureIndex);
+        uniqueCorners.add(normalIndex);
+        return index;
+    }
+
+    /**
+     * @return Number of vertices after the weld
+     */
+    int getVertexCount() {
+        return weldedCorners.size();
+    }
+
+    /**
+     * Writes the attributes of every welded vertex in the buffers passed
+     *
+     * @param outVertices Buffer for the positions (getVertexCount() * 3 floats)
+     * @param outTextures Buffer for the texture coordinates (getVertexCount() * 2 floats)
+     * @param outNormals  Buffer for the normal vectors (getVertexCount() * 3 floats)
+     */
+    void fill(FloatBuffer outVertices, FloatBuffer outTextures, FloatBuffer outNormals) {
+        int[] corners = uniqueCorners.getData();
+        int count = getVertexCount();
+        for (int i = 0; i < count; i++) {
+            int offset = i * FaceGroup.INDICES_BY_CORNER;
+            int vertexIndex = corners[offset];
+            int textureIndex = corners[offset + 1];
+            int normalIndex = corners[offset + 2];
+
+            int vOffset = vertexIndex * OBJLoader.COORDINATES_BY_VERTEX;
+            outVertices.put(vertices[vOffset]);
+            outVertices.put(vertices[vOffset + 1]);
+            outVertices.put(vertices[vOffset + 2]);
+
+            if (textureIndex >= 0) {
+                int tOffset = textureIndex * OBJLoader.COORDINATES_BY_TEXTURE;
+                outTextures.put(textures[tOffset]);
+                outTextures.put(1.0f - textures[tOffset + 1]);
+            } else {
+                outTextures.put(0.0f);
+                outTextures.put(0.0f);
+            }
+
+            if (normalIndex >= 0) {
+                int nOffset = normalIndex * OBJLoader.COORDINATES_BY_NORMAL;
+                outNormals.put(normals[nOffset]);
+                outNormals.put(normals[nOffset + 1]);
+                outNormals.put(normals[nOffset + 2]);
+            } else {
+                outNormals.put(0.0f);
+                outNormals.put(0.0f);
+                outNormals.put(0.0f);
+            }
+        }
+    }
+}
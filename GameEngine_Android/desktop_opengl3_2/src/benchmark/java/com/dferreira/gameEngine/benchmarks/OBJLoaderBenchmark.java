@@ -0,0 +1,228 @@
+package com.dferreira.gameEngine.benchmarks;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.waveFront.OBJLoader;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compares the string based parser of waveFront files with the parser that
+ * scans the raw bytes using the models bundled with the game. It also reports
+ * the number of vertices before (one by position) and after the welding and
+ * the size of the vertex buffers uploaded with one copy by group against one
+ * buffer shared by all the groups
+ */
+public class OBJLoaderBenchmark {
+
+    /* Number of parses done before start measuring */
+    private static final int WARM_UP_ITERATIONS = 10;
+
+    /* Number of parses measured */
+    private static final int MEASURED_ITERATIONS = 30;
+
+    /* Extension of wave front files */
+    private static final String WAVEFRONT_EXTENSION = ".obj";
+
+    /* Nanoseconds in one millisecond */
+    private static final double NANOS_IN_MILLIS = 1000000.0;
+
+    /* Bytes of one vertex (position, texture coordinates and normal as floats) */
+    private static final int VERTEX_IN_BYTES = (OBJLoader.COORDINATES_BY_VERTEX + OBJLoader.COORDINATES_BY_TEXTURE
+            + OBJLoader.COORDINATES_BY_NORMAL) * 4;
+
+    /* Bytes in one kilobyte */
+    private static final int BYTES_IN_KB = 1024;
+
+    /**
+     * Provider of materials that only parses each file once so the benchmark
+     * only measures the parse of the objects
+     */
+    private static class CachedMaterialsProvider implements ISubResourceProvider {
+        private final ISubResourceProvider provider = new DesktopResourceProvider();
+        private final HashMap<String, HashMap<String, IExternalMaterial>> cache = new HashMap<>();
+
+        @Override
+        public HashMap<String, IExternalMaterial> getMaterials(String materialFileName) {
+            if (!cache.containsKey(materialFileName)) {
+                cache.put(materialFileName, provider.getMaterials(materialFileName));
+            }
+            return cache.get(materialFileName);
+        }
+    }
+
+    /**
+     * @param fileName Name of the file to read
+     * @return All the bytes of the file
+     */
+    private static byte[] readAllBytes(String fileName) throws IOException {
+        InputStream inputStream = LoadUtils.getInputStreamToResource(fileName);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        inputStream.close();
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * @return Number of collections done by the garbage collectors until now
+     */
+    private static long getCollectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gcBean.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * @param content  Bytes of the waveFront file
+     * @param provider Provider of the materials
+     * @param bytes    Indicates if is to use the byte level parser
+     * @return The shapes parsed
+     */
+    private static List<IShape> parse(byte[] content, ISubResourceProvider provider, boolean bytes) {
+        InputStream inputStream = new ByteArrayInputStream(content);
+        return bytes ? OBJLoader.loadObjModelFromBytes(inputStream, provider)
+                : OBJLoader.loadObjModel(inputStream, provider);
+    }
+
+    /**
+     * @param shapes    Shapes where to look
+     * @param reference Shape to find
+     * @return The shape with the same group and material of the reference (null if none)
+     */
+    private static IShape findShape(List<IShape> shapes, IShape reference) {
+        for (IShape shape : shapes) {
+            boolean sameMaterial = (shape.getMaterial() == null) ? (reference.getMaterial() == null)
+                    : ((reference.getMaterial() != null)
+                    && shape.getMaterial().getName().equals(reference.getMaterial().getName()));
+            if (shape.getGroupName().equals(reference.getGroupName()) && sameMaterial) {
+                return shape;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The byte level parser welds the vertices so the arrays differ and keeps
+     * the groups in the order of the file, what should not change is the
+     * position used by every corner of the faces of every group
+     *
+     * @return True if both lists have the same positions by corner
+     */
+    private static boolean samePositions(List<IShape> expected, List<IShape> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (IShape a : expected) {
+            IShape b = findShape(actual, a);
+            if ((b == null) || (a.getIndices().length != b.getIndices().length)) {
+                return false;
+            }
+            for (int j = 0; j < a.getIndices().length; j++) {
+                for (int k = 0; k < OBJLoader.COORDINATES_BY_VERTEX; k++) {
+                    float aCoordinate = a.getVertices()[a.getIndices()[j] * OBJLoader.COORDINATES_BY_VERTEX + k];
+                    float bCoordinate = b.getVertices()[b.getIndices()[j] * OBJLoader.COORDINATES_BY_VERTEX + k];
+                    if (Float.compare(aCoordinate, bCoordinate) != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param shapes Shapes of one model
+     * @return Number of vertices uploaded by the model (the arrays are shared by the shapes)
+     */
+    private static int getVertexCount(List<IShape> shapes) {
+        return shapes.isEmpty() ? 0 : shapes.get(0).getVertices().length / OBJLoader.COORDINATES_BY_VERTEX;
+    }
+
+    /**
+     * @param shapes Shapes of one model
+     * @return Number of corners of the faces of the model
+     */
+    private static int getCornersCount(List<IShape> shapes) {
+        int count = 0;
+        for (IShape shape : shapes) {
+            count += shape.getIndices().length;
+        }
+        return count;
+    }
+
+    /**
+     * Measures one of the parsers
+     *
+     * @return Average time of one parse in milliseconds
+     */
+    private static double measure(byte[] content, ISubResourceProvider provider, boolean bytes, long[] collections) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            parse(content, provider, bytes);
+        }
+        long startCollections = getCollectionCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            parse(content, provider, bytes);
+        }
+        long elapsed = System.nanoTime() - start;
+        collections[0] = getCollectionCount() - startCollections;
+        return elapsed / NANOS_IN_MILLIS / MEASURED_ITERATIONS;
+    }
+
+    /**
+     * Runs the benchmark over all the bundled models
+     *
+     * @param args the arguments passed to the application
+     */
+    public static void main(String[] args) throws IOException {
+        ISubResourceProvider provider = new CachedMaterialsProvider();
+        long[] collections = new long[1];
+
+        System.out.println(String.format("%-12s %8s %12s %8s %12s %8s %8s %6s %8s %8s %8s %7s %12s %12s", "model",
+                "lines", "string(ms)", "GCs", "bytes(ms)", "GCs", "speedup", "same", "corners", "before", "welded",
+                "groups", "byGroup(KB)", "shared(KB)"));
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            byte[] content = readAllBytes(modelEnum.toString() + WAVEFRONT_EXTENSION);
+            int lines = 0;
+            for (byte b : content) {
+                if (b == '\n') {
+                    lines++;
+                }
+            }
+            List<IShape> stringShapes = parse(content, provider, false);
+            List<IShape> bytesShapes = parse(content, provider, true);
+            boolean same = samePositions(stringShapes, bytesShapes);
+
+            double stringTime = measure(content, provider, false, collections);
+            long stringCollections = collections[0];
+            double bytesTime = measure(content, provider, true, collections);
+            long bytesCollections = collections[0];
+
+            int groups = bytesShapes.size();
+            int sharedBytes = getVertexCount(bytesShapes) * VERTEX_IN_BYTES;
+
+            System.out.println(String.format("%-12s %8d %12.3f %8d %12.3f %8d %7.2fx %6s %8d %8d %8d %7d %12d %12d",
+                    modelEnum, lines, stringTime, stringCollections, bytesTime, bytesCollections,
+                    stringTime / bytesTime, same, getCornersCount(bytesShapes), getVertexCount(stringShapes),
+                    getVertexCount(bytesShapes), groups, groups * sharedBytes / BYTES_IN_KB,
+                    sharedBytes / BYTES_IN_KB));
+        }
+    }
+}
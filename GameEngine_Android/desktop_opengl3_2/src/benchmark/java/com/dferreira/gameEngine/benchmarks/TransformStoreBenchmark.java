@@ -0,0 +1,204 @@
+package com.dferreira.gameEngine.benchmarks;
+
+import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.TransformStore;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.desktopUtils.ParallelTransformSlicer;
+
+import java.util.Random;
+
+/**
+ * Compares the time to compute the matrices of 1k, 10k and 100k entities
+ * entity by entity with setTRS, with the loop of the transform store and
+ * with the loop of the store in slices across the cores. Then simulates the
+ * frames of the scenery of the world (where only the player moves) and
+ * reports the matrices kept from the frames before against the ones built
+ * again
+ */
+public class TransformStoreBenchmark {
+
+    /* Numbers of entities measured */
+    private static final int[] ENTITIES = {1000, 10000, 100000};
+
+    /* Number of matrices computed by each way in the passes measured (the passes are this divided by the entities) */
+    private static final int MEASURED_MATRICES = 20000000;
+
+    /* Number of matrices computed by each way before start measuring */
+    private static final int WARM_UP_MATRICES = 10000000;
+
+    /* Nanoseconds in one millisecond */
+    private static final double NANOS_IN_MILLIS = 1000000.0;
+
+    /* Number of entities of the scenery of the world (they never move) */
+    private static final int SCENERY_ENTITIES = 360;
+
+    /* Number of frames of the simulation of the scenery */
+    private static final int SCENERY_FRAMES = 100000;
+
+    /**
+     * Transformation of one entity kept in one object as the entities did
+     * before the store
+     */
+    private static class Sample {
+        private final Vector3f position;
+        private final float rotX;
+        private final float rotY;
+        private final float rotZ;
+        private final float scale;
+
+        private Sample(Random random) {
+            this.position = new Vector3f(random.nextFloat() * 1000.0f - 500.0f, random.nextFloat() * 50.0f,
+                    random.nextFloat() * 1000.0f - 500.0f);
+            this.rotX = random.nextFloat() * 720.0f - 360.0f;
+            this.rotY = random.nextFloat() * 720.0f - 360.0f;
+            this.rotZ = random.nextFloat() * 720.0f - 360.0f;
+            this.scale = 0.1f + random.nextFloat() * 5.0f;
+        }
+    }
+
+    /**
+     * Way of computing the matrices of the entities
+     */
+    private interface Kernel {
+        /**
+         * @return Sum of one element of the matrices computed (so the work is not dropped)
+         */
+        float run();
+    }
+
+    /**
+     * Measures one way of computing the matrices
+     *
+     * @return Milliseconds by pass
+     */
+    private static double measure(Kernel kernel, int entities) {
+        float sum = 0.0f;
+        for (int i = 0; i < Math.max(1, WARM_UP_MATRICES / entities); i++) {
+            sum += kernel.run();
+        }
+        int passes = Math.max(1, MEASURED_MATRICES / entities);
+        long start = System.nanoTime();
+        for (int i = 0; i < passes; i++) {
+            sum += kernel.run();
+        }
+        double elapsed = (System.nanoTime() - start) / NANOS_IN_MILLIS / passes;
+        // Keeps the sum alive without printing it
+        return (sum == Float.MIN_VALUE) ? -elapsed : elapsed;
+    }
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args the arguments passed to the application
+     */
+    public static void main(String[] args) {
+        System.out.println(String.format("%d cores", Runtime.getRuntime().availableProcessors()));
+        System.out.println(String.format("%-9s %14s %14s %14s %9s %9s", "entities", "setTRS (ns)",
+                "store (ns)", "parallel (ns)", "speedup", "parallel"));
+        for (int entities : ENTITIES) {
+            Random random = new Random(23);
+            final Sample[] samples = new Sample[entities];
+            final TransformStore store = new TransformStore(entities);
+            for (int i = 0; i < entities; i++) {
+                Sample sample = samples[i] = new Sample(random);
+                store.add(sample.position.x, sample.position.y, sample.position.z, sample.rotX, sample.rotY,
+                        sample.rotZ, sample.scale);
+            }
+            final GLTransformation matrix = new GLTransformation();
+            ParallelTransformSlicer slicer = new ParallelTransformSlicer();
+
+            Kernel byEntity = new Kernel() {
+                @Override
+                public float run() {
+                    float sum = 0.0f;
+                    for (Sample sample : samples) {
+                        matrix.setTRS(sample.position, sample.rotX, sample.rotY, sample.rotZ, sample.scale);
+                        sum += matrix.getAsFloatBuffer().get(12);
+                    }
+                    return sum;
+                }
+            };
+            Kernel bulk = new Kernel() {
+                @Override
+                public float run() {
+                    // Every matrix is built again
+                    store.invalidateAll();
+                    store.computeMatrices();
+                    return store.getMatrices()[12];
+                }
+            };
+            double byEntityMillis = measure(byEntity, entities);
+            store.setSlicer(null);
+            double serialMillis = measure(bulk, entities);
+            store.setSlicer(slicer);
+            double parallelMillis = measure(bulk, entities);
+
+            System.out.println(String.format("%-9d %14.1f %14.1f %14.1f %8.1fx %8.1fx", entities,
+                    byEntityMillis * NANOS_IN_MILLIS / entities, serialMillis * NANOS_IN_MILLIS / entities,
+                    parallelMillis * NANOS_IN_MILLIS / entities, byEntityMillis / serialMillis,
+                    serialMillis / parallelMillis));
+        }
+        measureScenery();
+    }
+
+    /**
+     * Simulates the frames of the scenery where only the player moves and
+     * compares the matrices kept between frames with the ones built again
+     * every frame
+     */
+    private static void measureScenery() {
+        Random random = new Random(24);
+        final TransformStore store = new TransformStore(SCENERY_ENTITIES + 1);
+        for (int i = 0; i < SCENERY_ENTITIES; i++) {
+            Sample sample = new Sample(random);
+            store.add(sample.position.x, sample.position.y, sample.position.z, sample.rotX, sample.rotY,
+                    sample.rotZ, sample.scale);
+        }
+        final int player = store.add(0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f);
+        store.computeMatrices();
+
+        Kernel cached = new Kernel() {
+            @Override
+            public float run() {
+                store.increasePosition(player, 0.1f, 0.0f, 0.1f);
+                store.computeMatrices();
+                return store.getMatrices()[12];
+            }
+        };
+        Kernel rebuilt = new Kernel() {
+            @Override
+            public float run() {
+                store.increasePosition(player, 0.1f, 0.0f, 0.1f);
+                store.invalidateAll();
+                store.computeMatrices();
+                return store.getMatrices()[12];
+            }
+        };
+        double rebuiltMillis = measure(rebuilt, SCENERY_ENTITIES);
+        double cachedMillis = measure(cached, SCENERY_ENTITIES);
+        System.out.println(String.format("Scenery of %d entities and one player: %.2f us by frame building every "
+                        + "matrix, %.2f us keeping the ones not changed (%.1fx)", SCENERY_ENTITIES,
+                rebuiltMillis * 1000.0, cachedMillis * 1000.0, rebuiltMillis / cachedMillis));
+
+        // Hit ratio of the frames where the player moves and of the ones where nothing changes
+        long cachedMatrices = 0;
+        long rebuiltMatrices = 0;
+        int skippedFrames = 0;
+        for (int frame = 0; frame < SCENERY_FRAMES; frame++) {
+            long version = store.getVersion();
+            if (frame % 2 == 0) {
+                store.increasePosition(player, 0.1f, 0.0f, 0.1f);
+            }
+            store.computeMatrices();
+            cachedMatrices += store.getFrameCached();
+            rebuiltMatrices += store.getFrameRebuilt();
+            if (store.getVersion() == version) {
+                skippedFrames++;
+            }
+        }
+        System.out.println(String.format("%d frames (the player moves in half of them): %d matrices kept, %d built "
+                        + "(hit ratio %.4f), %d frames with the same version", SCENERY_FRAMES, cachedMatrices,
+                rebuiltMatrices, cachedMatrices / (double) (cachedMatrices + rebuiltMatrices), skippedFrames));
+        System.out.println("Store: " + store);
+    }
+}
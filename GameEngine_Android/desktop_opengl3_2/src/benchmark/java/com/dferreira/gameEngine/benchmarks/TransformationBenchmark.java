@@ -0,0 +1,219 @@
+package com.dferreira.gameEngine.benchmarks;
+
+import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector3f;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Compares the time and the memory allocated to build the matrices of the
+ * entities in place (by the chain of operations and by setTRS) against the
+ * previous version that allocated one array by operation (the equivalence of
+ * the matrices is checked by GLTransformationTest)
+ */
+public class TransformationBenchmark {
+
+    /* Number of matrices built by pass (one by entity) */
+    private static final int ENTITIES = 100000;
+
+    /* Number of passes done before start measuring */
+    private static final int WARM_UP_ITERATIONS = 20;
+
+    /* Number of passes measured */
+    private static final int MEASURED_ITERATIONS = 50;
+
+    /* Nanoseconds in one millisecond */
+    private static final double NANOS_IN_MILLIS = 1000000.0;
+
+    /* Size of the matrices */
+    private static final int MATRIX_SIZE = 16;
+
+    /**
+     * The operations of the previous version of the transformation, each one
+     * allocates the matrix of the operation and the result of the product
+     */
+    private static class LegacyTransformation {
+        private float[] mMatrix = new float[MATRIX_SIZE];
+
+        void loadIdentity() {
+            mMatrix = new float[MATRIX_SIZE];
+            mMatrix[0] = 1.0f;
+            mMatrix[5] = 1.0f;
+            mMatrix[10] = 1.0f;
+            mMatrix[15] = 1.0f;
+        }
+
+        void translate(float x, float y, float z) {
+            mMatrix[12] += (mMatrix[0] * x + mMatrix[4] * y + mMatrix[8] * z);
+            mMatrix[13] += (mMatrix[1] * x + mMatrix[5] * y + mMatrix[9] * z);
+            mMatrix[14] += (mMatrix[2] * x + mMatrix[6] * y + mMatrix[10] * z);
+            mMatrix[15] += (mMatrix[3] * x + mMatrix[7] * y + mMatrix[11] * z);
+        }
+
+        void rotate(float angle, float x, float y, float z) {
+            float mag = (float) Math.sqrt((double) (x * x + y * y + z * z));
+            double rAngle = Math.toRadians(angle);
+            float sinAngle = (float) Math.sin(rAngle);
+            float cosAngle = (float) Math.cos(rAngle);
+            if (mag > 0.0f) {
+                float[] rotMat = new float[MATRIX_SIZE];
+                x /= mag;
+                y /= mag;
+                z /= mag;
+                float oneMinusCos = 1.0f - cosAngle;
+                rotMat[0] = (oneMinusCos * x * x) + cosAngle;
+                rotMat[1] = (oneMinusCos * x * y) - z * sinAngle;
+                rotMat[2] = (oneMinusCos * z * x) + y * sinAngle;
+                rotMat[4] = (oneMinusCos * x * y) + z * sinAngle;
+                rotMat[5] = (oneMinusCos * y * y) + cosAngle;
+                rotMat[6] = (oneMinusCos * y * z) - x * sinAngle;
+                rotMat[8] = (oneMinusCos * z * x) - y * sinAngle;
+                rotMat[9] = (oneMinusCos * y * z) + x * sinAngle;
+                rotMat[10] = (oneMinusCos * z * z) + cosAngle;
+                rotMat[15] = 1.0f;
+                multiplyMatrix(rotMat, mMatrix);
+            }
+        }
+
+        void scale(float x, float y, float z) {
+            float[] scaleMatrix = new float[MATRIX_SIZE];
+            scaleMatrix[0] = x;
+            scaleMatrix[5] = y;
+            scaleMatrix[10] = z;
+            scaleMatrix[15] = 1.0f;
+            multiplyMatrix(scaleMatrix, mMatrix);
+        }
+
+        void multiplyMatrix(float[] mtlA, float[] mtlB) {
+            float[] tmp = new float[MATRIX_SIZE];
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 4; j++) {
+                    tmp[i * 4 + j] = (mtlA[i * 4] * mtlB[j]) + (mtlA[i * 4 + 1] * mtlB[4 + j])
+                            + (mtlA[i * 4 + 2] * mtlB[8 + j]) + (mtlA[i * 4 + 3] * mtlB[12 + j]);
+                }
+            }
+            mMatrix = tmp;
+        }
+    }
+
+    /**
+     * Transformation of one entity
+     */
+    private static class Sample {
+        private final Vector3f position;
+        private final float rotX;
+        private final float rotY;
+        private final float rotZ;
+        private final float scale;
+
+        private Sample(Random random) {
+            this.position = new Vector3f(random.nextFloat() * 1000.0f - 500.0f, random.nextFloat() * 50.0f,
+                    random.nextFloat() * 1000.0f - 500.0f);
+            this.rotX = random.nextFloat() * 720.0f - 360.0f;
+            this.rotY = random.nextFloat() * 720.0f - 360.0f;
+            this.rotZ = random.nextFloat() * 720.0f - 360.0f;
+            this.scale = 0.1f + random.nextFloat() * 5.0f;
+        }
+    }
+
+    /**
+     * @return The matrix of the entity built by the operations of the previous version
+     */
+    private static float[] buildLegacy(Sample sample) {
+        LegacyTransformation matrix = new LegacyTransformation();
+        matrix.loadIdentity();
+        matrix.translate(sample.position.x, sample.position.y, sample.position.z);
+        matrix.rotate(sample.rotX, 1.0f, 0.0f, 0.0f);
+        matrix.rotate(sample.rotY, 0.0f, 1.0f, 0.0f);
+        matrix.rotate(sample.rotZ, 0.0f, 0.0f, 1.0f);
+        matrix.scale(sample.scale, sample.scale, sample.scale);
+        return matrix.mMatrix;
+    }
+
+    /**
+     * Builds the matrix of the entity with the chain of operations in place
+     */
+    private static void buildChain(GLTransformation matrix, Sample sample) {
+        matrix.loadIdentity();
+        matrix.translate(sample.position.x, sample.position.y, sample.position.z);
+        matrix.rotate(sample.rotX, 1.0f, 0.0f, 0.0f);
+        matrix.rotate(sample.rotY, 0.0f, 1.0f, 0.0f);
+        matrix.rotate(sample.rotZ, 0.0f, 0.0f, 1.0f);
+        matrix.scale(sample.scale, sample.scale, sample.scale);
+    }
+
+    /**
+     * @return Bytes allocated by the thread (-1 if the virtual machine does not count them)
+     */
+    private static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * @param mode 0 for the previous version, 1 for the chain in place and 2 for setTRS
+     * @return Sum of the matrices built (so the work is not dropped)
+     */
+    private static float buildAll(Sample[] samples, GLTransformation matrix, int mode) {
+        float sum = 0.0f;
+        for (Sample sample : samples) {
+            if (mode == 0) {
+                sum += buildLegacy(sample)[12];
+            } else {
+                if (mode == 1) {
+                    buildChain(matrix, sample);
+                } else {
+                    matrix.setTRS(sample.position, sample.rotX, sample.rotY, sample.rotZ, sample.scale);
+                }
+                sum += matrix.getAsFloatBuffer().get(12);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Measures one way of building the matrices of the entities
+     */
+    private static void measure(String name, Sample[] samples, int mode) {
+        GLTransformation matrix = new GLTransformation();
+        float sum = 0.0f;
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            sum += buildAll(samples, matrix, mode);
+        }
+        long allocated = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sum += buildAll(samples, matrix, mode);
+        }
+        double elapsed = (System.nanoTime() - start) / NANOS_IN_MILLIS / MEASURED_ITERATIONS;
+        allocated = (allocated < 0) ? -1 : (getAllocatedBytes() - allocated) / MEASURED_ITERATIONS;
+        System.out.println(String.format("%-18s %10.2f ms %12.1f ns %14d B %10.1f (checksum %.0f)", name, elapsed,
+                elapsed * NANOS_IN_MILLIS / samples.length, allocated,
+                (allocated < 0) ? -1.0 : allocated / (double) samples.length, sum));
+    }
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args the arguments passed to the application
+     */
+    public static void main(String[] args) {
+        Random random = new Random(21);
+        Sample[] samples = new Sample[ENTITIES];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new Sample(random);
+        }
+        System.out.println(String.format("Matrices of %d entities by pass (%d passes)", ENTITIES,
+                MEASURED_ITERATIONS));
+        System.out.println(String.format("%-18s %13s %15s %16s %10s", "", "by pass", "by entity", "allocated",
+                "B/entity"));
+        measure("previous version", samples, 0);
+        measure("chain in place", samples, 1);
+        measure("setTRS", samples, 2);
+    }
+}
@@ -39,7 +39,9 @@ public class DesktopInterfacesSet implements IPlaformSet {
      */
     public DesktopInterfacesSet() {
         super();
-        this.resourceProvider = new DesktopResourceProvider();
+        // The pack of assets is used when it was built
+        PackResourceProvider packResourceProvider = PackResourceProvider.open();
+        this.resourceProvider = (packResourceProvider == null) ? new DesktopResourceProvider() : packResourceProvider;
         this.renderAPIAccess = new GLRenderAPIAccess(resourceProvider);
         this.listener = new ALListener();
 
@@ -9,9 +9,13 @@ import com.dferreira.commons.generic_resources.ModelEnum;
 import com.dferreira.commons.generic_resources.TextEnum;
 import com.dferreira.commons.generic_resources.TextureEnum;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.MeshOptimizer;
 import com.dferreira.commons.shapes.IExternalMaterial;
-import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.utils.DirectBufferPool;
+import com.dferreira.commons.utils.ResourceRegistry;
 import com.dferreira.commons.utils.Utils;
+import com.dferreira.commons.waveFront.MeshCache;
 import com.dferreira.commons.waveFront.MtlLoader;
 import com.dferreira.commons.waveFront.OBJLoader;
 
@@ -20,10 +24,12 @@ import org.apache.logging.log4j.Logger;
 import org.newdawn.slick.openal.OggData;
 import org.newdawn.slick.openal.OggDecoder;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
 
 /**
  * Has the actions to allow to get the resources from in desktop architecture
@@ -57,35 +63,46 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
     /**
      * Extension of wave front files files
      */
-    private final String WAVEFRONT_EXTENSION = ".obj";
+    private final static String WAVEFRONT_EXTENSION = ".obj";
     /**
      * Extension of vorbis files
      */
-    private final String OGG_EXTENSION = ".ogg";
-
+    private final static String OGG_EXTENSION = ".ogg";
     /**
-     * @param textEnum The text that is to get the identifier
-     * @return The path of the text passed in the arguments of the method
+     * Folder where the parsed meshes are cached between launches
      */
-    private String getResourcePath(TextEnum textEnum) {
-        String fileName = textEnum.toString();
-        return SHADERS_FOLDER_PATH + fileName + ".glsl";
-    }
-
+    private final static String MESH_CACHE_FOLDER = ".gameEngine" + File.separator + "meshCache";
     /**
-     * @param filePath Path of the texture to load
-     * @return The information of the texture to load
+     * Nanoseconds in one millisecond
      */
-    private TextureData pGetTexture(String filePath) {
-        TextureData texture = LoadUtils.loadTexture(filePath);
-        return texture;
-    }
-
+    private final static double NANOS_IN_MILLIS = 1000000.0;
     /**
-     * @param textureEnum The texture that is to get the identifier
-     * @return The path of the texture passed in the arguments of the method
+     * Maximum number of bytes of pixels kept to decode the next textures (the
+     * size of the sky box)
      */
-    private String getResourcePath(TextureEnum textureEnum) {
+    private final static long MAX_POOLED_PIXELS_BYTES = 32L * 1024 * 1024;
+    /**
+     * Cache of the meshes already parsed
+     */
+    private final MeshCache meshCache = new MeshCache(new File(System.getProperty("user.home"), MESH_CACHE_FOLDER));
+    /**
+     * Materials already parsed by file of materials
+     */
+    private final ResourceRegistry<HashMap<String, IExternalMaterial>> materialRegistry = new ResourceRegistry<>();
+    /**
+     * Buffers of the pixels of the textures decoded in batches
+     */
+    private final DirectBufferPool pixelsPool = new DirectBufferPool(MAX_POOLED_PIXELS_BYTES);
+    /**
+     * Paths of the textures (built once)
+     */
+    private final static EnumMap<TextureEnum, String> texturePaths = new EnumMap<>(TextureEnum.class);
+    /**
+     * Paths of the audios (built once)
+     */
+    private final static EnumMap<AudioEnum, String> audioPaths = new EnumMap<>(AudioEnum.class);
+
+    static {
         HashMap<TextureEnum, String> textureIds = new HashMap<>();
 
         // GUI images
@@ -111,39 +128,145 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
         textureIds.put(TextureEnum.path, TERRAIN_FOLDER + "path");
         textureIds.put(TextureEnum.terrain_heightmap, TERRAIN_FOLDER + "heightmap");
 
-        return RESOURCES_FOLDER + textureIds.get(textureEnum) + PNG_EXTENSION;
+        for (TextureEnum textureEnum : TextureEnum.values()) {
+            texturePaths.put(textureEnum, RESOURCES_FOLDER + textureIds.get(textureEnum) + PNG_EXTENSION);
+        }
+
+        HashMap<AudioEnum, String> audioIds = new HashMap<>();
+
+        audioIds.put(AudioEnum.bounce, "bounce");
+        audioIds.put(AudioEnum.breakingWood, "breaking wood");
+        audioIds.put(AudioEnum.falcon, "falcon");
+        audioIds.put(AudioEnum.footsteps, "footsteps");
+        audioIds.put(AudioEnum.wind, "wind");
+
+        for (AudioEnum audioEnum : AudioEnum.values()) {
+            audioPaths.put(audioEnum, RESOURCES_FOLDER + AUDIO_FOLDER + audioIds.get(audioEnum) + OGG_EXTENSION);
+        }
+    }
+
+    /**
+     * @param textEnum The text that is to get the identifier
+     * @return The path of the text passed in the arguments of the method
+     */
+    protected static String getResourcePath(TextEnum textEnum) {
+        String fileName = textEnum.toString();
+        return SHADERS_FOLDER_PATH + fileName + ".glsl";
+    }
+
+    /**
+     * @param textureEnum The texture that is to get the identifier
+     * @return The path of the texture passed in the arguments of the method
+     */
+    protected static String getResourcePath(TextureEnum textureEnum) {
+        return texturePaths.get(textureEnum);
     }
 
     /**
      * @param audioEnum Enumeration of audio to get the path
      * @return The path to the audio enumeration passed
      */
-    private String getResourcePath(AudioEnum audioEnum) {
-        HashMap<AudioEnum, String> audioPaths = new HashMap<>();
+    protected static String getResourcePath(AudioEnum audioEnum) {
+        return audioPaths.get(audioEnum);
+    }
 
-        audioPaths.put(AudioEnum.bounce, "bounce");
-        audioPaths.put(AudioEnum.breakingWood, "breaking wood");
-        audioPaths.put(AudioEnum.falcon, "falcon");
-        audioPaths.put(AudioEnum.footsteps, "footsteps");
-        audioPaths.put(AudioEnum.wind, "wind");
+    /**
+     * @param modelEnum The model that is to get the identifier
+     * @return The path of the waveFront file of the model
+     */
+    protected static String getResourcePath(ModelEnum modelEnum) {
+        return RESOURCES_FOLDER + modelEnum.toString() + WAVEFRONT_EXTENSION;
+    }
 
-        return RESOURCES_FOLDER + AUDIO_FOLDER + audioPaths.get(audioEnum) + OGG_EXTENSION;
+    /**
+     * @param filePath Path of the resource
+     * @return All the bytes of the resource or null if it was not possible to read
+     */
+    protected byte[] readBytes(String filePath) {
+        return LoadUtils.readBytesFromRawResource(filePath);
     }
 
     /**
+     * @param filePath Path of the resource
+     * @return The text of the resource
+     */
+    protected String readText(String filePath) {
+        return LoadUtils.readTextFromRawResource(filePath);
+    }
+
+    /**
+     * @param filePath Path of the resource
+     * @return Stream to the resource or null if it was not possible to open
+     */
+    protected InputStream openStream(String filePath) {
+        return LoadUtils.getInputStreamToResource(filePath);
+    }
+
+    /**
+     * @param filePath Path of the texture to load
+     * @return The information of the texture to load
+     */
+    protected TextureData loadTexture(String filePath) {
+        return LoadUtils.loadTexture(filePath);
+    }
+
+    /**
+     * @param filePaths Paths of the textures to load
+     * @return The information of the textures decoded in parallel in buffers of the pool
+     */
+    protected TextureData[] loadTextures(String[] filePaths) {
+        return LoadUtils.loadTextures(filePaths, pixelsPool);
+    }
+
+    /**
+     * @param objContent Bytes of the waveFront file of the model
+     * @return Hash of the waveFront file and of the material files used by it
+     */
+    private long getModelHash(byte[] objContent) {
+        long hash = MeshCache.hash(MeshCache.hash(), objContent);
+        for (String materialFileName : MeshCache.getMaterialLibraries(objContent)) {
+            byte[] materialContent = readBytes(RESOURCES_FOLDER + materialFileName);
+            if (materialContent != null) {
+                hash = MeshCache.hash(hash, materialContent);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the mesh from the cache of meshes, when the cache is missing or
+     * outdated parses the waveFront file and writes it in the cache
+     *
      * @param modelEnum The model to load
      * @return A resource descriptor to load the model passed as argument
      */
     @Override
-    public List<IShape> getResource(ModelEnum modelEnum) {
+    public WfMesh getResource(ModelEnum modelEnum) {
 
         String objName = modelEnum.toString();
 
         try {
-            InputStream fr = LoadUtils.getInputStreamToResource(RESOURCES_FOLDER + objName + WAVEFRONT_EXTENSION);
-            List<IShape> shapes = OBJLoader.loadObjModel(fr, this);
+            long start = System.nanoTime();
+            byte[] objContent = readBytes(getResourcePath(modelEnum));
+            long hash = getModelHash(objContent);
+
+            WfMesh mesh = meshCache.load(objName, hash);
+            boolean mapped = (mesh != null);
+            if (mapped) {
+                // The materials of the cache are shared through the registry as the parsed ones
+                mesh = MeshCache.internMaterials(mesh, objContent, this);
+            } else {
+                mesh = OBJLoader.loadObjMeshFromBytes(objContent, this);
+                if (mesh != null) {
+                    // The cache keeps the mesh already optimised for the GPU
+                    mesh = MeshOptimizer.optimize(mesh);
+                    meshCache.save(objName, hash, mesh);
+                }
+            }
+            logger.info(String.format("%s %s in %.3f ms", objName, mapped ? "mapped" : "parsed",
+                    (System.nanoTime() - start) / NANOS_IN_MILLIS));
 
-            return shapes;
+            return mesh;
         } catch (Exception e) {
             System.err.println("Could not load file : " + modelEnum);
             e.printStackTrace();
@@ -159,7 +282,20 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
     @Override
     public TextureData getResource(TextureEnum textureEnum) {
         String path = getResourcePath(textureEnum);
-        return pGetTexture(path);
+        return loadTexture(path);
+    }
+
+    /**
+     * @param textureEnums The textures to load
+     * @return The information of the textures decoded in parallel in buffers of the pool
+     */
+    @Override
+    public TextureData[] getResources(TextureEnum[] textureEnums) {
+        String[] paths = new String[textureEnums.length];
+        for (int i = 0; i < textureEnums.length; i++) {
+            paths[i] = getResourcePath(textureEnums[i]);
+        }
+        return loadTextures(paths);
     }
 
     /**
@@ -172,10 +308,30 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
             return null;
         } else {
             String path = RESOURCES_FOLDER + textureFileName;
-            return pGetTexture(path);
+            return loadTexture(path);
         }
     }
 
+    /**
+     * @param textureFileNames Names of the files where the textures are
+     * @return The texture data of the files decoded in parallel in buffers of the pool
+     */
+    @Override
+    public TextureData[] getTextures(String[] textureFileNames) {
+        String[] paths = new String[textureFileNames.length];
+        for (int i = 0; i < textureFileNames.length; i++) {
+            paths[i] = RESOURCES_FOLDER + textureFileNames[i];
+        }
+        return loadTextures(paths);
+    }
+
+    /**
+     * @return Pool of the buffers of the pixels of the textures decoded in batches
+     */
+    public DirectBufferPool getPixelsPool() {
+        return pixelsPool;
+    }
+
 
     /**
      * @param textEnum The text to load
@@ -184,7 +340,7 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
     @Override
     public String getResource(TextEnum textEnum) {
         String filePath = getResourcePath(textEnum);
-        return LoadUtils.readTextFromRawResource(filePath);
+        return readText(filePath);
     }
 
     /**
@@ -193,8 +349,27 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
      */
     @Override
     public HashMap<String, IExternalMaterial> getMaterials(String materialFileName) {
-        InputStream inputStream = LoadUtils.getInputStreamToResource(materialFileName);
-        return MtlLoader.loadMaterials(inputStream);
+        HashMap<String, IExternalMaterial> materials = materialRegistry.acquire(materialFileName);
+        if (materials != null) {
+            return materials;
+        }
+        byte[] content = readBytes(materialFileName);
+        if (content == null) {
+            return null;
+        }
+        materials = MtlLoader.loadMaterials(new ByteArrayInputStream(content));
+        return materialRegistry.register(materialFileName, materials, content.length);
+    }
+
+    /**
+     * The models that share one file of materials share the same instances
+     * so every material is interned by file and name
+     *
+     * @return Registry with the materials already parsed
+     */
+    @Override
+    public ResourceRegistry<HashMap<String, IExternalMaterial>> getMaterialRegistry() {
+        return materialRegistry;
     }
 
     /**
@@ -210,7 +385,7 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
         InputStream bin = null;
         OggData oggFile = null;
         try {
-            bin = LoadUtils.getInputStreamToResource(filePath);
+            bin = openStream(filePath);
             oggFile = oggDecoder.getData(bin);
 
             if (oggFile == null) {
@@ -0,0 +1,112 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.pack.AssetPack;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * Gets the resources of the game from one pack of assets mapped at once
+ * (built by the assetPack task of the build) instead of looking for every
+ * file in the disk and in the class path
+ */
+public class PackResourceProvider extends DesktopResourceProvider {
+
+    /**
+     * Property with the path of the pack of assets
+     */
+    public final static String PACK_PROPERTY = "gameEngine.assetPack";
+
+    /**
+     * Path of the pack when the property is not set (where the assetPack
+     * task writes it, relative to the folder of the module)
+     */
+    public final static String DEFAULT_PACK_PATH = "build" + File.separator + "assets.pack";
+
+    /**
+     * The pack mapped
+     */
+    private AssetPack pack;
+
+    /**
+     * @param pack The pack mapped
+     */
+    public PackResourceProvider(AssetPack pack) {
+        super();
+        this.pack = pack;
+    }
+
+    /**
+     * @return The provider of the pack set by the property (or the default
+     * one) or null if there is no valid pack
+     */
+    public static PackResourceProvider open() {
+        File file = new File(System.getProperty(PACK_PROPERTY, DEFAULT_PACK_PATH));
+        AssetPack pack = AssetPack.open(file);
+        return (pack == null) ? null : new PackResourceProvider(pack);
+    }
+
+    /**
+     * @return The pack mapped
+     */
+    public AssetPack getPack() {
+        return pack;
+    }
+
+    /**
+     * @param filePath Name of the asset in the pack
+     * @return All the bytes of the asset or null if the pack has not it
+     */
+    @Override
+    protected byte[] readBytes(String filePath) {
+        return pack.getBytes(filePath);
+    }
+
+    /**
+     * @param filePath Name of the asset in the pack
+     * @return The text of the asset or null if the pack has not it
+     */
+    @Override
+    protected String readText(String filePath) {
+        byte[] content = pack.getBytes(filePath);
+        return (content == null) ? null : new String(content);
+    }
+
+    /**
+     * @param filePath Name of the asset in the pack
+     * @return Stream over the asset or null if the pack has not it
+     */
+    @Override
+    protected InputStream openStream(String filePath) {
+        return pack.getInputStream(filePath);
+    }
+
+    /**
+     * @param filePath Name of the texture in the pack
+     * @return The information of the texture to load
+     */
+    @Override
+    protected TextureData loadTexture(String filePath) {
+        return LoadUtils.loadTexture(pack, filePath, null);
+    }
+
+    /**
+     * @param filePaths Names of the textures in the pack
+     * @return The information of the textures decoded in parallel in buffers of the pool
+     */
+    @Override
+    protected TextureData[] loadTextures(String[] filePaths) {
+        return LoadUtils.loadTextures(pack, filePaths, getPixelsPool());
+    }
+
+    /**
+     * Drops the pack (the mapping is released by the garbage collector)
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.pack = null;
+    }
+}
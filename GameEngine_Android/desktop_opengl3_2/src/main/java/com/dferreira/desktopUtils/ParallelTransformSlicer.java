@@ -0,0 +1,78 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.ITransformSlicer;
+import com.dferreira.commons.TransformStore;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the model matrices of a transform store in slices across the
+ * cores, the ranges smaller than one slice are computed in the calling thread
+ */
+public class ParallelTransformSlicer implements ITransformSlicer {
+
+    /**
+     * Number of entities of one slice computed by one thread
+     */
+    public final static int SLICE_SIZE = 4096;
+
+    /**
+     * Pool of the threads that compute the slices
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Computes the matrices of one range of entities in one thread splitting
+     * it in halves until the range fits one slice
+     */
+    private static class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient TransformStore store;
+        private final int from;
+        private final int to;
+
+        Slice(TransformStore store, int from, int to) {
+            this.store = store;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE_SIZE) {
+                store.computeDirtyMatrices(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Slice(store, from, middle), new Slice(store, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Constructor of the slicer with one thread by core
+     */
+    public ParallelTransformSlicer() {
+        this.pool = new ForkJoinPool();
+    }
+
+    /**
+     * @param store The store of the entities
+     * @param from  Index of the first entity
+     * @param to    Index after the last entity
+     */
+    @Override
+    public void computeDirtyMatrices(TransformStore store, int from, int to) {
+        if (to - from <= SLICE_SIZE) {
+            store.computeDirtyMatrices(from, to);
+        } else {
+            pool.invoke(new Slice(store, from, to));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "parallel slices of " + SLICE_SIZE;
+    }
+}
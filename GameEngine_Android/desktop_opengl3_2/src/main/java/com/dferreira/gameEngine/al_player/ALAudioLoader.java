@@ -59,7 +59,17 @@ public class ALAudioLoader implements IAudioLoader {
      */
     @Override
     public IAudioDescription loadAudio(AudioEnum audioEnum, IResourceProvider resourceProvider) {
-        IAudioData iOggFile = resourceProvider.getResource(audioEnum);
+        return loadAudio(resourceProvider.getResource(audioEnum));
+    }
+
+    /**
+     * Load one audio already decoded in a buffer
+     *
+     * @param iOggFile The audio decoded
+     * @return The identifier of the buffer return by openAL
+     */
+    @Override
+    public IAudioDescription loadAudio(IAudioData iOggFile) {
         if (iOggFile == null) {
             return null;
         } else {
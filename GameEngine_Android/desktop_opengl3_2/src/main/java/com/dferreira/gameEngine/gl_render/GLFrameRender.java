@@ -179,8 +179,23 @@ class GLFrameRender implements IFrameRenderAPI {
     public void drawTrianglesIndexes(IRawModel model) {
         GLRawModel rawModel = (GLRawModel) model;
 
+        drawTrianglesIndexes(model, rawModel.getIndexOffset(), rawModel.getVertexCount());
+    }
+
+    /**
+     * Draw a range of the indexes of a model as a set of triangles
+     *
+     * @param model       The model to be drawn
+     * @param indexOffset Position of the first index to draw
+     * @param indexCount  Number of indices to draw
+     */
+    @Override
+    public void drawTrianglesIndexes(IRawModel model, int indexOffset, int indexCount) {
+        GLRawModel rawModel = (GLRawModel) model;
+
         // Specify the indexes
-        GL11.glDrawElements(GL11.GL_TRIANGLES, rawModel.getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
+        GL11.glDrawElements(GL11.GL_TRIANGLES, indexCount, rawModel.getGLIndexType(),
+                (long) indexOffset * rawModel.getIndexType().getBytes());
     }
 
     /**
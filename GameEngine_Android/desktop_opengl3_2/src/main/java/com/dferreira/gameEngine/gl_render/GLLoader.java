@@ -4,11 +4,25 @@ import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.VertexAttribute;
+import com.dferreira.commons.generic_render.VertexAttributeTypeEnum;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.generic_render.VertexLayoutEnum;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.CompressedTextureData;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.QuantizedMesh;
+import com.dferreira.commons.shapes.IBufferShape;
 import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.textures.CompressedFormat;
+import com.dferreira.commons.textures.MipmapGenerator;
+import com.dferreira.commons.textures.TextureStreamer;
+import com.dferreira.commons.utils.ResourceRegistry;
+import com.dferreira.commons.utils.StagingAllocator;
+import com.dferreira.commons.utils.StagingBlock;
 import com.dferreira.commons.utils.Utils;
 
 import org.lwjgl.BufferUtils;
@@ -21,9 +35,12 @@ import org.lwjgl.opengl.GL30;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Loader for parts that are specific to openGL
@@ -34,14 +51,6 @@ public class GLLoader implements ILoaderRenderAPI {
      * Number of components that make part of one vertex
      */
     private final int VERTEX_SIZE = 3;
-    /**
-     * Number of components that compose the coordinates of the texture
-     */
-    private final int COORD_SIZE = 2;
-    /**
-     * Number of components that compose the normal vector
-     */
-    private final int NORMAL_SIZE = 3;
     /**
      * Offset between following vertices (If we have any data between them
      */
@@ -56,10 +65,38 @@ public class GLLoader implements ILoaderRenderAPI {
      * accessed.
      */
     private final boolean VERTEX_NORMALIZED = false;
+    /**
+     * Number of bytes of one pixel of the textures (RGBA)
+     */
+    private final int BYTES_BY_PIXEL = 4;
+    /**
+     * Number of bytes of one float
+     */
+    private final int FLOAT_IN_BYTES = 4;
+    /**
+     * Minimum size of the buffers where the driver writes lists of integers
+     */
+    private final int MIN_INTEGERS_QUERY = 16;
+    /**
+     * Suffix of the key of the textures that repeat
+     */
+    private final String REPEAT_SUFFIX = "#repeat";
     /**
      * Provider of the resources (highly dependent from the architecture)
      */
     private final IResourceProvider resourceProvider;
+    /**
+     * Textures loaded from files shared by all the materials that use them
+     */
+    private final ResourceRegistry<ITexture> textureRegistry;
+    /**
+     * Streamer of the levels of the textures
+     */
+    private final TextureStreamer textureStreamer;
+    /**
+     * Allocator of the buffers where the data is staged before the upload
+     */
+    private final StagingAllocator staging;
     /**
      * List of the vertex array objects loaded
      */
@@ -72,6 +109,10 @@ public class GLLoader implements ILoaderRenderAPI {
      * List of the textures that make part of the game engine
      */
     private List<Integer> textures;
+    /**
+     * Internal formats of the compressed textures that the driver supports (read in the first use)
+     */
+    private Set<Integer> compressedFormats;
 
     /**
      * Constructor of the loader GL
@@ -81,6 +122,9 @@ public class GLLoader implements ILoaderRenderAPI {
         this.vbos = new ArrayList<Integer>();
         this.textures = new ArrayList<Integer>();
         this.resourceProvider = resourceProvider;
+        this.textureRegistry = new ResourceRegistry<>();
+        this.textureStreamer = new TextureStreamer(this);
+        this.staging = StagingAllocator.getShared();
     }
 
     /**
@@ -90,9 +134,23 @@ public class GLLoader implements ILoaderRenderAPI {
      * @param wrapParam Parameter used in the wrap filters
      */
     private void defineTextureFunctionFilters(int target, int wrapParam) {
+        defineTextureFunctionFilters(target, wrapParam, 0);
+    }
+
+    /**
+     * When loads one texture defines that by default should zoom in/out it,
+     * the textures with mipmaps are sampled with trilinear filtering
+     *
+     * @param target      The target of the filter
+     * @param wrapParam   Parameter used in the wrap filters
+     * @param mipmapCount Number of levels below the base level
+     */
+    private void defineTextureFunctionFilters(int target, int wrapParam, int mipmapCount) {
         // The texture minify function is used whenever the pixel being textured
         // maps to an area greater than one texture element
-        GL11.glTexParameteri(target, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(target, GL11.GL_TEXTURE_MIN_FILTER,
+                (mipmapCount > 0) ? GL11.GL_LINEAR_MIPMAP_LINEAR : GL11.GL_LINEAR);
+        GL11.glTexParameteri(target, GL12.GL_TEXTURE_MAX_LEVEL, mipmapCount);
 
         // The texture magnification function is used when the pixel being
         // textured maps to an area less than or equal to one texture element
@@ -122,14 +180,60 @@ public class GLLoader implements ILoaderRenderAPI {
      * @return Id from the texture that was bounded in openGL
      */
     private ITexture pLoadTexture(TextureData textureData, boolean repeat) {
+        if (textureData instanceof CompressedTextureData) {
+            return pLoadCompressedTexture((CompressedTextureData) textureData, repeat);
+        }
+        // The textures decoded in the workers already come with the mipmaps
+        TextureData[] mipmaps = MipmapGenerator.attach(textureData, 0.0f).getMipmaps();
 
         int textureId = GL11.glGenTextures();
         GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
 
         GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
                 GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, textureData.getBuffer());
+        for (int level = 0; level < mipmaps.length; level++) {
+            TextureData mipmap = mipmaps[level];
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, level + 1, GL11.GL_RGBA, mipmap.getWidth(), mipmap.getHeight(), 0,
+                    GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, mipmap.getBuffer());
+        }
+
+        defineTextureFunctionFilters(GL11.GL_TEXTURE_2D, getWrapFilters(repeat), mipmaps.length);
 
-        defineTextureFunctionFilters(GL11.GL_TEXTURE_2D, getWrapFilters(repeat));
+        GLTexture texture = new GLTexture();
+        texture.setId(textureId);
+        this.textures.add(textureId);
+        return texture;
+    }
+
+    /**
+     * Load a texture compressed in blocks in openGL with the levels of its
+     * container (the blocks are uploaded as they are)
+     *
+     * @param textureData The blocks of the texture with its levels
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass
+     *                    the size of texture
+     * @return Id from the texture that was bounded in openGL (null if the format is not supported)
+     */
+    private ITexture pLoadCompressedTexture(CompressedTextureData textureData, boolean repeat) {
+        CompressedFormat format = textureData.getFormat();
+        if (!isCompressedFormatSupported(format)) {
+            System.err.println("The compressed format " + format + " is not supported by the driver");
+            return null;
+        }
+        TextureData[] mipmaps = (textureData.getMipmaps() == null) ? new TextureData[0] : textureData.getMipmaps();
+
+        int textureId = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+
+        GL13.glCompressedTexImage2D(GL11.GL_TEXTURE_2D, 0, format.getGLInternalFormat(), textureData.getWidth(),
+                textureData.getHeight(), 0, textureData.getBuffer());
+        for (int level = 0; level < mipmaps.length; level++) {
+            TextureData mipmap = mipmaps[level];
+            GL13.glCompressedTexImage2D(GL11.GL_TEXTURE_2D, level + 1, format.getGLInternalFormat(),
+                    mipmap.getWidth(), mipmap.getHeight(), 0, mipmap.getBuffer());
+        }
+
+        defineTextureFunctionFilters(GL11.GL_TEXTURE_2D, getWrapFilters(repeat), mipmaps.length);
 
         GLTexture texture = new GLTexture();
         texture.setId(textureId);
@@ -137,6 +241,27 @@ public class GLLoader implements ILoaderRenderAPI {
         return texture;
     }
 
+    /**
+     * The formats are the ones that the driver lists as compressed formats
+     * of textures
+     *
+     * @param format Format of the blocks of a compressed texture
+     * @return True if the driver uploads the textures in the format as they are
+     */
+    @Override
+    public boolean isCompressedFormatSupported(CompressedFormat format) {
+        if (compressedFormats == null) {
+            compressedFormats = new HashSet<>();
+            int count = GL11.glGetInteger(GL13.GL_NUM_COMPRESSED_TEXTURE_FORMATS);
+            IntBuffer formats = BufferUtils.createIntBuffer(Math.max(count, MIN_INTEGERS_QUERY));
+            GL11.glGetInteger(GL13.GL_COMPRESSED_TEXTURE_FORMATS, formats);
+            for (int i = 0; i < count; i++) {
+                compressedFormats.add(formats.get(i));
+            }
+        }
+        return compressedFormats.contains(format.getGLInternalFormat());
+    }
+
     /**
      * Load texture from resource
      *
@@ -152,7 +277,17 @@ public class GLLoader implements ILoaderRenderAPI {
     }
 
     /**
-     * Load texture from resource located in the mipmap folder
+     * @param textureFileName The name of the file of the texture
+     * @param repeat          Indicate that should repeat the texture
+     * @return Key of the texture in the registry (the wrap mode is part of the texture)
+     */
+    private String getTextureKey(String textureFileName, boolean repeat) {
+        return repeat ? textureFileName + REPEAT_SUFFIX : textureFileName;
+    }
+
+    /**
+     * Load texture from resource located in the mipmap folder, the textures
+     * already loaded are shared instead of decoded and uploaded again
      *
      * @param textureFileName The name of the texture where the texture exists
      * @param repeat          Indicate that should repeat the texture if the polygon surpass
@@ -161,10 +296,126 @@ public class GLLoader implements ILoaderRenderAPI {
      */
     @Override
     public ITexture loadTexture(String textureFileName, boolean repeat) {
-        TextureData textureData = this.resourceProvider.getTexture(textureFileName);
+        ITexture texture = textureRegistry.acquire(getTextureKey(textureFileName, repeat));
+        if (texture != null) {
+            return texture;
+        }
+        return registerTexture(textureFileName, this.resourceProvider.getTexture(textureFileName), repeat);
+    }
+
+    /**
+     * Load a texture already decoded in openGL
+     *
+     * @param textureData The data of the texture to load
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass
+     *                    the size of texture
+     * @return Id from the texture that was bounded in openGL
+     */
+    @Override
+    public ITexture loadTexture(TextureData textureData, boolean repeat) {
         return pLoadTexture(textureData, repeat);
     }
 
+    /**
+     * Load a texture of a file already decoded (in the workers of the
+     * loading pipeline), the textures already loaded are shared
+     *
+     * @param textureFileName The name of the file of the texture
+     * @param textureData     The data of the texture decoded from the file
+     * @param repeat          Indicate that should repeat the texture if the polygon surpass
+     *                        the size of texture
+     * @return Id from the texture that was bounded in openGL
+     */
+    @Override
+    public ITexture loadTexture(String textureFileName, TextureData textureData, boolean repeat) {
+        ITexture texture = textureRegistry.acquire(getTextureKey(textureFileName, repeat));
+        if (texture != null) {
+            return texture;
+        }
+        return registerTexture(textureFileName, textureData, repeat);
+    }
+
+    /**
+     * Uploads the texture of a file and registers it to be shared
+     *
+     * @param textureFileName The name of the file of the texture
+     * @param textureData     The data of the texture decoded from the file
+     * @param repeat          Indicate that should repeat the texture
+     * @return Id from the texture that was bounded in openGL (null if there is no data)
+     */
+    private ITexture registerTexture(String textureFileName, TextureData textureData, boolean repeat) {
+        if (textureData == null) {
+            return null;
+        }
+        ITexture texture = pLoadTexture(textureData, repeat);
+        if (texture == null) {
+            return null;
+        }
+        int bytes = (textureData instanceof CompressedTextureData)
+                ? ((CompressedTextureData) textureData).getByteCount()
+                : textureData.getWidth() * textureData.getHeight() * BYTES_BY_PIXEL;
+        return textureRegistry.register(getTextureKey(textureFileName, repeat), texture, bytes);
+    }
+
+    /**
+     * Uploads the levels in a new texture of openGL and deletes the previous
+     * one (the levels of one texture can not change their sizes)
+     *
+     * @param texture     The texture loaded
+     * @param textureData The data of the texture with the levels to upload
+     * @param repeat      The same value used to load the texture
+     */
+    @Override
+    public void reloadTexture(ITexture texture, TextureData textureData, boolean repeat) {
+        ITexture reloaded = pLoadTexture(textureData, repeat);
+        if (reloaded == null) {
+            return;
+        }
+        GLTexture glTexture = (GLTexture) texture;
+        deleteTexture(glTexture.getId());
+        glTexture.setId(((GLTexture) reloaded).getId());
+    }
+
+    /**
+     * @return Streamer that uploads the levels of the textures by demand
+     */
+    @Override
+    public TextureStreamer getTextureStreamer() {
+        return textureStreamer;
+    }
+
+    /**
+     * Releases one reference to a texture loaded from a file
+     *
+     * @param textureFileName The name of the file of the texture
+     * @param repeat          The same value used to load the texture
+     */
+    @Override
+    public void releaseTexture(String textureFileName, boolean repeat) {
+        ITexture texture = textureRegistry.release(getTextureKey(textureFileName, repeat));
+        if (texture != null) {
+            deleteTexture(((GLTexture) texture).getId());
+        }
+    }
+
+    /**
+     * @return Registry of the textures loaded from files with the statistics of reuse
+     */
+    @Override
+    public ResourceRegistry<ITexture> getTextureRegistry() {
+        return textureRegistry;
+    }
+
+    /**
+     * Deletes one texture from openGL
+     *
+     * @param textureId Identifier of the texture
+     */
+    private void deleteTexture(int textureId) {
+        GL11.glDeleteTextures(textureId);
+        this.textures.remove(Integer.valueOf(textureId));
+    }
+
     /**
      * Loads the data of a texture without bind
      *
@@ -186,6 +437,25 @@ public class GLLoader implements ILoaderRenderAPI {
      */
     @Override
     public ITexture loadTCubeMap(TextureEnum[] textures, boolean repeat) {
+        if (Utils.isEmpty(textures)) {
+            return null;
+        }
+        TextureData[] texturesData = resourceProvider.getResources(textures);
+        ITexture texture = loadTCubeMap(texturesData, repeat);
+        TextureData.release(texturesData);
+        return texture;
+    }
+
+    /**
+     * Loads a cubic texture already decoded
+     *
+     * @param textures The images of the cube already decoded
+     * @param repeat   Indicate that should repeat the texture if the polygon surpass
+     *                 the size of texture
+     * @return Identifier of the texture cubic texture loaded
+     */
+    @Override
+    public ITexture loadTCubeMap(TextureData[] textures, boolean repeat) {
         if (Utils.isEmpty(textures)) {
             return null;
         } else {
@@ -199,9 +469,7 @@ public class GLLoader implements ILoaderRenderAPI {
             GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, textureId);
 
             for (int i = 0; i < cubicTextureTargets.length; i++) {
-                TextureEnum texture = textures[i];
-
-                TextureData textureData = resourceProvider.getResource(texture);
+                TextureData textureData = textures[i];
                 if (textureData == null) {
                     return null;
                 } else {
@@ -240,44 +508,88 @@ public class GLLoader implements ILoaderRenderAPI {
     }
 
     /**
-     * Convert on array of Integers in a buffer of Integers that can be used in
-     * openGL
+     * Copies floats to a block of the staging allocator
      *
-     * @param data array with data to put in the Integer Buffer the integer
-     *             buffer created
-     * @return The integer buffer created
+     * @param data Floats to copy (from the position to the limit)
+     * @return The block with the floats (has to be released after the upload)
      */
-    private IntBuffer storeDataInIntBuffer(int[] data) {
-        IntBuffer buffer = BufferUtils.createIntBuffer(data.length);
-        buffer.put(data);
-        buffer.flip();
-        return buffer;
+    private StagingBlock stage(FloatBuffer data) {
+        StagingBlock block = staging.allocate(data.remaining() * FLOAT_IN_BYTES);
+        block.asFloatBuffer().put(data.duplicate());
+        return block;
     }
 
     /**
-     * @param indices the indices to vertex buffer object
+     * Copies the indices to a block of the staging allocator with the type
+     * of index passed
+     *
+     * @param staging   Allocator of the block
+     * @param data      Indices to copy (from the position to the limit)
+     * @param indexType Type of the indices to stage (all lower than 65536 when unsignedShort)
+     * @return The block with the indices (has to be released after the upload)
      */
-    private void bindIndicesBuffer(int[] indices) {
-        int vboID = GL15.glGenBuffers();
-        vbos.add(vboID);
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, vboID);
-        IntBuffer buffer = storeDataInIntBuffer(indices);
-        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+    static StagingBlock stageIndices(StagingAllocator staging, IntBuffer data, IndexTypeEnum indexType) {
+        StagingBlock block = staging.allocate(data.remaining() * indexType.getBytes());
+        if (indexType == IndexTypeEnum.unsignedShort) {
+            ShortBuffer shorts = block.asShortBuffer();
+            for (int i = data.position(); i < data.limit(); i++) {
+                shorts.put((short) data.get(i));
+            }
+        } else {
+            block.asIntBuffer().put(data.duplicate());
+        }
+        return block;
+    }
+
+    /**
+     * Uploads the data of a block staged to the buffer bound and releases the block
+     *
+     * @param target Target where the buffer is bound
+     * @param block  The block with the data
+     */
+    private void bufferData(int target, StagingBlock block) {
+        GL15.glBufferData(target, block.getBuffer(), GL15.GL_STATIC_DRAW);
+        block.release();
+    }
+
+    /**
+     * @param indices     the indices to vertex buffer object
+     * @param vertexCount Number of vertices referenced by the indices
+     * @return The type of the indices uploaded
+     */
+    private IndexTypeEnum bindIndicesBuffer(int[] indices, int vertexCount) {
+        return bindIndicesBuffer(IntBuffer.wrap(indices), vertexCount);
+    }
+
+    /**
+     * Uploads the indices with the narrowest type able to address the
+     * vertices, the meshes with less than 65536 vertices use half of the memory
+     *
+     * @param buffer      the indices to vertex buffer object
+     * @param vertexCount Number of vertices referenced by the indices
+     * @return The type of the indices uploaded
+     */
+    private IndexTypeEnum bindIndicesBuffer(IntBuffer buffer, int vertexCount) {
+        IndexTypeEnum indexType = IndexTypeEnum.forVertexCount(vertexCount);
+        createIndicesBuffer();
+        if ((indexType == IndexTypeEnum.unsignedInt) && buffer.isDirect()) {
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer.duplicate(), GL15.GL_STATIC_DRAW);
+        } else {
+            bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, stageIndices(staging, buffer, indexType));
+        }
+        return indexType;
     }
 
     /**
-     * Convert on array of Floats in a buffer of Floats that can be used in
-     * openGL
+     * Creates the buffer of indices of the vertex array object bound
      *
-     * @param data array with data to put in the Float Buffer the float buffer
-     *             created
-     * @return The integer buffer created
+     * @return the identifier of the buffer created
      */
-    private FloatBuffer storeDataInFloatBuffer(float[] data) {
-        FloatBuffer buffer = BufferUtils.createFloatBuffer(data.length);
-        buffer.put(data);
-        buffer.flip();
-        return buffer;
+    private int createIndicesBuffer() {
+        int vboID = GL15.glGenBuffers();
+        vbos.add(vboID);
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, vboID);
+        return vboID;
     }
 
     /**
@@ -288,12 +600,27 @@ public class GLLoader implements ILoaderRenderAPI {
      * @param data            Data to be store
      */
     private void storeDataInAttributeList(IEnum attributeNumber, int coordinateSize, float[] data) {
+        storeDataInAttributeList(attributeNumber, coordinateSize, FloatBuffer.wrap(data));
+    }
+
+    /**
+     * Store a certain element to be used in the program shader, the buffers
+     * in the java heap are staged before the upload
+     *
+     * @param attributeNumber the id of the attribute to load in the program shader
+     * @param coordinateSize  Number of components of the attribute to store
+     * @param buffer          Data to be store
+     */
+    private void storeDataInAttributeList(IEnum attributeNumber, int coordinateSize, FloatBuffer buffer) {
         int vboID = GL15.glGenBuffers();
         vbos.add(vboID);
         // Bind the VBO just created
         GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
-        FloatBuffer buffer = storeDataInFloatBuffer(data);
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        if (buffer.isDirect()) {
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer.duplicate(), GL15.GL_STATIC_DRAW);
+        } else {
+            bufferData(GL15.GL_ARRAY_BUFFER, stage(buffer));
+        }
         GL20.glVertexAttribPointer(attributeNumber.getValue(), coordinateSize, GL11.GL_FLOAT, VERTEX_NORMALIZED, STRIDE,
                 START_OFFSET);
         // UnBind the current VBO
@@ -316,29 +643,168 @@ public class GLLoader implements ILoaderRenderAPI {
         return rawModel;
     }
 
+    /**
+     * @param format    Format of the vertices
+     * @param positions Positions of the vertices
+     * @param textures  Coordinates of the textures
+     * @param normals   Normal vectors
+     * @return The source of every attribute of the format in its order
+     */
+    private FloatBuffer[] getSources(VertexFormat format, FloatBuffer positions, FloatBuffer textures,
+                                     FloatBuffer normals) {
+        FloatBuffer[] sources = new FloatBuffer[format.getAttributes().size()];
+        for (int i = 0; i < sources.length; i++) {
+            switch (format.getAttributes().get(i).getSemantic()) {
+                case position:
+                    sources[i] = positions;
+                    break;
+                case textureCoords:
+                    sources[i] = textures;
+                    break;
+                case normal:
+                    sources[i] = normals;
+                    break;
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Stores the attributes of the vertices in the vertex array object bound
+     * with the layout of the format, the interleaved layout uses one buffer
+     * with all the attributes of every vertex
+     *
+     * @param format  Format of the vertices
+     * @param sources The source of every attribute of the format in its order
+     */
+    private void storeVertices(VertexFormat format, FloatBuffer[] sources) {
+        List<VertexAttribute> attributes = format.getAttributes();
+        if (format.getLayout() == VertexLayoutEnum.separate) {
+            for (int i = 0; i < attributes.size(); i++) {
+                VertexAttribute attribute = attributes.get(i);
+                storeDataInAttributeList(attribute.getLocation(), attribute.getComponents(), sources[i]);
+            }
+        } else {
+            int vboID = GL15.glGenBuffers();
+            vbos.add(vboID);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
+            StagingBlock block = staging.allocate(format.getVertexCount(sources) * format.getStride());
+            format.interleaveInto(block.asFloatBuffer(), sources);
+            bufferData(GL15.GL_ARRAY_BUFFER, block);
+            for (VertexAttribute attribute : attributes) {
+                GL20.glVertexAttribPointer(attribute.getLocation().getValue(), attribute.getComponents(),
+                        GL11.GL_FLOAT, VERTEX_NORMALIZED, format.getStride(), attribute.getOffset());
+            }
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        }
+    }
+
     /**
      * Load from a shape to one equivalent IRawModel
      *
-     * @param shape      The shape to load
-     * @param attributes Map of attributes associated with the model
+     * @param shape  The shape to load
+     * @param format Layout of the vertices and locations of their attributes
      * @return A raw model with information loaded
      */
     @Override
-    public IRawModel loadToRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes) {
+    public IRawModel loadToRawModel(IShape shape, VertexFormat format) {
         int vaoID = createVAO();
 
-        bindIndicesBuffer(shape.getIndices());
+        IndexTypeEnum indexType = bindIndicesBuffer(shape.getIndices(), shape.getVertices().length / VERTEX_SIZE);
+
+        storeVertices(format, getSources(format, FloatBuffer.wrap(shape.getVertices()),
+                FloatBuffer.wrap(shape.getTextureCoords()), FloatBuffer.wrap(shape.getNormals())));
+        unbindVAO();
+
+        return new GLRawModel(vaoID, shape.getIndices().length, 0, indexType, format.getLocations());
+    }
+
+    /**
+     * Load from a shape backed by buffers to one equivalent IRawModel, the
+     * direct buffers (for instance mapped from the cache of meshes) are
+     * uploaded without an intermediate copy
+     *
+     * @param shape  The shape to load
+     * @param format Layout of the vertices and locations of their attributes
+     * @return A raw model with information loaded
+     */
+    @Override
+    public IRawModel loadToRawModel(IBufferShape shape, VertexFormat format) {
+        int vaoID = createVAO();
 
-        IEnum positionEnum = attributes.get(RenderAttributeEnum.position);
-        IEnum textureCoordsEnum = attributes.get(RenderAttributeEnum.textureCoords);
-        IEnum normalEnum = attributes.get(RenderAttributeEnum.normal);
+        IntBuffer indices = shape.getIndicesBuffer();
+        IndexTypeEnum indexType = bindIndicesBuffer(indices, shape.getVerticesBuffer().remaining() / VERTEX_SIZE);
 
-        storeDataInAttributeList(positionEnum, VERTEX_SIZE, shape.getVertices());
-        storeDataInAttributeList(textureCoordsEnum, COORD_SIZE, shape.getTextureCoords());
-        storeDataInAttributeList(normalEnum, NORMAL_SIZE, shape.getNormals());
+        storeVertices(format, getSources(format, shape.getVerticesBuffer(), shape.getTextureCoordsBuffer(),
+                shape.getNormalsBuffer()));
         unbindVAO();
 
-        return new GLRawModel(vaoID, shape.getIndices().length, attributes);
+        return new GLRawModel(vaoID, indices.remaining(), 0, indexType, format.getLocations());
+    }
+
+    /**
+     * @param type Type of the components of one attribute
+     * @return The openGL type of the components
+     */
+    private int getAttributeType(VertexAttributeTypeEnum type) {
+        switch (type) {
+            case halfFloat:
+                return GL30.GL_HALF_FLOAT;
+            case int16:
+            case snorm16:
+                return GL11.GL_SHORT;
+            case snorm8:
+                return GL11.GL_BYTE;
+            default:
+                return GL11.GL_FLOAT;
+        }
+    }
+
+    /**
+     * Load the packed vertices of one quantized mesh in one interleaved
+     * buffer, the attributes are read with their own types (the positions
+     * are converted to floats as they are and the normals normalized)
+     *
+     * @param mesh The quantized mesh to load
+     * @return A raw model with information loaded
+     */
+    @Override
+    public IRawModel loadToRawModel(QuantizedMesh mesh) {
+        VertexFormat format = mesh.getFormat();
+        int vaoID = createVAO();
+
+        IntBuffer indices = mesh.getIndices();
+        IndexTypeEnum indexType = bindIndicesBuffer(indices, mesh.getVertexCount());
+
+        int vboID = GL15.glGenBuffers();
+        vbos.add(vboID);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, mesh.getVertices(), GL15.GL_STATIC_DRAW);
+        for (VertexAttribute attribute : format.getAttributes()) {
+            GL20.glVertexAttribPointer(attribute.getLocation().getValue(), attribute.getComponents(),
+                    getAttributeType(attribute.getType()), attribute.getType().isNormalized(), format.getStride(),
+                    attribute.getOffset());
+        }
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        unbindVAO();
+
+        return new GLRawModel(vaoID, indices.remaining(), 0, indexType, format.getLocations());
+    }
+
+    /**
+     * Creates a raw model that uses the vertex array object of one model
+     * already loaded but only draws a range of its indices
+     *
+     * @param model       The model loaded that has the buffers
+     * @param indexOffset Position of the first index to draw
+     * @param indexCount  Number of indices to draw
+     * @return The raw model of the range
+     */
+    @Override
+    public IRawModel loadSubRawModel(IRawModel model, int indexOffset, int indexCount) {
+        GLRawModel rawModel = (GLRawModel) model;
+        return new GLRawModel(rawModel.getVaoId(), indexCount, rawModel.getIndexOffset() + indexOffset,
+                rawModel.getIndexType(), rawModel.getAttributes());
     }
 
     /**
@@ -389,5 +855,6 @@ public class GLLoader implements ILoaderRenderAPI {
             GL11.glDeleteTextures(texture);
         }
         this.textures = null;
+        this.textureRegistry.clear();
     }
 }
@@ -2,8 +2,11 @@ package com.dferreira.gameEngine.gl_render;
 
 import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
 
+import org.lwjgl.opengl.GL11;
+
 import java.util.HashMap;
 
 /**
@@ -21,6 +24,16 @@ public class GLRawModel implements IRawModel {
      */
     private final int vertexCount;
 
+    /**
+     * Position of the first index to draw in the indices buffer
+     */
+    private final int indexOffset;
+
+    /**
+     * Type of the indices of the indices buffer
+     */
+    private final IndexTypeEnum indexType;
+
     /**
      * List of attributes associated with the model
      */
@@ -34,9 +47,26 @@ public class GLRawModel implements IRawModel {
      * @param attributes  List of attributes associated with the model
      */
     public GLRawModel(int vaoId, int vertexCount, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        this(vaoId, vertexCount, 0, IndexTypeEnum.unsignedInt, attributes);
+    }
+
+    /**
+     * Constructor of a raw model that draws a range of the indices of a vertex
+     * array object
+     *
+     * @param vaoId       The identifier of vertex array object assigned by openGL
+     * @param vertexCount number of vertex
+     * @param indexOffset Position of the first index to draw
+     * @param indexType   Type of the indices of the indices buffer
+     * @param attributes  List of attributes associated with the model
+     */
+    public GLRawModel(int vaoId, int vertexCount, int indexOffset, IndexTypeEnum indexType,
+                      HashMap<RenderAttributeEnum, IEnum> attributes) {
         super();
         this.vaoId = vaoId;
         this.vertexCount = vertexCount;
+        this.indexOffset = indexOffset;
+        this.indexType = indexType;
         this.attributes = attributes;
     }
 
@@ -54,6 +84,27 @@ public class GLRawModel implements IRawModel {
         return vertexCount;
     }
 
+    /**
+     * @return Position of the first index to draw
+     */
+    public int getIndexOffset() {
+        return indexOffset;
+    }
+
+    /**
+     * @return Type of the indices of the indices buffer
+     */
+    public IndexTypeEnum getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * @return The openGL type of the indices of the indices buffer
+     */
+    public int getGLIndexType() {
+        return (indexType == IndexTypeEnum.unsignedShort) ? GL11.GL_UNSIGNED_SHORT : GL11.GL_UNSIGNED_INT;
+    }
+
     /**
      * Takes the model and the render attribute and returns the corresponding IEnum
      *
@@ -64,6 +115,13 @@ public class GLRawModel implements IRawModel {
         return this.attributes.get(renderAttribute);
     }
 
+    /**
+     * @return The attributes associated with the model
+     */
+    public HashMap<RenderAttributeEnum, IEnum> getAttributes() {
+        return attributes;
+    }
+
     /**
      * Clean the memory used by the model
      */
@@ -0,0 +1,67 @@
+package com.dferreira.gameEngine.modelGenerators;
+
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.textures.TextureAtlas;
+
+import java.util.HashMap;
+
+/**
+ * Atlas of the small textures of the models decoded by the workers of the
+ * loading pipeline with the meshes of the models (their coordinates of
+ * texture already remapped to the pages) and the textures that were left
+ * out of the atlas
+ */
+public class DecodedAtlas {
+
+    /**
+     * Atlas with the small textures of the models
+     */
+    private final TextureAtlas atlas;
+
+    /**
+     * Mesh of every model
+     */
+    private final HashMap<ModelEnum, WfMesh> meshes;
+
+    /**
+     * Textures of every model that are not in the atlas by name of file
+     */
+    private final HashMap<ModelEnum, HashMap<String, TextureData>> textures;
+
+    /**
+     * @param atlas    Atlas with the small textures of the models
+     * @param meshes   Mesh of every model
+     * @param textures Textures of every model that are not in the atlas by name of file
+     */
+    DecodedAtlas(TextureAtlas atlas, HashMap<ModelEnum, WfMesh> meshes,
+                 HashMap<ModelEnum, HashMap<String, TextureData>> textures) {
+        this.atlas = atlas;
+        this.meshes = meshes;
+        this.textures = textures;
+    }
+
+    /**
+     * @return Atlas with the small textures of the models
+     */
+    public TextureAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * @param model Type of the model
+     * @return The mesh of the model
+     */
+    WfMesh getMesh(ModelEnum model) {
+        return meshes.get(model);
+    }
+
+    /**
+     * @param model Type of the model
+     * @return The textures of the model that are not in the atlas by name of file
+     */
+    HashMap<String, TextureData> getTextures(ModelEnum model) {
+        return textures.get(model);
+    }
+}
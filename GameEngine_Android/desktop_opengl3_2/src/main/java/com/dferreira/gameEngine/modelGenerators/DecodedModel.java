@@ -0,0 +1,122 @@
+package com.dferreira.gameEngine.modelGenerators;
+
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.LodChain;
+import com.dferreira.commons.optimizer.QuantizedMesh;
+import com.dferreira.commons.textures.TextureAtlas;
+
+import java.util.HashMap;
+
+/**
+ * Everything about one model that the workers of the loading pipeline
+ * prepare before the upload: the levels of detail, the vertices quantized,
+ * the textures decoded (or the atlas that has them) and where every entity of
+ * the model is placed
+ */
+class DecodedModel {
+
+    /**
+     * Description of the model
+     */
+    private final DefaultModelGenerator model;
+
+    /**
+     * Levels of detail of the mesh of the model
+     */
+    private final LodChain lodChain;
+
+    /**
+     * Vertices of the mesh quantized (null if they are uploaded as floats)
+     */
+    private final QuantizedMesh quantizedMesh;
+
+    /**
+     * Textures of the materials decoded by name of file
+     */
+    private final HashMap<String, TextureData> textures;
+
+    /**
+     * Atlas with the textures of the materials that are not decoded by themselves (can be null)
+     */
+    private final TextureAtlas atlas;
+
+    /**
+     * Position of every entity of the model
+     */
+    private final Vector3f[] positions;
+
+    /**
+     * Scale of every entity of the model
+     */
+    private final float[] scales;
+
+    /**
+     * @param model         Description of the model
+     * @param lodChain      Levels of detail of the mesh of the model
+     * @param quantizedMesh Vertices of the mesh quantized (null if they are uploaded as floats)
+     * @param textures      Textures of the materials decoded by name of file
+     * @param atlas         Atlas with the textures of the materials that are not decoded by themselves (can be null)
+     * @param positions     Position of every entity of the model
+     * @param scales        Scale of every entity of the model
+     */
+    DecodedModel(DefaultModelGenerator model, LodChain lodChain, QuantizedMesh quantizedMesh,
+                 HashMap<String, TextureData> textures, TextureAtlas atlas, Vector3f[] positions, float[] scales) {
+        this.model = model;
+        this.lodChain = lodChain;
+        this.quantizedMesh = quantizedMesh;
+        this.textures = textures;
+        this.atlas = atlas;
+        this.positions = positions;
+        this.scales = scales;
+    }
+
+    /**
+     * @return Description of the model
+     */
+    DefaultModelGenerator getModel() {
+        return model;
+    }
+
+    /**
+     * @return Levels of detail of the mesh of the model
+     */
+    LodChain getLodChain() {
+        return lodChain;
+    }
+
+    /**
+     * @return Vertices of the mesh quantized (null if they are uploaded as floats)
+     */
+    QuantizedMesh getQuantizedMesh() {
+        return quantizedMesh;
+    }
+
+    /**
+     * @return Textures of the materials decoded by name of file
+     */
+    HashMap<String, TextureData> getTextures() {
+        return textures;
+    }
+
+    /**
+     * @return Atlas with the textures of the materials that are not decoded by themselves (can be null)
+     */
+    TextureAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * @return Position of every entity of the model
+     */
+    Vector3f[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * @return Scale of every entity of the model
+     */
+    float[] getScales() {
+        return scales;
+    }
+}
@@ -0,0 +1,45 @@
+package com.dferreira.gameEngine.modelGenerators;
+
+import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.TerrainShape;
+
+/**
+ * Terrain decoded by the workers of the loading pipeline: the shape built
+ * from the height map to upload and the terrain with the heights (without
+ * model yet) that the other assets use to be placed on the ground
+ */
+public class DecodedTerrain {
+
+    /**
+     * Shape of the terrain to upload
+     */
+    private final TerrainShape shape;
+
+    /**
+     * The terrain with the heights and the position
+     */
+    private final Terrain terrain;
+
+    /**
+     * @param shape   Shape of the terrain to upload
+     * @param terrain The terrain with the heights and the position
+     */
+    DecodedTerrain(TerrainShape shape, Terrain terrain) {
+        this.shape = shape;
+        this.terrain = terrain;
+    }
+
+    /**
+     * @return Shape of the terrain to upload
+     */
+    TerrainShape getShape() {
+        return shape;
+    }
+
+    /**
+     * @return The terrain with the heights and the position
+     */
+    public Terrain getTerrain() {
+        return terrain;
+    }
+}
@@ -5,15 +5,32 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
-import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.generic_render.RenderConstants;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.LodChain;
+import com.dferreira.commons.optimizer.LodLevel;
+import com.dferreira.commons.optimizer.QuantizedMesh;
+import com.dferreira.commons.optimizer.VertexQuantization;
+import com.dferreira.commons.optimizer.VertexQuantizer;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.textures.AtlasRegion;
+import com.dferreira.commons.textures.MipmapGenerator;
+import com.dferreira.commons.textures.TextureAtlas;
+import com.dferreira.commons.textures.TextureStreamer;
 import com.dferreira.commons.utils.Utils;
-import com.dferreira.gameEngine.models.complexEntities.Entity;
+import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
 import com.dferreira.gameEngine.models.complexEntities.Material;
 import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
 import com.dferreira.gameEngine.models.complexEntities.RawModelMaterial;
 import com.dferreira.gameEngine.renderEngine.Loader;
 import com.dferreira.gameEngine.shaders.entities.TEntityAttribute;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -24,58 +41,193 @@ import java.util.List;
 public class GenericEntitiesGenerator {
 
     /**
-     * Load a textured model
-     *
-     * @param loader            the loader of the texture
-     * @param shapes            List of shapes that make the model
-     * @param hasTransparency   Flag that indicates if has transparency or not
-     * @param normalsPointingUp Indicates that all the normals of the object are pointing up
-     * @return the textured model loaded
+     * Upload the vertices of the models quantized (16 bytes by vertex instead of 32)
      */
-    static HashMap<String, MaterialGroup> getTexturedObj(Loader loader, ILoaderRenderAPI loaderAPI, List<IShape> shapes,
-                                                         boolean hasTransparency, boolean normalsPointingUp) {
-        HashMap<String, MaterialGroup> groupsOfMaterials = new HashMap<>();
+    private final static boolean QUANTIZE_VERTICES = true;
 
+    /**
+     * Bits of each component of the normals encoded with the octahedral mapping (8 or 16)
+     */
+    private final static int NORMAL_BITS = 16;
+
+    /**
+     * Reference of the alpha test of the entity fragment shader (the pixels
+     * below it are discarded)
+     */
+    private final static float ALPHA_REFERENCE = 0.5f;
+
+    private final static Logger logger = LogManager.getLogger(GenericEntitiesGenerator.class);
+
+    /**
+     * @return The locations of the attributes of the entities in the shader program
+     */
+    private static HashMap<RenderAttributeEnum, IEnum> getAttributes() {
         HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
 
         attributes.put(RenderAttributeEnum.position, TEntityAttribute.position);
         attributes.put(RenderAttributeEnum.textureCoords, TEntityAttribute.textureCoords);
         attributes.put(RenderAttributeEnum.normal, TEntityAttribute.normal);
+        return attributes;
+    }
+
+    /**
+     * Quantizes the vertices of one mesh (does not use the render API so it
+     * can run in the workers of the loading pipeline)
+     *
+     * @param lodChain Levels of detail of the mesh
+     * @return The vertices of the mesh quantized (null if they are uploaded as floats)
+     */
+    static QuantizedMesh quantize(LodChain lodChain) {
+        if (!QUANTIZE_VERTICES) {
+            return null;
+        }
+        QuantizedMesh quantizedMesh = VertexQuantizer.quantize(lodChain.getMesh(),
+                VertexFormat.quantized(getAttributes(), NORMAL_BITS));
+        logger.info("Quantized " + quantizedMesh);
+        return quantizedMesh;
+    }
 
-        for (IShape shape : shapes) {
-            IRawModel model = loaderAPI.loadToRawModel(shape, attributes);
-            Material material = loader.loadMaterial(shape.getMaterial());
+    /**
+     * Decodes the textures used by the materials of one mesh (does not use
+     * the render API so it can run in the workers of the loading pipeline)
+     *
+     * @param resourceProvider Provider of the resources used in the application
+     * @param mesh             The mesh with the materials
+     * @param hasTransparency  Flag that indicates if the textures are tested against the alpha reference
+     * @return The textures decoded by name of file with their mipmaps
+     */
+    static HashMap<String, TextureData> getTexturesData(IResourceProvider resourceProvider, WfMesh mesh,
+                                                        boolean hasTransparency) {
+        List<String> fileNames = new ArrayList<>();
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            if (subMesh.getMaterial() == null) {
+                continue;
+            }
+            String fileName = subMesh.getMaterial().getDiffuseTextureFileName();
+            if ((!Utils.isEmpty(fileName)) && (!fileNames.contains(fileName))) {
+                fileNames.add(fileName);
+            }
+        }
+        TextureData[] texturesData = resourceProvider.getTextures(fileNames.toArray(new String[fileNames.size()]));
+        // The foliage keeps the pixels that pass the alpha test in every level
+        MipmapGenerator.attach(texturesData, hasTransparency ? ALPHA_REFERENCE : 0.0f);
+        HashMap<String, TextureData> textures = new HashMap<>();
+        for (int i = 0; i < texturesData.length; i++) {
+            textures.put(fileNames.get(i), texturesData[i]);
+        }
+        return textures;
+    }
+
+    /**
+     * Load a textured model, the vertices of the model are uploaded once and
+     * every group of the model draws a range of the shared indices in each
+     * level of detail
+     *
+     * @param loader            the loader of the texture
+     * @param lodChain          Levels of detail of the mesh with one sub mesh by group of the model
+     * @param quantizedMesh     Vertices of the mesh quantized (null to upload them as floats)
+     * @param hasTransparency   Flag that indicates if has transparency or not
+     * @param normalsPointingUp Indicates that all the normals of the object are pointing up
+     * @return the textured model loaded
+     */
+    static HashMap<String, MaterialGroup> getTexturedObj(Loader loader, ILoaderRenderAPI loaderAPI, LodChain lodChain,
+                                                         QuantizedMesh quantizedMesh, boolean hasTransparency,
+                                                         boolean normalsPointingUp) {
+        HashMap<String, MaterialGroup> groupsOfMaterials = new HashMap<>();
+
+        IRawModel meshModel;
+        VertexQuantization quantization = null;
+        if (quantizedMesh != null) {
+            meshModel = loaderAPI.loadToRawModel(quantizedMesh);
+            quantization = quantizedMesh.getQuantization();
+        } else {
+            VertexFormat format = VertexFormat.positionTextureNormal(RenderConstants.VERTEX_LAYOUT, getAttributes());
+            meshModel = loaderAPI.loadToRawModel(lodChain.getMesh(), format);
+        }
+        List<SubMesh> subMeshes = lodChain.getMesh().getSubMeshes();
+        for (int i = 0; i < subMeshes.size(); i++) {
+            SubMesh subMesh = subMeshes.get(i);
+            // The same sub mesh in every level of detail
+            List<IRawModel> lodModels = new ArrayList<>(lodChain.getLevels().size());
+            for (LodLevel level : lodChain.getLevels()) {
+                SubMesh lodSubMesh = level.getSubMeshes().get(i);
+                lodModels.add(loaderAPI.loadSubRawModel(meshModel, lodSubMesh.getIndexOffset(),
+                        lodSubMesh.getIndexCount()));
+            }
+            Material material = loader.loadMaterial(subMesh.getMaterial());
             material.setShineDamper(10.0f);
             material.setReflectivity(1.0f);
             material.setHasTransparency(hasTransparency);
             material.setNormalsPointingUp(normalsPointingUp);
-            RawModelMaterial texturedModel = new RawModelMaterial(model, material);
+            RawModelMaterial texturedModel = new RawModelMaterial(lodModels, material, quantization);
 
-            List<RawModelMaterial> materials = new ArrayList<>();
-            materials.add(texturedModel);
-            MaterialGroup materialGroup = new MaterialGroup(materials);
-            groupsOfMaterials.put(shape.getGroupName(), materialGroup);
+            // One group can have sub meshes with different materials
+            MaterialGroup materialGroup = groupsOfMaterials.get(subMesh.getGroupName());
+            if (materialGroup == null) {
+                materialGroup = new MaterialGroup(new ArrayList<RawModelMaterial>());
+                groupsOfMaterials.put(subMesh.getGroupName(), materialGroup);
+            }
+            materialGroup.getMaterials().add(texturedModel);
         }
 
         return groupsOfMaterials;
     }
 
     /**
-     * Load the textures of groups of materials
+     * Uploads one model decoded by the workers of the loading pipeline with
+     * its textures
+     *
+     * @param loader    the loader of the materials
+     * @param loaderAPI Loader to load content specific to the render API
+     * @param decoded   The model decoded
+     * @return The generic entity of the model
+     */
+    static GenericEntity getGenericEntity(Loader loader, ILoaderRenderAPI loaderAPI, DecodedModel decoded) {
+        DefaultModelGenerator model = decoded.getModel();
+        HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI, decoded.getLodChain(),
+                decoded.getQuantizedMesh(), model.getHasTransparency(), model.getNormalsPointingUp());
+        loadTexturesOfObj(loaderAPI, groupsOfMaterials, decoded.getTextures(), decoded.getAtlas());
+        for (TextureData textureData : decoded.getTextures().values()) {
+            if (textureData != null) {
+                textureData.release();
+            }
+        }
+        return new GenericEntity(groupsOfMaterials, model.getObjectType(), decoded.getLodChain());
+    }
+
+    /**
+     * Load the textures of groups of materials, the textures already decoded
+     * are only uploaded and the textures packed in the atlas use the page
+     * where they are (uploaded once for all the models), both are streamed
+     * so only their small levels are uploaded now
      *
      * @param loaderRenderAPI   Loader to load content specific to the render API
      * @param groupsOfMaterials The groups of material that is to load their textures
+     * @param texturesData      Textures already decoded by name of file
+     * @param atlas             Atlas with the textures that are not decoded by themselves (can be null)
      */
-    private static void loadTexturesOfObj(ILoaderRenderAPI loaderRenderAPI,
-                                          HashMap<String, MaterialGroup> groupsOfMaterials) {
+    static void loadTexturesOfObj(ILoaderRenderAPI loaderRenderAPI, HashMap<String, MaterialGroup> groupsOfMaterials,
+                                  HashMap<String, TextureData> texturesData, TextureAtlas atlas) {
         if (!Utils.isEmpty(groupsOfMaterials)) {
+            TextureStreamer textureStreamer = loaderRenderAPI.getTextureStreamer();
             for (String key : groupsOfMaterials.keySet()) {
                 MaterialGroup materialGroups = groupsOfMaterials.get(key);
                 if (!Utils.isEmpty(materialGroups.getMaterials())) {
                     for (RawModelMaterial rawModelMaterial : materialGroups.getMaterials()) {
                         Material material = rawModelMaterial.getMaterial();
-                        if ((!Utils.isEmpty(material.getDiffuse().getFilename())) && (material.getDiffuse().getTexture() == null)) {
-                            ITexture texture = loaderRenderAPI.loadTexture(material.getDiffuse().getFilename(), false);
+                        String fileName = material.getDiffuse().getFilename();
+                        if ((!Utils.isEmpty(fileName)) && (material.getDiffuse().getTexture() == null)) {
+                            AtlasRegion region = (atlas == null) ? null : atlas.getRegion(fileName);
+                            ITexture texture;
+                            if (region != null) {
+                                texture = textureStreamer.loadTexture(atlas.getPageName(region.getPage()),
+                                        atlas.getPage(region.getPage()), false,
+                                        atlas.getLargestRegionSize(region.getPage()));
+                            } else if (texturesData.containsKey(fileName)) {
+                                texture = textureStreamer.loadTexture(fileName, texturesData.get(fileName), false);
+                            } else {
+                                texture = loaderRenderAPI.loadTexture(fileName, false);
+                            }
                             material.getDiffuse().setTexture(texture);
                         }
                     }
@@ -83,18 +235,4 @@ public class GenericEntitiesGenerator {
             }
         }
     }
-
-    /**
-     * Load the textures of one entity
-     *
-     * @param loaderRenderAPI Loader to load content specific to the render API
-     * @param entity          The entity for which is to load the textures
-     */
-    static void loadTexturesOfEntity(ILoaderRenderAPI loaderRenderAPI, Entity entity) {
-        if ((entity != null) && (entity.getGenericEntity() != null)
-                && (!Utils.isEmpty(entity.getGenericEntity().getGroupsOfMaterials()))) {
-            HashMap<String, MaterialGroup> groupsOfMaterials = entity.getGenericEntity().getGroupsOfMaterials();
-            loadTexturesOfObj(loaderRenderAPI, groupsOfMaterials);
-        }
-    }
 }
@@ -0,0 +1,125 @@
+package com.dferreira.gameEngine.modelGenerators;
+
+import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.textures.TextureAtlas;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Responsible for packing the small textures of the models of the entities
+ * and of the player in one atlas so their materials share the binds
+ */
+public class WorldAtlasGenerator extends GenericEntitiesGenerator {
+
+    /**
+     * Name of the atlas of the models
+     */
+    private final static String ATLAS_NAME = "entities";
+
+    /**
+     * Maximum width and height of each page of the atlas
+     */
+    private final static int PAGE_SIZE = 2048;
+
+    /**
+     * Maximum width and height of the textures packed (the bigger ones keep
+     * their own texture with the full chain of mipmaps)
+     */
+    private final static int MAX_TEXTURE_SIZE = 512;
+
+    private final static Logger logger = LogManager.getLogger(WorldAtlasGenerator.class);
+
+    /**
+     * @return The models whose textures can go to the atlas
+     */
+    private static List<DefaultModelGenerator> getModels() {
+        List<DefaultModelGenerator> models = new ArrayList<>(WorldEntitiesGenerator.getEntitiesMap().keySet());
+        models.add(WorldPlayersGenerator.getPlayerModel());
+        return models;
+    }
+
+    /**
+     * Reads the meshes of the models, decodes their textures, packs the
+     * small ones used only by meshes that can be remapped and remaps those
+     * meshes (runs in the workers of the loading pipeline)
+     *
+     * @param resourceProvider Provider of the resources used in the application
+     * @return The atlas decoded with the meshes and the textures left out
+     */
+    private static DecodedAtlas decode(IResourceProvider resourceProvider) {
+        HashMap<ModelEnum, WfMesh> meshes = new HashMap<>();
+        HashMap<ModelEnum, HashMap<String, TextureData>> textures = new HashMap<>();
+        HashMap<String, TextureData> candidates = new HashMap<>();
+        Set<String> excluded = new HashSet<>();
+        for (DefaultModelGenerator model : getModels()) {
+            WfMesh mesh = resourceProvider.getResource(model.getObjectType());
+            HashMap<String, TextureData> modelTextures = getTexturesData(resourceProvider, mesh,
+                    model.getHasTransparency());
+            meshes.put(model.getObjectType(), mesh);
+            textures.put(model.getObjectType(), modelTextures);
+
+            // The textures of one mesh that can not be remapped stay out of the atlas for every mesh
+            boolean remappable = (TextureAtlas.getRemappableTextures(mesh) != null);
+            for (Map.Entry<String, TextureData> entry : modelTextures.entrySet()) {
+                TextureData texture = entry.getValue();
+                if (!remappable || (texture == null) || (texture.getWidth() > MAX_TEXTURE_SIZE)
+                        || (texture.getHeight() > MAX_TEXTURE_SIZE)) {
+                    excluded.add(entry.getKey());
+                } else if (!candidates.containsKey(entry.getKey())) {
+                    candidates.put(entry.getKey(), texture);
+                }
+            }
+        }
+        candidates.keySet().removeAll(excluded);
+
+        TextureAtlas atlas = TextureAtlas.build(ATLAS_NAME, candidates, PAGE_SIZE);
+        for (Map.Entry<ModelEnum, WfMesh> entry : meshes.entrySet()) {
+            WfMesh remapped = atlas.remap(entry.getValue());
+            if (remapped != null) {
+                entry.setValue(remapped);
+            }
+        }
+        // The pixels of the textures packed were copied to the pages
+        for (HashMap<String, TextureData> modelTextures : textures.values()) {
+            for (String fileName : new ArrayList<>(modelTextures.keySet())) {
+                if (atlas.contains(fileName)) {
+                    modelTextures.remove(fileName).release();
+                }
+            }
+        }
+        logger.info("Atlas " + atlas);
+        return new DecodedAtlas(atlas, meshes, textures);
+    }
+
+    /**
+     * Decodes the atlas of the models with the loading pipeline, the decode
+     * of the entities and of the player waits for it
+     *
+     * @param assetLoader      The pipeline that loads the assets
+     * @param resourceProvider Provider of the resources used in the application
+     * @return Handle to the atlas decoded
+     */
+    public static AssetFuture<DecodedAtlas> decodeAtlas(AssetLoader assetLoader,
+                                                        final IResourceProvider resourceProvider) {
+        return assetLoader.decode(ATLAS_NAME, new Callable<DecodedAtlas>() {
+            @Override
+            public DecodedAtlas call() throws Exception {
+                return decode(resourceProvider);
+            }
+        });
+    }
+}
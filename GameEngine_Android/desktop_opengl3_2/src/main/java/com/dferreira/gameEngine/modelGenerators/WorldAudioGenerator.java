@@ -3,9 +3,14 @@ package com.dferreira.gameEngine.modelGenerators;
 import com.dferreira.commons.generic_player.IAudioDescription;
 import com.dferreira.commons.generic_player.IAudioLoader;
 import com.dferreira.commons.generic_resources.AudioEnum;
+import com.dferreira.commons.generic_resources.IAudioData;
 import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.loading.IUploadTask;
 
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 /**
  * Generates the sounds that is going to be used by the audio engine of the game
@@ -13,24 +18,38 @@ import java.util.HashMap;
 public class WorldAudioGenerator {
 
     /**
-     * Creates one dictionary with buffers to the audio engine
+     * Creates one dictionary with buffers to the audio engine with the
+     * loading pipeline, the files are decoded in one worker (the decoder of
+     * vorbis is shared) and the buffers created in the thread of the render
      *
-     * @param loader
-     * @param resourceProvider
-     * @return
+     * @param assetLoader      The pipeline that loads the assets
+     * @param loader           Loader of the audio elements
+     * @param resourceProvider Provider of the resources used in the application
+     * @return Handle to the dictionary of sounds
      */
-    public static HashMap<AudioEnum, IAudioDescription> getBuffers(IAudioLoader loader, IResourceProvider resourceProvider) {
-        AudioEnum[] audioTypes = AudioEnum.values();
-        HashMap<AudioEnum, IAudioDescription> audioLibrary = new HashMap<AudioEnum, IAudioDescription>();
-
-        for (AudioEnum tAudio : audioTypes) {
-            IAudioDescription audioBuffer = loader.loadAudio(tAudio, resourceProvider);
-            if (audioBuffer != null) {
-                audioLibrary.put(tAudio, audioBuffer);
+    public static AssetFuture<HashMap<AudioEnum, IAudioDescription>> loadBuffers(
+            AssetLoader assetLoader, final IAudioLoader loader, final IResourceProvider resourceProvider) {
+        return assetLoader.load("audio", new Callable<HashMap<AudioEnum, IAudioData>>() {
+            @Override
+            public HashMap<AudioEnum, IAudioData> call() throws Exception {
+                HashMap<AudioEnum, IAudioData> audioData = new HashMap<>();
+                for (AudioEnum tAudio : AudioEnum.values()) {
+                    audioData.put(tAudio, resourceProvider.getResource(tAudio));
+                }
+                return audioData;
             }
-        }
-
-        return audioLibrary;
+        }, new IUploadTask<HashMap<AudioEnum, IAudioData>, HashMap<AudioEnum, IAudioDescription>>() {
+            @Override
+            public HashMap<AudioEnum, IAudioDescription> upload(HashMap<AudioEnum, IAudioData> audioData) {
+                HashMap<AudioEnum, IAudioDescription> audioLibrary = new HashMap<AudioEnum, IAudioDescription>();
+                for (AudioEnum tAudio : audioData.keySet()) {
+                    IAudioDescription audioBuffer = loader.loadAudio(audioData.get(tAudio));
+                    if (audioBuffer != null) {
+                        audioLibrary.put(tAudio, audioBuffer);
+                    }
+                }
+                return audioLibrary;
+            }
+        });
     }
-
 }
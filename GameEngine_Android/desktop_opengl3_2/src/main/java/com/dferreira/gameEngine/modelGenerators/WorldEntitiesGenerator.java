@@ -1,18 +1,25 @@
 package com.dferreira.gameEngine.modelGenerators;
 
+import com.dferreira.commons.TransformStore;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
-import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
-import com.dferreira.commons.utils.Utils;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.loading.IUploadTask;
+import com.dferreira.commons.optimizer.LodChain;
+import com.dferreira.commons.optimizer.MeshSimplifier;
+import com.dferreira.commons.optimizer.QuantizedMesh;
 import com.dferreira.gameEngine.models.Terrain;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
 import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
-import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
 import com.dferreira.gameEngine.renderEngine.Loader;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
 
 /**
  * Responsible for creating the multiple entities of the 3D world
@@ -25,15 +32,19 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
     private final static int NUMBER_OF_FLOWERS = 100;
     private final static int NUMBER_OF_MARBLES = 10;
 
+    /* Maximum number of levels of detail of every model (including the full detail) */
+    private final static int LOD_LEVELS = 4;
+
     /**
      * Get one entity in a certain position
      *
-     * @param genericEntity Generic entity
-     * @param position      Position where is to put the entity in the 3D world
+     * @param transformStore Store of the scene where the transformation of the entity is kept
+     * @param genericEntity  Generic entity
+     * @param position       Position where is to put the entity in the 3D world
      * @return the entity to render
      */
-    private static Entity getEntity(GenericEntity genericEntity, Vector3f position) {
-        Entity entity = new Entity(genericEntity, position, // Position
+    private static Entity getEntity(TransformStore transformStore, GenericEntity genericEntity, Vector3f position) {
+        Entity entity = new Entity(transformStore, genericEntity, position, // Position
                 0.0f, 0.0f, 0.0f, // Rotation
                 0.0f // Scale
         );
@@ -42,17 +53,16 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 
     /**
      * Get the default values of the entities that are going make the world
+     * (the meshes are read later by the workers of the loading pipeline)
      *
-     * @param rProvider Provider of the resources to load
      * @return The map of model VS quantities of entities
      */
-    private static HashMap<DefaultModelGenerator, Integer> getEntitiesMap(IResourceProvider rProvider) {
+    static HashMap<DefaultModelGenerator, Integer> getEntitiesMap() {
         HashMap<DefaultModelGenerator, Integer> entitiesMap = new HashMap<DefaultModelGenerator, Integer>();
 
 		/* Fern model */
         DefaultModelGenerator fernModel = new DefaultModelGenerator();
         fernModel.setObjectType(ModelEnum.fern);
-        fernModel.setObjectReference(rProvider.getResource(ModelEnum.fern));
         fernModel.setScale(1.0f);
         fernModel.setHasTransparency(true);
         fernModel.setNormalsPointingUp(true);
@@ -60,7 +70,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* Tree model */
         DefaultModelGenerator treeModel = new DefaultModelGenerator();
         treeModel.setObjectType(ModelEnum.tree);
-        treeModel.setObjectReference(rProvider.getResource(ModelEnum.tree));
         treeModel.setScale(10.0f);
         treeModel.setHasTransparency(false);
         treeModel.setNormalsPointingUp(false);
@@ -68,7 +77,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* Banana tree */
         DefaultModelGenerator bananaTreeModel = new DefaultModelGenerator();
         bananaTreeModel.setObjectType(ModelEnum.banana_tree);
-        bananaTreeModel.setObjectReference(rProvider.getResource(ModelEnum.banana_tree));
         bananaTreeModel.setScale(1.0f);
         bananaTreeModel.setHasTransparency(true);
         bananaTreeModel.setNormalsPointingUp(false);
@@ -76,7 +84,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* grass model */
         DefaultModelGenerator grassModel = new DefaultModelGenerator();
         grassModel.setObjectType(ModelEnum.grass);
-        grassModel.setObjectReference(rProvider.getResource(ModelEnum.grass));
         grassModel.setScale(1.0f);
         grassModel.setHasTransparency(true);
         grassModel.setNormalsPointingUp(true);
@@ -84,7 +91,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* flower model */
         DefaultModelGenerator flowerModel = new DefaultModelGenerator();
         flowerModel.setObjectType(ModelEnum.flower);
-        flowerModel.setObjectReference(rProvider.getResource(ModelEnum.flower));
         flowerModel.setScale(1.0f);
         flowerModel.setHasTransparency(true);
         flowerModel.setNormalsPointingUp(false);
@@ -92,7 +98,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* Marble model */
         DefaultModelGenerator marbleModel = new DefaultModelGenerator();
         marbleModel.setObjectType(ModelEnum.marble);
-        marbleModel.setObjectReference(rProvider.getResource(ModelEnum.marble));
         marbleModel.setScale(5.0f);
         marbleModel.setHasTransparency(false);
         marbleModel.setNormalsPointingUp(false);
@@ -109,57 +114,100 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
     }
 
     /**
-     * @param loader           loader that will load the entities of the 3D world
-     * @param loaderAPI        loader that will load the entities of the 3D world
-     * @param resourceProvider Provider of the resources used in the application
-     * @param terrain          The terrain used to determine the height position
-     * @return The entities that will compose the 3D world
+     * Builds the levels of detail of the mesh of one model (read with the
+     * atlas), quantizes it and places its entities on the terrain (runs in the
+     * workers of the loading pipeline)
+     *
+     * @param atlas        The atlas decoded with the mesh and the textures of the model
+     * @param model        Description of the model
+     * @param numberOfObjs Number of entities of the model
+     * @param terrain      The terrain used to determine the height position
+     * @return The model decoded
      */
-    public static Entity[] getEntities(Loader loader, ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider,
-                                       Terrain terrain) {
+    private static DecodedModel decodeModel(DecodedAtlas atlas, DefaultModelGenerator model, int numberOfObjs,
+                                            Terrain terrain) {
+        model.setObjectReference(atlas.getMesh(model.getObjectType()));
+        LodChain lodChain = MeshSimplifier.buildLodChain(model.getObjectReference(), LOD_LEVELS);
+        QuantizedMesh quantizedMesh = quantize(lodChain);
 
-        HashMap<DefaultModelGenerator, Integer> entitiesMap = getEntitiesMap(resourceProvider);
-
-        int totalModels = 0;
-        for (DefaultModelGenerator key : entitiesMap.keySet()) {
-            totalModels += entitiesMap.get(key);
+        Random random = new Random();
+        Vector3f[] positions = new Vector3f[numberOfObjs];
+        float[] scales = new float[numberOfObjs];
+        for (int i = 0; i < numberOfObjs; i++) {
+            float xPosition = 20.0f + random.nextFloat() * 400.0f;
+            float zPosition = random.nextFloat() * 400.0f;
+            float yPosition = terrain.getHeightOfTerrain(xPosition, zPosition);
+            positions[i] = new Vector3f(xPosition, yPosition, zPosition);
+            scales[i] = random.nextFloat() * model.getScale();
         }
-        Entity[] entities = new Entity[totalModels];
+        return new DecodedModel(model, lodChain, quantizedMesh, atlas.getTextures(model.getObjectType()),
+                atlas.getAtlas(), positions, scales);
+    }
 
-        Random random = new Random();
-        int count = 0;
-        for (DefaultModelGenerator key : entitiesMap.keySet()) {
-            HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI,
-                    key.getObjectReference(), key.getHasTransparency(), key.getNormalsPointingUp());
-            GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, key.getObjectType());
-            // Prepare generic entity end
-            Integer numberOfObjs = entitiesMap.get(key);
-            for (int i = 0; i < numberOfObjs; i++) {
-                float xPosition = 20.0f + random.nextFloat() * 400.0f;
-                float zPosition = random.nextFloat() * 400.0f;
-                float yPosition = terrain.getHeightOfTerrain(xPosition, zPosition);
-                Vector3f entityPosition = new Vector3f(xPosition, yPosition, zPosition);
-                Entity entity = getEntity(genericEntity, entityPosition);
-                float scale = random.nextFloat() * key.getScale();
-                entity.setScale(scale);
-                entities[count] = entity;
-                ++count;
-            }
+    /**
+     * Uploads one model decoded and creates its entities
+     *
+     * @param loader         loader that will load the materials of the entities
+     * @param loaderAPI      loader that will load the entities of the 3D world
+     * @param transformStore Store of the scene where the transformations of the entities are kept
+     * @param decoded        The model decoded
+     * @return The entities of the model
+     */
+    private static Entity[] getEntities(Loader loader, ILoaderRenderAPI loaderAPI, TransformStore transformStore,
+                                        DecodedModel decoded) {
+        GenericEntity genericEntity = getGenericEntity(loader, loaderAPI, decoded);
+        Entity[] entities = new Entity[decoded.getPositions().length];
+        for (int i = 0; i < entities.length; i++) {
+            Entity entity = getEntity(transformStore, genericEntity, decoded.getPositions()[i]);
+            entity.setScale(decoded.getScales()[i]);
+            entities[i] = entity;
         }
         return entities;
     }
 
     /**
-     * Load the textures of a list of entities
+     * Loads the entities of the 3D world with the loading pipeline, one
+     * handle by model so every model shows up as soon as it is uploaded
      *
-     * @param loaderRenderAPI Loader to load content specific to the render API
-     * @param entities        The entities for which is to load the textures
+     * @param assetLoader      The pipeline that loads the assets
+     * @param loader           loader that will load the materials of the entities
+     * @param loaderAPI        loader that will load the entities of the 3D world
+     * @param transformStore   Store of the scene where the transformations of the entities are kept
+     * @param decodedAtlas     Handle to the atlas decoded with the meshes and the textures of the models
+     *                         (has to be requested before so the workers waiting for it do not block it)
+     * @param decodedTerrain   Handle to the terrain decoded used to determine the height position
+     *                         (has to be requested before so the workers waiting for it do not block it)
+     * @return The handles to the entities of every model
      */
-    public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, Entity[] entities) {
-        if (!Utils.isEmpty(entities)) {
-            for (Entity entity : entities) {
-                loadTexturesOfEntity(loaderRenderAPI, entity);
-            }
+    public static List<AssetFuture<Entity[]>> loadEntities(AssetLoader assetLoader, final Loader loader,
+                                                           final ILoaderRenderAPI loaderAPI,
+                                                           final TransformStore transformStore,
+                                                           final AssetFuture<DecodedAtlas> decodedAtlas,
+                                                           final AssetFuture<DecodedTerrain> decodedTerrain) {
+        HashMap<DefaultModelGenerator, Integer> entitiesMap = getEntitiesMap();
+        List<AssetFuture<Entity[]>> futures = new ArrayList<>(entitiesMap.size());
+        for (final DefaultModelGenerator key : entitiesMap.keySet()) {
+            final int numberOfObjs = entitiesMap.get(key);
+            futures.add(assetLoader.load(key.getObjectType().toString(), new Callable<DecodedModel>() {
+                @Override
+                public DecodedModel call() throws Exception {
+                    DecodedTerrain terrain = decodedTerrain.await();
+                    if (terrain == null) {
+                        throw new IllegalStateException("The terrain was not decoded");
+                    }
+                    DecodedAtlas atlas = decodedAtlas.await();
+                    if (atlas == null) {
+                        throw new IllegalStateException("The atlas was not decoded");
+                    }
+                    return decodeModel(atlas, key, numberOfObjs, terrain.getTerrain());
+                }
+            }, new IUploadTask<DecodedModel, Entity[]>() {
+                @Override
+                public Entity[] upload(DecodedModel decoded) {
+                    return getEntities(loader, loaderAPI, transformStore, decoded);
+                }
+            }));
         }
+        return futures;
     }
 }
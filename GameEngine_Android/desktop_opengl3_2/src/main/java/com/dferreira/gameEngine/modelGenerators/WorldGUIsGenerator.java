@@ -6,13 +6,19 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.TextureEnum;
-import com.dferreira.commons.utils.Utils;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.loading.IUploadTask;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.textures.MipmapGenerator;
 import com.dferreira.gameEngine.models.GuiShape;
 import com.dferreira.gameEngine.models.GuiTexture;
 import com.dferreira.gameEngine.shaders.guis.TGuiAttribute;
 
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 /**
  * Responsible for creating the multiple GUIs to the user interact with 3D world
@@ -44,10 +50,10 @@ public class WorldGUIsGenerator {
     /**
      * The GUIs of the scene
      *
-     * @param loader The loader in charge of loading the textures of the terrains
-     * @return list of terrains of the scene
+     * @param loaderRenderAPI The loader in charge of loading the shape of the GUIs
+     * @return list of GUIs of the scene
      */
-    public static GuiTexture[] getGUIs(ILoaderRenderAPI loaderRenderAPI) {
+    private static GuiTexture[] getGUIs(ILoaderRenderAPI loaderRenderAPI) {
         GuiShape guiShape = new GuiShape();
 
         HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
@@ -65,18 +71,34 @@ public class WorldGUIsGenerator {
     }
 
     /**
-     * Loads the textures of the guis
+     * Loads the GUIs with the loading pipeline, the textures are decoded in
+     * the workers
      *
-     * @param loaderRenderAPI Loader to load the raw model
-     * @param GUIs            List of the GUIs in the scene
+     * @param assetLoader      The pipeline that loads the assets
+     * @param resourceProvider Provider of the resources used in the application
+     * @param loaderRenderAPI  Loader to load the raw model
+     * @return Handle to the GUIs of the scene
      */
-    public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, GuiTexture[] GUIs) {
-        if (!Utils.isEmpty(GUIs)) {
-            for (GuiTexture guiTexture : GUIs) {
-                // Load the texture of the GUI
-                ITexture texture = loaderRenderAPI.loadTexture(guiTexture.getTextureEnum(), false);
-                guiTexture.setTexture(texture);
+    public static AssetFuture<GuiTexture[]> loadGUIs(AssetLoader assetLoader, final IResourceProvider resourceProvider,
+                                                     final ILoaderRenderAPI loaderRenderAPI) {
+        return assetLoader.load(TextureEnum.game_engine_logo.toString(), new Callable<TextureData[]>() {
+            @Override
+            public TextureData[] call() throws Exception {
+                return MipmapGenerator.attach(resourceProvider.getResources(new TextureEnum[]{TextureEnum.game_engine_logo}),
+                        0.0f);
             }
-        }
+        }, new IUploadTask<TextureData[], GuiTexture[]>() {
+            @Override
+            public GuiTexture[] upload(TextureData[] textures) {
+                GuiTexture[] GUIs = getGUIs(loaderRenderAPI);
+                for (int i = 0; i < GUIs.length; i++) {
+                    // Load the texture of the GUI
+                    ITexture texture = loaderRenderAPI.loadTexture(textures[i], false);
+                    GUIs[i].setTexture(texture);
+                }
+                TextureData.release(textures);
+                return GUIs;
+            }
+        });
     }
 }
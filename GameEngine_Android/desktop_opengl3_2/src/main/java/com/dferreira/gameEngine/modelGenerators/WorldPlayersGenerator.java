@@ -1,15 +1,18 @@
 package com.dferreira.gameEngine.modelGenerators;
 
+import com.dferreira.commons.TransformStore;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
-import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.loading.IUploadTask;
+import com.dferreira.commons.optimizer.LodChain;
 import com.dferreira.gameEngine.models.Player;
 import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
-import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
 import com.dferreira.gameEngine.renderEngine.Loader;
 
-import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 /**
  * Responsible for creating the creating the player_mtl(s) of the scene
@@ -17,13 +20,11 @@ import java.util.HashMap;
 public class WorldPlayersGenerator extends GenericEntitiesGenerator {
 
     /**
-     * @param rProvider Provider of the resources to load
-     * @return The model with information to generate a player_mtl
+     * @return The model with information to generate a player_mtl (the mesh is read later)
      */
-    private static DefaultModelGenerator getPlayerModel(IResourceProvider rProvider) {
+    static DefaultModelGenerator getPlayerModel() {
         /* Player model */
         DefaultModelGenerator playerModel = new DefaultModelGenerator();
-        playerModel.setObjectReference(rProvider.getResource(ModelEnum.player));
         playerModel.setObjectType(ModelEnum.player);
         playerModel.setScale(1.0f);
         playerModel.setHasTransparency(false);
@@ -34,12 +35,15 @@ public class WorldPlayersGenerator extends GenericEntitiesGenerator {
     }
 
     /**
-     * @param loader loader that will load the entities of the 3D world
-     * @return The player_mtl that is going to be used in the scene
+     * Quantizes the mesh of the player read with the atlas (runs in the
+     * workers of the loading pipeline)
+     *
+     * @param atlas The atlas decoded with the mesh and the textures of the player
+     * @return The model of the player decoded
      */
-    @SuppressWarnings("UnnecessaryLocalVariable")
-    public static Player getPlayer(Loader loader, ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider) {
-        DefaultModelGenerator model = getPlayerModel(resourceProvider);
+    private static DecodedModel decodePlayer(DecodedAtlas atlas) {
+        DefaultModelGenerator model = getPlayerModel();
+        model.setObjectReference(atlas.getMesh(model.getObjectType()));
 
         float xPosition = 20.0f;
         float yPosition = -1.0f;
@@ -47,26 +51,62 @@ public class WorldPlayersGenerator extends GenericEntitiesGenerator {
 
         Vector3f playerPosition = new Vector3f(xPosition, yPosition, zPosition);
 
-        //Load the obj of the player
-        HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI, model.getObjectReference(),
-                model.getHasTransparency(), model.getNormalsPointingUp());
-        GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, model.getObjectType());
-        //Prepare generic entity end
-        Player player = new Player(genericEntity, playerPosition, // Position
+        // The player is always close to the camera so only has the full detail
+        LodChain lodChain = new LodChain(model.getObjectReference());
+        return new DecodedModel(model, lodChain, quantize(lodChain), atlas.getTextures(model.getObjectType()),
+                atlas.getAtlas(), new Vector3f[]{playerPosition},
+                new float[]{model.getScale()});
+    }
+
+    /**
+     * Uploads the model of the player decoded
+     *
+     * @param loader         loader that will load the materials of the player
+     * @param loaderAPI      loader that will load the player
+     * @param transformStore Store of the scene where the transformation of the player is kept
+     * @param decoded        The model of the player decoded
+     * @return The player_mtl that is going to be used in the scene
+     */
+    @SuppressWarnings("UnnecessaryLocalVariable")
+    private static Player getPlayer(Loader loader, ILoaderRenderAPI loaderAPI, TransformStore transformStore,
+                                    DecodedModel decoded) {
+        GenericEntity genericEntity = getGenericEntity(loader, loaderAPI, decoded);
+        Player player = new Player(transformStore, genericEntity, decoded.getPositions()[0], // Position
                 0.0f, 0.0f, 0.0f, // Rotation
-                model.getScale() // Scale
+                decoded.getScales()[0] // Scale
         );
         return player;
     }
 
-
     /**
-     * Load the textures of the players
+     * Loads the player with the loading pipeline
      *
-     * @param loaderRenderAPI Loader to load the raw model
-     * @param player          The player which is to load the textures
+     * @param assetLoader      The pipeline that loads the assets
+     * @param loader           loader that will load the materials of the player
+     * @param loaderAPI        loader that will load the player
+     * @param transformStore   Store of the scene where the transformation of the player is kept
+     * @param decodedAtlas     Handle to the atlas decoded with the mesh and the textures of the player
+     *                         (has to be requested before so the workers waiting for it do not block it)
+     * @return Handle to the player_mtl that is going to be used in the scene
      */
-    public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, Player player) {
-        loadTexturesOfEntity(loaderRenderAPI, player);
+    public static AssetFuture<Player> loadPlayer(AssetLoader assetLoader, final Loader loader,
+                                                 final ILoaderRenderAPI loaderAPI,
+                                                 final TransformStore transformStore,
+                                                 final AssetFuture<DecodedAtlas> decodedAtlas) {
+        return assetLoader.load(ModelEnum.player.toString(), new Callable<DecodedModel>() {
+            @Override
+            public DecodedModel call() throws Exception {
+                DecodedAtlas atlas = decodedAtlas.await();
+                if (atlas == null) {
+                    throw new IllegalStateException("The atlas was not decoded");
+                }
+                return decodePlayer(atlas);
+            }
+        }, new IUploadTask<DecodedModel, Player>() {
+            @Override
+            public Player upload(DecodedModel decoded) {
+                return getPlayer(loader, loaderAPI, transformStore, decoded);
+            }
+        });
     }
 }
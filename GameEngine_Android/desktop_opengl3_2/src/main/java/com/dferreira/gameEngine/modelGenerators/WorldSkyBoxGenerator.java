@@ -5,13 +5,19 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.loading.IUploadTask;
+import com.dferreira.commons.models.TextureData;
 import com.dferreira.commons.shapes.IShape;
 import com.dferreira.gameEngine.models.SkyBox;
 import com.dferreira.gameEngine.models.SkyBoxShape;
 import com.dferreira.gameEngine.shaders.skyBox.TSkyBoxAttribute;
 
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 
 /**
@@ -35,7 +41,7 @@ public class WorldSkyBoxGenerator {
      * @param loaderRenderAPI object that is going to read the coordinates of the sky
      * @return the reference to the sky box created
      */
-    public static SkyBox getSky(ILoaderRenderAPI loaderRenderAPI) {
+    private static SkyBox getSky(ILoaderRenderAPI loaderRenderAPI) {
         IShape skyBoxShape = new SkyBoxShape();
 
         HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
@@ -47,13 +53,30 @@ public class WorldSkyBoxGenerator {
     }
 
     /**
-     * Load the textures of the skyBox
+     * Loads the sky box with the loading pipeline, the six faces are decoded
+     * in the workers
      *
-     * @param loaderRenderAPI Loader to load the raw model
-     * @param skyBox          The skyBox to load the elements
+     * @param assetLoader      The pipeline that loads the assets
+     * @param resourceProvider Provider of the resources used in the application
+     * @param loaderRenderAPI  Loader to load the raw model
+     * @return Handle to the sky box
      */
-    public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, SkyBox skyBox) {
-        ITexture texture = loaderRenderAPI.loadTCubeMap(SKY_RESOURCE_IDS, false);
-        skyBox.setTexture(texture);
+    public static AssetFuture<SkyBox> loadSky(AssetLoader assetLoader, final IResourceProvider resourceProvider,
+                                              final ILoaderRenderAPI loaderRenderAPI) {
+        return assetLoader.load("skyBox", new Callable<TextureData[]>() {
+            @Override
+            public TextureData[] call() throws Exception {
+                return resourceProvider.getResources(SKY_RESOURCE_IDS);
+            }
+        }, new IUploadTask<TextureData[], SkyBox>() {
+            @Override
+            public SkyBox upload(TextureData[] textures) {
+                SkyBox skyBox = getSky(loaderRenderAPI);
+                ITexture texture = loaderRenderAPI.loadTCubeMap(textures, false);
+                TextureData.release(textures);
+                skyBox.setTexture(texture);
+                return skyBox;
+            }
+        });
     }
 }
@@ -6,34 +6,54 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.RenderConstants;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.loading.IUploadTask;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.textures.MipmapGenerator;
+import com.dferreira.commons.textures.TextureStreamer;
 import com.dferreira.gameEngine.models.Terrain;
 import com.dferreira.gameEngine.models.TerrainShape;
 import com.dferreira.gameEngine.shaders.terrains.TTerrainAttribute;
 import com.dferreira.gameEngine.textures.TerrainTexturesPack;
 
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 /**
  * Responsible for creating the multiple terrains of the 3D world
  */
 public class WorldTerrainsGenerator {
 
+    /* The textures of the terrain (weight map, background, mud, grass and path) */
+    private final static TextureEnum[] TERRAIN_TEXTURES = {
+            TextureEnum.weight_map,
+            TextureEnum.terrain,
+            TextureEnum.mud,
+            TextureEnum.terrain_grass,
+            TextureEnum.path
+    };
+
     /**
-     * Load the texture of the terrain
+     * Load the textures of the terrain already decoded (streamed by the
+     * distance of the camera to the terrains)
      *
      * @param loaderRenderAPI Loader to load the raw model
+     * @param textures        The textures decoded in the order of {@link #TERRAIN_TEXTURES}
      * @return the textured model of the terrain
      */
-    @SuppressWarnings("ConstantConditions")
-    private static TerrainTexturesPack getTexturedTerrain(ILoaderRenderAPI loaderRenderAPI) {
+    private static TerrainTexturesPack getTexturedTerrain(ILoaderRenderAPI loaderRenderAPI, TextureData[] textures) {
         boolean repeat = true;
-        ITexture weightMapTexture = loaderRenderAPI.loadTexture(TextureEnum.weight_map, repeat);
-        ITexture backgroundTexture = loaderRenderAPI.loadTexture(TextureEnum.terrain, repeat);
-        ITexture mudTexture = loaderRenderAPI.loadTexture(TextureEnum.mud, repeat);
-        ITexture grassTexture = loaderRenderAPI.loadTexture(TextureEnum.terrain_grass, repeat);
-        ITexture pathTexture = loaderRenderAPI.loadTexture(TextureEnum.path, repeat);
+        TextureStreamer textureStreamer = loaderRenderAPI.getTextureStreamer();
+        ITexture weightMapTexture = textureStreamer.loadTexture(null, textures[0], repeat);
+        ITexture backgroundTexture = textureStreamer.loadTexture(null, textures[1], repeat);
+        ITexture mudTexture = textureStreamer.loadTexture(null, textures[2], repeat);
+        ITexture grassTexture = textureStreamer.loadTexture(null, textures[3], repeat);
+        ITexture pathTexture = textureStreamer.loadTexture(null, textures[4], repeat);
         // Create the package
         TerrainTexturesPack texturesPackage = new TerrainTexturesPack();
         texturesPackage.setWeightMapTexture(weightMapTexture);
@@ -46,47 +66,70 @@ public class WorldTerrainsGenerator {
     }
 
     /**
-     * Creates a terrain in a specified position
+     * Decodes the height map and builds the shape of the terrain with the
+     * loading pipeline, the other assets wait for it to be placed on the ground
      *
-     * @param terrainModel Model of the terrain to render
-     * @param heights      The height of the vertices of the terrain
-     * @param position     Position where is to put the terrain
-     * @return The terrain in the position specified
+     * @param assetLoader      The pipeline that loads the assets
+     * @param resourceProvider Provider of the resources used in the application
+     * @return Handle to the terrain decoded
      */
-    private static Terrain getTerrain(IRawModel terrainModel, float[][] heights, Vector3f position) {
-        return new Terrain(terrainModel, heights, position);
+    public static AssetFuture<DecodedTerrain> decodeTerrain(AssetLoader assetLoader,
+                                                            final IResourceProvider resourceProvider) {
+        return assetLoader.decode(TextureEnum.terrain_heightmap.toString(), new Callable<DecodedTerrain>() {
+            @Override
+            public DecodedTerrain call() throws Exception {
+                TextureData heightMap = resourceProvider.getResource(TextureEnum.terrain_heightmap);
+                TerrainShape shape = new TerrainShape(heightMap);
+                Vector3f terrainPosition1 = new Vector3f(0.0f, 0.0f, -0.1f);
+                return new DecodedTerrain(shape, new Terrain(shape.getHeights(), terrainPosition1));
+            }
+        });
     }
 
     /**
-     * @param loaderRenderAPI The API responsible for load elements specifics to the render
-     * @return The terrain of the 3D scene
+     * Decodes the textures of the terrain in the workers and uploads them
+     * with the shape of the terrain
+     *
+     * @param assetLoader      The pipeline that loads the assets
+     * @param resourceProvider Provider of the resources used in the application
+     * @param loaderRenderAPI  The API responsible for load elements specifics to the render
+     * @param decodedTerrain   Handle to the terrain decoded
+     * @return Handle to the terrain of the 3D scene
      */
-    public static Terrain getTerrain(ILoaderRenderAPI loaderRenderAPI) {
-        TextureData heightMap = loaderRenderAPI.getTextureData(TextureEnum.terrain_heightmap);
-
-        TerrainShape terrain = new TerrainShape(heightMap);
+    public static AssetFuture<Terrain> loadTerrain(AssetLoader assetLoader, final IResourceProvider resourceProvider,
+                                                   final ILoaderRenderAPI loaderRenderAPI,
+                                                   final AssetFuture<DecodedTerrain> decodedTerrain) {
+        return assetLoader.load(TextureEnum.terrain.toString(), new Callable<TextureData[]>() {
+            @Override
+            public TextureData[] call() throws Exception {
+                TextureData[] textures = MipmapGenerator.attach(resourceProvider.getResources(TERRAIN_TEXTURES), 0.0f);
+                // Requested before so it is decoded or being decoded by other worker
+                decodedTerrain.await();
+                return textures;
+            }
+        }, new IUploadTask<TextureData[], Terrain>() {
+            @Override
+            public Terrain upload(TextureData[] textures) {
+                DecodedTerrain decoded = decodedTerrain.get();
+                if (decoded == null) {
+                    TextureData.release(textures);
+                    return null;
+                }
+                HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
 
-        HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
+                attributes.put(RenderAttributeEnum.position, TTerrainAttribute.position);
+                attributes.put(RenderAttributeEnum.textureCoords, TTerrainAttribute.textureCoords);
+                attributes.put(RenderAttributeEnum.normal, TTerrainAttribute.normal);
 
-        attributes.put(RenderAttributeEnum.position, TTerrainAttribute.position);
-        attributes.put(RenderAttributeEnum.textureCoords, TTerrainAttribute.textureCoords);
-        attributes.put(RenderAttributeEnum.normal, TTerrainAttribute.normal);
+                VertexFormat format = VertexFormat.positionTextureNormal(RenderConstants.VERTEX_LAYOUT, attributes);
+                IRawModel model = loaderRenderAPI.loadToRawModel(decoded.getShape(), format);
 
-
-        IRawModel model = loaderRenderAPI.loadToRawModel(terrain, attributes);
-
-        Vector3f terrainPosition1 = new Vector3f(0.0f, 0.0f, -0.1f);
-        return getTerrain(model, terrain.getHeights(), terrainPosition1);
-    }
-
-    /**
-     * Load the textures of one terrain
-     *
-     * @param loaderRenderAPI Loader to load the raw model
-     * @param terrain         The terrain that is going to get the textures loaded
-     */
-    public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, Terrain terrain) {
-        TerrainTexturesPack terrainTexturesPackage = getTexturedTerrain(loaderRenderAPI);
-        terrain.setTexturePack(terrainTexturesPackage);
+                Terrain terrain = decoded.getTerrain();
+                terrain.setModel(model);
+                terrain.setTexturePack(getTexturedTerrain(loaderRenderAPI, textures));
+                TextureData.release(textures);
+                return terrain;
+            }
+        });
     }
 }
@@ -1,5 +1,6 @@
 package com.dferreira.gameEngine.models;
 
+import com.dferreira.commons.Quaternion;
 import com.dferreira.commons.Vector3f;
 
 /**
@@ -26,12 +27,25 @@ public class Camera {
      */
     private float roll;
 
+    /**
+     * Rotation of the view, the product of the yaw by the pitch (the same as
+     * rotating by the pitch and then by the yaw), updated when they are set
+     */
+    private final Quaternion orientation;
+
+    /**
+     * Rotation of the yaw while the orientation is updated
+     */
+    private final Quaternion yawRotation;
+
 
     /**
      * Initializer of the camera of the scene
      */
     public Camera() {
         this.position = new Vector3f(0, 2.5f, 0);
+        this.orientation = new Quaternion();
+        this.yawRotation = new Quaternion();
     }
 
 
@@ -56,6 +70,7 @@ public class Camera {
      */
     protected void setPitch(float pitch) {
         this.pitch = pitch;
+        updateOrientation();
     }
 
     /**
@@ -72,6 +87,7 @@ public class Camera {
      */
     protected void setYaw(float yaw) {
         this.yaw = yaw;
+        updateOrientation();
     }
 
     /**
@@ -81,4 +97,19 @@ public class Camera {
         return roll;
     }
 
+    /**
+     * Updates the rotation of the view from the pitch and the yaw
+     */
+    private void updateOrientation() {
+        yawRotation.setFromAxisAngle(yaw, 0.0f, 1.0f, 0.0f);
+        orientation.setFromAxisAngle(pitch, 1.0f, 0.0f, 0.0f);
+        orientation.multiply(yawRotation, orientation);
+    }
+
+    /**
+     * @return the rotation of the view (the product of the yaw by the pitch)
+     */
+    public Quaternion getOrientation() {
+        return orientation;
+    }
 }
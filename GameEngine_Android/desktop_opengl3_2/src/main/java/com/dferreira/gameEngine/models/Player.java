@@ -1,5 +1,6 @@
 package com.dferreira.gameEngine.models;
 
+import com.dferreira.commons.TransformStore;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
 import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
@@ -35,16 +36,18 @@ public class Player extends Entity {
     /**
      * Constructor of the player to be render in the 3D world
      *
-     * @param genericEntity reference to a generic entity with the description of the
-     *                      model
-     * @param position      position where the model should be render
-     * @param rotX          Rotation of the model in the X axle
-     * @param rotY          Rotation of the model in the Y axle
-     * @param rotZ          Rotation of the model in the Z axle
-     * @param scale         Scale of the model
+     * @param transformStore Store of the scene where the transformation of the player is kept
+     * @param genericEntity  reference to a generic entity with the description of the
+     *                       model
+     * @param position       position where the model should be render
+     * @param rotX           Rotation of the model in the X axle
+     * @param rotY           Rotation of the model in the Y axle
+     * @param rotZ           Rotation of the model in the Z axle
+     * @param scale          Scale of the model
      */
-    public Player(GenericEntity genericEntity, Vector3f position, float rotX, float rotY, float rotZ, float scale) {
-        super(genericEntity, position, rotX, rotY, rotZ, scale);
+    public Player(TransformStore transformStore, GenericEntity genericEntity, Vector3f position, float rotX,
+                  float rotY, float rotZ, float scale) {
+        super(transformStore, genericEntity, position, rotX, rotY, rotZ, scale);
         this.isJumping = false;
     }
 
@@ -110,7 +113,9 @@ public class Player extends Entity {
             upwardsSpeed += GRAVITIY * timeToRender;
             super.increasePosition(0.0f, upwardsSpeed, 0.0f);
         } else {
-            super.getPosition().y = terrainHeight;
+            Vector3f position = super.getPosition();
+            position.y = terrainHeight;
+            super.setPosition(position);
         }
 
         // Set the flag of jump to false
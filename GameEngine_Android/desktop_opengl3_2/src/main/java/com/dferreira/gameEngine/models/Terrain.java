@@ -32,7 +32,7 @@ public class Terrain {
     /**
      * The IRawModel of the terrain
      */
-    private final IRawModel model;
+    private IRawModel model;
 
     /**
      * The different textures of the terrain
@@ -47,7 +47,18 @@ public class Terrain {
      * @param position Position where the terrain will be put in
      */
     public Terrain(IRawModel rawModel, float[][] heights, Vector3f position) {
+        this(heights, position);
         this.model = rawModel;
+    }
+
+    /**
+     * The constructor of the terrain entity without model (the model is
+     * set once it is uploaded)
+     *
+     * @param heights  The heights of the terrain
+     * @param position Position where the terrain will be put in
+     */
+    public Terrain(float[][] heights, Vector3f position) {
         this.heights = heights;
         this.x = position.x * TerrainShape.SIZE;
         this.y = position.y * TerrainShape.SIZE;
@@ -100,6 +111,15 @@ public class Terrain {
         return model;
     }
 
+    /**
+     * Set the model of the terrain
+     *
+     * @param model The model of the terrain uploaded
+     */
+    public void setModel(IRawModel model) {
+        this.model = model;
+    }
+
     /**
      * The height of the terrain in a certain position of the world
      *
@@ -1,9 +1,12 @@
 package com.dferreira.gameEngine.models.complexEntities;
 
+import com.dferreira.commons.Quaternion;
+import com.dferreira.commons.TransformStore;
 import com.dferreira.commons.Vector3f;
 
 /**
- * Represents one entity in the 3D world
+ * Represents one entity in the 3D world, its position, rotation and scale
+ * are kept in the transform store of the scene
  */
 public class Entity {
 
@@ -13,34 +16,38 @@ public class Entity {
      */
     private final GenericEntity genericEntity;
 
-    /* Position where the entity is */
-    private Vector3f position;
+    /* Store where the transformation of the entity is kept */
+    private final TransformStore transformStore;
 
-    /* Rotation of the 3D model */
-    private float rotX, rotY, rotZ;
+    /* Index of the entity in the store */
+    private final int transformIndex;
 
-    /* Scale of the model */
-    private float scale;
+    /* Position where the entity is (copied from the store when it is asked) */
+    private final Vector3f position;
+
+    /* Rotation of the entity (copied from the store when it is asked) */
+    private final Quaternion orientation;
 
     /**
      * Constructor of the entity to be render in the 3D world
      *
-     * @param genericEntity reference to a generic entity with the description of the
-     *                      model
-     * @param position      position where the model should be render
-     * @param rotX          Rotation of the model in the X axle
-     * @param rotY          Rotation of the model in the Y axle
-     * @param rotZ          Rotation of the model in the Z axle
-     * @param scale         Scale of the model
-     */
-    public Entity(GenericEntity genericEntity, Vector3f position, float rotX, float rotY, float rotZ, float scale) {
+     * @param transformStore Store of the scene where the transformation of the entity is kept
+     * @param genericEntity  reference to a generic entity with the description of the
+     *                       model
+     * @param position       position where the model should be render
+     * @param rotX           Rotation of the model in the X axle
+     * @param rotY           Rotation of the model in the Y axle
+     * @param rotZ           Rotation of the model in the Z axle
+     * @param scale          Scale of the model
+     */
+    public Entity(TransformStore transformStore, GenericEntity genericEntity, Vector3f position, float rotX,
+                  float rotY, float rotZ, float scale) {
         super();
         this.genericEntity = genericEntity;
-        this.position = position;
-        this.rotX = rotX;
-        this.rotY = rotY;
-        this.rotZ = rotZ;
-        this.scale = scale;
+        this.transformStore = transformStore;
+        this.transformIndex = transformStore.add(position.x, position.y, position.z, rotX, rotY, rotZ, scale);
+        this.position = new Vector3f(position.x, position.y, position.z);
+        this.orientation = new Quaternion();
     }
 
     /**
@@ -52,9 +59,7 @@ public class Entity {
      * @param dz Z component to be increase
      */
     public void increasePosition(float dx, float dy, float dz) {
-        this.position.x += dx;
-        this.position.y += dy;
-        this.position.z += dz;
+        transformStore.increasePosition(transformIndex, dx, dy, dz);
     }
 
     /**
@@ -66,79 +71,106 @@ public class Entity {
      * @param dz Z component to be increase
      */
     public void increaseRotation(float dx, float dy, float dz) {
-        this.rotX += dx;
-        this.rotY += dy;
-        this.rotZ += dz;
+        transformStore.setRotation(transformIndex, getRotX() + dx, getRotY() + dy, getRotZ() + dz);
     }
 
     /**
-     * @return the position of the model
+     * @return the position of the model (one copy, it is set with {@link #setPosition(Vector3f)})
      */
     public Vector3f getPosition() {
-        return position;
+        return transformStore.getPosition(transformIndex, position);
     }
 
     /**
      * @param position The position to be set
      */
     public void setPosition(Vector3f position) {
-        this.position = position;
+        transformStore.setPosition(transformIndex, position.x, position.y, position.z);
+    }
+
+    /**
+     * @return the rotation of the entity as a quaternion (one copy, it is set with {@link #setOrientation(Quaternion)})
+     */
+    public Quaternion getOrientation() {
+        return transformStore.getOrientation(transformIndex, orientation);
+    }
+
+    /**
+     * @param orientation Unit quaternion of the rotation of the entity (the
+     *                    rotations in the axles are computed from it)
+     */
+    public void setOrientation(Quaternion orientation) {
+        transformStore.setOrientation(transformIndex, orientation);
     }
 
     /**
      * @return the rotation of the entity in the X axle
      */
     public float getRotX() {
-        return rotX;
+        return transformStore.getRotX(transformIndex);
     }
 
     /**
      * @param rotX the rotation of the entity in the X axle
      */
     public void setRotX(float rotX) {
-        this.rotX = rotX;
+        transformStore.setRotation(transformIndex, rotX, getRotY(), getRotZ());
     }
 
     /**
      * @return the rotation of the entity in the Y axle
      */
     public float getRotY() {
-        return rotY;
+        return transformStore.getRotY(transformIndex);
     }
 
     /**
      * @param rotY the rotation of the entity in the Y axle
      */
     public void setRotY(float rotY) {
-        this.rotY = rotY;
+        transformStore.setRotation(transformIndex, getRotX(), rotY, getRotZ());
     }
 
     /**
      * @return the rotation of the entity in the Z axle
      */
     public float getRotZ() {
-        return rotZ;
+        return transformStore.getRotZ(transformIndex);
     }
 
     /**
      * @param rotZ the rotation of the entity in the Z axle
      */
     public void setRotZ(float rotZ) {
-        this.rotZ = rotZ;
+        transformStore.setRotation(transformIndex, getRotX(), getRotY(), rotZ);
     }
 
     /**
      * @return the scale the scale of the entity
      */
     public float getScale() {
-        return scale;
+        return transformStore.getScale(transformIndex);
     }
 
     /**
      * @param scale the scale to set
      */
     public void setScale(float scale) {
-        this.scale = scale;
+        transformStore.setScale(transformIndex, scale);
+    }
+
+    /**
+     * @return Store where the transformation of the entity is kept
+     */
+    public TransformStore getTransformStore() {
+        return transformStore;
+    }
+
+    /**
+     * @return Index of the entity in the transform store
+     */
+    public int getTransformIndex() {
+        return transformIndex;
     }
 
     /**
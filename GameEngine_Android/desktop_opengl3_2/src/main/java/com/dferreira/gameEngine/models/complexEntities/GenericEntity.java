@@ -1,6 +1,7 @@
 package com.dferreira.gameEngine.models.complexEntities;
 
 import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.optimizer.LodChain;
 
 import java.util.HashMap;
 
@@ -20,16 +21,23 @@ public class GenericEntity {
      */
     private final ModelEnum objectType;
 
+    /**
+     * Levels of detail of the model
+     */
+    private final LodChain lodChain;
+
     /**
      * Constructor of the generic entity to be render in the 3D world
      *
      * @param groupsOfMaterials HashMap with groups of materials to use in entity
      * @param objectType        The type of the object that the model is supporting
+     * @param lodChain          Levels of detail of the model
      */
-    public GenericEntity(HashMap<String, MaterialGroup> groupsOfMaterials, ModelEnum objectType) {
+    public GenericEntity(HashMap<String, MaterialGroup> groupsOfMaterials, ModelEnum objectType, LodChain lodChain) {
         super();
         this.groupsOfMaterials = groupsOfMaterials;
         this.objectType = objectType;
+        this.lodChain = lodChain;
     }
 
     /**
@@ -46,4 +54,11 @@ public class GenericEntity {
         return objectType;
     }
 
+    /**
+     * @return Levels of detail of the model
+     */
+    public LodChain getLodChain() {
+        return lodChain;
+    }
+
 }
\ No newline at end of file
@@ -40,6 +40,13 @@ public class DisplayManager {
         }
     }
 
+    /**
+     * @return Height of the window in pixels
+     */
+    public static int getHeight() {
+        return Display.getHeight();
+    }
+
     /**
      * Say to have one update rate of 120 FPS
      */
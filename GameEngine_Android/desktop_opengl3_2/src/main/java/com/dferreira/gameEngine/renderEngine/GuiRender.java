@@ -3,6 +3,7 @@ package com.dferreira.gameEngine.renderEngine;
 import com.dferreira.commons.GLTransformation;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.utils.MatrixArena;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.gameEngine.models.GuiTexture;
 import com.dferreira.gameEngine.shaders.guis.GuiShaderManager;
@@ -20,15 +21,22 @@ public class GuiRender extends GenericRender {
      */
     private final GuiShaderManager gShader;
 
+    /**
+     * Arena where the matrices of the frame are taken from
+     */
+    private final MatrixArena matrixArena;
+
     /**
      * Constructor of the gui render
      *
      * @param gManager       Shader manager
      * @param frameRenderAPI Reference to the API responsible for render the frame
+     * @param matrixArena    Arena where the matrices of the frame are taken from
      */
-    public GuiRender(GuiShaderManager gManager, IFrameRenderAPI frameRenderAPI) {
+    public GuiRender(GuiShaderManager gManager, IFrameRenderAPI frameRenderAPI, MatrixArena matrixArena) {
         super(frameRenderAPI);
         this.gShader = gManager;
+        this.matrixArena = matrixArena;
     }
 
     /**
@@ -39,8 +47,7 @@ public class GuiRender extends GenericRender {
      * position
      */
     private GLTransformation getTransformationMatrix(GuiTexture gui) {
-        GLTransformation matrix = new GLTransformation();
-        matrix.loadIdentity();
+        GLTransformation matrix = matrixArena.obtain();
         matrix.translate(gui.getPosition().x, gui.getPosition().y, 0.0f);
 
         matrix.scale(gui.getScale().x, gui.getScale().y, 1.0f);
@@ -2,10 +2,13 @@ package com.dferreira.gameEngine.renderEngine;
 
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.TransformStore;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRenderAPIAccess;
 import com.dferreira.commons.generic_render.IShaderManagerAPI;
 import com.dferreira.commons.models.Light;
+import com.dferreira.commons.textures.TextureStreamer;
+import com.dferreira.commons.utils.MatrixArena;
 import com.dferreira.gameEngine.models.Camera;
 import com.dferreira.gameEngine.models.GuiTexture;
 import com.dferreira.gameEngine.models.Player;
@@ -35,6 +38,9 @@ public class MasterRender {
     private static final float NEAR_PLANE = 0.1f;
     private static final float FAR_PLANE = 1000.0f;
 
+    /* Number of matrices of the arena of the frame (view, terrains and GUIs) */
+    private static final int MATRIX_ARENA_CAPACITY = 32;
+
     /* Components of the color of the sky */
     private static final float SKY_R = 0.5f;
     private static final float SKY_G = 0.5f;
@@ -46,6 +52,21 @@ public class MasterRender {
      */
     private final IRenderAPIAccess renderAPI;
 
+    /**
+     * Streamer of the levels of the textures requested by the renders
+     */
+    private final TextureStreamer textureStreamer;
+
+    /**
+     * Arena of the matrices used while one frame is rendered
+     */
+    private final MatrixArena matrixArena;
+
+    /**
+     * Store with the transformations of the entities of the scene
+     */
+    private final TransformStore transformStore;
+
     /**
      * Reference to the render of the entities
      */
@@ -123,24 +144,29 @@ public class MasterRender {
 
         IShaderManagerAPI shaderManagerAPI = renderAPI.getShaderManagerAPI();
         IFrameRenderAPI frameRenderAPI = renderAPI.getFrameRenderAPI();
+        this.textureStreamer = renderAPI.getLoaderRenderAPI().getTextureStreamer();
+        this.matrixArena = new MatrixArena(MATRIX_ARENA_CAPACITY);
+        this.transformStore = new TransformStore();
 
         // Initializes the entity render
         EntityShaderManager eShader = new EntityShaderManager(shaderManagerAPI);
         this.entityRender = new EntityRender(eShader, projectionMatrix, frameRenderAPI);
+        this.entityRender.setTextureStreamer(textureStreamer);
 
         // Initializes the entities to be render
         this.entities = new HashMap<>();
 
         // Initializes the terrain render
         TerrainShaderManager tShader = new TerrainShaderManager(shaderManagerAPI);
-        this.terrainRender = new TerrainRender(tShader, projectionMatrix, frameRenderAPI);
+        this.terrainRender = new TerrainRender(tShader, projectionMatrix, frameRenderAPI, matrixArena);
+        this.terrainRender.setTextureStreamer(textureStreamer);
 
         // Initializes the sky box render
         SkyBoxShaderManager sbManager = new SkyBoxShaderManager(shaderManagerAPI);
         this.skyBoxRender = new SkyBoxRender(sbManager, projectionMatrix, frameRenderAPI);
 
         GuiShaderManager gShader = new GuiShaderManager(shaderManagerAPI);
-        this.guiRender = new GuiRender(gShader, frameRenderAPI);
+        this.guiRender = new GuiRender(gShader, frameRenderAPI, matrixArena);
 
         // Initializes the terrains to render
         this.terrains = new ArrayList<Terrain>();
@@ -274,13 +300,11 @@ public class MasterRender {
      * Create the view matrix from the data that has about the camera
      *
      * @param camera the camera to which is to create the view matrix
-     * @return The view matrix
+     * @return The view matrix (valid until the end of the frame)
      */
     private GLTransformation createViewMatrix(Camera camera) {
-        GLTransformation matrix = new GLTransformation();
-        matrix.loadIdentity();
-        matrix.rotate(camera.getPitch(), 1.0f, 0.0f, 0.0f);
-        matrix.rotate(camera.getYaw(), 0.0f, 1.0f, 0.0f);
+        GLTransformation matrix = matrixArena.obtain();
+        matrix.rotate(camera.getOrientation());
         matrix.translate(-camera.getPosition().x, -camera.getPosition().y, -camera.getPosition().z);
 
         return matrix;
@@ -293,7 +317,7 @@ public class MasterRender {
     private GLTransformation updateCamera() {
 
         // Update the camera taking in account the position of the player
-        if (player != null) {
+        if ((player != null) && !this.terrains.isEmpty()) {
             camera.update(player, this.terrains.get(0));
         }
 
@@ -306,7 +330,7 @@ public class MasterRender {
      * Call the method to update the player position
      */
     private void updatePlayer() {
-        if (this.player != null) {
+        if ((this.player != null) && !this.terrains.isEmpty()) {
             this.player.move(this.timeToRender, this.terrains.get(0));
         }
     }
@@ -321,9 +345,17 @@ public class MasterRender {
         this.updatePlayer();
         GLTransformation viewMatrix = this.updateCamera();
         ColorRGBA skyColor = new ColorRGBA(SKY_R, SKY_G, SKY_B, SKY_A);
-        this.entityRender.render(skyColor, lights, viewMatrix, entities, player);
-        this.terrainRender.render(skyColor, lights, viewMatrix, terrains);
-        this.skyBoxRender.render(viewMatrix, skyBox);
+        // The model matrices of every entity at once after the player moved
+        this.transformStore.computeMatrices();
+        // The renders request the levels of the textures that they draw
+        this.textureStreamer.beginFrame();
+        this.entityRender.render(skyColor, lights, viewMatrix, camera.getPosition(), entities, player);
+        this.terrainRender.render(skyColor, lights, viewMatrix, camera.getPosition(), terrains);
+        this.textureStreamer.update();
+        // The sky box can still be loading
+        if (skyBox != null) {
+            this.skyBoxRender.render(viewMatrix, skyBox);
+        }
         this.guiRender.render(this.guis);
     }
 
@@ -333,6 +365,8 @@ public class MasterRender {
      */
     public void startFrameRender() {
         this.startDate = new Date();
+        // The matrices of the previous frame are not used any more
+        this.matrixArena.reset();
     }
 
     /**
@@ -346,6 +380,34 @@ public class MasterRender {
         // System.out.println((1.0 / timeToRender) + " ms");
     }
 
+    /**
+     * @return The render of the entities (with the statistics of the last frame)
+     */
+    public EntityRender getEntityRender() {
+        return entityRender;
+    }
+
+    /**
+     * @return Arena of the matrices used while one frame is rendered
+     */
+    public MatrixArena getMatrixArena() {
+        return matrixArena;
+    }
+
+    /**
+     * @return Store with the transformations of the entities of the scene
+     */
+    public TransformStore getTransformStore() {
+        return transformStore;
+    }
+
+    /**
+     * @return Streamer of the levels of the textures (with the statistics of the last frame)
+     */
+    public TextureStreamer getTextureStreamer() {
+        return textureStreamer;
+    }
+
     /**
      * Clean up because we need to clean up when we finish the program
      */
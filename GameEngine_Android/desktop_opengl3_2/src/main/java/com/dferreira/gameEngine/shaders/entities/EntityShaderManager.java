@@ -114,6 +114,16 @@ public class EntityShaderManager extends ShaderManager {
         super.loadBoolean(uniforms[TEntityUniform.normalsPointingUp.getValue()], normalsPointingUp);
     }
 
+    /**
+     * Set in the shader if the normals of the model are encoded with the
+     * octahedral mapping (quantized vertices)
+     *
+     * @param octahedralNormals Flag that indicates if the normals are encoded or not
+     */
+    public void loadOctahedralNormals(boolean octahedralNormals) {
+        super.loadBoolean(uniforms[TEntityUniform.octahedralNormals.getValue()], octahedralNormals);
+    }
+
     /**
      * Load the view matrix
      *
@@ -9,8 +9,16 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRenderAPIAccess;
 import com.dferreira.commons.generic_resources.AudioEnum;
 import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.loading.AssetFuture;
+import com.dferreira.commons.loading.AssetLoader;
 import com.dferreira.commons.models.Light;
+import com.dferreira.commons.textures.TextureStreamer;
+import com.dferreira.commons.utils.StagingAllocator;
+import com.dferreira.desktopUtils.ParallelTransformSlicer;
 import com.dferreira.gameEngine.audioEngine.MasterPlayer;
+import com.dferreira.gameEngine.modelGenerators.DecodedAtlas;
+import com.dferreira.gameEngine.modelGenerators.DecodedTerrain;
+import com.dferreira.gameEngine.modelGenerators.WorldAtlasGenerator;
 import com.dferreira.gameEngine.modelGenerators.WorldAudioGenerator;
 import com.dferreira.gameEngine.modelGenerators.WorldEntitiesGenerator;
 import com.dferreira.gameEngine.modelGenerators.WorldGUIsGenerator;
@@ -24,9 +32,14 @@ import com.dferreira.gameEngine.models.SkyBox;
 import com.dferreira.gameEngine.models.Terrain;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
 import com.dferreira.gameEngine.renderEngine.DisplayManager;
+import com.dferreira.gameEngine.renderEngine.EntityRender;
 import com.dferreira.gameEngine.renderEngine.Loader;
 import com.dferreira.gameEngine.renderEngine.MasterRender;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -35,10 +48,36 @@ import java.util.List;
  */
 public class GameEngineRenderer {
 
+    private final static Logger logger = LogManager.getLogger(GameEngineRenderer.class);
+
     /**
      * Number of audio sources available
      */
     private static final int POOL_SOURCES_SIZE = 32;
+    /**
+     * Time that the uploads of the assets can take in each frame (4 ms)
+     */
+    private static final long UPLOAD_BUDGET_NANOS = 4000000L;
+    /**
+     * Property with the budget of the memory of the textures streamed (MB)
+     */
+    private static final String TEXTURE_BUDGET_PROPERTY = "gameEngine.textureBudgetMB";
+    /**
+     * Bytes in one MB
+     */
+    private static final long BYTES_IN_MB = 1024L * 1024L;
+    /**
+     * Frames between the logs of the state of the textures streamed
+     */
+    private static final int STREAMING_LOG_FRAMES = 600;
+    /**
+     * Property that turns on the count of the matrices taken out of the arena of the frame
+     */
+    private static final String DEBUG_MATRIX_ARENA_PROPERTY = "gameEngine.debugMatrixArena";
+    /**
+     * Property that turns on the computation of the model matrices in slices across the cores
+     */
+    private static final String PARALLEL_TRANSFORMS_PROPERTY = "gameEngine.parallelTransforms";
     /**
      * Load the resources of the game
      */
@@ -105,6 +144,52 @@ public class GameEngineRenderer {
      */
     private MasterPlayer masterPlayer;
 
+    /**
+     * Pipeline that loads the assets of the scene while it is rendered
+     */
+    private AssetLoader assetLoader;
+
+    /**
+     * Handle to the terrain being loaded
+     */
+    private AssetFuture<Terrain> terrainFuture;
+
+    /**
+     * Handles to the entities being loaded (one by model)
+     */
+    private List<AssetFuture<Entity[]>> entitiesFutures;
+
+    /**
+     * Number of handles of entities that were done when the entities were
+     * gathered the last time
+     */
+    private int entitiesFuturesDone;
+
+    /**
+     * Handle to the player being loaded
+     */
+    private AssetFuture<Player> playerFuture;
+
+    /**
+     * Handle to the GUIs being loaded
+     */
+    private AssetFuture<GuiTexture[]> GUIsFuture;
+
+    /**
+     * Handle to the sky box being loaded
+     */
+    private AssetFuture<SkyBox> skyBoxFuture;
+
+    /**
+     * Handle to the sounds being loaded
+     */
+    private AssetFuture<HashMap<AudioEnum, IAudioDescription>> audioFuture;
+
+    /**
+     * Number of frames rendered
+     */
+    private int framesRendered;
+
     /**
      * Constructor of the game engine render
      *
@@ -120,8 +205,9 @@ public class GameEngineRenderer {
     }
 
     /**
-     * Initialize the shader programs objects and load the different components
-     * of the application
+     * Initialize the shader programs objects and start to load the different
+     * components of the application (they show up in the scene as they are
+     * loaded)
      */
     public void onSurfaceCreated() {
         /* Initializes the main variables responsible to render the 3D world */
@@ -129,41 +215,103 @@ public class GameEngineRenderer {
 
         ILoaderRenderAPI loaderAPI = renderAPIAccess.getLoaderRenderAPI();
         this.renderer = new MasterRender(renderAPIAccess);
+        this.renderer.getMatrixArena().setDebug(Boolean.getBoolean(DEBUG_MATRIX_ARENA_PROPERTY));
+        if (Boolean.getBoolean(PARALLEL_TRANSFORMS_PROPERTY)) {
+            this.renderer.getTransformStore().setSlicer(new ParallelTransformSlicer());
+        }
 
-		/* Prepares the terrains that is going to render */
-        Terrain terrain = WorldTerrainsGenerator.getTerrain(loaderAPI);
-        WorldTerrainsGenerator.loadTextures(loaderAPI, terrain);
+		/* The textures request their levels from the pixels that they cover */
+        TextureStreamer textureStreamer = renderer.getTextureStreamer();
+        textureStreamer.setViewportHeight(DisplayManager.getHeight());
+        textureStreamer.setBudgetBytes(Long.getLong(TEXTURE_BUDGET_PROPERTY,
+                TextureStreamer.DEFAULT_BUDGET_BYTES / BYTES_IN_MB) * BYTES_IN_MB);
+
+		/* Load the light that is going to render */
+        this.lights = WorldLightsGenerator.getLights();
+
+		/* Sounds player */
+        List<IAudioSource> sourceLst = this.audioLoader.genAudioSources(POOL_SOURCES_SIZE);
+        this.masterPlayer = new MasterPlayer(sourceLst);
+
+        this.assetLoader = new AssetLoader();
+
+		/* The heights of the terrain are decoded first because the decode of the entities waits for them */
+        AssetFuture<DecodedTerrain> decodedTerrain = WorldTerrainsGenerator.decodeTerrain(assetLoader, resourceProvider);
+
+		/* The small textures of the models are packed before because the decode of the models waits for them */
+        AssetFuture<DecodedAtlas> decodedAtlas = WorldAtlasGenerator.decodeAtlas(assetLoader, resourceProvider);
 
-        this.terrains = new Terrain[1];
-        this.terrains[0] = terrain;
+		/* Prepares the terrains that is going to render */
+        this.terrainFuture = WorldTerrainsGenerator.loadTerrain(assetLoader, resourceProvider, loaderAPI, decodedTerrain);
 
 		/* Prepares the entities that is going to be render */
-        this.entities = WorldEntitiesGenerator.getEntities(loader, loaderAPI, this.resourceProvider, terrain);
-        WorldEntitiesGenerator.loadTextures(loaderAPI, this.entities);
+        this.entitiesFutures = WorldEntitiesGenerator.loadEntities(assetLoader, loader, loaderAPI,
+                renderer.getTransformStore(), decodedAtlas, decodedTerrain);
 
-		/* Load the light that is going to render */
-        this.lights = WorldLightsGenerator.getLights();
+		/* Prepares the player that is going to be used in the scene */
+        this.playerFuture = WorldPlayersGenerator.loadPlayer(assetLoader, loader, loaderAPI,
+                renderer.getTransformStore(), decodedAtlas);
 
 		/* Prepares the GUIs that is going to render */
-        this.GUIs = WorldGUIsGenerator.getGUIs(loaderAPI);
-        WorldGUIsGenerator.loadTextures(loaderAPI, this.GUIs);
+        this.GUIsFuture = WorldGUIsGenerator.loadGUIs(assetLoader, resourceProvider, loaderAPI);
 
 		/* Load the sky box that is going to render */
-        this.skyBox = WorldSkyBoxGenerator.getSky(loaderAPI);
-        WorldSkyBoxGenerator.loadTextures(loaderAPI, this.skyBox);
-
-		/* Prepares the player that is going to be used in the scene */
-		/* Prepares the player_mtl that is going to be used in the scene */
-        this.player = WorldPlayersGenerator.getPlayer(loader, loaderAPI, resourceProvider);
-        WorldPlayersGenerator.loadTextures(loaderAPI, this.player);
+        this.skyBoxFuture = WorldSkyBoxGenerator.loadSky(assetLoader, resourceProvider, loaderAPI);
 
 		/* Prepares the sounds to be used by the engine */
-        this.audioLibrary = WorldAudioGenerator.getBuffers(this.audioLoader, resourceProvider);
+        this.audioFuture = WorldAudioGenerator.loadBuffers(assetLoader, this.audioLoader, resourceProvider);
+    }
 
-		/* Sounds player */
-        List<IAudioSource> sourceLst = this.audioLoader.genAudioSources(POOL_SOURCES_SIZE);
-        this.masterPlayer = new MasterPlayer(sourceLst);
+    /**
+     * Takes the assets that finished to load into the scene
+     */
+    private void updateScene() {
+        if ((this.terrains == null) && terrainFuture.isDone() && (terrainFuture.get() != null)) {
+            this.terrains = new Terrain[]{terrainFuture.get()};
+        }
+
+        int done = 0;
+        for (AssetFuture<Entity[]> future : entitiesFutures) {
+            if (future.isDone()) {
+                done++;
+            }
+        }
+        if (done != entitiesFuturesDone) {
+            List<Entity> lEntities = new ArrayList<>();
+            for (AssetFuture<Entity[]> future : entitiesFutures) {
+                Entity[] modelEntities = future.get();
+                if (modelEntities != null) {
+                    for (Entity entity : modelEntities) {
+                        lEntities.add(entity);
+                    }
+                }
+            }
+            this.entities = lEntities.toArray(new Entity[lEntities.size()]);
+            this.entitiesFuturesDone = done;
+        }
 
+        this.player = playerFuture.get();
+        this.GUIs = GUIsFuture.get();
+        this.skyBox = skyBoxFuture.get();
+        this.audioLibrary = audioFuture.get();
+    }
+
+    /**
+     * Runs the uploads of the assets decoded within the budget of the frame
+     */
+    private void loadAssets() {
+        if (assetLoader.isLoaded()) {
+            return;
+        }
+        assetLoader.processUploads(UPLOAD_BUDGET_NANOS);
+        updateScene();
+        if (assetLoader.isLoaded()) {
+            ILoaderRenderAPI loaderAPI = renderAPIAccess.getLoaderRenderAPI();
+            logger.info("Materials: " + resourceProvider.getMaterialRegistry());
+            logger.info("Textures: " + loaderAPI.getTextureRegistry());
+            logger.info("Assets: " + assetLoader);
+            logger.info("Staging: " + StagingAllocator.getShared());
+        }
     }
 
     /**
@@ -185,6 +333,10 @@ public class GameEngineRenderer {
      * Calls everything necessary to play the sounds of the game
      */
     private void playAudio() {
+        // The sounds can still be loading
+        if (this.audioLibrary == null) {
+            return;
+        }
         masterPlayer.setListener(this.listener);
         masterPlayer.setEntities(entities);
         masterPlayer.setPlayer(player);
@@ -195,8 +347,26 @@ public class GameEngineRenderer {
      * Draw the entities of the scene
      */
     public void onDrawFrame() {
+        boolean loading = !assetLoader.isLoaded();
+        this.loadAssets();
         this.renderFrame();
         this.playAudio();
+        if (loading && assetLoader.isLoaded()) {
+            // First frame with every material (the ones in the same page of the atlas share the bind)
+            EntityRender entityRender = renderer.getEntityRender();
+            logger.info(String.format("Entity texture binds by frame: %d (%d skipped)",
+                    entityRender.getTextureBinds(), entityRender.getTextureBindsSkipped()));
+        }
+        framesRendered++;
+        if ((loading && assetLoader.isLoaded()) || (framesRendered % STREAMING_LOG_FRAMES == 0)) {
+            logger.info("Texture streaming: " + renderer.getTextureStreamer());
+            logger.info("Matrix arena: " + renderer.getMatrixArena());
+            logger.info("Transform store: " + renderer.getTransformStore());
+        }
+        if (assetLoader.getTimeToFirstFrame() < 0) {
+            assetLoader.frameRendered();
+            logger.info(String.format("Time to the first frame: %.1f ms", assetLoader.getTimeToFirstFrame()));
+        }
     }
 
     /**
@@ -204,5 +374,6 @@ public class GameEngineRenderer {
      */
     public void dispose() {
         this.masterPlayer.dispose();
+        this.assetLoader.dispose();
     }
 }
@@ -37,12 +37,25 @@ uniform vec3 lightPosition;
 /*If the entity should have the normals pointing up*/
 uniform float normalsPointingUp;
 
+/*If the normals are encoded with the octahedral mapping (quantized vertices)*/
+uniform float octahedralNormals;
+
 /*Density of fog*/
 const float fog_density = 0.007;
 
 /*Gradient of fog*/
 const float fog_gradient = 1.5;
 
+/*Decodes one normal encoded with the octahedral mapping*/
+vec3 decodeOctahedral(vec2 encoded) {
+	vec3 decoded = vec3(encoded, 1.0 - abs(encoded.x) - abs(encoded.y));
+	if (decoded.z < 0.0) {
+		vec2 signNotZero = vec2(decoded.x >= 0.0 ? 1.0 : -1.0, decoded.y >= 0.0 ? 1.0 : -1.0);
+		decoded.xy = (1.0 - abs(decoded.yx)) * signNotZero;
+	}
+	return normalize(decoded);
+}
+
 void main(void) {
 	vec4 worldPosition = transformationMatrix * vec4(position, 1.0);
 	
@@ -53,7 +66,8 @@ void main(void) {
 	/*Compute the texture coordinate taking in account the atlas textures*/
 	pass_textureCoords = textureCoords;
 	
-	vec3 actualNormal = (normalsPointingUp == 1.0) ? vec3(0.0, 1.0, 0.0) : normal;
+	vec3 decodedNormal = (octahedralNormals == 1.0) ? decodeOctahedral(normal.xy) : normal;
+	vec3 actualNormal = (normalsPointingUp == 1.0) ? vec3(0.0, 1.0, 0.0) : decodedNormal;
 	
 	surfaceNormal = (transformationMatrix * vec4(actualNormal, 0.0)).xyz;
 	toLightVector = lightPosition - worldPosition.xyz;
@@ -0,0 +1,239 @@
+package com.dferreira.commons;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the transformation matrices built in place (by the chain of
+ * operations and by setTRS) are the same as the ones of the previous version
+ * that allocated one array by operation
+ */
+public class GLTransformationTest {
+
+    /**
+     * Number of transformations checked
+     */
+    private final static int CHECKED_TRANSFORMATIONS = 10000;
+
+    /**
+     * Largest relative difference accepted between the elements of the matrices
+     */
+    private final static float TOLERANCE = 1e-4f;
+
+    /**
+     * Size of the matrices
+     */
+    private final static int MATRIX_SIZE = 16;
+
+    /**
+     * The operations of the previous version of the transformation, each one
+     * allocates the matrix of the operation and the result of the product
+     */
+    private static class LegacyTransformation {
+        private float[] mMatrix = new float[MATRIX_SIZE];
+
+        void loadIdentity() {
+            mMatrix = new float[MATRIX_SIZE];
+            mMatrix[0] = 1.0f;
+            mMatrix[5] = 1.0f;
+            mMatrix[10] = 1.0f;
+            mMatrix[15] = 1.0f;
+        }
+
+        void translate(float x, float y, float z) {
+            mMatrix[12] += (mMatrix[0] * x + mMatrix[4] * y + mMatrix[8] * z);
+            mMatrix[13] += (mMatrix[1] * x + mMatrix[5] * y + mMatrix[9] * z);
+            mMatrix[14] += (mMatrix[2] * x + mMatrix[6] * y + mMatrix[10] * z);
+            mMatrix[15] += (mMatrix[3] * x + mMatrix[7] * y + mMatrix[11] * z);
+        }
+
+        void rotate(float angle, float x, float y, float z) {
+            float mag = (float) Math.sqrt((double) (x * x + y * y + z * z));
+            double rAngle = Math.toRadians(angle);
+            float sinAngle = (float) Math.sin(rAngle);
+            float cosAngle = (float) Math.cos(rAngle);
+            if (mag > 0.0f) {
+                float[] rotMat = new float[MATRIX_SIZE];
+                x /= mag;
+                y /= mag;
+                z /= mag;
+                float oneMinusCos = 1.0f - cosAngle;
+                rotMat[0] = (oneMinusCos * x * x) + cosAngle;
+                rotMat[1] = (oneMinusCos * x * y) - z * sinAngle;
+                rotMat[2] = (oneMinusCos * z * x) + y * sinAngle;
+                rotMat[4] = (oneMinusCos * x * y) + z * sinAngle;
+                rotMat[5] = (oneMinusCos * y * y) + cosAngle;
+                rotMat[6] = (oneMinusCos * y * z) - x * sinAngle;
+                rotMat[8] = (oneMinusCos * z * x) - y * sinAngle;
+                rotMat[9] = (oneMinusCos * y * z) + x * sinAngle;
+                rotMat[10] = (oneMinusCos * z * z) + cosAngle;
+                rotMat[15] = 1.0f;
+                multiplyMatrix(rotMat, mMatrix);
+            }
+        }
+
+        void scale(float x, float y, float z) {
+            float[] scaleMatrix = new float[MATRIX_SIZE];
+            scaleMatrix[0] = x;
+            scaleMatrix[5] = y;
+            scaleMatrix[10] = z;
+            scaleMatrix[15] = 1.0f;
+            multiplyMatrix(scaleMatrix, mMatrix);
+        }
+
+        void perspective(float yAngle, float aspect, float nearZ, float farZ) {
+            float frustumH = (float) Math.tan(Math.toRadians(yAngle)) * nearZ;
+            float frustumW = frustumH * aspect;
+            float deltaX = 2.0f * frustumW;
+            float deltaY = 2.0f * frustumH;
+            float deltaZ = farZ - nearZ;
+            float[] frustum = new float[MATRIX_SIZE];
+            frustum[0] = 2.0f * nearZ / deltaX;
+            frustum[5] = 2.0f * nearZ / deltaY;
+            frustum[10] = -(nearZ + farZ) / deltaZ;
+            frustum[11] = -1.0f;
+            frustum[14] = -2.0f * nearZ * farZ / deltaZ;
+            multiplyMatrix(frustum, mMatrix);
+        }
+
+        void multiplyMatrix(float[] mtlA, float[] mtlB) {
+            float[] tmp = new float[MATRIX_SIZE];
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 4; j++) {
+                    tmp[i * 4 + j] = (mtlA[i * 4] * mtlB[j]) + (mtlA[i * 4 + 1] * mtlB[4 + j])
+                            + (mtlA[i * 4 + 2] * mtlB[8 + j]) + (mtlA[i * 4 + 3] * mtlB[12 + j]);
+                }
+            }
+            mMatrix = tmp;
+        }
+    }
+
+    /**
+     * Transformation of one entity
+     */
+    private static class Sample {
+        private final Vector3f position;
+        private final float rotX;
+        private final float rotY;
+        private final float rotZ;
+        private final float scale;
+
+        private Sample(Random random) {
+            this.position = new Vector3f(random.nextFloat() * 1000.0f - 500.0f, random.nextFloat() * 50.0f,
+                    random.nextFloat() * 1000.0f - 500.0f);
+            this.rotX = random.nextFloat() * 720.0f - 360.0f;
+            this.rotY = random.nextFloat() * 720.0f - 360.0f;
+            this.rotZ = random.nextFloat() * 720.0f - 360.0f;
+            this.scale = 0.1f + random.nextFloat() * 5.0f;
+        }
+    }
+
+    /**
+     * @return Transformations of entities with random positions, rotations and scales
+     */
+    private static Sample[] getSamples() {
+        Random random = new Random(21);
+        Sample[] samples = new Sample[CHECKED_TRANSFORMATIONS];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new Sample(random);
+        }
+        return samples;
+    }
+
+    /**
+     * @return The matrix of the entity built by the operations of the previous version
+     */
+    private static float[] buildLegacy(Sample sample) {
+        LegacyTransformation matrix = new LegacyTransformation();
+        matrix.loadIdentity();
+        matrix.translate(sample.position.x, sample.position.y, sample.position.z);
+        matrix.rotate(sample.rotX, 1.0f, 0.0f, 0.0f);
+        matrix.rotate(sample.rotY, 0.0f, 1.0f, 0.0f);
+        matrix.rotate(sample.rotZ, 0.0f, 0.0f, 1.0f);
+        matrix.scale(sample.scale, sample.scale, sample.scale);
+        return matrix.mMatrix;
+    }
+
+    /**
+     * Builds the matrix of the entity with the chain of operations in place
+     */
+    private static void buildChain(GLTransformation matrix, Sample sample) {
+        matrix.loadIdentity();
+        matrix.translate(sample.position.x, sample.position.y, sample.position.z);
+        matrix.rotate(sample.rotX, 1.0f, 0.0f, 0.0f);
+        matrix.rotate(sample.rotY, 0.0f, 1.0f, 0.0f);
+        matrix.rotate(sample.rotZ, 0.0f, 0.0f, 1.0f);
+        matrix.scale(sample.scale, sample.scale, sample.scale);
+    }
+
+    /**
+     * @return Largest difference between the elements of the matrices
+     * relative to the size of the elements of the expected one
+     */
+    private static float getError(float[] expected, GLTransformation matrix) {
+        FloatBuffer buffer = matrix.getAsFloatBuffer();
+        float error = 0.0f;
+        for (int i = 0; i < MATRIX_SIZE; i++) {
+            float difference = Math.abs(expected[i] - buffer.get(i));
+            error = Math.max(error, difference / Math.max(1.0f, Math.abs(expected[i])));
+        }
+        return error;
+    }
+
+    /**
+     * Asserts that the error is within the tolerance
+     */
+    private static void assertEquivalent(String name, float error) {
+        assertTrue(name + " differs from the previous version by " + error, error <= TOLERANCE);
+    }
+
+    @Test
+    public void chainInPlaceIsEquivalent() {
+        GLTransformation matrix = new GLTransformation();
+        float error = 0.0f;
+        for (Sample sample : getSamples()) {
+            buildChain(matrix, sample);
+            error = Math.max(error, getError(buildLegacy(sample), matrix));
+        }
+        assertEquivalent("chain", error);
+    }
+
+    @Test
+    public void setTRSIsEquivalent() {
+        GLTransformation matrix = new GLTransformation();
+        float error = 0.0f;
+        for (Sample sample : getSamples()) {
+            matrix.setTRS(sample.position, sample.rotX, sample.rotY, sample.rotZ, sample.scale);
+            error = Math.max(error, getError(buildLegacy(sample), matrix));
+        }
+        assertEquivalent("setTRS", error);
+    }
+
+    @Test
+    public void perspectiveAndProductAreEquivalent() {
+        LegacyTransformation legacyProjection = new LegacyTransformation();
+        legacyProjection.loadIdentity();
+        legacyProjection.perspective(45.0f, 16.0f / 9.0f, 0.1f, 1000.0f);
+        GLTransformation projection = new GLTransformation();
+        projection.loadIdentity();
+        projection.perspective(45.0f, 16.0f / 9.0f, 0.1f, 1000.0f);
+        assertEquivalent("perspective", getError(legacyProjection.mMatrix, projection));
+
+        Sample sample = getSamples()[0];
+        LegacyTransformation legacyProduct = new LegacyTransformation();
+        legacyProduct.multiplyMatrix(buildLegacy(sample), legacyProjection.mMatrix);
+        GLTransformation model = new GLTransformation();
+        buildChain(model, sample);
+        GLTransformation product = new GLTransformation();
+        product.multiplyMatrix(model, projection);
+        assertEquivalent("product", getError(legacyProduct.mMatrix, product));
+
+        // The result can be one of the operands
+        model.multiplyMatrix(model, projection);
+        assertEquivalent("product in place", getError(legacyProduct.mMatrix, model));
+    }
+}
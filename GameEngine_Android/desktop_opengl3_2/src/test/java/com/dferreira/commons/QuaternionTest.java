@@ -0,0 +1,210 @@
+package com.dferreira.commons;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the matrices built from quaternions are the same as the ones
+ * built from the rotations in each axle (the entities, the view of the
+ * camera and the rotation around one axle), that the angles of Euler of one
+ * quaternion give back the same rotation and that the interpolation keeps
+ * the quaternions unit and goes by the shortest path
+ */
+public class QuaternionTest {
+
+    /**
+     * Number of rotations checked
+     */
+    private final static int CHECKED_ROTATIONS = 10000;
+
+    /**
+     * Largest difference accepted between the elements of the matrices (relative to the largest element)
+     */
+    private final static float TOLERANCE = 1e-5f;
+
+    /**
+     * Largest difference accepted between the rotations in degrees
+     */
+    private final static float ANGLE_TOLERANCE = 1e-3f;
+
+    /**
+     * Largest difference accepted between one rotation and the one of its
+     * angles of Euler in degrees (close to 90 degrees in y the rotations in x
+     * and z are around almost the same axle and the split between them is
+     * imprecise)
+     */
+    private final static float EULER_TOLERANCE = 0.1f;
+
+    /**
+     * Size of the matrices
+     */
+    private final static int MATRIX_SIZE = 16;
+
+    /**
+     * Rotation of one entity in angles and as a quaternion
+     */
+    private static class Sample {
+        private final Vector3f position;
+        private final float rotX;
+        private final float rotY;
+        private final float rotZ;
+        private final float scale;
+        private final Quaternion orientation;
+
+        private Sample(Random random) {
+            this.position = new Vector3f(random.nextFloat() * 1000.0f - 500.0f, random.nextFloat() * 50.0f,
+                    random.nextFloat() * 1000.0f - 500.0f);
+            this.rotX = random.nextFloat() * 720.0f - 360.0f;
+            this.rotY = random.nextFloat() * 720.0f - 360.0f;
+            this.rotZ = random.nextFloat() * 720.0f - 360.0f;
+            this.scale = 0.1f + random.nextFloat() * 5.0f;
+            this.orientation = new Quaternion();
+            this.orientation.setFromEuler(rotX, rotY, rotZ);
+        }
+    }
+
+    /**
+     * Generator of the rotations and of the axles
+     */
+    private Random random;
+
+    /**
+     * Rotations checked
+     */
+    private Sample[] samples;
+
+    @Before
+    public void setUp() {
+        random = new Random(25);
+        samples = new Sample[CHECKED_ROTATIONS];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new Sample(random);
+        }
+    }
+
+    /**
+     * Checks the elements of two matrices relative to the largest element of the expected one
+     */
+    private static void assertSameMatrix(GLTransformation expected, GLTransformation matrix) {
+        float[] expectedElements = new float[MATRIX_SIZE];
+        expected.getAsFloatBuffer().get(expectedElements);
+        FloatBuffer buffer = matrix.getAsFloatBuffer();
+        float size = 1.0f;
+        for (int i = 0; i < MATRIX_SIZE; i++) {
+            size = Math.max(size, Math.abs(expectedElements[i]));
+        }
+        for (int i = 0; i < MATRIX_SIZE; i++) {
+            assertEquals("element " + i, expectedElements[i], buffer.get(i), TOLERANCE * size);
+        }
+    }
+
+    /**
+     * @return Length of the quaternion
+     */
+    private static float getLength(Quaternion quaternion) {
+        return (float) Math.sqrt(quaternion.x * quaternion.x + quaternion.y * quaternion.y
+                + quaternion.z * quaternion.z + quaternion.w * quaternion.w);
+    }
+
+    /**
+     * @return Angle between two rotations in degrees (from the distance
+     * between the quaternions so it is precise for the small angles)
+     */
+    private static float getAngle(Quaternion a, Quaternion b) {
+        double sign = (a.x * b.x + a.y * b.y + a.z * b.z + a.w * b.w < 0.0f) ? -1.0 : 1.0;
+        double dx = a.x - sign * b.x, dy = a.y - sign * b.y, dz = a.z - sign * b.z, dw = a.w - sign * b.w;
+        double sx = a.x + sign * b.x, sy = a.y + sign * b.y, sz = a.z + sign * b.z, sw = a.w + sign * b.w;
+        return (float) Math.toDegrees(2.0 * Math.atan2(Math.sqrt(dx * dx + dy * dy + dz * dz + dw * dw),
+                Math.sqrt(sx * sx + sy * sy + sz * sz + sw * sw)));
+    }
+
+    @Test
+    public void entityMatricesMatchTheRotationsByAxle() {
+        GLTransformation expected = new GLTransformation();
+        GLTransformation matrix = new GLTransformation();
+        for (Sample sample : samples) {
+            expected.setTRS(sample.position, sample.rotX, sample.rotY, sample.rotZ, sample.scale);
+            matrix.setTRS(sample.position, sample.orientation, sample.scale);
+            assertSameMatrix(expected, matrix);
+        }
+    }
+
+    @Test
+    public void axisAngleMatchesTheRotationAroundTheAxle() {
+        GLTransformation expected = new GLTransformation();
+        GLTransformation matrix = new GLTransformation();
+        Quaternion rotation = new Quaternion();
+        for (Sample sample : samples) {
+            // The axle is not normalized
+            float axisX = random.nextFloat() - 0.5f;
+            float axisY = random.nextFloat() - 0.5f;
+            float axisZ = random.nextFloat() - 0.5f;
+            expected.loadIdentity();
+            expected.rotate(sample.rotX, axisX, axisY, axisZ);
+            rotation.setFromAxisAngle(sample.rotX, axisX, axisY, axisZ);
+            matrix.loadIdentity();
+            matrix.rotate(rotation);
+            assertSameMatrix(expected, matrix);
+        }
+    }
+
+    @Test
+    public void productMatchesTheViewOfTheCamera() {
+        GLTransformation expected = new GLTransformation();
+        GLTransformation matrix = new GLTransformation();
+        Quaternion rotation = new Quaternion();
+        Quaternion other = new Quaternion();
+        for (Sample sample : samples) {
+            // The pitch and then the yaw
+            expected.loadIdentity();
+            expected.rotate(sample.rotX, 1.0f, 0.0f, 0.0f);
+            expected.rotate(sample.rotY, 0.0f, 1.0f, 0.0f);
+            expected.translate(-sample.position.x, -sample.position.y, -sample.position.z);
+            rotation.setFromAxisAngle(sample.rotX, 1.0f, 0.0f, 0.0f);
+            other.setFromAxisAngle(sample.rotY, 0.0f, 1.0f, 0.0f);
+            rotation.multiply(other, rotation);
+            matrix.loadIdentity();
+            matrix.rotate(rotation);
+            matrix.translate(-sample.position.x, -sample.position.y, -sample.position.z);
+            assertSameMatrix(expected, matrix);
+        }
+    }
+
+    @Test
+    public void anglesOfEulerGiveBackTheSameRotation() {
+        Quaternion rotation = new Quaternion();
+        Vector3f euler = new Vector3f(0.0f, 0.0f, 0.0f);
+        for (Sample sample : samples) {
+            sample.orientation.toEuler(euler);
+            rotation.setFromEuler(euler.x, euler.y, euler.z);
+            assertTrue(getAngle(sample.orientation, rotation) <= EULER_TOLERANCE);
+        }
+    }
+
+    @Test
+    public void slerpKeepsUnitAndGoesByTheShortestPath() {
+        Quaternion a = new Quaternion();
+        Quaternion b = new Quaternion();
+        Quaternion interpolated = new Quaternion();
+        for (int i = 0; i + 1 < samples.length; i++) {
+            a.set(samples[i].orientation);
+            b.set(samples[i + 1].orientation);
+            float angle = getAngle(a, b);
+            float t = random.nextFloat();
+            interpolated.slerp(a, b, t);
+            assertEquals(1.0f, getLength(interpolated), TOLERANCE);
+            assertEquals(t * angle, getAngle(a, interpolated), ANGLE_TOLERANCE);
+            interpolated.slerp(a, b, 0.0f);
+            assertEquals(0.0f, getAngle(a, interpolated), ANGLE_TOLERANCE);
+            // The result can be one of the operands
+            a.slerp(a, b, 1.0f);
+            assertEquals(0.0f, getAngle(b, a), ANGLE_TOLERANCE);
+        }
+    }
+}
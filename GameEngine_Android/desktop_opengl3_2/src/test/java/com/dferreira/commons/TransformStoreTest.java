@@ -0,0 +1,129 @@
+package com.dferreira.commons;
+
+import com.dferreira.desktopUtils.ParallelTransformSlicer;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the model matrices computed at once by the transform store
+ * (from quaternions, serially and in slices) are the same as the ones built
+ * entity by entity with setTRS from the angles within the rounding of the
+ * floats, and that only the matrices of the entities changed are built again
+ */
+public class TransformStoreTest {
+
+    /**
+     * Number of entities of the store (more than one slice of the parallel slicer)
+     */
+    private final static int ENTITIES = 10000;
+
+    /**
+     * Number of entities of the scenery (they never move)
+     */
+    private final static int SCENERY_ENTITIES = 360;
+
+    /**
+     * Largest difference accepted between the elements of the matrices (relative to their size)
+     */
+    private final static float TOLERANCE = 1e-5f;
+
+    /**
+     * @return Transformations of the entities, each row is x, y, z, rotX, rotY, rotZ and scale
+     */
+    private static float[][] createSamples(int count, long seed) {
+        Random random = new Random(seed);
+        float[][] samples = new float[count][];
+        for (int i = 0; i < count; i++) {
+            samples[i] = new float[]{random.nextFloat() * 1000.0f - 500.0f, random.nextFloat() * 50.0f,
+                    random.nextFloat() * 1000.0f - 500.0f, random.nextFloat() * 720.0f - 360.0f,
+                    random.nextFloat() * 720.0f - 360.0f, random.nextFloat() * 720.0f - 360.0f,
+                    0.1f + random.nextFloat() * 5.0f};
+        }
+        return samples;
+    }
+
+    /**
+     * @return One store with the transformations of the samples
+     */
+    private static TransformStore createStore(float[][] samples) {
+        TransformStore store = new TransformStore(samples.length);
+        for (float[] sample : samples) {
+            store.add(sample[0], sample[1], sample[2], sample[3], sample[4], sample[5], sample[6]);
+        }
+        return store;
+    }
+
+    /**
+     * Checks the matrices of the store against the ones built by setTRS from the angles
+     */
+    private static void assertSameAsSetTRS(float[][] samples, TransformStore store) {
+        GLTransformation expected = new GLTransformation();
+        GLTransformation computed = new GLTransformation();
+        float[] expectedElements = new float[TransformStore.MATRIX_SIZE];
+        Vector3f position = new Vector3f(0.0f, 0.0f, 0.0f);
+        for (int i = 0; i < samples.length; i++) {
+            float[] sample = samples[i];
+            position.x = sample[0];
+            position.y = sample[1];
+            position.z = sample[2];
+            expected.setTRS(position, sample[3], sample[4], sample[5], sample[6]);
+            expected.getAsFloatBuffer().get(expectedElements);
+            store.loadMatrix(i, computed);
+            FloatBuffer buffer = computed.getAsFloatBuffer();
+            for (int j = 0; j < TransformStore.MATRIX_SIZE; j++) {
+                float difference = Math.abs(expectedElements[j] - buffer.get(j));
+                assertTrue("entity " + i + " element " + j,
+                        difference / Math.max(1.0f, Math.abs(expectedElements[j])) <= TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void serialMatricesMatchSetTRS() {
+        float[][] samples = createSamples(ENTITIES, 23);
+        TransformStore store = createStore(samples);
+        store.setSlicer(null);
+        store.computeMatrices();
+
+        assertSameAsSetTRS(samples, store);
+    }
+
+    @Test
+    public void slicedMatricesMatchSetTRS() {
+        float[][] samples = createSamples(ENTITIES, 23);
+        TransformStore store = createStore(samples);
+        store.setSlicer(new ParallelTransformSlicer());
+        store.computeMatrices();
+
+        assertSameAsSetTRS(samples, store);
+    }
+
+    @Test
+    public void onlyTheChangedMatricesAreBuiltAgain() {
+        float[][] samples = createSamples(SCENERY_ENTITIES, 24);
+        TransformStore store = createStore(samples);
+        int player = store.add(0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f);
+        store.computeMatrices();
+        assertEquals(SCENERY_ENTITIES + 1, store.getFrameRebuilt());
+
+        store.increasePosition(player, 0.1f, 0.0f, 0.1f);
+        store.computeMatrices();
+        assertEquals(1, store.getFrameRebuilt());
+        assertEquals(SCENERY_ENTITIES, store.getFrameCached());
+
+        long version = store.getVersion();
+        store.computeMatrices();
+        assertEquals(version, store.getVersion());
+        assertEquals(0, store.getFrameRebuilt());
+
+        store.invalidateAll();
+        store.computeMatrices();
+        assertEquals(SCENERY_ENTITIES + 1, store.getFrameRebuilt());
+    }
+}
@@ -0,0 +1,76 @@
+package com.dferreira.commons.generic_render;
+
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+import com.dferreira.gameEngine.shaders.entities.TEntityAttribute;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the interleaved buffer of the bundled models keeps every
+ * attribute of every vertex in the offset given by the format
+ */
+public class VertexFormatTest {
+
+    /**
+     * Number of bytes of one float
+     */
+    private final static int FLOAT_IN_BYTES = 4;
+
+    /**
+     * @return Locations of the attributes of the entities
+     */
+    private static HashMap<RenderAttributeEnum, IEnum> getLocations() {
+        HashMap<RenderAttributeEnum, IEnum> locations = new HashMap<>();
+        locations.put(RenderAttributeEnum.position, TEntityAttribute.position);
+        locations.put(RenderAttributeEnum.textureCoords, TEntityAttribute.textureCoords);
+        locations.put(RenderAttributeEnum.normal, TEntityAttribute.normal);
+        return locations;
+    }
+
+    @Test
+    public void interleavedFormatOffsets() {
+        VertexFormat format = VertexFormat.positionTextureNormal(VertexLayoutEnum.interleaved, getLocations());
+
+        assertEquals(8, format.getVertexSize());
+        assertEquals(8 * FLOAT_IN_BYTES, format.getStride());
+        assertEquals(0, format.getAttributes().get(0).getOffset());
+        assertEquals(3 * FLOAT_IN_BYTES, format.getAttributes().get(1).getOffset());
+        assertEquals(5 * FLOAT_IN_BYTES, format.getAttributes().get(2).getOffset());
+    }
+
+    @Test
+    public void interleavedBundledModelsKeepTheAttributes() {
+        DesktopResourceProvider provider = new DesktopResourceProvider();
+        VertexFormat format = VertexFormat.positionTextureNormal(VertexLayoutEnum.interleaved, getLocations());
+
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            WfMesh mesh = provider.getResource(modelEnum);
+            FloatBuffer[] sources = {mesh.getVerticesBuffer(), mesh.getTextureCoordsBuffer(),
+                    mesh.getNormalsBuffer()};
+            FloatBuffer interleaved = format.interleave(sources);
+            int vertexCount = sources[0].remaining() / 3;
+
+            assertEquals(modelEnum.toString(), vertexCount * format.getVertexSize(), interleaved.remaining());
+            for (int a = 0; a < sources.length; a++) {
+                VertexAttribute attribute = format.getAttributes().get(a);
+                int offset = attribute.getOffset() / FLOAT_IN_BYTES;
+                for (int v = 0; v < vertexCount; v++) {
+                    for (int c = 0; c < attribute.getComponents(); c++) {
+                        float expected = sources[a].get(sources[a].position() + v * attribute.getComponents() + c);
+                        float actual = interleaved.get(interleaved.position() + v * format.getVertexSize() + offset + c);
+                        assertEquals(modelEnum.toString(), Float.floatToRawIntBits(expected),
+                                Float.floatToRawIntBits(actual));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.dferreira.commons.loading;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the pipeline decodes in the workers, uploads only in the
+ * thread that drains the queue (the one of the render API) and passes the
+ * failures of the decode to the uploads
+ */
+public class AssetLoaderTest {
+
+    /**
+     * Longest time that one test waits for the workers (milliseconds)
+     */
+    private final static long TIMEOUT = 10000;
+
+    /**
+     * Number of assets loaded by the tests with many assets
+     */
+    private final static int ASSETS_COUNT = 16;
+
+    /**
+     * Pipeline under test
+     */
+    private AssetLoader loader;
+
+    @Before
+    public void setUp() {
+        loader = new AssetLoader(2);
+    }
+
+    @After
+    public void tearDown() {
+        loader.dispose();
+    }
+
+    /**
+     * Drains the uploads in the thread of the test until every asset is loaded
+     */
+    private void drainUploads() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!loader.isLoaded()) {
+            assertTrue("The assets were not loaded in time", System.currentTimeMillis() < deadline);
+            if (loader.processUploads(Long.MAX_VALUE) == 0) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    @Test
+    public void decodesInTheWorkersAndUploadsInTheDrainingThread() throws InterruptedException {
+        final Thread renderThread = Thread.currentThread();
+        final List<Thread> decodeThreads = new ArrayList<>();
+        final List<Thread> uploadThreads = new ArrayList<>();
+
+        List<AssetFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < ASSETS_COUNT; i++) {
+            final int asset = i;
+            futures.add(loader.load("asset" + i, new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    synchronized (decodeThreads) {
+                        decodeThreads.add(Thread.currentThread());
+                    }
+                    return asset;
+                }
+            }, new IUploadTask<Integer, String>() {
+                @Override
+                public String upload(Integer data) {
+                    uploadThreads.add(Thread.currentThread());
+                    return "uploaded" + data;
+                }
+            }));
+        }
+        drainUploads();
+
+        assertEquals(0, loader.getPendingCount());
+        assertEquals(ASSETS_COUNT, loader.getUploadsDone());
+        assertEquals(ASSETS_COUNT, decodeThreads.size());
+        assertEquals(ASSETS_COUNT, uploadThreads.size());
+        for (Thread thread : decodeThreads) {
+            assertFalse(thread == renderThread);
+        }
+        for (Thread thread : uploadThreads) {
+            assertSame(renderThread, thread);
+        }
+        for (int i = 0; i < ASSETS_COUNT; i++) {
+            assertTrue(futures.get(i).isDone());
+            assertEquals("uploaded" + i, futures.get(i).get());
+        }
+    }
+
+    @Test
+    public void failedDecodeFailsTheUpload() throws InterruptedException {
+        final IllegalStateException error = new IllegalStateException("missing asset");
+        final List<Integer> uploaded = new ArrayList<>();
+
+        AssetFuture<Integer> future = loader.load("missing", new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                throw error;
+            }
+        }, new IUploadTask<Integer, Integer>() {
+            @Override
+            public Integer upload(Integer data) {
+                uploaded.add(data);
+                return data;
+            }
+        });
+        drainUploads();
+
+        assertTrue(future.isFailed());
+        assertSame(error, future.getError());
+        assertNull(future.get());
+        assertTrue(uploaded.isEmpty());
+    }
+
+    @Test
+    public void budgetRunsAtLeastOneUploadByFrame() throws InterruptedException {
+        List<AssetFuture<Integer>> decoded = new ArrayList<>();
+        for (int i = 0; i < ASSETS_COUNT; i++) {
+            final int asset = i;
+            decoded.add(loader.decode("asset" + i, new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return asset;
+                }
+            }));
+        }
+        for (AssetFuture<Integer> future : decoded) {
+            future.await();
+        }
+        // The workers count the decode as done right after releasing its handle
+        while (loader.getPendingCount() > 0) {
+            Thread.sleep(1);
+        }
+        for (AssetFuture<Integer> future : decoded) {
+            loader.upload(future.getName(), future, new IUploadTask<Integer, Integer>() {
+                @Override
+                public Integer upload(Integer data) {
+                    return data;
+                }
+            });
+        }
+
+        // The decodes are done so the uploads are queued when they are requested
+        assertEquals(1, loader.processUploads(0));
+        assertFalse(loader.isLoaded());
+        assertEquals(ASSETS_COUNT - 1, loader.processUploads(Long.MAX_VALUE));
+        assertTrue(loader.isLoaded());
+    }
+}
@@ -0,0 +1,211 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.waveFront.OBJLoader;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks with the metrics of a FIFO cache computed in the CPU that the passes
+ * of the mesh optimizer improve the post-transform cache of one grid like the
+ * terrain and of one bundled model, keeping the same triangles and attributes
+ */
+public class MeshOptimizerTest {
+
+    /**
+     * Number of vertices in each side of the grid (the same of the terrain)
+     */
+    private final static int GRID_VERTEX_COUNT = 128;
+
+    /**
+     * Largest ACMR accepted for the grid after the optimizer (in grid order it is about 1.0)
+     */
+    private final static float GRID_MAX_ACMR = 0.75f;
+
+    /**
+     * @return Positions of a grid with the layout of the terrain
+     */
+    private static float[] getGridPositions() {
+        float[] positions = new float[GRID_VERTEX_COUNT * GRID_VERTEX_COUNT * 3];
+        for (int i = 0; i < GRID_VERTEX_COUNT; i++) {
+            for (int j = 0; j < GRID_VERTEX_COUNT; j++) {
+                int vertex = i * GRID_VERTEX_COUNT + j;
+                positions[vertex * 3] = j;
+                positions[vertex * 3 + 1] = (float) Math.sin(i * 0.1) * (float) Math.cos(j * 0.1);
+                positions[vertex * 3 + 2] = i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * @return Indices of a grid in the order of the terrain (row by row)
+     */
+    private static int[] getGridIndices() {
+        int[] indices = new int[6 * (GRID_VERTEX_COUNT - 1) * (GRID_VERTEX_COUNT - 1)];
+        int pointer = 0;
+        for (int gz = 0; gz < GRID_VERTEX_COUNT - 1; gz++) {
+            for (int gx = 0; gx < GRID_VERTEX_COUNT - 1; gx++) {
+                int topLeft = (gz * GRID_VERTEX_COUNT) + gx;
+                int bottomLeft = ((gz + 1) * GRID_VERTEX_COUNT) + gx;
+                indices[pointer++] = topLeft;
+                indices[pointer++] = bottomLeft;
+                indices[pointer++] = topLeft + 1;
+                indices[pointer++] = topLeft + 1;
+                indices[pointer++] = bottomLeft;
+                indices[pointer++] = bottomLeft + 1;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * @return The triangles of one range with the smallest index first, sorted
+     */
+    private static long[] getTriangles(int[] indices, int offset, int count) {
+        long[] triangles = new long[count / 3];
+        for (int t = 0; t < triangles.length; t++) {
+            int a = indices[offset + t * 3];
+            int b = indices[offset + t * 3 + 1];
+            int c = indices[offset + t * 3 + 2];
+            // Rotates keeping the winding
+            while ((a > b) || (a > c)) {
+                int swap = a;
+                a = b;
+                b = c;
+                c = swap;
+            }
+            triangles[t] = ((long) a << 42) | ((long) b << 21) | c;
+        }
+        Arrays.sort(triangles);
+        return triangles;
+    }
+
+    /**
+     * @return The triangles of one range as their positions, starting by the
+     * smallest vertex and sorted (the same whatever the order of the vertices)
+     */
+    private static String[] getPositionTriangles(float[] positions, int[] indices, int offset, int count) {
+        String[] triangles = new String[count / 3];
+        for (int t = 0; t < triangles.length; t++) {
+            String[] vertices = new String[3];
+            for (int v = 0; v < 3; v++) {
+                int index = indices[offset + t * 3 + v];
+                vertices[v] = positions[index * 3] + "," + positions[index * 3 + 1] + "," + positions[index * 3 + 2];
+            }
+            // Rotates keeping the winding
+            while ((vertices[0].compareTo(vertices[1]) > 0) || (vertices[0].compareTo(vertices[2]) > 0)) {
+                String swap = vertices[0];
+                vertices[0] = vertices[1];
+                vertices[1] = vertices[2];
+                vertices[2] = swap;
+            }
+            triangles[t] = vertices[0] + ";" + vertices[1] + ";" + vertices[2];
+        }
+        Arrays.sort(triangles);
+        return triangles;
+    }
+
+    /**
+     * Asserts that the renumbered indices point to the same positions
+     */
+    private static void assertSamePositions(float[] positions, int[] indices, float[] newPositions,
+                                            int[] newIndices) {
+        assertEquals(indices.length, newIndices.length);
+        for (int i = 0; i < indices.length; i++) {
+            for (int k = 0; k < 3; k++) {
+                assertEquals(positions[indices[i] * 3 + k], newPositions[newIndices[i] * 3 + k], 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void cachePassImprovesGrid() {
+        float[] positions = getGridPositions();
+        int[] indices = getGridIndices();
+        int vertexCount = positions.length / 3;
+        CacheMetrics original = CacheMetrics.analyze(indices, vertexCount);
+
+        int[] optimized = indices.clone();
+        VertexCacheOptimizer.optimize(optimized, 0, optimized.length, vertexCount);
+        CacheMetrics cache = CacheMetrics.analyze(optimized, vertexCount);
+
+        assertTrue("ACMR " + cache.getAcmr() + " (original " + original.getAcmr() + ")",
+                cache.getAcmr() < Math.min(original.getAcmr(), GRID_MAX_ACMR));
+        assertTrue(cache.getAtvr() < original.getAtvr());
+        assertArrayEquals(getTriangles(indices, 0, indices.length), getTriangles(optimized, 0, optimized.length));
+    }
+
+    @Test
+    public void overdrawPassKeepsTrianglesAndCache() {
+        float[] positions = getGridPositions();
+        int[] indices = getGridIndices();
+        int vertexCount = positions.length / 3;
+        int[] optimized = indices.clone();
+        VertexCacheOptimizer.optimize(optimized, 0, optimized.length, vertexCount);
+        CacheMetrics cache = CacheMetrics.analyze(optimized, vertexCount);
+
+        OverdrawOptimizer.optimize(optimized, 0, optimized.length, positions, vertexCount);
+        CacheMetrics overdraw = CacheMetrics.analyze(optimized, vertexCount);
+
+        assertTrue(overdraw.getAcmr() <= cache.getAcmr() * 1.05f);
+        assertArrayEquals(getTriangles(indices, 0, indices.length), getTriangles(optimized, 0, optimized.length));
+    }
+
+    @Test
+    public void fetchPassRenumbersByFirstUse() {
+        float[] positions = getGridPositions();
+        int[] indices = getGridIndices();
+        int vertexCount = positions.length / 3;
+        int[] optimized = indices.clone();
+        VertexCacheOptimizer.optimize(optimized, 0, optimized.length, vertexCount);
+        CacheMetrics cache = CacheMetrics.analyze(optimized, vertexCount);
+
+        int[] fetchIndices = optimized.clone();
+        int[] remap = VertexFetchOptimizer.reorderByFirstUse(fetchIndices, vertexCount);
+        float[] fetchPositions = VertexFetchOptimizer.remap(positions, 3, remap);
+
+        // Every vertex used for the first time is the next one of the buffer
+        int next = 0;
+        for (int index : fetchIndices) {
+            assertTrue(index <= next);
+            if (index == next) {
+                next++;
+            }
+        }
+        assertEquals(cache.getAcmr(), CacheMetrics.analyze(fetchIndices, vertexCount).getAcmr(), 0.0f);
+        assertSamePositions(positions, optimized, fetchPositions, fetchIndices);
+    }
+
+    @Test
+    public void optimizerImprovesBundledModel() {
+        byte[] content = LoadUtils.readBytesFromRawResource("tree.obj");
+        WfMesh mesh = OBJLoader.loadObjMeshFromBytes(content, new DesktopResourceProvider());
+        assertNotNull(mesh);
+        float[] positions = mesh.getVertices();
+        int[] indices = mesh.getIndices();
+        int vertexCount = positions.length / 3;
+        CacheMetrics original = CacheMetrics.analyze(indices, vertexCount);
+
+        WfMesh optimized = MeshOptimizer.optimize(mesh);
+        CacheMetrics metrics = CacheMetrics.analyze(optimized.getIndices(), vertexCount);
+
+        assertTrue("ACMR " + metrics.getAcmr() + " (original " + original.getAcmr() + ")",
+                metrics.getAcmr() < original.getAcmr());
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            assertArrayEquals(getPositionTriangles(positions, indices, subMesh.getIndexOffset(),
+                    subMesh.getIndexCount()), getPositionTriangles(optimized.getVertices(), optimized.getIndices(),
+                    subMesh.getIndexOffset(), subMesh.getIndexCount()));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.waveFront.OBJLoader;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the chains of levels of detail of the bundled models have one
+ * range by sub mesh inside of the index buffer in every level and that the
+ * levels get coarser one after the other
+ */
+public class MeshSimplifierTest {
+
+    /**
+     * Extension of wave front files
+     */
+    private final static String WAVEFRONT_EXTENSION = ".obj";
+
+    /**
+     * Maximum number of levels built by model
+     */
+    private final static int LOD_LEVELS = 4;
+
+    /**
+     * @return The mesh of one bundled model
+     */
+    private static WfMesh loadMesh(ModelEnum modelEnum) {
+        byte[] content = LoadUtils.readBytesFromRawResource(modelEnum.toString() + WAVEFRONT_EXTENSION);
+        return OBJLoader.loadObjMeshFromBytes(content, new DesktopResourceProvider());
+    }
+
+    /**
+     * @return Number of triangles of one mesh
+     */
+    private static int getTriangleCount(WfMesh mesh) {
+        int triangles = 0;
+        for (SubMesh subMesh : mesh.getSubMeshes()) {
+            triangles += subMesh.getIndexCount() / 3;
+        }
+        return triangles;
+    }
+
+    @Test
+    public void everyLevelReferencesValidVertices() {
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            WfMesh mesh = loadMesh(modelEnum);
+            LodChain lodChain = MeshSimplifier.buildLodChain(mesh, LOD_LEVELS);
+
+            IntBuffer indices = lodChain.getMesh().getIndicesBuffer();
+            int vertexCount = lodChain.getMesh().getVerticesBuffer().remaining() / 3;
+            List<LodLevel> levels = lodChain.getLevels();
+            assertFalse(modelEnum.toString(), levels.isEmpty());
+            assertTrue(modelEnum.toString(), levels.size() <= LOD_LEVELS);
+            for (LodLevel level : levels) {
+                assertEquals(modelEnum.toString(), mesh.getSubMeshes().size(), level.getSubMeshes().size());
+                int triangles = 0;
+                for (SubMesh subMesh : level.getSubMeshes()) {
+                    assertTrue(modelEnum.toString(),
+                            subMesh.getIndexOffset() + subMesh.getIndexCount() <= indices.remaining());
+                    for (int i = 0; i < subMesh.getIndexCount(); i++) {
+                        int index = indices.get(indices.position() + subMesh.getIndexOffset() + i);
+                        assertTrue(modelEnum.toString(), (index >= 0) && (index < vertexCount));
+                    }
+                    triangles += subMesh.getIndexCount() / 3;
+                }
+                assertEquals(modelEnum.toString(), triangles, level.getTriangleCount());
+            }
+        }
+    }
+
+    @Test
+    public void levelsGetCoarser() {
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            WfMesh mesh = loadMesh(modelEnum);
+            LodChain lodChain = MeshSimplifier.buildLodChain(mesh, LOD_LEVELS);
+
+            List<LodLevel> levels = lodChain.getLevels();
+            assertEquals(modelEnum.toString(), getTriangleCount(mesh), levels.get(0).getTriangleCount());
+            assertEquals(modelEnum.toString(), 0.0f, levels.get(0).getError(), 0.0f);
+            for (int i = 1; i < levels.size(); i++) {
+                assertTrue(modelEnum.toString(),
+                        levels.get(i).getTriangleCount() < levels.get(i - 1).getTriangleCount());
+                assertTrue(modelEnum.toString(), levels.get(i).getError() >= levels.get(i - 1).getError());
+            }
+        }
+    }
+
+    @Test
+    public void nearModelsUseTheFinestLevel() {
+        LodChain lodChain = MeshSimplifier.buildLodChain(loadMesh(ModelEnum.player), LOD_LEVELS);
+
+        assertTrue(lodChain.getLevels().size() > 1);
+        assertEquals(0, lodChain.selectLevel(1.0f));
+        assertEquals(lodChain.getLevels().size() - 1, lodChain.selectLevel(0.0f));
+    }
+}
@@ -0,0 +1,94 @@
+package com.dferreira.commons.optimizer;
+
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.generic_render.VertexLayoutEnum;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+import com.dferreira.gameEngine.shaders.entities.TEntityAttribute;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the quantized format halves the bytes by vertex and that the
+ * errors of the attributes of the bundled models stay inside of the
+ * precision of every encoding
+ */
+public class VertexQuantizerTest {
+
+    /**
+     * Largest error of the octahedral normals of 8 bits (in degrees)
+     */
+    private final static float MAX_NORMAL8_ERROR = 1.0f;
+
+    /**
+     * Largest error of the octahedral normals of 16 bits (in degrees)
+     */
+    private final static float MAX_NORMAL16_ERROR = 0.05f;
+
+    /**
+     * Largest error of the coordinates of texture stored as half floats
+     */
+    private final static float MAX_TEXTURE_ERROR = 0.001f;
+
+    /**
+     * @return Locations of the attributes of the entities
+     */
+    private static HashMap<RenderAttributeEnum, IEnum> getLocations() {
+        HashMap<RenderAttributeEnum, IEnum> locations = new HashMap<>();
+        locations.put(RenderAttributeEnum.position, TEntityAttribute.position);
+        locations.put(RenderAttributeEnum.textureCoords, TEntityAttribute.textureCoords);
+        locations.put(RenderAttributeEnum.normal, TEntityAttribute.normal);
+        return locations;
+    }
+
+    /**
+     * @return Half of the diagonal of one step of the quantized positions
+     */
+    private static float getHalfStep(VertexQuantization quantization) {
+        float[] scale = quantization.getPositionScale();
+        return 0.5f * (float) Math.sqrt(scale[0] * scale[0] + scale[1] * scale[1] + scale[2] * scale[2]);
+    }
+
+    @Test
+    public void quantizedFormatHalvesTheVertices() {
+        HashMap<RenderAttributeEnum, IEnum> locations = getLocations();
+        VertexFormat floatFormat = VertexFormat.positionTextureNormal(VertexLayoutEnum.interleaved, locations);
+        VertexFormat quantizedFormat = VertexFormat.quantized(locations, 16);
+
+        assertEquals(32, floatFormat.getStride());
+        assertEquals(16, quantizedFormat.getStride());
+        assertTrue(quantizedFormat.isQuantized());
+    }
+
+    @Test
+    public void errorsOfTheBundledModelsStayInsideOfThePrecision() {
+        DesktopResourceProvider provider = new DesktopResourceProvider();
+        HashMap<RenderAttributeEnum, IEnum> locations = getLocations();
+        VertexFormat format8 = VertexFormat.quantized(locations, 8);
+        VertexFormat format16 = VertexFormat.quantized(locations, 16);
+
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            WfMesh mesh = provider.getResource(modelEnum);
+            QuantizedMesh quantized8 = VertexQuantizer.quantize(mesh, format8);
+            QuantizedMesh quantized16 = VertexQuantizer.quantize(mesh, format16);
+
+            assertEquals(modelEnum.toString(), mesh.getVerticesBuffer().remaining() / 3,
+                    quantized16.getVertexCount());
+            assertEquals(modelEnum.toString(), quantized16.getVertexCount() * format16.getStride(),
+                    quantized16.getVertices().remaining());
+            assertTrue(modelEnum.toString(),
+                    quantized16.getMaxPositionError() <= getHalfStep(quantized16.getQuantization()));
+            assertTrue(modelEnum.toString(), quantized8.getMaxNormalError() <= MAX_NORMAL8_ERROR);
+            assertTrue(modelEnum.toString(), quantized16.getMaxNormalError() <= MAX_NORMAL16_ERROR);
+            assertTrue(modelEnum.toString(), quantized16.getMaxTextureError() <= MAX_TEXTURE_ERROR);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.dferreira.commons.pack;
+
+import com.dferreira.commons.LoadUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Packs the resources of the project and checks that every asset of the pack
+ * has the same bytes than its file
+ */
+public class AssetPackTest {
+
+    /**
+     * Folder of the resources of the project
+     */
+    private final static String RESOURCES_FOLDER = "src/main/resources";
+
+    /**
+     * One texture of the resources (stored without compression)
+     */
+    private final static String TEXTURE_NAME = "fern.png";
+
+    /**
+     * One model of the resources (compressed)
+     */
+    private final static String MODEL_NAME = "fern.obj";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @return Pack of the resources of the project
+     */
+    private AssetPack packResources() throws Exception {
+        File packFile = folder.newFile("assets.pack");
+        AssetPackWriter writer = new AssetPackWriter();
+        writer.addFolder(new File(RESOURCES_FOLDER), "");
+        assertTrue(writer.write(packFile));
+        AssetPack pack = AssetPack.open(packFile);
+        assertNotNull(pack);
+        return pack;
+    }
+
+    @Test
+    public void packedAssetsHaveTheBytesOfTheirFiles() throws Exception {
+        AssetPack pack = packResources();
+        assertFalse(pack.getNames().isEmpty());
+        for (String name : pack.getNames()) {
+            byte[] content = LoadUtils.readBytesFromRawResource(name);
+            assertNotNull(name, content);
+            assertEquals(name, content.length, pack.getSize(name));
+            assertArrayEquals(name, content, pack.getBytes(name));
+        }
+    }
+
+    @Test
+    public void onlyCompressibleAssetsAreCompressed() throws Exception {
+        AssetPack pack = packResources();
+        assertFalse(pack.isCompressed(TEXTURE_NAME));
+        assertTrue(pack.isCompressed(MODEL_NAME));
+    }
+
+    @Test
+    public void missingAsset() throws Exception {
+        AssetPack pack = packResources();
+        assertFalse(pack.contains("missing.obj"));
+        assertEquals(-1, pack.getSize("missing.obj"));
+        assertNull(pack.getBuffer("missing.obj"));
+    }
+}
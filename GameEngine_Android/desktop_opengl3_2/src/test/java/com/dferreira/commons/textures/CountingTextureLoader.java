@@ -0,0 +1,177 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.generic_render.ILoaderRenderAPI;
+import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.QuantizedMesh;
+import com.dferreira.commons.shapes.IBufferShape;
+import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.utils.ResourceRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Loader that counts the bytes of the levels of the textures uploaded
+ * instead of uploading them
+ */
+class CountingTextureLoader implements ILoaderRenderAPI {
+
+    /**
+     * Number of bytes of one pixel (RGBA)
+     */
+    private final static int BYTES_BY_PIXEL = 4;
+
+    /**
+     * Texture that knows the bytes uploaded
+     */
+    private static class CountedTexture implements ITexture {
+        private long bytes;
+    }
+
+    /**
+     * Streamer of the textures that uploads through this loader
+     */
+    private final TextureStreamer textureStreamer;
+
+    /**
+     * Textures uploaded
+     */
+    private final List<CountedTexture> textures;
+
+    /**
+     * Constructor of the counting loader
+     */
+    CountingTextureLoader() {
+        this.textureStreamer = new TextureStreamer(this);
+        this.textures = new ArrayList<>();
+    }
+
+    /**
+     * @param textureData Texture with its chain of mipmaps
+     * @return Number of bytes of the texture with all its levels
+     */
+    static long getBytes(TextureData textureData) {
+        long bytes = (long) textureData.getWidth() * textureData.getHeight() * BYTES_BY_PIXEL;
+        if (textureData.getMipmaps() != null) {
+            for (TextureData mipmap : textureData.getMipmaps()) {
+                bytes += (long) mipmap.getWidth() * mipmap.getHeight() * BYTES_BY_PIXEL;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return Sum of the bytes of the textures uploaded
+     */
+    long getResidentBytes() {
+        long bytes = 0;
+        for (CountedTexture texture : textures) {
+            bytes += texture.bytes;
+        }
+        return bytes;
+    }
+
+    @Override
+    public ITexture loadTexture(TextureData textureData, boolean repeat) {
+        CountedTexture texture = new CountedTexture();
+        texture.bytes = getBytes(textureData);
+        textures.add(texture);
+        return texture;
+    }
+
+    @Override
+    public ITexture loadTexture(String filename, TextureData textureData, boolean repeat) {
+        return loadTexture(textureData, repeat);
+    }
+
+    @Override
+    public void reloadTexture(ITexture texture, TextureData textureData, boolean repeat) {
+        ((CountedTexture) texture).bytes = getBytes(textureData);
+    }
+
+    @Override
+    public TextureStreamer getTextureStreamer() {
+        return textureStreamer;
+    }
+
+    @Override
+    public ITexture loadTexture(TextureEnum textureEnum, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTexture(String filename, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isCompressedFormatSupported(CompressedFormat format) {
+        return false;
+    }
+
+    @Override
+    public void releaseTexture(String filename, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResourceRegistry<ITexture> getTextureRegistry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TextureData getTextureData(TextureEnum textureEnum) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTCubeMap(TextureEnum[] textures, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTCubeMap(TextureData[] textures, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel loadToRawModel(IShape shape, VertexFormat format) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel loadToRawModel(IBufferShape shape, VertexFormat format) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel loadToRawModel(QuantizedMesh mesh) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel loadSubRawModel(IRawModel model, int indexOffset, int indexCount) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel load2DPositionsToRawModel(float[] positions, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel load3DPositionsToRawModel(float[] positions, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
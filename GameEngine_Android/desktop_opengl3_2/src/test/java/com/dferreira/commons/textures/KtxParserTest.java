@@ -0,0 +1,190 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.models.CompressedTextureData;
+import com.dferreira.commons.models.TextureData;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the parser of the KTX containers without any GPU: writes containers
+ * of both versions in memory with every level filled with its index and reads
+ * them back checking the layout of the levels (the errors logged by the
+ * containers refused are expected)
+ */
+public class KtxParserTest {
+
+    /**
+     * Identifier of the version 1
+     */
+    private final static byte[] KTX_IDENTIFIER = {(byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r',
+            '\n', 0x1A, '\n'};
+
+    /**
+     * Identifier of the version 2
+     */
+    private final static byte[] KTX2_IDENTIFIER = {(byte) 0xAB, 'K', 'T', 'X', ' ', '2', '0', (byte) 0xBB, '\r',
+            '\n', 0x1A, '\n'};
+
+    /**
+     * @param width  Width of the base level
+     * @param height Height of the base level
+     * @return Number of levels of the complete chain
+     */
+    private static int getLevelsCount(int width, int height) {
+        int levels = 1;
+        for (int size = Math.max(width, height); size > 1; size /= 2) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * @param format Format of the blocks
+     * @param width  Width of the base level
+     * @param height Height of the base level
+     * @param level  Index of the level
+     * @return Bytes of the level
+     */
+    private static int getLevelSize(CompressedFormat format, int width, int height, int level) {
+        return format.getLevelSize(Math.max(1, width >> level), Math.max(1, height >> level));
+    }
+
+    /**
+     * Writes a container of the version 1 with some bytes of key and values
+     *
+     * @param order Byte order of the writer
+     */
+    private static ByteBuffer writeKtx(CompressedFormat format, int width, int height, int faces, ByteOrder order) {
+        int levels = getLevelsCount(width, height);
+        int keyValueBytes = 16;
+        int size = 64 + keyValueBytes;
+        for (int level = 0; level < levels; level++) {
+            size += 4 + ((getLevelSize(format, width, height, level) + 3) & ~3);
+        }
+        ByteBuffer data = ByteBuffer.allocateDirect(size).order(order);
+        data.put(KTX_IDENTIFIER);
+        data.putInt(0x04030201).putInt(0).putInt(1).putInt(0).putInt(format.getGLInternalFormat()).putInt(0x1908);
+        data.putInt(width).putInt(height).putInt(0).putInt(0).putInt(faces).putInt(levels).putInt(keyValueBytes);
+        data.position(data.position() + keyValueBytes);
+        for (int level = 0; level < levels; level++) {
+            int levelSize = getLevelSize(format, width, height, level);
+            data.putInt(levelSize);
+            for (int i = 0; i < levelSize; i++) {
+                data.put((byte) level);
+            }
+            data.position((data.position() + 3) & ~3);
+        }
+        data.flip();
+        return data;
+    }
+
+    /**
+     * Writes a container of the version 2 with the smallest level first as
+     * the specification asks
+     */
+    private static ByteBuffer writeKtx2(CompressedFormat format, int vkFormat, int width, int height,
+                                        int supercompression) {
+        int levels = getLevelsCount(width, height);
+        int indexEnd = 80 + levels * 24;
+        int size = indexEnd;
+        for (int level = levels - 1; level >= 0; level--) {
+            size = ((size + 15) & ~15) + getLevelSize(format, width, height, level);
+        }
+        ByteBuffer data = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        data.put(KTX2_IDENTIFIER);
+        data.putInt(vkFormat).putInt(1).putInt(width).putInt(height).putInt(0).putInt(0).putInt(1).putInt(levels);
+        data.putInt(supercompression);
+        data.putInt(0).putInt(0).putInt(0).putInt(0).putLong(0).putLong(0);
+        int offset = indexEnd;
+        for (int level = levels - 1; level >= 0; level--) {
+            offset = (offset + 15) & ~15;
+            int levelSize = getLevelSize(format, width, height, level);
+            data.putLong(80 + level * 24, offset).putLong(80 + level * 24 + 8, levelSize);
+            data.putLong(80 + level * 24 + 16, levelSize);
+            for (int i = 0; i < levelSize; i++) {
+                data.put(offset + i, (byte) level);
+            }
+            offset += levelSize;
+        }
+        data.position(0);
+        data.limit(size);
+        return data;
+    }
+
+    /**
+     * Asserts the layout of the levels of one texture read
+     */
+    private static void assertLevels(CompressedTextureData texture, CompressedFormat format, int width,
+                                     int height) {
+        assertNotNull(texture);
+        assertSame(format, texture.getFormat());
+        int levels = getLevelsCount(width, height);
+        TextureData[] mipmaps = texture.getMipmaps();
+        assertEquals(levels, (mipmaps == null) ? 1 : mipmaps.length + 1);
+        for (int level = 0; level < levels; level++) {
+            TextureData data = (level == 0) ? texture : mipmaps[level - 1];
+            ByteBuffer buffer = data.getBuffer();
+            assertEquals(Math.max(1, width >> level), data.getWidth());
+            assertEquals(Math.max(1, height >> level), data.getHeight());
+            assertEquals(getLevelSize(format, width, height, level), buffer.remaining());
+            assertTrue(buffer.isDirect());
+            for (int i = 0; i < buffer.remaining(); i++) {
+                assertEquals("Byte " + i + " of the level " + level, (byte) level, buffer.get(buffer.position() + i));
+            }
+        }
+    }
+
+    @Test
+    public void readsKtxLittleEndian() {
+        assertLevels(KtxParser.parse(writeKtx(CompressedFormat.BC1_RGBA, 64, 32, 1, ByteOrder.LITTLE_ENDIAN)),
+                CompressedFormat.BC1_RGBA, 64, 32);
+    }
+
+    @Test
+    public void readsKtxBigEndian() {
+        assertLevels(KtxParser.parse(writeKtx(CompressedFormat.ETC2_RGBA, 128, 128, 1, ByteOrder.BIG_ENDIAN)),
+                CompressedFormat.ETC2_RGBA, 128, 128);
+    }
+
+    @Test
+    public void readsKtxWithPartialBlocks() {
+        assertLevels(KtxParser.parse(writeKtx(CompressedFormat.ASTC_8x8, 100, 60, 1, ByteOrder.LITTLE_ENDIAN)),
+                CompressedFormat.ASTC_8x8, 100, 60);
+    }
+
+    @Test
+    public void readsKtx2WithSmallestLevelFirst() {
+        assertLevels(KtxParser.parse(writeKtx2(CompressedFormat.BC7_RGBA_SRGB, 146, 256, 64, 0)),
+                CompressedFormat.BC7_RGBA_SRGB, 256, 64);
+        assertLevels(KtxParser.parse(writeKtx2(CompressedFormat.ASTC_4x4, 157, 30, 17, 0)),
+                CompressedFormat.ASTC_4x4, 30, 17);
+    }
+
+    @Test
+    public void refusesContainersNotSupported() {
+        ByteBuffer truncated = writeKtx(CompressedFormat.BC3_RGBA, 64, 64, 1, ByteOrder.LITTLE_ENDIAN);
+        truncated.limit(truncated.limit() - 1);
+        assertNull(KtxParser.parse(truncated));
+        assertNull(KtxParser.parse(writeKtx(CompressedFormat.BC1_RGB, 16, 16, 6, ByteOrder.LITTLE_ENDIAN)));
+        assertNull(KtxParser.parse(writeKtx2(CompressedFormat.BC1_RGB, 131, 16, 16, 2)));
+        assertNull(KtxParser.parse(writeKtx2(CompressedFormat.BC1_RGB, 37, 16, 16, 0)));
+        assertNull(KtxParser.parse(new byte[]{1, 2, 3, 4}));
+    }
+
+    @Test
+    public void recognizesFileNames() {
+        assertTrue(KtxParser.isKtx("fern.ktx"));
+        assertTrue(KtxParser.isKtx("terrain/mud.KTX2"));
+        assertFalse(KtxParser.isKtx("fern.png"));
+    }
+}
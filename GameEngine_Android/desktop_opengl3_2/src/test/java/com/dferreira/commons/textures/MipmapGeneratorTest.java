@@ -0,0 +1,123 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.models.TextureData;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the chains of mipmaps built in the CPU on pixel data: the filter
+ * in linear space and the coverage of the alpha test kept in every level
+ */
+public class MipmapGeneratorTest {
+
+    /**
+     * Number of components of each pixel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Reference of the alpha test of the entities (in bytes)
+     */
+    private final static int ALPHA_REFERENCE_BYTE = 128;
+
+    /**
+     * Reference of the alpha test of the entities
+     */
+    private final static float ALPHA_REFERENCE = 0.5f;
+
+    /**
+     * Smallest level where the coverage is checked (below it one pixel
+     * changes too much the fraction)
+     */
+    private final static int MIN_COVERAGE_SIZE = 4;
+
+    /**
+     * Difference of coverage accepted besides the one of a single pixel
+     */
+    private final static float COVERAGE_TOLERANCE = 0.01f;
+
+    /**
+     * @param texture Level of one chain
+     * @return Fraction of the pixels that pass the alpha test
+     */
+    private static float getCoverage(TextureData texture) {
+        ByteBuffer buffer = texture.getBuffer();
+        int count = texture.getWidth() * texture.getHeight();
+        int passed = 0;
+        for (int i = 0; i < count; i++) {
+            if ((buffer.get(i * COMPONENTS + 3) & 0xFF) >= ALPHA_REFERENCE_BYTE) {
+                passed++;
+            }
+        }
+        return passed / (float) count;
+    }
+
+    /**
+     * @param size Width and height of the checkerboard
+     * @return Checkerboard of black and white opaque pixels
+     */
+    private static TextureData getCheckerboard(int size) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size * size * COMPONENTS);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                byte value = (byte) (((x + y) % 2 == 0) ? 0 : 255);
+                buffer.put(value).put(value).put(value).put((byte) 255);
+            }
+        }
+        buffer.flip();
+        return new TextureData(buffer, size, size);
+    }
+
+    @Test
+    public void chainHalvesDownToOnePixel() {
+        TextureData[] mipmaps = MipmapGenerator.generate(getCheckerboard(16), 0.0f, null);
+
+        assertEquals(4, mipmaps.length);
+        int size = 16;
+        for (TextureData level : mipmaps) {
+            size /= 2;
+            assertEquals(size, level.getWidth());
+            assertEquals(size, level.getHeight());
+            assertEquals(size * size * COMPONENTS, level.getBuffer().remaining());
+        }
+    }
+
+    @Test
+    public void checkerboardIsFilteredInLinearSpace() {
+        TextureData[] mipmaps = MipmapGenerator.generate(getCheckerboard(4), 0.0f, null);
+        ByteBuffer level = mipmaps[0].getBuffer();
+
+        // The average of black and white in linear space is 188 in sRGB (the average of the bytes would be 128)
+        for (int i = 0; i < mipmaps[0].getWidth() * mipmaps[0].getHeight(); i++) {
+            assertEquals(188, level.get(i * COMPONENTS) & 0xFF);
+            assertEquals(188, level.get(i * COMPONENTS + 1) & 0xFF);
+            assertEquals(188, level.get(i * COMPONENTS + 2) & 0xFF);
+            assertEquals(255, level.get(i * COMPONENTS + 3) & 0xFF);
+        }
+    }
+
+    @Test
+    public void alphaCoverageIsKeptInEveryLevel() {
+        TextureData fern = LoadUtils.loadTexture("fern.png");
+        assertNotNull(fern);
+        float baseCoverage = getCoverage(fern);
+        TextureData[] mipmaps = MipmapGenerator.generate(fern, ALPHA_REFERENCE, null);
+
+        for (TextureData level : mipmaps) {
+            if (level.getWidth() < MIN_COVERAGE_SIZE) {
+                break;
+            }
+            float tolerance = COVERAGE_TOLERANCE + 1.0f / (level.getWidth() * level.getHeight());
+            float coverage = getCoverage(level);
+            assertTrue("Coverage of the level " + level.getWidth() + "x" + level.getHeight() + " is " + coverage
+                    + " (base " + baseCoverage + ")", Math.abs(coverage - baseCoverage) <= tolerance);
+        }
+    }
+}
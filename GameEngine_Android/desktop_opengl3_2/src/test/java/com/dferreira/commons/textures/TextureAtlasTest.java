@@ -0,0 +1,152 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.loading.AssetLoader;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.utils.Utils;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+import com.dferreira.gameEngine.modelGenerators.WorldAtlasGenerator;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Builds the atlas of the small textures of the models as the loading does
+ * and checks that the regions do not overlap and that every vertex remapped
+ * samples the same pixel in the page than in its texture
+ */
+public class TextureAtlasTest {
+
+    /**
+     * Number of components of each pixel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Models rendered by frame
+     */
+    private final static ModelEnum[] MODELS = {ModelEnum.fern, ModelEnum.tree, ModelEnum.banana_tree,
+            ModelEnum.grass, ModelEnum.flower, ModelEnum.marble, ModelEnum.player};
+
+    /**
+     * Provider of the bundled resources
+     */
+    private static DesktopResourceProvider provider;
+
+    /**
+     * Atlas built as the loading does
+     */
+    private static TextureAtlas atlas;
+
+    @BeforeClass
+    public static void buildAtlas() {
+        provider = new DesktopResourceProvider();
+        AssetLoader assetLoader = new AssetLoader();
+        atlas = WorldAtlasGenerator.decodeAtlas(assetLoader, provider).await().getAtlas();
+        assetLoader.dispose();
+    }
+
+    /**
+     * @param texture Texture
+     * @param u       Horizontal coordinate of texture
+     * @param v       Vertical coordinate of texture
+     * @return The pixel nearest to the coordinates
+     */
+    private static int sample(TextureData texture, float u, float v) {
+        int x = Math.max(0, Math.min(texture.getWidth() - 1, (int) (u * texture.getWidth())));
+        int y = Math.max(0, Math.min(texture.getHeight() - 1, (int) (v * texture.getHeight())));
+        return texture.getBuffer().getInt((y * texture.getWidth() + x) * COMPONENTS);
+    }
+
+    /**
+     * @param subMesh Sub mesh
+     * @return The name of the file of the diffuse texture (null if it has not)
+     */
+    private static String getTextureFileName(SubMesh subMesh) {
+        if ((subMesh.getMaterial() == null) || Utils.isEmpty(subMesh.getMaterial().getDiffuseTextureFileName())) {
+            return null;
+        }
+        return subMesh.getMaterial().getDiffuseTextureFileName();
+    }
+
+    @Test
+    public void regionsAreInsideOfThePagesWithoutOverlapping() {
+        Set<String> fileNames = new HashSet<>();
+        for (ModelEnum modelEnum : MODELS) {
+            for (SubMesh subMesh : provider.getResource(modelEnum).getSubMeshes()) {
+                String fileName = getTextureFileName(subMesh);
+                if ((fileName != null) && atlas.contains(fileName)) {
+                    fileNames.add(fileName);
+                }
+            }
+        }
+        assertEquals(atlas.getRegionsCount(), fileNames.size());
+
+        List<AtlasRegion> regions = new ArrayList<>();
+        for (String fileName : fileNames) {
+            AtlasRegion region = atlas.getRegion(fileName);
+            TextureData page = atlas.getPage(region.getPage());
+            assertTrue(fileName, (region.getX() >= 0) && (region.getY() >= 0));
+            assertTrue(fileName, region.getX() + region.getWidth() <= page.getWidth());
+            assertTrue(fileName, region.getY() + region.getHeight() <= page.getHeight());
+            for (AtlasRegion other : regions) {
+                boolean overlaps = (region.getPage() == other.getPage())
+                        && (region.getX() < other.getX() + other.getWidth())
+                        && (other.getX() < region.getX() + region.getWidth())
+                        && (region.getY() < other.getY() + other.getHeight())
+                        && (other.getY() < region.getY() + region.getHeight());
+                assertFalse(fileName, overlaps);
+            }
+            regions.add(region);
+        }
+    }
+
+    @Test
+    public void remappedVerticesSampleTheSamePixel() {
+        int checkedVertices = 0;
+        for (ModelEnum modelEnum : MODELS) {
+            WfMesh mesh = provider.getResource(modelEnum);
+            WfMesh remapped = atlas.remap(mesh);
+            if (remapped == null) {
+                continue;
+            }
+            float[] original = mesh.getTextureCoords();
+            float[] coordinates = remapped.getTextureCoords();
+            IntBuffer indices = mesh.getIndicesBuffer();
+            for (SubMesh subMesh : mesh.getSubMeshes()) {
+                String fileName = getTextureFileName(subMesh);
+                AtlasRegion region = (fileName == null) ? null : atlas.getRegion(fileName);
+                if (region == null) {
+                    continue;
+                }
+                TextureData texture = provider.getTexture(fileName);
+                TextureData page = atlas.getPage(region.getPage());
+                assertNotNull(fileName, texture);
+                Set<Integer> vertices = new HashSet<>();
+                for (int i = 0; i < subMesh.getIndexCount(); i++) {
+                    int vertex = indices.get(subMesh.getIndexOffset() + i);
+                    if (vertices.add(vertex)) {
+                        assertEquals(modelEnum + " " + fileName + " vertex " + vertex,
+                                sample(texture, original[2 * vertex], original[2 * vertex + 1]),
+                                sample(page, coordinates[2 * vertex], coordinates[2 * vertex + 1]));
+                    }
+                }
+                checkedVertices += vertices.size();
+            }
+        }
+        assertTrue(checkedVertices > 0);
+    }
+}
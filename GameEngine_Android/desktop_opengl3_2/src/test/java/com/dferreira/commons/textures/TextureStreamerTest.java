@@ -0,0 +1,159 @@
+package com.dferreira.commons.textures;
+
+import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.models.TextureData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Simulates a camera that goes towards a row of textured objects and back
+ * and checks that the streamer keeps the budget, that it counts the same
+ * bytes that were uploaded and that the finer levels are dropped when the
+ * camera goes away
+ */
+public class TextureStreamerTest {
+
+    /**
+     * Number of bytes of one pixel (RGBA)
+     */
+    private final static int BYTES_BY_PIXEL = 4;
+
+    /**
+     * Sizes of the textures of the objects
+     */
+    private final static int[] TEXTURE_SIZES = {1024, 1024, 512, 512, 512, 256, 256, 128};
+
+    /**
+     * Distance between the objects along the path of the camera
+     */
+    private final static float OBJECTS_SPACING = 20.0f;
+
+    /**
+     * Diameter of the objects
+     */
+    private final static float OBJECT_SIZE = 40.0f;
+
+    /**
+     * Scale of the projection (cotangent of half of the field of view of 45 degrees)
+     */
+    private final static float PROJECTION_SCALE = 2.414f;
+
+    /**
+     * Height of the viewport in pixels
+     */
+    private final static int VIEWPORT_HEIGHT = 600;
+
+    /**
+     * Budget of the memory of the textures in the simulation (6 MB)
+     */
+    private final static long BUDGET_BYTES = 6L * 1024 * 1024;
+
+    /**
+     * Frames that the camera takes going towards the objects (and the same back)
+     */
+    private final static int TRAVEL_FRAMES = 300;
+
+    /**
+     * Frames that the camera stays away at the end so the finer levels are dropped
+     */
+    private final static int REST_FRAMES = 200;
+
+    /**
+     * Distance of the camera to the first object at the start
+     */
+    private final static float START_DISTANCE = 600.0f;
+
+    /**
+     * Loader that counts the bytes uploaded
+     */
+    private CountingTextureLoader loader;
+
+    /**
+     * Streamer under test
+     */
+    private TextureStreamer streamer;
+
+    /**
+     * Textures of the objects
+     */
+    private ITexture[] textures;
+
+    /**
+     * @param size Side of the texture
+     * @return One texture with a gradient
+     */
+    private static TextureData createTexture(int size) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size * size * BYTES_BY_PIXEL);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                buffer.put((byte) x).put((byte) y).put((byte) (x ^ y)).put((byte) 255);
+            }
+        }
+        buffer.flip();
+        return new TextureData(buffer, size, size);
+    }
+
+    /**
+     * @param frame Frame of the simulation
+     * @return Distance of the camera to the first object in the frame
+     */
+    private static float getCameraDistance(int frame) {
+        int travel = (frame < TRAVEL_FRAMES) ? frame : Math.max(0, 2 * TRAVEL_FRAMES - frame);
+        return 1.0f + (START_DISTANCE - 1.0f) * (1.0f - travel / (float) TRAVEL_FRAMES);
+    }
+
+    @Before
+    public void setUp() {
+        loader = new CountingTextureLoader();
+        streamer = loader.getTextureStreamer();
+        streamer.setBudgetBytes(BUDGET_BYTES);
+        streamer.setViewportHeight(VIEWPORT_HEIGHT);
+        textures = new ITexture[TEXTURE_SIZES.length];
+        for (int i = 0; i < TEXTURE_SIZES.length; i++) {
+            textures[i] = streamer.loadTexture(null, createTexture(TEXTURE_SIZES[i]), false);
+        }
+    }
+
+    @Test
+    public void loadUploadsOnlyTheCoarseLevels() {
+        // Every texture starts with the chain from the level of the load (one third more for the mipmaps)
+        long loadLevelBytes = (long) TextureStreamer.LOAD_LEVEL_SIZE * TextureStreamer.LOAD_LEVEL_SIZE
+                * BYTES_BY_PIXEL * 4 / 3 + BYTES_BY_PIXEL;
+        assertEquals(TEXTURE_SIZES.length, streamer.getTexturesCount());
+        assertEquals(loader.getResidentBytes(), streamer.getResidentBytes());
+        assertTrue(loader.getResidentBytes() <= TEXTURE_SIZES.length * loadLevelBytes);
+    }
+
+    @Test
+    public void keepsTheBudgetAndDropsTheFinerLevels() {
+        long loadBytes = loader.getResidentBytes();
+        long maxBytes = Math.max(BUDGET_BYTES, loadBytes);
+
+        for (int frame = 0; frame <= 2 * TRAVEL_FRAMES + REST_FRAMES; frame++) {
+            float cameraDistance = getCameraDistance(frame);
+            streamer.beginFrame();
+            for (int i = 0; i < textures.length; i++) {
+                float distance = cameraDistance + i * OBJECTS_SPACING;
+                streamer.request(textures[i], OBJECT_SIZE * PROJECTION_SCALE / (2.0f * distance));
+            }
+            streamer.update();
+
+            assertEquals("frame " + frame, loader.getResidentBytes(), streamer.getResidentBytes());
+            assertTrue("frame " + frame, streamer.getResidentBytes() <= maxBytes);
+            if (frame == TRAVEL_FRAMES) {
+                assertTrue(streamer.getResidentBytes() > loadBytes);
+            }
+        }
+
+        assertTrue(streamer.getLevelsStreamedIn() > 0);
+        assertTrue(streamer.getLevelsDropped() > 0);
+        assertEquals(0, streamer.getPendingRequests());
+        assertEquals(loadBytes, loader.getResidentBytes());
+    }
+}
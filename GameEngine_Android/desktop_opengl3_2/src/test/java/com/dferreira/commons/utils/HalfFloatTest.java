@@ -0,0 +1,39 @@
+package com.dferreira.commons.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the conversion to half floats keeps the values that it can
+ * represent
+ */
+public class HalfFloatTest {
+
+    /**
+     * Values that a half float represents exactly
+     */
+    private final static float[] EXACT_HALF_VALUES = {0.0f, -0.0f, 1.0f, -1.0f, 0.5f, 0.25f, 2048.0f, 65504.0f,
+            6.1035156e-5f, 5.9604645e-8f, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY};
+
+    @Test
+    public void everyHalfFloatRoundTrips() {
+        for (int bits = 0; bits <= 0xFFFF; bits++) {
+            short half = (short) bits;
+            float value = HalfFloat.toFloat(half);
+            if (Float.isNaN(value)) {
+                assertTrue(Float.isNaN(HalfFloat.toFloat(HalfFloat.toHalf(value))));
+            } else {
+                assertEquals(Integer.toHexString(bits), half, HalfFloat.toHalf(value));
+            }
+        }
+    }
+
+    @Test
+    public void exactValuesKeepTheirValue() {
+        for (float value : EXACT_HALF_VALUES) {
+            assertEquals(0, Float.compare(HalfFloat.toFloat(HalfFloat.toHalf(value)), value));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the meshes read from the cache have the same buffers and sub
+ * meshes as the meshes parsed and share the materials interned by the
+ * provider with them
+ */
+public class MeshCacheTest {
+
+    /**
+     * Name of the model used by the tests
+     */
+    private final static String MODEL_NAME = "tree";
+
+    /**
+     * File of the materials of the model
+     */
+    private final static String MATERIALS_FILE_NAME = "tree.mtl";
+
+    /**
+     * Extension of wave front files
+     */
+    private final static String WAVEFRONT_EXTENSION = ".obj";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void bundledModelsRoundTrip() throws Exception {
+        DesktopResourceProvider provider = new DesktopResourceProvider();
+        MeshCache cache = new MeshCache(folder.getRoot());
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            String name = modelEnum.toString();
+            byte[] content = LoadUtils.readBytesFromRawResource(name + WAVEFRONT_EXTENSION);
+            long hash = MeshCache.hash(MeshCache.hash(), content);
+            WfMesh parsed = OBJLoader.loadObjMeshFromBytes(content, provider);
+            assertTrue(name, cache.save(name, hash, parsed));
+            WfMesh cached = cache.load(name, hash);
+            assertNotNull(name, cached);
+
+            assertEquals(name, parsed.getSubMeshes().size(), cached.getSubMeshes().size());
+            for (int i = 0; i < parsed.getSubMeshes().size(); i++) {
+                SubMesh expected = parsed.getSubMeshes().get(i);
+                SubMesh actual = cached.getSubMeshes().get(i);
+                assertEquals(name, expected.getIndexOffset(), actual.getIndexOffset());
+                assertEquals(name, expected.getIndexCount(), actual.getIndexCount());
+                assertEquals(name, expected.getMaterial() == null, actual.getMaterial() == null);
+            }
+            assertEquals(name, parsed.getVerticesBuffer(), cached.getVerticesBuffer());
+            assertEquals(name, parsed.getTextureCoordsBuffer(), cached.getTextureCoordsBuffer());
+            assertEquals(name, parsed.getNormalsBuffer(), cached.getNormalsBuffer());
+            assertEquals(name, parsed.getIndicesBuffer(), cached.getIndicesBuffer());
+        }
+    }
+
+    @Test
+    public void changedContentMissesTheCache() throws Exception {
+        DesktopResourceProvider provider = new DesktopResourceProvider();
+        byte[] content = LoadUtils.readBytesFromRawResource(MODEL_NAME + WAVEFRONT_EXTENSION);
+        long hash = MeshCache.hash(MeshCache.hash(), content);
+        MeshCache cache = new MeshCache(folder.getRoot());
+        assertTrue(cache.save(MODEL_NAME, hash, OBJLoader.loadObjMeshFromBytes(content, provider)));
+
+        assertNull(cache.load(MODEL_NAME, hash + 1));
+    }
+
+    @Test
+    public void cachedMeshSharesInternedMaterials() throws Exception {
+        DesktopResourceProvider provider = new DesktopResourceProvider();
+        byte[] content = LoadUtils.readBytesFromRawResource(MODEL_NAME + WAVEFRONT_EXTENSION);
+        long hash = MeshCache.hash(MeshCache.hash(), content);
+        WfMesh parsed = OBJLoader.loadObjMeshFromBytes(content, provider);
+        assertNotNull(parsed);
+
+        MeshCache cache = new MeshCache(folder.getRoot());
+        assertTrue(cache.save(MODEL_NAME, hash, parsed));
+        WfMesh cached = cache.load(MODEL_NAME, hash);
+        assertNotNull(cached);
+
+        int hits = provider.getMaterialRegistry().getHits();
+        WfMesh interned = MeshCache.internMaterials(cached, content, provider);
+        assertEquals(hits + 1, provider.getMaterialRegistry().getHits());
+        assertEquals(1, provider.getMaterialRegistry().size());
+
+        List<SubMesh> parsedSubMeshes = parsed.getSubMeshes();
+        List<SubMesh> internedSubMeshes = interned.getSubMeshes();
+        assertEquals(parsedSubMeshes.size(), internedSubMeshes.size());
+        for (int i = 0; i < parsedSubMeshes.size(); i++) {
+            IExternalMaterial material = internedSubMeshes.get(i).getMaterial();
+            assertSame(parsedSubMeshes.get(i).getMaterial(), material);
+            if (material != null) {
+                assertSame(provider.getMaterials(MATERIALS_FILE_NAME).get(material.getName()), material);
+            }
+            assertEquals(parsedSubMeshes.get(i).getIndexOffset(), internedSubMeshes.get(i).getIndexOffset());
+            assertEquals(parsedSubMeshes.get(i).getIndexCount(), internedSubMeshes.get(i).getIndexCount());
+        }
+        assertSame(cached.getVerticesBuffer(), interned.getVerticesBuffer());
+        assertSame(cached.getIndicesBuffer(), interned.getIndicesBuffer());
+    }
+}
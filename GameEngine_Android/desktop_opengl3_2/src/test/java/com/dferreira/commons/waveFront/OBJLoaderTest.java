@@ -0,0 +1,127 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.desktopUtils.DesktopResourceProvider;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Checks that the parser that splits the waveFront files in chunks parsed by
+ * a fork join pool gives the same bits of the sequential parser
+ */
+public class OBJLoaderTest {
+
+    /**
+     * Extension of wave front files
+     */
+    private final static String WAVEFRONT_EXTENSION = ".obj";
+
+    /**
+     * Threads of the pool used by the tests
+     */
+    private final static int POOL_PARALLELISM = 4;
+
+    /**
+     * Rows and columns of the grid in the generated file (big enough to be
+     * split in several chunks)
+     */
+    private final static int GRID_SIZE = 120;
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void createPool() {
+        pool = new ForkJoinPool(POOL_PARALLELISM);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void bundledModelsParseTheSameInParallel() {
+        DesktopResourceProvider provider = new DesktopResourceProvider();
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            String name = modelEnum.toString();
+            byte[] content = LoadUtils.readBytesFromRawResource(name + WAVEFRONT_EXTENSION);
+            WfMesh expected = OBJLoader.loadObjMeshFromBytes(new ByteArrayInputStream(content), provider);
+            WfMesh actual = OBJLoader.loadObjMeshFromBytes(content, provider, pool);
+            assertSameMesh(name, expected, actual);
+        }
+    }
+
+    @Test
+    public void relativeIndicesAndGroupsAcrossChunks() {
+        DesktopResourceProvider provider = new DesktopResourceProvider();
+        byte[] content = generateRelativeFile();
+        WfMesh expected = OBJLoader.loadObjMeshFromBytes(new ByteArrayInputStream(content), provider);
+        WfMesh actual = OBJLoader.loadObjMeshFromBytes(content, provider, pool);
+        assertSameMesh("relative", expected, actual);
+    }
+
+    /**
+     * @return One file with a grid of quads that uses relative indices and
+     * changes of group and material every few rows
+     */
+    private static byte[] generateRelativeFile() {
+        StringBuilder builder = new StringBuilder();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            if (row % 7 == 0) {
+                builder.append("g row").append(row % 3).append('\n');
+            }
+            if (row % 11 == 0) {
+                builder.append("usemtl material").append(row % 2).append('\n');
+            }
+            for (int column = 0; column < GRID_SIZE; column++) {
+                builder.append("v ").append(column * 0.1f).append(' ').append(row * 0.37f).append(" 0.0\n");
+                builder.append("v ").append(column * 0.1f).append(' ').append(row * 0.37f).append(" 1.0\n");
+                builder.append("vt ").append(column / (float) GRID_SIZE).append(' ')
+                        .append(row / (float) GRID_SIZE).append('\n');
+                builder.append("vn 0.0 ").append(row % 2).append(".0 1.0\n");
+                if (column > 0) {
+                    builder.append("f -2/-1/-1 -1/-1/-1 -3/-2/-2 -4/-2/-2\n");
+                }
+            }
+        }
+        return builder.toString().getBytes();
+    }
+
+    private static void assertSameMesh(String name, WfMesh expected, WfMesh actual) {
+        assertNotNull(name, expected);
+        assertNotNull(name, actual);
+        assertEquals(name, expected.getSubMeshes().size(), actual.getSubMeshes().size());
+        for (int i = 0; i < expected.getSubMeshes().size(); i++) {
+            SubMesh a = expected.getSubMeshes().get(i);
+            SubMesh b = actual.getSubMeshes().get(i);
+            assertEquals(name, a.getGroupName(), b.getGroupName());
+            assertEquals(name, a.getIndexOffset(), b.getIndexOffset());
+            assertEquals(name, a.getIndexCount(), b.getIndexCount());
+            assertEquals(name, a.getMaterial(), b.getMaterial());
+        }
+        assertSameBits(name, expected.getVerticesBuffer(), actual.getVerticesBuffer());
+        assertSameBits(name, expected.getTextureCoordsBuffer(), actual.getTextureCoordsBuffer());
+        assertSameBits(name, expected.getNormalsBuffer(), actual.getNormalsBuffer());
+        assertEquals(name, expected.getIndicesBuffer(), actual.getIndicesBuffer());
+    }
+
+    private static void assertSameBits(String name, FloatBuffer expected, FloatBuffer actual) {
+        assertEquals(name, expected.remaining(), actual.remaining());
+        for (int i = 0; i < expected.remaining(); i++) {
+            assertEquals(name, Float.floatToRawIntBits(expected.get(expected.position() + i)),
+                    Float.floatToRawIntBits(actual.get(actual.position() + i)));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.TextureData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the textures decoded in batches with buffers of the pool have
+ * the same pixels of the textures decoded one after the other
+ */
+public class DesktopResourceProviderTest {
+
+    /**
+     * Textures of the sky box and of the terrain
+     */
+    private final static TextureEnum[] TEXTURES = {TextureEnum.sky_right, TextureEnum.sky_left,
+            TextureEnum.sky_top, TextureEnum.sky_bottom, TextureEnum.sky_back, TextureEnum.sky_front,
+            TextureEnum.weight_map, TextureEnum.terrain, TextureEnum.mud, TextureEnum.terrain_grass,
+            TextureEnum.path};
+
+    private DesktopResourceProvider provider;
+
+    @Before
+    public void setUp() {
+        provider = new DesktopResourceProvider();
+    }
+
+    @After
+    public void tearDown() {
+        provider.dispose();
+    }
+
+    @Test
+    public void batchDecodesTheSamePixels() {
+        TextureData[] batch = provider.getResources(TEXTURES);
+        assertEquals(TEXTURES.length, batch.length);
+        for (int i = 0; i < TEXTURES.length; i++) {
+            String name = TEXTURES[i].toString();
+            TextureData serial = provider.getResource(TEXTURES[i]);
+            assertNotNull(name, batch[i]);
+            assertNotNull(name, serial);
+            assertEquals(name, serial.getWidth(), batch[i].getWidth());
+            assertEquals(name, serial.getHeight(), batch[i].getHeight());
+            assertEquals(name, serial.getBuffer(), batch[i].getBuffer());
+        }
+        TextureData.release(batch);
+    }
+
+    @Test
+    public void releasedBuffersAreReused() {
+        TextureData.release(provider.getResources(TEXTURES));
+        int allocations = provider.getPixelsPool().getAllocations();
+        TextureData.release(provider.getResources(TEXTURES));
+
+        assertEquals(allocations, provider.getPixelsPool().getAllocations());
+        assertTrue(provider.getPixelsPool().getReuses() >= TEXTURES.length);
+    }
+}
@@ -0,0 +1,132 @@
+package com.dferreira.gameEngine.gl_render;
+
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
+import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.RenderConstants;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.shapes.SubMesh;
+import com.dferreira.commons.shapes.WfMesh;
+import com.dferreira.commons.shapes.WfObject;
+import com.dferreira.commons.utils.StagingAllocator;
+import com.dferreira.commons.utils.StagingBlock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the type and the size of the index buffers that the loader
+ * chooses for the meshes
+ */
+public class IndexBufferTest {
+
+    /**
+     * Largest number of vertices addressed with indices of 16 bits
+     */
+    private final static int MAX_SHORT_VERTICES = 65536;
+
+    /**
+     * Number of indices of the meshes of the tests
+     */
+    private final static int INDEX_COUNT = 300;
+
+    /**
+     * Mask to read one short as unsigned
+     */
+    private final static int UNSIGNED_SHORT_MASK = 0xFFFF;
+
+    private RecordingLoader loader;
+
+    private VertexFormat format;
+
+    @Before
+    public void setUp() {
+        loader = new RecordingLoader();
+        format = VertexFormat.positionTextureNormal(RenderConstants.VERTEX_LAYOUT,
+                new HashMap<RenderAttributeEnum, IEnum>());
+    }
+
+    /**
+     * @param vertexCount Number of vertices of the mesh
+     * @return Indices that go from the last vertex to the first one
+     */
+    private static int[] getIndices(int vertexCount) {
+        int[] indices = new int[INDEX_COUNT];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = (vertexCount - 1) - (i * (vertexCount - 1) / (indices.length - 1));
+        }
+        return indices;
+    }
+
+    /**
+     * @param vertexCount Number of vertices of the mesh
+     * @return Mesh with the number of vertices passed
+     */
+    private static WfMesh getMesh(int vertexCount) {
+        return new WfMesh(new float[vertexCount * RenderConstants.VERTEX_SIZE], new float[vertexCount * 2],
+                new float[vertexCount * RenderConstants.VERTEX_SIZE], getIndices(vertexCount),
+                new ArrayList<SubMesh>());
+    }
+
+    @Test
+    public void meshOfShortVerticesUsesUnsignedShort() {
+        IRawModel model = loader.loadToRawModel(getMesh(MAX_SHORT_VERTICES), format);
+
+        assertEquals(GL11.GL_UNSIGNED_SHORT, ((GLRawModel) model).getGLIndexType());
+        assertEquals(INDEX_COUNT * 2, loader.getLastIndexBytes());
+    }
+
+    @Test
+    public void meshAboveShortVerticesUsesUnsignedInt() {
+        IRawModel model = loader.loadToRawModel(getMesh(MAX_SHORT_VERTICES + 1), format);
+
+        assertEquals(GL11.GL_UNSIGNED_INT, ((GLRawModel) model).getGLIndexType());
+        assertEquals(INDEX_COUNT * 4, loader.getLastIndexBytes());
+    }
+
+    @Test
+    public void shapeOfArraysUsesUnsignedShort() {
+        int vertexCount = 128 * 128;
+        WfObject shape = new WfObject(new float[vertexCount * RenderConstants.VERTEX_SIZE], new float[vertexCount * 2],
+                new float[vertexCount * RenderConstants.VERTEX_SIZE], getIndices(vertexCount), null, null);
+        IRawModel model = loader.loadToRawModel(shape, format);
+
+        assertEquals(GL11.GL_UNSIGNED_SHORT, ((GLRawModel) model).getGLIndexType());
+        assertEquals(INDEX_COUNT * 2, loader.getLastIndexBytes());
+    }
+
+    @Test
+    public void subRawModelKeepsIndexType() {
+        IRawModel shortModel = loader.loadToRawModel(getMesh(MAX_SHORT_VERTICES), format);
+        IRawModel intModel = loader.loadToRawModel(getMesh(MAX_SHORT_VERTICES + 1), format);
+
+        assertEquals(GL11.GL_UNSIGNED_SHORT,
+                ((GLRawModel) loader.loadSubRawModel(shortModel, 3, 6)).getGLIndexType());
+        assertEquals(GL11.GL_UNSIGNED_INT,
+                ((GLRawModel) loader.loadSubRawModel(intModel, 3, 6)).getGLIndexType());
+        assertEquals(INDEX_COUNT * 2 + INDEX_COUNT * 4, loader.getTotalIndexBytes());
+    }
+
+    @Test
+    public void narrowedIndicesKeepTheirValues() {
+        int[] indices = getIndices(MAX_SHORT_VERTICES);
+        StagingBlock block = GLLoader.stageIndices(new StagingAllocator(1024), IntBuffer.wrap(indices),
+                IndexTypeEnum.unsignedShort);
+        ShortBuffer shorts = block.asShortBuffer();
+
+        assertEquals(MAX_SHORT_VERTICES - 1, shorts.get(0) & UNSIGNED_SHORT_MASK);
+        for (int i = 0; i < indices.length; i++) {
+            assertEquals(indices[i], shorts.get(i) & UNSIGNED_SHORT_MASK);
+        }
+        block.release();
+    }
+}
@@ -0,0 +1,190 @@
+package com.dferreira.gameEngine.gl_render;
+
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.generic_render.ILoaderRenderAPI;
+import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
+import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.RenderConstants;
+import com.dferreira.commons.generic_render.VertexFormat;
+import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.optimizer.QuantizedMesh;
+import com.dferreira.commons.shapes.IBufferShape;
+import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.textures.CompressedFormat;
+import com.dferreira.commons.textures.TextureStreamer;
+import com.dferreira.commons.utils.ResourceRegistry;
+import com.dferreira.commons.utils.StagingAllocator;
+import com.dferreira.commons.utils.StagingBlock;
+
+import java.nio.IntBuffer;
+import java.util.HashMap;
+
+/**
+ * Loader that stages the indices of the meshes as the GL loader does but
+ * records the sizes of the index buffers instead of uploading them
+ */
+class RecordingLoader implements ILoaderRenderAPI {
+
+    /**
+     * Size of the slabs of the allocator of the loader
+     */
+    private final static int SLAB_SIZE = 1024 * 1024;
+
+    /**
+     * Allocator of the buffers where the indices are staged
+     */
+    private final StagingAllocator staging;
+
+    /**
+     * Number of bytes of the last index buffer staged
+     */
+    private int lastIndexBytes;
+
+    /**
+     * Sum of the bytes of all the index buffers staged
+     */
+    private long totalIndexBytes;
+
+    /**
+     * Constructor of the recording loader
+     */
+    RecordingLoader() {
+        this.staging = new StagingAllocator(SLAB_SIZE);
+    }
+
+    /**
+     * Stages the indices with the type chosen by the GL loader and records
+     * the size of the buffer that would be uploaded
+     *
+     * @param indices     Indices of the mesh
+     * @param vertexCount Number of vertices referenced by the indices
+     * @return The type of the indices staged
+     */
+    private IndexTypeEnum recordIndices(IntBuffer indices, int vertexCount) {
+        IndexTypeEnum indexType = IndexTypeEnum.forVertexCount(vertexCount);
+        StagingBlock block = GLLoader.stageIndices(staging, indices, indexType);
+        lastIndexBytes = block.getBuffer().remaining();
+        totalIndexBytes += lastIndexBytes;
+        block.release();
+        return indexType;
+    }
+
+    /**
+     * @return Number of bytes of the last index buffer staged
+     */
+    int getLastIndexBytes() {
+        return lastIndexBytes;
+    }
+
+    /**
+     * @return Sum of the bytes of all the index buffers staged
+     */
+    long getTotalIndexBytes() {
+        return totalIndexBytes;
+    }
+
+    @Override
+    public IRawModel loadToRawModel(IShape shape, VertexFormat format) {
+        IndexTypeEnum indexType = recordIndices(IntBuffer.wrap(shape.getIndices()),
+                shape.getVertices().length / RenderConstants.VERTEX_SIZE);
+        return new GLRawModel(0, shape.getIndices().length, 0, indexType, format.getLocations());
+    }
+
+    @Override
+    public IRawModel loadToRawModel(IBufferShape shape, VertexFormat format) {
+        IntBuffer indices = shape.getIndicesBuffer();
+        IndexTypeEnum indexType = recordIndices(indices,
+                shape.getVerticesBuffer().remaining() / RenderConstants.VERTEX_SIZE);
+        return new GLRawModel(0, indices.remaining(), 0, indexType, format.getLocations());
+    }
+
+    @Override
+    public IRawModel loadToRawModel(QuantizedMesh mesh) {
+        IndexTypeEnum indexType = recordIndices(mesh.getIndices(), mesh.getVertexCount());
+        return new GLRawModel(0, mesh.getIndices().remaining(), 0, indexType, mesh.getFormat().getLocations());
+    }
+
+    @Override
+    public IRawModel loadSubRawModel(IRawModel model, int indexOffset, int indexCount) {
+        GLRawModel rawModel = (GLRawModel) model;
+        return new GLRawModel(rawModel.getVaoId(), indexCount, rawModel.getIndexOffset() + indexOffset,
+                rawModel.getIndexType(), rawModel.getAttributes());
+    }
+
+    @Override
+    public ITexture loadTexture(TextureEnum textureEnum, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTexture(String filename, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTexture(TextureData textureData, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTexture(String filename, TextureData textureData, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void reloadTexture(ITexture texture, TextureData textureData, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TextureStreamer getTextureStreamer() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isCompressedFormatSupported(CompressedFormat format) {
+        return false;
+    }
+
+    @Override
+    public void releaseTexture(String filename, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResourceRegistry<ITexture> getTextureRegistry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TextureData getTextureData(TextureEnum textureEnum) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTCubeMap(TextureEnum[] textures, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ITexture loadTCubeMap(TextureData[] textures, boolean repeat) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel load2DPositionsToRawModel(float[] positions, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IRawModel load3DPositionsToRawModel(float[] positions, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void dispose() {
+    }
+}